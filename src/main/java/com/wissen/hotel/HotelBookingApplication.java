@@ -3,10 +3,12 @@ package com.wissen.hotel;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.wissen.hotel.model.Booking;
 
 @SpringBootApplication
+@EnableScheduling
 public class HotelBookingApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,179 @@
+package com.wissen.hotel.cache;
+
+import com.wissen.hotel.dto.response.HotelResponse;
+import com.wissen.hotel.dto.response.HotelSearchResponse;
+import com.wissen.hotel.event.HotelChangedEvent;
+import com.wissen.hotel.event.InventoryChangedEvent;
+import com.wissen.hotel.event.PricingRuleChangedEvent;
+import com.wissen.hotel.event.RoomChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded LRU cache of search pages with a time-to-live. Entries are dropped selectively when
+ * something that could change them happens: inventory or pricing rule changes for the same city and
+ * dates, and hotel or room changes for the same city or for a hotel on the page.
+ *
+ * <p>Searches without a city match every city, so they are dropped by any change.
+ */
+@Component
+public class HotelSearchCache {
+
+    private final Clock clock;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    private final LinkedHashMap<Key, Entry> entries;
+    private long generation;
+
+    public HotelSearchCache(Clock clock, MeterRegistry meterRegistry,
+                            @Value("${app.search.cache.max-entries:10000}") int maxEntries,
+                            @Value("${app.search.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > HotelSearchCache.this.maxEntries;
+            }
+        };
+        this.hits = meterRegistry.counter("search.cache.hits");
+        this.misses = meterRegistry.counter("search.cache.misses");
+        this.invalidations = meterRegistry.counter("search.cache.invalidations");
+        meterRegistry.gauge("search.cache.size", this, HotelSearchCache::size);
+    }
+
+    /** Normalised search parameters. {@code city} is trimmed and lower-cased, or {@code null} for all cities. */
+    public record Key(String city, LocalDate checkIn, LocalDate checkOut, int guests, int page, int size, boolean facets) {
+
+        public static Key of(String city, LocalDate checkIn, LocalDate checkOut, int guests, int page, int size,
+                             boolean facets) {
+            return new Key(normalise(city), checkIn, checkOut, guests, page, size, facets);
+        }
+    }
+
+    private record Entry(HotelSearchResponse response, Set<UUID> hotelIds, long expiresAt) {
+    }
+
+    /** Cached page for the key, or {@code null}. */
+    public synchronized HotelSearchResponse get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() <= clock.millis()) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.response();
+    }
+
+    /** Counter to read before computing a page and to pass to {@link #put}. */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Stores a page computed while the cache was at {@code generation}. The page is discarded if
+     * anything was invalidated in the meantime, since it may have been read before that change.
+     */
+    public synchronized void put(Key key, HotelSearchResponse response, long generation) {
+        if (maxEntries <= 0 || ttlMillis <= 0 || generation != this.generation) {
+            return;
+        }
+        Set<UUID> hotelIds = response.getHotels() == null ? Set.of() : response.getHotels().stream()
+                .map(HotelResponse::getHotelId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+        entries.put(key, new Entry(response, hotelIds, clock.millis() + ttlMillis));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    @EventListener
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        String city = normalise(event.getCity());
+        invalidate((key, entry) -> sameCity(key, city)
+                && key.checkIn().isBefore(event.getTo()) && event.getFrom().isBefore(key.checkOut()));
+    }
+
+    @EventListener
+    public void onPricingRuleChanged(PricingRuleChangedEvent event) {
+        String city = normalise(event.getCity());
+        invalidate((key, entry) -> sameCity(key, city));
+    }
+
+    @EventListener
+    public void onHotelChanged(HotelChangedEvent event) {
+        UUID hotelId = event.getHotelId();
+        if (event.isDeleted()) {
+            invalidate((key, entry) -> entry.hotelIds().contains(hotelId));
+            return;
+        }
+        String city = normalise(event.getHotel().getCity());
+        invalidate((key, entry) -> entry.hotelIds().contains(hotelId) || sameCity(key, city));
+    }
+
+    @EventListener
+    public void onRoomChanged(RoomChangedEvent event) {
+        UUID hotelId = event.getHotelId();
+        String city = normalise(event.getCity());
+        invalidate((key, entry) -> entry.hotelIds().contains(hotelId) || sameCity(key, city));
+    }
+
+    private synchronized void invalidate(BiPredicate<Key, Entry> match) {
+        generation++;
+        int removed = 0;
+        for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Key, Entry> next = it.next();
+            if (match.test(next.getKey(), next.getValue())) {
+                it.remove();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            invalidations.increment(removed);
+        }
+    }
+
+    // A change without a city (e.g. a hotel missing one) has to be treated as touching every city
+    private static boolean sameCity(Key key, String city) {
+        return key.city() == null || city == null || key.city().equals(city);
+    }
+
+    private static String normalise(String city) {
+        if (city == null || city.isBlank()) {
+            return null;
+        }
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,81 @@
+package com.wissen.hotel.config;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Fails startup when an index the queries rely on is missing from the database, e.g. dropped by
+ * hand or never created because a migration did not run. The names are those created by the
+ * migrations under {@code db/migration}; add new ones here with the migration that creates them.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+public class SchemaIndexVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaIndexVerifier.class);
+
+    static final List<String> REQUIRED_INDEXES = List.of(
+            "idx_users_created",
+            "idx_hotel_average_rating",
+            "idx_hotel_owner",
+            "idx_hotel_created",
+            "idx_hotel_city_approved",
+            "idx_room_hotel",
+            "idx_room_amenity_room",
+            "idx_room_amenity_amenity",
+            "uk_room_availability_room_date",
+            "uk_hotel_daily_occupancy_hotel_date",
+            "idx_inventory_hold_expires",
+            "idx_inventory_hold_room",
+            "idx_inventory_hold_user",
+            "idx_booking_created",
+            "idx_booking_room_stay",
+            "idx_booking_user_created",
+            "idx_payment_booking",
+            "idx_payment_user",
+            "idx_pricing_rule_hotel",
+            "idx_review_hotel_created",
+            "idx_review_user",
+            "idx_image_reference");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Before the in-memory indexes load from the tables being checked
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        List<String> present = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()", String.class);
+        Set<String> missing = missingIndexes(present);
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Database is missing indexes " + missing
+                    + "; run the migrations in db/migration before starting the application");
+        }
+        logger.info("All {} required database indexes are present", REQUIRED_INDEXES.size());
+    }
+
+    static Set<String> missingIndexes(Collection<String> present) {
+        Set<String> names = new HashSet<>();
+        for (String name : present) {
+            names.add(name.toLowerCase());
+        }
+        Set<String> missing = new TreeSet<>(REQUIRED_INDEXES);
+        missing.removeAll(names);
+        return missing;
+    }
+}
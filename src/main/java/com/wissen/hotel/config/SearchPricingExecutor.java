@@ -0,0 +1,48 @@
+package com.wissen.hotel.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool that prices search candidates in parallel. The pool size caps how many pricing calls
+ * (and therefore database connections) all searches use at once; when the queue is full the
+ * searching thread prices the room itself instead of queueing more work.
+ *
+ * <p>Not exposed as an {@code Executor} bean so it does not replace Spring's application executor.
+ */
+@Component
+public class SearchPricingExecutor {
+
+    private final ThreadPoolExecutor pool;
+
+    public SearchPricingExecutor(@Value("${app.search.pricing.max-concurrency:16}") int maxConcurrency,
+                                 @Value("${app.search.pricing.queue-capacity:1000}") int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "search-pricing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, pool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
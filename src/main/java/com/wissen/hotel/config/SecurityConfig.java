@@ -90,19 +90,26 @@ public class SecurityConfig {
                     // Public GET hotel and room endpoints
                     auth.requestMatchers(HttpMethod.GET,
                             "/api/hotels",
+                            "/api/hotels/scroll",
                             "/api/hotels/search",
+                            "/api/hotels/text-search",
                             "/api/hotels/top-rated",
                             "/api/hotels/{id}",
                             "/api/hotels/{id}/availability",
+                            "/api/hotels/{id}/rate-grid",
                             "/api/hotels/{id}/reviews",
                             "/api/hotels/{id}/rooms",
                             "/api/rooms/{id}",
                             "/api/rooms/{id}/availability",
+                            "/api/rooms/availability",
                             "/api/rooms/types").permitAll();
 
                     // User Endpoints
                     auth.requestMatchers(HttpMethod.GET, "/api/users/me/bookings").authenticated();
 
+                    // Checkout holds belong to the guest, not the hotel
+                    auth.requestMatchers(HttpMethod.DELETE, "/api/rooms/holds/*").authenticated();
+
                     // Room management
                     auth.requestMatchers(HttpMethod.POST, "/api/rooms/hotel/**").hasAnyRole("HOTEL_OWNER", "ADMIN");
                     auth.requestMatchers(HttpMethod.PUT, "/api/rooms/**").hasAnyRole("HOTEL_OWNER", "ADMIN");
@@ -118,7 +125,7 @@ public class SecurityConfig {
                     auth.requestMatchers(HttpMethod.PUT, "/api/hotels/**").hasAnyRole("HOTEL_OWNER", "ADMIN");
                     auth.requestMatchers(HttpMethod.DELETE, "/api/hotels/**").hasAnyRole("HOTEL_OWNER", "ADMIN");
                     auth.requestMatchers(HttpMethod.PUT, "/api/hotels/*/approve").hasRole("ADMIN");
-                    auth.requestMatchers(HttpMethod.GET, "/api/hotels/owner").hasRole("HOTEL_OWNER");
+                    auth.requestMatchers(HttpMethod.GET, "/api/hotels/owner", "/api/hotels/owner/portfolio").hasRole("HOTEL_OWNER");
 
                     // Room management (protected)
                     auth.requestMatchers(HttpMethod.POST, "/api/rooms/hotel/**").hasAnyRole("HOTEL_OWNER", "ADMIN");
@@ -127,6 +134,7 @@ public class SecurityConfig {
 
                     // Admin-only
                     auth.requestMatchers("/api/users/admin/**").hasRole("ADMIN");
+                    auth.requestMatchers("/api/rooms/availability-index/**").hasRole("ADMIN");
 
                     // ======== Pricing Rules Authorization ========
                     // Create/Update/Delete pricing rules
@@ -45,8 +45,11 @@ public class BookingController {
     }
 
     @GetMapping
-    public ResponseEntity<List<BookingResponse>> getAllBookings(@RequestParam(required = false) String filter) {
-        return ResponseEntity.ok(bookingService.getAllBookings(filter));
+    public ResponseEntity<CursorPage<BookingResponse>> getAllBookings(
+            @RequestParam(required = false) String filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(bookingService.getAllBookings(filter, cursor, size));
     }
 
     @GetMapping("/hotels/{hotelId}")
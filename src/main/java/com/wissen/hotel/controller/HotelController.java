@@ -2,17 +2,34 @@ package com.wissen.hotel.controller;
 
 import com.wissen.hotel.dto.request.CreateHotelRequest;
 import com.wissen.hotel.dto.request.UpdateHotelRequest;
+import com.wissen.hotel.dto.response.CursorPage;
 import com.wissen.hotel.dto.response.HotelResponse;
+import com.wissen.hotel.dto.response.HotelSearchResponse;
+import com.wissen.hotel.dto.response.HotelTextMatchResponse;
+import com.wissen.hotel.dto.response.MapClusterResponse;
+import com.wissen.hotel.dto.response.OwnerHotelSummaryResponse;
+import com.wissen.hotel.dto.response.PagedResponse;
+import com.wissen.hotel.dto.response.RateGridResponse;
 import com.wissen.hotel.dto.response.ReviewResponse;
+import com.wissen.hotel.service.HotelSearchStream;
 import com.wissen.hotel.service.HotelService;
+import com.wissen.hotel.service.PricingEngineService;
 import com.wissen.hotel.service.ReviewService;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -23,9 +40,11 @@ public class HotelController {
 
     private final HotelService hotelService;
     private final ReviewService reviewService;
+    private final PricingEngineService pricingEngineService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public ResponseEntity<List<HotelResponse>> getAllHotels(
+    public ResponseEntity<PagedResponse<HotelResponse>> getAllHotels(
             @RequestParam(required = false) String city,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
@@ -33,6 +52,15 @@ public class HotelController {
         return ResponseEntity.ok(hotelService.getAllHotels(city, page, size));
     }
 
+    // Newest first; pass the returned nextCursor to read the next page
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<HotelResponse>> scrollHotels(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(hotelService.scrollHotels(city, cursor, size));
+    }
+
 
     @GetMapping("/{id}")
     public ResponseEntity<HotelResponse> getHotelById(@PathVariable("id") UUID id) {
@@ -61,14 +89,51 @@ public class HotelController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<HotelResponse>> searchHotels(
+    public ResponseEntity<HotelSearchResponse> searchHotels(
             @RequestParam(required = false) String city,
             @RequestParam(required = false) LocalDate checkIn,
             @RequestParam(required = false) LocalDate checkOut,
             @RequestParam(required = false) Integer numberOfGuests,
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean facets) {
+        return ResponseEntity.ok(hotelService.searchHotels(city, checkIn, checkOut, numberOfGuests, page, size, facets));
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearchHotels(
+            @RequestParam(required = false) String city,
+            @RequestParam LocalDate checkIn,
+            @RequestParam LocalDate checkOut,
+            @RequestParam int numberOfGuests) {
+        HotelSearchStream stream = hotelService.streamSearchHotels(city, checkIn, checkOut, numberOfGuests);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> stream.forEach(hotel -> writeFrame(out, "", hotel, "\n")));
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearchHotelEvents(
+            @RequestParam(required = false) String city,
+            @RequestParam LocalDate checkIn,
+            @RequestParam LocalDate checkOut,
+            @RequestParam int numberOfGuests) {
+        HotelSearchStream stream = hotelService.streamSearchHotels(city, checkIn, checkOut, numberOfGuests);
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .body(out -> {
+                    boolean partial = stream.forEach(hotel -> writeFrame(out, "event: hotel\ndata: ", hotel, "\n\n"));
+                    writeFrame(out, "event: end\ndata: ", Map.of("partial", partial), "\n\n");
+                });
+    }
+
+    @GetMapping("/text-search")
+    public ResponseEntity<PagedResponse<HotelTextMatchResponse>> searchHotelsByText(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        return ResponseEntity.ok(hotelService.searchHotels(city, checkIn, checkOut, numberOfGuests, page, size));
+        return ResponseEntity.ok(hotelService.searchHotelsByText(query, page, size));
     }
 
     @GetMapping("/top-rated")
@@ -80,8 +145,21 @@ public class HotelController {
     public ResponseEntity<List<HotelResponse>> getNearbyHotels(
             @RequestParam double latitude,
             @RequestParam double longitude,
-            @RequestParam(defaultValue = "10.0") double radiusKm) {
-        return ResponseEntity.ok(hotelService.findNearbyHotels(latitude, longitude, radiusKm));
+            @RequestParam(defaultValue = "10.0") double radiusKm,
+            @RequestParam(required = false) LocalDate checkIn,
+            @RequestParam(required = false) LocalDate checkOut,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(hotelService.findNearbyHotels(latitude, longitude, radiusKm, checkIn, checkOut, limit));
+    }
+
+    @GetMapping("/map")
+    public ResponseEntity<List<MapClusterResponse>> getMapClusters(
+            @RequestParam double minLatitude,
+            @RequestParam double minLongitude,
+            @RequestParam double maxLatitude,
+            @RequestParam double maxLongitude,
+            @RequestParam int zoom) {
+        return ResponseEntity.ok(hotelService.getMapClusters(minLatitude, minLongitude, maxLatitude, maxLongitude, zoom));
     }
 
     @GetMapping("/{id}/rooms")
@@ -90,11 +168,23 @@ public class HotelController {
     }
 
     @GetMapping("/{id}/reviews")
-    public ResponseEntity<List<ReviewResponse>> getReviewsByHotel(@PathVariable("id") UUID hotelId) {
-        List<ReviewResponse> reviews = reviewService.getReviewsByHotel(hotelId);
+    public ResponseEntity<CursorPage<ReviewResponse>> getReviewsByHotel(
+            @PathVariable("id") UUID hotelId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        CursorPage<ReviewResponse> reviews = reviewService.getReviewsByHotel(hotelId, cursor, size);
         return ResponseEntity.ok(reviews);
     }
 
+    // Nightly price and free rooms of every room of the hotel, one column per night
+    @GetMapping("/{id}/rate-grid")
+    public ResponseEntity<RateGridResponse> getRateGrid(
+            @PathVariable("id") UUID hotelId,
+            @RequestParam LocalDate startDate,
+            @RequestParam(defaultValue = "14") int days) {
+        return ResponseEntity.ok(pricingEngineService.getRateGrid(hotelId, startDate, days));
+    }
+
     @GetMapping("/{id}/availability")
     public ResponseEntity<?> checkHotelAvailability(
             @PathVariable UUID id,
@@ -108,8 +198,26 @@ public class HotelController {
         return ResponseEntity.ok(hotelService.getHotelsOwnedByCurrentUser());
     }
 
+    @GetMapping("/owner/portfolio")
+    public ResponseEntity<List<OwnerHotelSummaryResponse>> getOwnerPortfolio() {
+        return ResponseEntity.ok(hotelService.getOwnerPortfolio());
+    }
+
     @GetMapping("/{id}/average-rating")
     public ResponseEntity<Double> getAverageRating(@PathVariable("id") UUID hotelId) {
         return ResponseEntity.ok(hotelService.getAverageRating(hotelId));
     }
+
+    // Writes and flushes one result; false once the client has disconnected, which ends the search
+    private boolean writeFrame(OutputStream out, String prefix, Object value, String suffix) {
+        try {
+            out.write(prefix.getBytes(StandardCharsets.UTF_8));
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write(suffix.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
 }
@@ -3,12 +3,18 @@ package com.wissen.hotel.controller;
 import com.wissen.hotel.service.RoomAvailabilityService;
 import com.wissen.hotel.dto.request.UpdateInventoryRequest;
 import com.wissen.hotel.dto.request.BlockRoomRequest;
+import com.wissen.hotel.dto.request.PlaceHoldRequest;
+import com.wissen.hotel.dto.response.AvailabilityIndexConsistencyResponse;
+import com.wissen.hotel.dto.response.InventoryHoldResponse;
+import com.wissen.hotel.dto.response.RoomAvailabilityCalendarResponse;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -34,6 +40,16 @@ public class RoomAvailabilityController {
         return ResponseEntity.ok(roomAvailabilityService.isRoomAvailableForRange(roomId, startDate, endDate));
     }
 
+    // Several rooms (roomIds, or every room of hotelId) over the nights [startDate, endDate) in one call
+    @GetMapping("/availability")
+    public ResponseEntity<RoomAvailabilityCalendarResponse> getAvailabilityCalendar(
+            @RequestParam(required = false) List<UUID> roomIds,
+            @RequestParam(required = false) UUID hotelId,
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate) {
+        return ResponseEntity.ok(roomAvailabilityService.getAvailabilityCalendar(roomIds, hotelId, startDate, endDate));
+    }
+
     @PutMapping("/{roomId}/inventory")
     public ResponseEntity<Void> updateRoomInventory(
             @PathVariable UUID roomId,
@@ -57,4 +73,23 @@ public class RoomAvailabilityController {
         roomAvailabilityService.unblockRoomDates(roomId, request);
         return ResponseEntity.ok().build();
     }
+
+    // Holds the rooms for a few minutes while the guest checks out; pass the hold ID when booking
+    @PostMapping("/{roomId}/holds")
+    public ResponseEntity<InventoryHoldResponse> placeHold(
+            @PathVariable UUID roomId,
+            @RequestBody PlaceHoldRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(roomAvailabilityService.placeHold(roomId, request));
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable UUID holdId) {
+        roomAvailabilityService.releaseHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/availability-index/consistency")
+    public ResponseEntity<AvailabilityIndexConsistencyResponse> checkAvailabilityIndexConsistency() {
+        return ResponseEntity.ok(roomAvailabilityService.checkIndexConsistency());
+    }
 }
@@ -1,5 +1,6 @@
 package com.wissen.hotel.controller;
 
+import com.wissen.hotel.dto.response.CursorPage;
 import com.wissen.hotel.dto.response.UserResponse;
 import com.wissen.hotel.dto.request.UpdateUserRequest;
 import com.wissen.hotel.dto.request.UpdateUserRoleRequest;
@@ -50,12 +51,12 @@ public class UserController {
         return ResponseEntity.ok(userService.getUserById(id.toString()));
     }
 
-    @Operation(summary = "Get all users", description = "Returns a paginated list of all users (Admin only)")
+    @Operation(summary = "Get all users", description = "Returns one page of users, newest first; pass nextCursor to read the next page (Admin only)")
     @GetMapping("/admin/usersall")
-    public ResponseEntity<List<UserResponse>> getAllUsers(
-        @RequestParam(name = "page" , defaultValue = "0") int page,
+    public ResponseEntity<CursorPage<UserResponse>> getAllUsers(
+        @RequestParam(name = "cursor", required = false) String cursor,
         @RequestParam(name = "size" , defaultValue = "10") int size) {
-        return ResponseEntity.ok(userService.getAllUsers(page, size));
+        return ResponseEntity.ok(userService.getAllUsers(cursor, size));
     }
 
     @Operation(summary = "Update user role", description = "Updates the role of a user by their ID (Admin only)")
@@ -12,4 +12,5 @@ public class CreateBookingRequest {
     private LocalDate checkOut;
     private int guests;
     private int roomsBooked; // number of rooms booked for one night
+    private UUID holdId; // optional, from POST /api/rooms/{roomId}/holds
 }
@@ -0,0 +1,12 @@
+package com.wissen.hotel.dto.request;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class PlaceHoldRequest {
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private int rooms;
+}
@@ -0,0 +1,33 @@
+package com.wissen.hotel.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityIndexConsistencyResponse {
+
+    private boolean consistent;
+    private LocalDate horizonStart;
+    private LocalDate horizonEnd;
+    private int roomsChecked;
+    private int roomsMissingFromIndex;
+    private long mismatchCount;
+    private List<Mismatch> mismatches; // capped sample
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Mismatch {
+        private UUID roomId;
+        private LocalDate date;
+        private int indexValue;
+        private int tableValue;
+    }
+}
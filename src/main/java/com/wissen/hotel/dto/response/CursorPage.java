@@ -0,0 +1,38 @@
+package com.wissen.hotel.dto.response;
+
+import com.wissen.hotel.util.PageCursor;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // null on the last page
+
+    /**
+     * Page of up to {@code size} rows out of the {@code size + 1} read after a cursor; the extra row
+     * only tells that there is a next page.
+     */
+    public static <S, T> CursorPage<T> of(List<S> rows, int size, Function<S, T> mapper,
+                                          Function<S, PageCursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<S> page = hasNext ? rows.subList(0, size) : rows;
+        return CursorPage.<T>builder()
+                .content(page.stream().map(mapper).toList())
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(page.get(page.size() - 1)).encode() : null)
+                .build();
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -24,4 +25,6 @@ public class HotelResponse {
     private UUID ownerId; // only exposing owner ID
     private int roomsRequired; // Number of rooms required for the search request
     private BigDecimal finalPrice; // Final price for the stay (all rooms, all days)
+    private List<RoomSelectionResponse> roomSelection; // Only set by search: the rooms making up finalPrice
+    private Double distanceKm; // Only set by nearby search
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.wissen.hotel.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class HotelSearchResponse {
+    private List<HotelResponse> hotels;
+    private boolean partial; // true when some rooms could not be priced before the search deadline
+    private SearchFacetsResponse facets; // null when not requested
+}
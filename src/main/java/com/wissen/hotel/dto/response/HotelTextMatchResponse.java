@@ -0,0 +1,17 @@
+package com.wissen.hotel.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@Builder
+public class HotelTextMatchResponse {
+    private UUID hotelId;
+    private String name;
+    private String city;
+    private String state;
+    private String country;
+    private double score; // relevance, only comparable within one query
+}
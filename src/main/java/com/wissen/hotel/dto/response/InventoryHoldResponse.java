@@ -0,0 +1,20 @@
+package com.wissen.hotel.dto.response;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryHoldResponse {
+    private UUID holdId;
+    private UUID roomId;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private int rooms;
+    private Instant expiresAt;
+}
@@ -0,0 +1,17 @@
+package com.wissen.hotel.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+public class MapClusterResponse {
+    private int count;
+    private double latitude; // centroid of the hotels in the cluster
+    private double longitude;
+    private BigDecimal minPrice; // cheapest room base price in the cluster
+    private UUID hotelId; // only set for single-hotel clusters
+}
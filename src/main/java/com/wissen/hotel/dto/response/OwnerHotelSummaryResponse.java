@@ -0,0 +1,20 @@
+package com.wissen.hotel.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@Builder
+public class OwnerHotelSummaryResponse {
+    private UUID hotelId;
+    private String name;
+    private String city;
+    private boolean isApproved;
+    private double averageRating;
+    private long roomTypes;
+    private long totalRooms; // rooms across all room types
+    private long availableRoomsToday;
+    private long pendingBookings;
+}
@@ -0,0 +1,39 @@
+package com.wissen.hotel.dto.response;
+
+import com.wissen.hotel.enums.RoomType;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Nightly price and free inventory of every room of a hotel, stored by column: entry {@code i} of
+ * each per-night list belongs to {@code dates[i]}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateGridResponse {
+
+    private UUID hotelId;
+    private List<LocalDate> dates;
+    private List<Double> occupancy; // share of the hotel's rooms already taken each night
+    private List<List<UUID>> appliedRuleIds; // rules that changed the price each night
+    private List<RoomRates> rooms;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RoomRates {
+        private UUID roomId;
+        private RoomType roomType;
+        private BigDecimal basePrice;
+        private int totalRooms;
+        private List<BigDecimal> prices;
+        private List<Integer> availableRooms;
+    }
+}
@@ -0,0 +1,29 @@
+package com.wissen.hotel.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomAvailabilityCalendarResponse {
+
+    private LocalDate startDate;
+    private LocalDate endDate; // exclusive, like a check-out date
+    private List<RoomNights> rooms;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RoomNights {
+        private UUID roomId;
+        private UUID hotelId;
+        private int totalRooms;
+        private List<Integer> availableRooms; // one entry per night, starting at startDate
+    }
+}
@@ -0,0 +1,15 @@
+package com.wissen.hotel.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+public class RoomSelectionResponse {
+    private UUID roomId;
+    private int quantity;
+    private BigDecimal pricePerRoom; // for the whole stay
+}
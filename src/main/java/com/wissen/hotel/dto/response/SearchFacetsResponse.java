@@ -0,0 +1,46 @@
+package com.wissen.hotel.dto.response;
+
+import com.wissen.hotel.enums.RoomType;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hotel counts over every hotel matching a search, not only the returned page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetsResponse {
+
+    private long totalHotels;
+    private Map<String, Long> cities; // most hotels first
+    private Map<RoomType, Long> roomTypes; // hotels with at least one room of the type that fits the party
+    private List<PriceBucket> priceBuckets;
+    private List<AmenityCount> amenities; // most hotels first
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBucket {
+        private BigDecimal min; // inclusive
+        private BigDecimal max; // exclusive, null for the last bucket
+        private long count; // hotels whose cheapest base price per night for the party falls in the bucket
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AmenityCount {
+        private UUID amenityId;
+        private String name;
+        private long count;
+    }
+}
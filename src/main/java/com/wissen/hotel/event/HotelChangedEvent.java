@@ -0,0 +1,29 @@
+package com.wissen.hotel.event;
+
+import com.wissen.hotel.model.Hotel;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Published by {@code HotelServiceImpl} after a hotel is created, updated, approved or deleted, so
+ * that in-memory hotel indexes can follow. {@link #getHotel()} is {@code null} for deletions.
+ */
+@Value
+public class HotelChangedEvent {
+    UUID hotelId;
+    Hotel hotel;
+
+    public static HotelChangedEvent saved(Hotel hotel) {
+        return new HotelChangedEvent(hotel.getHotelId(), hotel);
+    }
+
+    public static HotelChangedEvent deleted(UUID hotelId) {
+        return new HotelChangedEvent(hotelId, null);
+    }
+
+    public boolean isDeleted() {
+        return hotel == null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.wissen.hotel.event;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Published by {@code RoomAvailabilityServiceImpl} after the availability of a room changed for the
+ * nights {@code [from, to)}.
+ */
+@Value
+public class InventoryChangedEvent {
+    UUID roomId;
+    UUID hotelId;
+    String city;
+    LocalDate from;
+    LocalDate to;
+}
@@ -0,0 +1,14 @@
+package com.wissen.hotel.event;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Published by {@code PricingRuleServiceImpl} after a rule of a hotel is created, updated or deleted.
+ */
+@Value
+public class PricingRuleChangedEvent {
+    UUID hotelId;
+    String city;
+}
@@ -0,0 +1,15 @@
+package com.wissen.hotel.event;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Published by {@code RoomServiceImpl} after a room is created, updated or deleted.
+ */
+@Value
+public class RoomChangedEvent {
+    UUID roomId;
+    UUID hotelId;
+    String city;
+}
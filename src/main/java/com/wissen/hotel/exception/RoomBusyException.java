@@ -0,0 +1,8 @@
+package com.wissen.hotel.exception;
+
+/** Another booking for the same room held its lock for too long; the request can simply be retried. */
+public class RoomBusyException extends RuntimeException {
+    public RoomBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.wissen.hotel.exception;
+
+/** The rooms were taken by another booking between the availability check and the reservation. */
+public class RoomSoldOutException extends RuntimeException {
+    public RoomSoldOutException(String message) {
+        super(message);
+    }
+}
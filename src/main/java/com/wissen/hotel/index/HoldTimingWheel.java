@@ -0,0 +1,82 @@
+package com.wissen.hotel.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Expiry times of inventory holds in a hashed timing wheel. Time is cut into ticks and a hold lands
+ * in slot {@code tick % slots}, with the number of full turns of the wheel still to wait. Adding and
+ * cancelling a hold are O(1); each tick only visits the holds of one slot.
+ *
+ * <p>The wheel only tracks deadlines: holds themselves live in {@code inventory_hold} and are put
+ * back into the wheel on start-up.
+ */
+@Component
+public class HoldTimingWheel {
+
+    private final long tickMillis;
+    private final List<Map<UUID, Long>> slots; // hold id -> turns left
+    private final Map<UUID, Integer> slotOf = new HashMap<>();
+    private long nextTick;
+
+    public HoldTimingWheel(Clock clock,
+                           @Value("${app.holds.tick-ms:1000}") long tickMillis,
+                           @Value("${app.holds.wheel-slots:512}") int slots) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.slots = new ArrayList<>(Math.max(1, slots));
+        for (int i = 0; i < Math.max(1, slots); i++) {
+            this.slots.add(new HashMap<>());
+        }
+        this.nextTick = Math.floorDiv(clock.millis(), this.tickMillis);
+    }
+
+    /** Schedules (or reschedules) a hold; deadlines already past fire on the next {@link #advance}. */
+    public synchronized void add(UUID holdId, Instant expiresAt) {
+        cancel(holdId);
+        long tick = Math.max(nextTick, Math.floorDiv(expiresAt.toEpochMilli() + tickMillis - 1, tickMillis));
+        int slot = (int) Math.floorMod(tick, (long) slots.size());
+        slots.get(slot).put(holdId, (tick - nextTick) / slots.size());
+        slotOf.put(holdId, slot);
+    }
+
+    public synchronized void cancel(UUID holdId) {
+        Integer slot = slotOf.remove(holdId);
+        if (slot != null) {
+            slots.get(slot).remove(holdId);
+        }
+    }
+
+    /** Moves the wheel up to {@code nowMillis} and returns the holds that expired on the way. */
+    public synchronized List<UUID> advance(long nowMillis) {
+        List<UUID> expired = new ArrayList<>();
+        long now = Math.floorDiv(nowMillis, tickMillis);
+        for (; nextTick <= now; nextTick++) {
+            Iterator<Map.Entry<UUID, Long>> entries =
+                    slots.get((int) Math.floorMod(nextTick, (long) slots.size())).entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<UUID, Long> entry = entries.next();
+                if (entry.getValue() == 0) {
+                    expired.add(entry.getKey());
+                    slotOf.remove(entry.getKey());
+                    entries.remove();
+                } else {
+                    entry.setValue(entry.getValue() - 1);
+                }
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return slotOf.size();
+    }
+}
@@ -0,0 +1,184 @@
+package com.wissen.hotel.index;
+
+import com.wissen.hotel.event.HotelChangedEvent;
+import com.wissen.hotel.model.Hotel;
+import com.wissen.hotel.repository.HotelRepository;
+import com.wissen.hotel.repository.projection.HotelLocationView;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-size latitude/longitude grid over the coordinates of approved hotels. A radius query only
+ * visits the cells overlapping the radius' bounding box, checks the box, and computes the exact
+ * haversine distance for what is left.
+ */
+@Component
+@RequiredArgsConstructor
+public class HotelGeoIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotelGeoIndex.class);
+    private static final double EARTH_RADIUS_KM = 6371;
+    private static final double CELL_DEGREES = 0.5;
+    private static final int LAT_CELLS = (int) (180 / CELL_DEGREES);
+    private static final int LON_CELLS = (int) (360 / CELL_DEGREES);
+
+    private final HotelRepository hotelRepository;
+
+    private final Map<Integer, Map<UUID, Location>> cells = new ConcurrentHashMap<>();
+    private final Map<UUID, Location> locations = new ConcurrentHashMap<>();
+
+    private record Location(UUID hotelId, double latitude, double longitude, int cell) {
+    }
+
+    /** A hotel within the query radius. */
+    public record Hit(UUID hotelId, double distanceKm) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<HotelLocationView> hotels = hotelRepository.findApprovedLocations();
+        for (HotelLocationView hotel : hotels) {
+            put(hotel.getHotelId(), hotel.getLatitude(), hotel.getLongitude());
+        }
+        logger.info("Geo index loaded with {} hotels", locations.size());
+    }
+
+    @EventListener
+    public void onHotelChanged(HotelChangedEvent event) {
+        Hotel hotel = event.getHotel();
+        if (event.isDeleted() || !hotel.isApproved()) {
+            remove(event.getHotelId());
+        } else {
+            put(hotel.getHotelId(), hotel.getLatitude(), hotel.getLongitude());
+        }
+    }
+
+    /** Adds or moves a hotel; hotels without coordinates are dropped. */
+    public synchronized void put(UUID hotelId, BigDecimal latitude, BigDecimal longitude) {
+        remove(hotelId);
+        if (latitude == null || longitude == null) {
+            return;
+        }
+        double lat = latitude.doubleValue();
+        double lon = longitude.doubleValue();
+        Location location = new Location(hotelId, lat, lon, cellOf(lat, lon));
+        cells.computeIfAbsent(location.cell(), key -> new ConcurrentHashMap<>()).put(hotelId, location);
+        locations.put(hotelId, location);
+    }
+
+    public synchronized void remove(UUID hotelId) {
+        Location previous = locations.remove(hotelId);
+        if (previous != null) {
+            Map<UUID, Location> cell = cells.get(previous.cell());
+            if (cell != null) {
+                cell.remove(hotelId);
+            }
+        }
+    }
+
+    public int size() {
+        return locations.size();
+    }
+
+    /**
+     * The {@code limit} closest hotels within {@code radiusKm}, closest first.
+     */
+    public List<Hit> nearest(double latitude, double longitude, double radiusKm, int limit) {
+        if (limit <= 0 || radiusKm < 0) {
+            return List.of();
+        }
+        // Exact bounding box of the spherical cap around the point
+        double angularRadius = radiusKm / EARTH_RADIUS_KM;
+        double latDelta = Math.toDegrees(angularRadius);
+        double minLat = latitude - latDelta;
+        double maxLat = latitude + latDelta;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        boolean allLongitudes = minLat <= -90 || maxLat >= 90 || Math.sin(angularRadius) >= cosLat;
+        double lonDelta = allLongitudes ? 180 : Math.toDegrees(Math.asin(Math.sin(angularRadius) / cosLat));
+
+        // Max-heap on distance holding the best `limit` hits seen so far
+        PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::distanceKm).reversed());
+        int fromLatCell = latCell(Math.max(minLat, -90));
+        int toLatCell = latCell(Math.min(maxLat, 90));
+        int fromLonCell = allLongitudes ? 0 : lonCell(longitude - lonDelta);
+        int lonCellSpan = allLongitudes ? LON_CELLS : Math.min(LON_CELLS, cellSpan(longitude - lonDelta, longitude + lonDelta));
+
+        for (int latIdx = fromLatCell; latIdx <= toLatCell; latIdx++) {
+            for (int step = 0; step < lonCellSpan; step++) {
+                Map<UUID, Location> cell = cells.get(latIdx * LON_CELLS + (fromLonCell + step) % LON_CELLS);
+                if (cell == null) {
+                    continue;
+                }
+                for (Location location : cell.values()) {
+                    if (location.latitude() < minLat || location.latitude() > maxLat
+                            || (!allLongitudes && Math.abs(wrap(location.longitude() - longitude)) > lonDelta)) {
+                        continue;
+                    }
+                    double distance = distanceKm(latitude, longitude, location.latitude(), location.longitude());
+                    if (distance > radiusKm) {
+                        continue;
+                    }
+                    if (best.size() < limit) {
+                        best.add(new Hit(location.hotelId(), distance));
+                    } else if (distance < best.peek().distanceKm()) {
+                        best.poll();
+                        best.add(new Hit(location.hotelId(), distance));
+                    }
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lon2 - lon1);
+        double sindLat = Math.sin(dLat / 2);
+        double sindLng = Math.sin(dLng / 2);
+        double a = Math.pow(sindLat, 2) + Math.pow(sindLng, 2)
+                * Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2));
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return EARTH_RADIUS_KM * c;
+    }
+
+    private static int cellOf(double latitude, double longitude) {
+        return latCell(latitude) * LON_CELLS + lonCell(longitude);
+    }
+
+    private static int latCell(double latitude) {
+        return Math.min(LAT_CELLS - 1, Math.max(0, (int) Math.floor((latitude + 90) / CELL_DEGREES)));
+    }
+
+    private static int lonCell(double longitude) {
+        return Math.floorMod((int) Math.floor((wrap(longitude) + 180) / CELL_DEGREES), LON_CELLS);
+    }
+
+    private static int cellSpan(double fromLongitude, double toLongitude) {
+        return (int) Math.floor((toLongitude + 180) / CELL_DEGREES) - (int) Math.floor((fromLongitude + 180) / CELL_DEGREES) + 1;
+    }
+
+    /** Normalises a longitude (or longitude difference) to [-180, 180). */
+    private static double wrap(double longitude) {
+        double wrapped = (longitude + 180) % 360;
+        if (wrapped < 0) {
+            wrapped += 360;
+        }
+        return wrapped - 180;
+    }
+}
@@ -0,0 +1,218 @@
+package com.wissen.hotel.index;
+
+import com.wissen.hotel.event.HotelChangedEvent;
+import com.wissen.hotel.event.RoomChangedEvent;
+import com.wissen.hotel.model.Hotel;
+import com.wissen.hotel.repository.HotelRepository;
+import com.wissen.hotel.repository.RoomRepository;
+import com.wissen.hotel.repository.projection.HotelLocationView;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Map clusters for every zoom level, kept up to date as hotels change. At zoom {@code z} the world
+ * is cut into {@code 2^z * CELLS_PER_TILE} longitude columns and half as many latitude rows, i.e.
+ * a few cells per 256px map tile. Each cell holds the hotel count, the coordinate sums for its
+ * centroid and the cheapest room price, so a viewport query only reads the cells it covers.
+ */
+@Component
+@RequiredArgsConstructor
+public class HotelMapGrid {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotelMapGrid.class);
+    public static final int MAX_ZOOM = 18;
+    private static final int CELLS_PER_TILE = 4;
+
+    private final HotelRepository hotelRepository;
+    private final RoomRepository roomRepository;
+
+    private final List<Map<Long, Cell>> levels = newLevels();
+    private final Map<UUID, Member> members = new HashMap<>();
+
+    private record Member(UUID hotelId, double latitude, double longitude, BigDecimal minPrice) {
+    }
+
+    private static final class Cell {
+        private final Map<UUID, Member> hotels = new HashMap<>();
+        private double latitudeSum;
+        private double longitudeSum;
+        private BigDecimal minPrice;
+
+        private void add(Member member) {
+            hotels.put(member.hotelId(), member);
+            latitudeSum += member.latitude();
+            longitudeSum += member.longitude();
+            if (member.minPrice() != null && (minPrice == null || member.minPrice().compareTo(minPrice) < 0)) {
+                minPrice = member.minPrice();
+            }
+        }
+
+        private void remove(Member member) {
+            hotels.remove(member.hotelId());
+            latitudeSum -= member.latitude();
+            longitudeSum -= member.longitude();
+            if (member.minPrice() != null && member.minPrice().compareTo(minPrice) == 0) {
+                minPrice = hotels.values().stream()
+                        .map(Member::minPrice)
+                        .filter(price -> price != null)
+                        .min(BigDecimal::compareTo)
+                        .orElse(null);
+            }
+        }
+    }
+
+    /** One non-empty cell of a viewport. {@code hotelId} is only set when the cell holds a single hotel. */
+    public record Cluster(int count, double latitude, double longitude, BigDecimal minPrice, UUID hotelId) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<HotelLocationView> hotels = hotelRepository.findApprovedLocations();
+        for (HotelLocationView hotel : hotels) {
+            put(hotel.getHotelId(), hotel.getLatitude(), hotel.getLongitude(), hotel.getMinPrice());
+        }
+        logger.info("Map grid loaded with {} hotels over {} zoom levels", hotels.size(), MAX_ZOOM + 1);
+    }
+
+    @EventListener
+    public void onHotelChanged(HotelChangedEvent event) {
+        Hotel hotel = event.getHotel();
+        if (event.isDeleted() || !hotel.isApproved()) {
+            remove(event.getHotelId());
+        } else {
+            put(hotel.getHotelId(), hotel.getLatitude(), hotel.getLongitude(),
+                    roomRepository.findMinBasePriceByHotelId(hotel.getHotelId()));
+        }
+    }
+
+    @EventListener
+    public void onRoomChanged(RoomChangedEvent event) {
+        Member member;
+        synchronized (this) {
+            member = members.get(event.getHotelId());
+        }
+        if (member != null) {
+            BigDecimal minPrice = roomRepository.findMinBasePriceByHotelId(event.getHotelId());
+            put(member.hotelId(), BigDecimal.valueOf(member.latitude()), BigDecimal.valueOf(member.longitude()), minPrice);
+        }
+    }
+
+    /** Adds, moves or re-prices a hotel in every zoom level; hotels without coordinates are dropped. */
+    public synchronized void put(UUID hotelId, BigDecimal latitude, BigDecimal longitude, BigDecimal minPrice) {
+        remove(hotelId);
+        if (latitude == null || longitude == null) {
+            return;
+        }
+        Member member = new Member(hotelId, latitude.doubleValue(), longitude.doubleValue(), minPrice);
+        members.put(hotelId, member);
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            levels.get(zoom).computeIfAbsent(cellKey(zoom, member.latitude(), member.longitude()), key -> new Cell()).add(member);
+        }
+    }
+
+    public synchronized void remove(UUID hotelId) {
+        Member member = members.remove(hotelId);
+        if (member == null) {
+            return;
+        }
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            Map<Long, Cell> level = levels.get(zoom);
+            long key = cellKey(zoom, member.latitude(), member.longitude());
+            Cell cell = level.get(key);
+            if (cell != null) {
+                cell.remove(member);
+                if (cell.hotels.isEmpty()) {
+                    level.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Non-empty cells of the given zoom level inside the viewport. {@code minLongitude} may be greater
+     * than {@code maxLongitude} when the viewport crosses the antimeridian.
+     */
+    public synchronized List<Cluster> clusters(double minLatitude, double minLongitude,
+                                               double maxLatitude, double maxLongitude, int zoom) {
+        int level = Math.max(0, Math.min(MAX_ZOOM, zoom));
+        Map<Long, Cell> cells = levels.get(level);
+        long columns = columns(level);
+        long fromRow = row(level, minLatitude);
+        long toRow = row(level, maxLatitude);
+        long fromColumn = column(level, minLongitude);
+        long toColumn = maxLongitude >= 180 && minLongitude <= maxLongitude ? columns - 1 : column(level, maxLongitude);
+        long columnSpan = fromColumn <= toColumn ? toColumn - fromColumn + 1 : columns - fromColumn + toColumn + 1;
+        if (minLongitude <= maxLongitude && maxLongitude - minLongitude >= 360) {
+            fromColumn = 0;
+            columnSpan = columns;
+        }
+
+        List<Cluster> clusters = new ArrayList<>();
+        if ((toRow - fromRow + 1) * columnSpan > cells.size()) {
+            // Viewport covers more cells than are populated: filter the populated ones instead
+            for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                long row = entry.getKey() / columns;
+                long column = entry.getKey() % columns;
+                if (row >= fromRow && row <= toRow && Math.floorMod(column - fromColumn, columns) < columnSpan) {
+                    clusters.add(toCluster(entry.getValue()));
+                }
+            }
+        } else {
+            for (long row = fromRow; row <= toRow; row++) {
+                for (long step = 0; step < columnSpan; step++) {
+                    Cell cell = cells.get(row * columns + (fromColumn + step) % columns);
+                    if (cell != null) {
+                        clusters.add(toCluster(cell));
+                    }
+                }
+            }
+        }
+        return clusters;
+    }
+
+    private static Cluster toCluster(Cell cell) {
+        int count = cell.hotels.size();
+        UUID single = count == 1 ? cell.hotels.keySet().iterator().next() : null;
+        return new Cluster(count, cell.latitudeSum / count, cell.longitudeSum / count, cell.minPrice, single);
+    }
+
+    private static long cellKey(int zoom, double latitude, double longitude) {
+        return row(zoom, latitude) * columns(zoom) + column(zoom, longitude);
+    }
+
+    private static long columns(int zoom) {
+        return (1L << zoom) * CELLS_PER_TILE;
+    }
+
+    private static long row(int zoom, double latitude) {
+        long rows = columns(zoom) / 2;
+        double clamped = Math.max(-90, Math.min(90, latitude));
+        return Math.min(rows - 1, (long) Math.floor((clamped + 90) / 180 * rows));
+    }
+
+    private static long column(int zoom, double longitude) {
+        long columns = columns(zoom);
+        double wrapped = ((longitude + 180) % 360 + 360) % 360;
+        return Math.min(columns - 1, (long) Math.floor(wrapped / 360 * columns));
+    }
+
+    private static List<Map<Long, Cell>> newLevels() {
+        List<Map<Long, Cell>> levels = new ArrayList<>(MAX_ZOOM + 1);
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            levels.add(new HashMap<>());
+        }
+        return levels;
+    }
+}
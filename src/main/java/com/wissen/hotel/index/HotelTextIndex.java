@@ -0,0 +1,332 @@
+package com.wissen.hotel.index;
+
+import com.wissen.hotel.event.HotelChangedEvent;
+import com.wissen.hotel.model.Hotel;
+import com.wissen.hotel.repository.HotelRepository;
+import com.wissen.hotel.repository.projection.HotelTextView;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the name, city, address and description of approved hotels, ranked with BM25.
+ * Field matches are weighted (a word in the name counts more than one in the description) before
+ * the usual BM25 saturation and length normalisation are applied.
+ *
+ * <p>Every query word must match. The last word also matches as a prefix, so results can follow
+ * the user while typing.
+ */
+@Component
+@RequiredArgsConstructor
+public class HotelTextIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotelTextIndex.class);
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_TOKEN_LENGTH = 40;
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final float NAME_WEIGHT = 3;
+    private static final float CITY_WEIGHT = 2;
+    private static final float ADDRESS_WEIGHT = 1;
+    private static final float DESCRIPTION_WEIGHT = 1;
+
+    private final HotelRepository hotelRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Sorted so that the terms sharing a prefix are one sub map
+    private final NavigableMap<String, Posting> postings = new TreeMap<>();
+    // Hotels get a dense internal id so that postings and scores can be plain arrays
+    private final Map<UUID, Integer> documentIds = new HashMap<>();
+    private final ArrayDeque<Integer> freeIds = new ArrayDeque<>();
+    private Document[] documents = new Document[1024];
+    private int nextId;
+    private double totalLength;
+
+    private record Document(UUID hotelId, String name, String city, String state, String country,
+                            float length, Set<String> terms) {
+    }
+
+    /** Hotels containing one term, with the weighted frequency of the term in each. */
+    private static final class Posting {
+        private int[] ids = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+
+        private void add(int id, float frequency) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ids[size] = id;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        private void remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    frequencies[i] = frequencies[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /** A matching hotel with the fields needed to list it. */
+    public record Match(UUID hotelId, String name, String city, String state, String country, double score) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<HotelTextView> hotels = hotelRepository.findApprovedTextViews();
+        for (HotelTextView hotel : hotels) {
+            put(hotel.getHotelId(), hotel.getName(), hotel.getDescription(), hotel.getAddress(),
+                    hotel.getCity(), hotel.getState(), hotel.getCountry());
+        }
+        logger.info("Text index loaded with {} hotels and {} terms", size(), termCount());
+    }
+
+    @EventListener
+    public void onHotelChanged(HotelChangedEvent event) {
+        Hotel hotel = event.getHotel();
+        if (event.isDeleted() || !hotel.isApproved()) {
+            remove(event.getHotelId());
+        } else {
+            put(hotel.getHotelId(), hotel.getName(), hotel.getDescription(), hotel.getAddress(),
+                    hotel.getCity(), hotel.getState(), hotel.getCountry());
+        }
+    }
+
+    /** Adds or re-indexes a hotel. */
+    public void put(UUID hotelId, String name, String description, String address,
+                    String city, String state, String country) {
+        Map<String, Float> frequencies = new HashMap<>();
+        addField(frequencies, name, NAME_WEIGHT);
+        addField(frequencies, city, CITY_WEIGHT);
+        addField(frequencies, address, ADDRESS_WEIGHT);
+        addField(frequencies, description, DESCRIPTION_WEIGHT);
+        float length = 0;
+        for (float frequency : frequencies.values()) {
+            length += frequency;
+        }
+        Document document = new Document(hotelId, name, city, state, country, length, frequencies.keySet());
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(hotelId);
+            int id = freeIds.isEmpty() ? nextId++ : freeIds.pop();
+            if (id == documents.length) {
+                documents = Arrays.copyOf(documents, id * 2);
+            }
+            frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, key -> new Posting()).add(id, frequency));
+            documents[id] = document;
+            documentIds.put(hotelId, id);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID hotelId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(hotelId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * One page of the hotels matching every word of {@code query}, best match first. Ties are broken
+     * by name so that pages are stable.
+     */
+    public Page<Match> search(String query, int page, int size) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        PageRequest pageable = PageRequest.of(page, size);
+        if (words.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        lock.readLock().lock();
+        try {
+            int documentCount = documentIds.size();
+            if (documentCount == 0) {
+                return Page.empty(pageable);
+            }
+            double averageLength = totalLength / documentCount;
+
+            // Terms of every word, the last one expanded to the terms it prefixes; rarest word first
+            List<List<Posting>> perWord = new ArrayList<>(words.size());
+            for (int i = 0; i < words.size(); i++) {
+                List<Posting> terms = i == words.size() - 1 ? prefixPostings(words.get(i)) : exactPosting(words.get(i));
+                if (terms.isEmpty()) {
+                    return Page.empty(pageable);
+                }
+                perWord.add(terms);
+            }
+            perWord.sort(Comparator.comparingInt(HotelTextIndex::documentFrequency));
+
+            // matched[id] counts the words a hotel has matched so far; later words only score hotels
+            // that matched all the earlier ones
+            double[] scores = new double[nextId];
+            int[] matched = new int[nextId];
+            for (int word = 0; word < perWord.size(); word++) {
+                for (Posting posting : perWord.get(word)) {
+                    double idf = Math.log(1 + (documentCount - posting.size + 0.5) / (posting.size + 0.5));
+                    for (int i = 0; i < posting.size; i++) {
+                        int id = posting.ids[i];
+                        if (matched[id] == word || matched[id] == word + 1) {
+                            double frequency = posting.frequencies[i];
+                            double length = documents[id].length();
+                            scores[id] += idf * frequency * (K1 + 1)
+                                    / (frequency + K1 * (1 - B + B * length / averageLength));
+                            matched[id] = word + 1;
+                        }
+                    }
+                }
+            }
+
+            // Keep the best (page + 1) * size matches in a heap whose head is the worst of them
+            Comparator<Match> ranking = Comparator.comparingDouble(Match::score).reversed()
+                    .thenComparing(match -> match.name() == null ? "" : match.name())
+                    .thenComparing(Match::hotelId);
+            long keep = (long) (page + 1) * size;
+            PriorityQueue<Match> best = new PriorityQueue<>(ranking.reversed());
+            long total = 0;
+            for (int id = 0; id < matched.length; id++) {
+                if (matched[id] != perWord.size()) {
+                    continue;
+                }
+                total++;
+                Document document = documents[id];
+                if (best.size() < keep || scores[id] >= best.peek().score()) {
+                    best.add(new Match(document.hotelId(), document.name(), document.city(),
+                            document.state(), document.country(), scores[id]));
+                    if (best.size() > keep) {
+                        best.poll();
+                    }
+                }
+            }
+
+            List<Match> ranked = new ArrayList<>(best);
+            ranked.sort(ranking);
+            int from = (int) Math.min(ranked.size(), (long) page * size);
+            return new PageImpl<>(ranked.subList(from, ranked.size()), pageable, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Posting> exactPosting(String term) {
+        Posting posting = postings.get(term);
+        return posting == null ? List.of() : List.of(posting);
+    }
+
+    private List<Posting> prefixPostings(String prefix) {
+        List<Posting> expansions = new ArrayList<>(postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values());
+        if (expansions.size() > MAX_PREFIX_TERMS) {
+            // Very short prefixes: only the most common completions
+            expansions.sort(Comparator.comparingInt((Posting posting) -> posting.size).reversed());
+            return expansions.subList(0, MAX_PREFIX_TERMS);
+        }
+        return expansions;
+    }
+
+    // Upper bound of the hotels matching one word
+    private static int documentFrequency(List<Posting> terms) {
+        int frequency = 0;
+        for (Posting posting : terms) {
+            frequency += posting.size;
+        }
+        return frequency;
+    }
+
+    private void removeLocked(UUID hotelId) {
+        Integer id = documentIds.remove(hotelId);
+        if (id == null) {
+            return;
+        }
+        Document previous = documents[id];
+        for (String term : previous.terms()) {
+            Posting posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        documents[id] = null;
+        freeIds.push(id);
+        totalLength -= previous.length();
+    }
+
+    private static void addField(Map<String, Float> frequencies, String text, float weight) {
+        for (String token : tokenize(text)) {
+            frequencies.merge(token, weight, Float::sum);
+        }
+    }
+
+    /** Lower-cased words without accents; anything but letters and digits separates words. */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty() && token.length() <= MAX_TOKEN_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
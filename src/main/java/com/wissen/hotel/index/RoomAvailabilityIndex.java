@@ -0,0 +1,207 @@
+package com.wissen.hotel.index;
+
+import com.wissen.hotel.repository.projection.AvailabilityCell;
+import com.wissen.hotel.repository.projection.RoomInventoryView;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process copy of {@code room_availability}: one primitive calendar per room covering a rolling
+ * horizon that starts today. Cells hold the available rooms for a night, or {@link #NO_ROW} when the
+ * table has no row for it (which means "all rooms free", like everywhere else in the code base).
+ *
+ * <p>Reads never allocate. Callers get {@link #UNKNOWN} whenever the index cannot answer (not loaded
+ * yet, room not indexed, or dates outside the horizon) and must fall back to the table.
+ */
+@Component
+public class RoomAvailabilityIndex {
+
+    public static final int UNKNOWN = -1;
+    private static final int NO_ROW = -1;
+
+    private final Clock clock;
+    private final int horizonDays;
+
+    private volatile Map<UUID, RoomCalendar> calendars = new ConcurrentHashMap<>();
+    private volatile long baseEpochDay;
+    private volatile boolean loaded;
+    private volatile Set<UUID> writtenDuringReload;
+
+    public RoomAvailabilityIndex(Clock clock,
+                                 @Value("${app.availability-index.horizon-days:400}") int horizonDays) {
+        this.clock = clock;
+        this.horizonDays = horizonDays;
+        this.baseEpochDay = LocalDate.now(clock).toEpochDay();
+    }
+
+    private static final class RoomCalendar {
+        private volatile int totalRooms;
+        private final int[] cells;
+
+        private RoomCalendar(int totalRooms, int days) {
+            this.totalRooms = totalRooms;
+            this.cells = new int[days];
+            Arrays.fill(cells, NO_ROW);
+        }
+
+        private int valueAt(int offset) {
+            int cell = cells[offset];
+            return cell == NO_ROW ? totalRooms : cell;
+        }
+    }
+
+    /** First night covered by the index. */
+    public LocalDate horizonStart() {
+        return LocalDate.ofEpochDay(baseEpochDay);
+    }
+
+    /** First night after the horizon. */
+    public LocalDate horizonEnd() {
+        return LocalDate.ofEpochDay(baseEpochDay + horizonDays);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean isIndexed(UUID roomId) {
+        return loaded && calendars.containsKey(roomId);
+    }
+
+    /** Marks the start of a reload so that concurrent writes can be replayed afterwards. */
+    public void beginReload() {
+        writtenDuringReload = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Replaces the whole index. {@code rows} are expected to be the table rows between
+     * {@link #reloadStart()} and {@link #reloadEnd()}; rows outside that window are ignored.
+     *
+     * @return rooms written while the snapshot was being read, which the caller should refresh
+     */
+    public Set<UUID> load(Collection<RoomInventoryView> rooms, Collection<AvailabilityCell> rows) {
+        long base = LocalDate.now(clock).toEpochDay();
+        Map<UUID, RoomCalendar> fresh = new ConcurrentHashMap<>();
+        for (RoomInventoryView room : rooms) {
+            fresh.put(room.getRoomId(), new RoomCalendar(room.getTotalRooms(), horizonDays));
+        }
+        for (AvailabilityCell row : rows) {
+            RoomCalendar calendar = fresh.get(row.getRoomId());
+            long offset = row.getDate().toEpochDay() - base;
+            if (calendar != null && offset >= 0 && offset < horizonDays) {
+                calendar.cells[(int) offset] = row.getAvailableRooms();
+            }
+        }
+        calendars = fresh;
+        baseEpochDay = base;
+        loaded = true;
+        Set<UUID> dirty = writtenDuringReload;
+        writtenDuringReload = null;
+        return dirty == null ? Set.of() : dirty;
+    }
+
+    /** Start of the window a reload should read from the table. */
+    public LocalDate reloadStart() {
+        return LocalDate.now(clock);
+    }
+
+    /** End (exclusive) of the window a reload should read from the table. */
+    public LocalDate reloadEnd() {
+        return LocalDate.now(clock).plusDays(horizonDays);
+    }
+
+    /** Replaces one room's calendar with the given table rows. */
+    public void replaceRoom(UUID roomId, int totalRooms, Collection<AvailabilityCell> rows) {
+        if (!loaded) {
+            return;
+        }
+        RoomCalendar calendar = new RoomCalendar(totalRooms, horizonDays);
+        long base = baseEpochDay;
+        for (AvailabilityCell row : rows) {
+            long offset = row.getDate().toEpochDay() - base;
+            if (offset >= 0 && offset < horizonDays) {
+                calendar.cells[(int) offset] = row.getAvailableRooms();
+            }
+        }
+        calendars.put(roomId, calendar);
+    }
+
+    /** Registers a room that has no availability rows yet. */
+    public void registerRoom(UUID roomId, int totalRooms) {
+        if (loaded) {
+            calendars.putIfAbsent(roomId, new RoomCalendar(totalRooms, horizonDays));
+        }
+    }
+
+    public void updateTotalRooms(UUID roomId, int totalRooms) {
+        RoomCalendar calendar = calendars.get(roomId);
+        if (calendar != null) {
+            calendar.totalRooms = totalRooms;
+        }
+    }
+
+    public void removeRoom(UUID roomId) {
+        calendars.remove(roomId);
+    }
+
+    /** Mirrors a row written to the table. */
+    public void set(UUID roomId, LocalDate date, int availableRooms) {
+        Set<UUID> dirty = writtenDuringReload;
+        if (dirty != null) {
+            dirty.add(roomId);
+        }
+        RoomCalendar calendar = calendars.get(roomId);
+        long offset = date.toEpochDay() - baseEpochDay;
+        if (calendar != null && offset >= 0 && offset < horizonDays) {
+            calendar.cells[(int) offset] = availableRooms;
+        }
+    }
+
+    /** Available rooms on one night, or {@link #UNKNOWN}. */
+    public int available(UUID roomId, LocalDate date) {
+        if (!loaded) {
+            return UNKNOWN;
+        }
+        RoomCalendar calendar = calendars.get(roomId);
+        long offset = date.toEpochDay() - baseEpochDay;
+        if (calendar == null || offset < 0 || offset >= horizonDays) {
+            return UNKNOWN;
+        }
+        return calendar.valueAt((int) offset);
+    }
+
+    /** Lowest availability over the nights {@code [from, to)}, or {@link #UNKNOWN}. */
+    public int minAvailable(UUID roomId, LocalDate from, LocalDate to) {
+        if (!loaded) {
+            return UNKNOWN;
+        }
+        RoomCalendar calendar = calendars.get(roomId);
+        long start = from.toEpochDay() - baseEpochDay;
+        long end = to.toEpochDay() - baseEpochDay;
+        if (calendar == null || start < 0 || end > horizonDays || end <= start) {
+            return UNKNOWN;
+        }
+        int min = Integer.MAX_VALUE;
+        for (int i = (int) start; i < end; i++) {
+            int value = calendar.valueAt(i);
+            if (value < min) {
+                min = value;
+            }
+        }
+        return min;
+    }
+
+    public Set<UUID> indexedRooms() {
+        return calendars.keySet();
+    }
+}
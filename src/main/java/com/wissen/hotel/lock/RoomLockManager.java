@@ -0,0 +1,78 @@
+package com.wissen.hotel.lock;
+
+import com.wissen.hotel.exception.RoomBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serialises the bookings of one room within this node. Rooms are hashed onto a fixed array of
+ * locks, so memory does not grow with the number of rooms and bookings for different rooms only
+ * wait for each other in the rare case that they share a stripe. Waiting is bounded: past the
+ * timeout the caller gets a {@link RoomBusyException} it can retry.
+ */
+@Component
+public class RoomLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutNanos;
+    private final Timer waitTimer;
+    private final Counter timeouts;
+
+    public RoomLockManager(MeterRegistry meterRegistry,
+                           @Value("${app.booking.room-locks.stripes:1024}") int stripes,
+                           @Value("${app.booking.room-locks.timeout-ms:2000}") long timeoutMillis) {
+        // A power of two, so that the stripe is a mask of the hash
+        int size = Integer.highestOneBit(Math.max(1, Math.min(stripes, 1 << 16)) * 2 - 1);
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.waitTimer = meterRegistry.timer("booking.room-lock.wait");
+        this.timeouts = meterRegistry.counter("booking.room-lock.timeouts");
+    }
+
+    /** Runs {@code action} holding the lock of {@code roomId}. */
+    public <T> T withLock(UUID roomId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripeOf(roomId)];
+        long start = System.nanoTime();
+        boolean locked;
+        try {
+            locked = lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RoomBusyException("Interrupted while waiting for the room. Please try again.");
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!locked) {
+            timeouts.increment();
+            throw new RoomBusyException("The room is being booked by someone else. Please try again.");
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int stripeOf(UUID roomId) {
+        int hash = roomId.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+}
@@ -0,0 +1,55 @@
+package com.wissen.hotel.lock;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * The one way the inventory of a room is written: through the {@link RoomWriteSequencer} for the
+ * hotels it handles, under the room's {@link RoomLockManager} lock otherwise. Bookings, holds, blocks
+ * and recomputes all take the same turn, so none of them can slip in between the steps of another.
+ *
+ * <p>A write made while the current thread already has the room's turn (an inventory change inside a
+ * booking, say) runs directly instead of queueing behind itself. Callers open their transaction
+ * inside the turn, so that it commits before the next write of the room starts.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoomWriteOrder {
+
+    // Rooms whose turn the current thread holds; the sequencer's workers get theirs while running a write
+    private static final ThreadLocal<Set<UUID>> TURNS = ThreadLocal.withInitial(HashSet::new);
+
+    private final RoomLockManager roomLockManager;
+    private final RoomWriteSequencer roomWriteSequencer;
+
+    /** Runs {@code write} after the earlier writes of {@code roomId}, which belongs to {@code hotelId}. */
+    public <T> T call(UUID roomId, UUID hotelId, Supplier<T> write) {
+        if (TURNS.get().contains(roomId)) {
+            return write.get();
+        }
+        Supplier<T> turn = () -> {
+            Set<UUID> turns = TURNS.get();
+            turns.add(roomId);
+            try {
+                return write.get();
+            } finally {
+                turns.remove(roomId);
+            }
+        };
+        return roomWriteSequencer.handles(hotelId)
+                ? roomWriteSequencer.call(roomId, turn)
+                : roomLockManager.withLock(roomId, turn);
+    }
+
+    public void run(UUID roomId, UUID hotelId, Runnable write) {
+        call(roomId, hotelId, () -> {
+            write.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,183 @@
+package com.wissen.hotel.lock;
+
+import com.wissen.hotel.exception.RoomBusyException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Single-writer alternative to {@link RoomLockManager} for very hot rooms. Writes for one room are
+ * queued and applied in arrival order by whichever worker drains that room's queue, up to
+ * {@code maxBatch} at a time, so the room's inventory rows are only ever updated by one thread and
+ * callers wait on a future instead of on a lock. Only the hotels listed in
+ * {@code app.booking.sequencer.hotels} are routed through it.
+ */
+@Component
+public class RoomWriteSequencer {
+
+    private final Set<UUID> hotelIds;
+    private final int maxBatch;
+    private final long timeoutMillis;
+    private final ExecutorService workers;
+    private final DistributionSummary batchSizes;
+    // Only rooms with writes queued or running; a queue is dropped once drained
+    private final Map<UUID, RoomQueue> queues = new ConcurrentHashMap<>();
+
+    private static final class RoomQueue {
+        private final UUID roomId;
+        private final Queue<Task<?>> tasks = new ConcurrentLinkedQueue<>();
+        // Set while a worker owns the queue, so that one room is never drained by two workers
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private RoomQueue(UUID roomId) {
+            this.roomId = roomId;
+        }
+    }
+
+    private record Task<T>(Supplier<T> action, CompletableFuture<T> result, AtomicBoolean claimed) {
+
+        // Runs the action unless the caller gave up on it first
+        private void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                result.complete(action.get());
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    public RoomWriteSequencer(MeterRegistry meterRegistry,
+                              @Value("${app.booking.sequencer.hotels:}") List<String> hotelIds,
+                              @Value("${app.booking.sequencer.workers:4}") int workers,
+                              @Value("${app.booking.sequencer.max-batch:32}") int maxBatch,
+                              @Value("${app.booking.sequencer.timeout-ms:5000}") long timeoutMillis) {
+        this.hotelIds = hotelIds.stream()
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .map(UUID::fromString)
+                .collect(Collectors.toUnmodifiableSet());
+        this.maxBatch = Math.max(1, maxBatch);
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workers), runnable -> {
+            Thread thread = new Thread(runnable, "room-writer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSizes = meterRegistry.summary("booking.sequencer.batch-size");
+        meterRegistry.gauge("booking.sequencer.queued", queues, RoomWriteSequencer::queued);
+        meterRegistry.gauge("booking.sequencer.rooms", queues, Map::size);
+    }
+
+    /** Whether bookings of this hotel go through the sequencer rather than the room locks. */
+    public boolean handles(UUID hotelId) {
+        return hotelId != null && hotelIds.contains(hotelId);
+    }
+
+    /** Queues {@code action} behind the earlier writes of {@code roomId}. */
+    public <T> CompletableFuture<T> submit(UUID roomId, Supplier<T> action) {
+        return enqueue(roomId, action).result();
+    }
+
+    /**
+     * Runs {@code action} in the room's order and waits for it. If it has not started within the
+     * timeout it is withdrawn and the caller gets a {@link RoomBusyException}; once started it is
+     * always waited for, so a booking is never made behind the back of a caller told to retry.
+     */
+    public <T> T call(UUID roomId, Supplier<T> action) {
+        Task<T> task = enqueue(roomId, action);
+        try {
+            try {
+                return task.result().get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (task.claimed().compareAndSet(false, true)) {
+                    throw new RoomBusyException("The room is being booked by someone else. Please try again.");
+                }
+                return task.result().get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RoomBusyException("Interrupted while waiting for the room. Please try again.");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private <T> Task<T> enqueue(UUID roomId, Supplier<T> action) {
+        Task<T> task = new Task<>(action, new CompletableFuture<>(), new AtomicBoolean());
+        // Added under the map's lock, so that a queue being dropped never takes a new write with it
+        RoomQueue queue = queues.compute(roomId, (id, existing) -> {
+            RoomQueue target = existing != null ? existing : new RoomQueue(id);
+            target.tasks.add(task);
+            return target;
+        });
+        schedule(queue);
+        return task;
+    }
+
+    private void schedule(RoomQueue queue) {
+        if (queue.scheduled.compareAndSet(false, true)) {
+            workers.execute(() -> drain(queue));
+        }
+    }
+
+    private void drain(RoomQueue queue) {
+        int applied = 0;
+        Task<?> task;
+        while (applied < maxBatch && (task = queue.tasks.poll()) != null) {
+            task.run();
+            applied++;
+        }
+        if (applied > 0) {
+            batchSizes.record(applied);
+        }
+        queue.scheduled.set(false);
+        // Writes queued after the last poll, or past the batch limit: requeue behind the other rooms
+        if (!queue.tasks.isEmpty()) {
+            schedule(queue);
+            return;
+        }
+        // Idle: drop the queue unless a write arrived or another worker took it meanwhile
+        queues.computeIfPresent(queue.roomId, (id, current) ->
+                current == queue && current.tasks.isEmpty() && !current.scheduled.get() ? null : current);
+    }
+
+    private static double queued(Map<UUID, RoomQueue> queues) {
+        return queues.values().stream().mapToInt(queue -> queue.tasks.size()).sum();
+    }
+}
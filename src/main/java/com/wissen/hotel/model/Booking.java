@@ -18,6 +18,11 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(indexes = {
+        @Index(name = "idx_booking_created", columnList = "created_at, booking_id"),
+        @Index(name = "idx_booking_room_stay", columnList = "room_id, check_in, check_out"),
+        @Index(name = "idx_booking_user_created", columnList = "user_id, created_at")
+})
 public class Booking {
     @Id
     @GeneratedValue
@@ -2,6 +2,7 @@ package com.wissen.hotel.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.UuidGenerator;
 import lombok.Builder;
 
@@ -14,6 +15,11 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(indexes = {
+        @Index(name = "idx_hotel_average_rating", columnList = "average_rating"),
+        @Index(name = "idx_hotel_owner", columnList = "owner_id"),
+        @Index(name = "idx_hotel_created", columnList = "created_at, hotel_id")
+})
 public class Hotel {
     @Id
     @GeneratedValue
@@ -40,6 +46,20 @@ public class Hotel {
     private BigDecimal longitude;
     private LocalDateTime createdAt;
     private boolean isApproved;
-    
 
+    // Review aggregates, maintained by ReviewServiceImpl with atomic updates only
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    private long ratingSum = 0;
+
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(name = "rating_count", nullable = false, updatable = false)
+    private int ratingCount = 0;
+
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(name = "average_rating", nullable = false, updatable = false)
+    private double averageRating = 0.0;
 }
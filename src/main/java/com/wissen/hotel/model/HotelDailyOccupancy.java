@@ -0,0 +1,30 @@
+package com.wissen.hotel.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Rooms of a hotel and how many of them are free on one night, summed over its room types. Rewritten
+ * with every inventory change of the hotel; a night without a row has every room free.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_hotel_daily_occupancy_hotel_date", columnNames = {"hotel_id", "date"}))
+public class HotelDailyOccupancy {
+    @Id
+    @GeneratedValue
+    @UuidGenerator
+    private UUID occupancyId;
+
+    private UUID hotelId;
+    private LocalDate date;
+    private int totalRooms;
+    private int availableRooms;
+}
@@ -14,6 +14,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(indexes = @Index(name = "idx_image_reference", columnList = "reference_id, type"))
 public class Image {
     @Id
     @GeneratedValue
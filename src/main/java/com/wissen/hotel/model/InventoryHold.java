@@ -0,0 +1,34 @@
+package com.wissen.hotel.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/** Rooms taken from inventory while a guest checks out; given back unless claimed by a booking before expiresAt. */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(indexes = {
+        @Index(name = "idx_inventory_hold_expires", columnList = "expires_at"),
+        @Index(name = "idx_inventory_hold_room", columnList = "room_id, check_in, check_out"),
+        @Index(name = "idx_inventory_hold_user", columnList = "user_id, expires_at")
+})
+public class InventoryHold {
+    @Id
+    @GeneratedValue
+    @UuidGenerator
+    private UUID holdId;
+
+    private UUID roomId;
+    private UUID userId;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private int roomsHeld;
+    private Instant expiresAt;
+}
@@ -14,6 +14,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(indexes = @Index(name = "idx_pricing_rule_hotel", columnList = "hotel_id"))
 public class PricingRule {
     @Id
     @GeneratedValue
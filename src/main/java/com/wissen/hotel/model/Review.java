@@ -12,6 +12,10 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(indexes = {
+        @Index(name = "idx_review_hotel_created", columnList = "hotel_id, created_at, review_id"),
+        @Index(name = "idx_review_user", columnList = "user_id")
+})
 public class Review {
     @Id
     @GeneratedValue
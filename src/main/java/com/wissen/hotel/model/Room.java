@@ -16,6 +16,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(indexes = @Index(name = "idx_room_hotel", columnList = "hotel_id"))
 public class Room {
     @Id
     @GeneratedValue
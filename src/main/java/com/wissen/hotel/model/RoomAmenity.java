@@ -13,7 +13,11 @@ import java.util.UUID;
 @Builder
 @Table(
     name = "room_amenity",
-    uniqueConstraints = @UniqueConstraint(columnNames = {"room_id", "amenity_id"})
+    uniqueConstraints = @UniqueConstraint(columnNames = {"room_id", "amenity_id"}),
+    indexes = {
+        @Index(name = "idx_room_amenity_room", columnList = "room_id"),
+        @Index(name = "idx_room_amenity_amenity", columnList = "amenity_id")
+    }
 )
 public class RoomAmenity {
     @Id
@@ -12,6 +12,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_room_availability_room_date", columnNames = {"room_id", "date"}))
 public class RoomAvailability {
     @Id
     @GeneratedValue
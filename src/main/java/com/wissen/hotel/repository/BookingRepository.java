@@ -1,10 +1,18 @@
 package com.wissen.hotel.repository;
 
+import com.wissen.hotel.enums.BookingStatus;
 import com.wissen.hotel.model.Booking;
 import com.wissen.hotel.model.Hotel;
+import com.wissen.hotel.repository.projection.HotelCountView;
+import com.wissen.hotel.repository.projection.StayView;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,4 +22,40 @@ public interface BookingRepository extends JpaRepository<Booking, UUID> {
     List<Booking> findByRoom_RoomId(UUID roomId);
     List<Booking> findByRoom_Hotel_HotelId(UUID hotelId);
     List<Booking> findAllByUser_UserId(UUID userId);
-}
\ No newline at end of file
+
+    // Keyset pages of all bookings, newest first, walking idx_booking_created. The to-one
+    // associations are fetched in the same query instead of one select per booking.
+    String BOOKINGS_WITH_ASSOCIATIONS = """
+            SELECT b FROM Booking b
+            LEFT JOIN FETCH b.user
+            LEFT JOIN FETCH b.room r
+            LEFT JOIN FETCH r.hotel rh
+            LEFT JOIN FETCH rh.owner
+            """;
+
+    @Query(BOOKINGS_WITH_ASSOCIATIONS + " ORDER BY b.createdAt DESC, b.bookingId DESC")
+    List<Booking> findNewest(Pageable pageable);
+
+    @Query(BOOKINGS_WITH_ASSOCIATIONS
+            + " WHERE (b.createdAt, b.bookingId) < (:createdAt, :bookingId) ORDER BY b.createdAt DESC, b.bookingId DESC")
+    List<Booking> findBefore(@Param("createdAt") LocalDateTime createdAt,
+                             @Param("bookingId") UUID bookingId,
+                             Pageable pageable);
+
+    @Query("""
+            SELECT b.room.hotel.hotelId AS hotelId, COUNT(b) AS count
+            FROM Booking b
+            WHERE b.room.hotel.owner.userId = :ownerId AND b.status = :status
+            GROUP BY b.room.hotel.hotelId
+            """)
+    List<HotelCountView> countByOwnerIdAndStatus(@Param("ownerId") UUID ownerId, @Param("status") BookingStatus status);
+
+    // Bookings still holding inventory on some night of [from, to)
+    @Query("""
+            SELECT b.checkIn AS checkIn, b.checkOut AS checkOut, b.roomsBooked AS rooms
+            FROM Booking b
+            WHERE b.room.roomId = :roomId AND b.status = com.wissen.hotel.enums.BookingStatus.CONFIRMED
+              AND b.checkIn < :to AND b.checkOut > :from
+            """)
+    List<StayView> findActiveStays(@Param("roomId") UUID roomId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
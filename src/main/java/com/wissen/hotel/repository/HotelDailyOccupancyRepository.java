@@ -0,0 +1,70 @@
+package com.wissen.hotel.repository;
+
+import com.wissen.hotel.model.HotelDailyOccupancy;
+import com.wissen.hotel.repository.projection.OccupancyCell;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface HotelDailyOccupancyRepository extends JpaRepository<HotelDailyOccupancy, UUID> {
+
+    // Sums the hotel's rooms over the nights of a derived table; a night without an availability row
+    // counts as totalRooms free, as everywhere else
+    String AGGREGATE_NIGHTS = """
+            INSERT INTO hotel_daily_occupancy (occupancy_id, hotel_id, date, total_rooms, available_rooms)
+            SELECT gen_random_uuid(), :hotelId, nights.date, COALESCE(SUM(r.total_rooms), 0),
+                   COALESCE(SUM(LEAST(COALESCE(ra.available_rooms, r.total_rooms), r.total_rooms)), 0)
+            FROM (
+            """;
+    String UPSERT_AGGREGATE = """
+            ) AS nights (date)
+            LEFT JOIN room r ON r.hotel_id = :hotelId
+            LEFT JOIN room_availability ra ON ra.room_id = r.room_id AND ra.date = nights.date
+            GROUP BY nights.date
+            ON CONFLICT (hotel_id, date) DO UPDATE
+            SET total_rooms = EXCLUDED.total_rooms, available_rooms = EXCLUDED.available_rooms
+            """;
+
+    // Takes the row lock of every night of [from, from + nights), creating the missing rows, always in
+    // date order. Concurrent writers of the same hotel queue here, so the refresh that follows (a new
+    // statement, hence a new snapshot) reads whatever they committed instead of overwriting it.
+    @Modifying
+    @Query(value = """
+            INSERT INTO hotel_daily_occupancy (occupancy_id, hotel_id, date, total_rooms, available_rooms)
+            SELECT gen_random_uuid(), :hotelId, CAST(:from AS date) + night, 0, 0
+            FROM generate_series(0, :nights - 1) AS night
+            ORDER BY night
+            ON CONFLICT (hotel_id, date) DO UPDATE SET total_rooms = hotel_daily_occupancy.total_rooms
+            """, nativeQuery = true)
+    int lockNights(@Param("hotelId") UUID hotelId, @Param("from") LocalDate from, @Param("nights") int nights);
+
+    // Recomputes the nights of [from, from + nights) from the rooms; only consistent after lockNights on the same range
+    @Modifying
+    @Query(value = AGGREGATE_NIGHTS
+            + "SELECT CAST(:from AS date) + night FROM generate_series(0, :nights - 1) AS night"
+            + UPSERT_AGGREGATE, nativeQuery = true)
+    int refreshNights(@Param("hotelId") UUID hotelId, @Param("from") LocalDate from, @Param("nights") int nights);
+
+    @Query("SELECT MAX(o.date) FROM HotelDailyOccupancy o WHERE o.hotelId = :hotelId")
+    LocalDate findLastNight(@Param("hotelId") UUID hotelId);
+
+    @Query("SELECT MAX(ra.date) FROM RoomAvailability ra WHERE ra.room.hotel.hotelId = :hotelId")
+    LocalDate findLastAvailabilityNight(@Param("hotelId") UUID hotelId);
+
+    // One cell per night of [from, from + nights), in order; nights without a row have every room free
+    @Query(value = """
+            SELECT COALESCE(o.total_rooms, hotel_rooms.total) AS "totalRooms",
+                   COALESCE(o.available_rooms, hotel_rooms.total) AS "availableRooms"
+            FROM generate_series(0, :nights - 1) AS night
+            CROSS JOIN (SELECT COALESCE(SUM(r.total_rooms), 0) AS total FROM room r WHERE r.hotel_id = :hotelId) AS hotel_rooms
+            LEFT JOIN hotel_daily_occupancy o ON o.hotel_id = :hotelId AND o.date = CAST(:from AS date) + night
+            ORDER BY night
+            """, nativeQuery = true)
+    List<OccupancyCell> findSeries(@Param("hotelId") UUID hotelId, @Param("from") LocalDate from, @Param("nights") int nights);
+}
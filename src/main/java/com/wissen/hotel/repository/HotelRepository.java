@@ -1,16 +1,209 @@
 package com.wissen.hotel.repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.wissen.hotel.model.Hotel;
+import com.wissen.hotel.repository.projection.HotelLocationView;
+import com.wissen.hotel.repository.projection.HotelSummaryView;
+import com.wissen.hotel.repository.projection.HotelTextView;
+import com.wissen.hotel.repository.projection.SearchFacetRow;
 
 public interface HotelRepository extends JpaRepository<Hotel, UUID> {
     boolean existsByHotelIdAndOwnerEmail(UUID hotelId, String email);
+
+    // Backed by idx_hotel_owner
+    List<Hotel> findByOwner_UserId(UUID ownerId);
     
     @Query("SELECT COUNT(h) > 0 FROM Hotel h WHERE h.hotelId = :id AND h.owner.email = :email")
     boolean existsByIdAndOwnerEmail(UUID id, String email);
-    
-}
\ No newline at end of file
+
+    // One page of approved hotels (optionally in one city) with their cheapest room base price.
+    // Backed by the lower(city) index; description and address are not read.
+    @Query(value = """
+            SELECT h.hotelId AS hotelId, o.userId AS ownerId, h.name AS name, h.city AS city,
+                   h.state AS state, h.country AS country, h.latitude AS latitude, h.longitude AS longitude,
+                   h.isApproved AS approved, h.createdAt AS createdAt, MIN(r.basePrice) AS minPrice
+            FROM Hotel h
+            LEFT JOIN h.owner o
+            LEFT JOIN Room r ON r.hotel = h
+            WHERE h.isApproved = true
+              AND (:city IS NULL OR LOWER(h.city) = LOWER(:city))
+            GROUP BY h.hotelId, o.userId, h.name, h.city, h.state, h.country,
+                     h.latitude, h.longitude, h.isApproved, h.createdAt
+            ORDER BY h.name, h.hotelId
+            """,
+            countQuery = """
+            SELECT COUNT(h) FROM Hotel h
+            WHERE h.isApproved = true
+              AND (:city IS NULL OR LOWER(h.city) = LOWER(:city))
+            """)
+    Page<HotelSummaryView> findApprovedHotelSummaries(@Param("city") String city, Pageable pageable);
+
+    // Keyset pages of approved hotels (optionally in one city), newest first, walking idx_hotel_created.
+    // The first page starts at the newest hotel; later pages continue strictly before the cursor.
+    String APPROVED_HOTEL_SUMMARIES = """
+            SELECT h.hotelId AS hotelId, o.userId AS ownerId, h.name AS name, h.city AS city,
+                   h.state AS state, h.country AS country, h.latitude AS latitude, h.longitude AS longitude,
+                   h.isApproved AS approved, h.createdAt AS createdAt,
+                   (SELECT MIN(r.basePrice) FROM Room r WHERE r.hotel = h) AS minPrice
+            FROM Hotel h
+            LEFT JOIN h.owner o
+            WHERE h.isApproved = true
+              AND (:city IS NULL OR LOWER(h.city) = LOWER(:city))
+            """;
+
+    @Query(APPROVED_HOTEL_SUMMARIES + " ORDER BY h.createdAt DESC, h.hotelId DESC")
+    List<HotelSummaryView> findNewestApprovedHotelSummaries(@Param("city") String city, Pageable pageable);
+
+    @Query(APPROVED_HOTEL_SUMMARIES
+            + " AND (h.createdAt, h.hotelId) < (:createdAt, :hotelId) ORDER BY h.createdAt DESC, h.hotelId DESC")
+    List<HotelSummaryView> findApprovedHotelSummariesBefore(@Param("city") String city,
+                                                            @Param("createdAt") LocalDateTime createdAt,
+                                                            @Param("hotelId") UUID hotelId,
+                                                            Pageable pageable);
+
+    // Approved hotels (optionally in one city) whose rooms free on every night of the stay can host
+    // the whole party together, possibly mixing room types. The derived table holds the guests each
+    // room type can host; nights without an availability row count as totalRooms. Hotels sold out on
+    // some night of the stay are pruned on the daily occupancy aggregate first.
+    String SEARCHABLE_HOTELS = """
+            FROM Hotel h
+            WHERE h.isApproved = true
+              AND (:city IS NULL OR LOWER(h.city) = LOWER(:city))
+              AND NOT EXISTS (
+                  SELECT 1 FROM HotelDailyOccupancy o
+                  WHERE o.hotelId = h.hotelId AND o.date >= :checkIn AND o.date < :checkOut
+                    AND o.availableRooms = 0)
+              AND h.hotelId IN (
+                  SELECT stock.hotelId FROM (
+                      SELECT r.hotel.hotelId AS hotelId,
+                             r.capacity * (CASE WHEN COUNT(ra) < :nights
+                                 THEN LEAST(COALESCE(MIN(ra.availableRooms), r.totalRooms), r.totalRooms)
+                                 ELSE MIN(ra.availableRooms) END) AS hostedGuests
+                      FROM Room r
+                      LEFT JOIN RoomAvailability ra ON ra.room = r AND ra.date >= :checkIn AND ra.date < :checkOut
+                      WHERE r.capacity > 0
+                      GROUP BY r.roomId, r.hotel.hotelId, r.capacity, r.totalRooms
+                  ) stock
+                  GROUP BY stock.hotelId
+                  HAVING SUM(stock.hostedGuests) >= :guests)
+            """;
+
+    @Query(value = "SELECT h.hotelId " + SEARCHABLE_HOTELS + " ORDER BY h.name, h.hotelId",
+            countQuery = "SELECT COUNT(h) " + SEARCHABLE_HOTELS)
+    Page<UUID> findSearchableHotelIds(@Param("city") String city,
+                                      @Param("checkIn") LocalDate checkIn,
+                                      @Param("checkOut") LocalDate checkOut,
+                                      @Param("nights") long nights,
+                                      @Param("guests") int guests,
+                                      Pageable pageable);
+
+    // Same hotels in the same order without the count query, for callers walking all of them in batches
+    @Query("SELECT h.hotelId " + SEARCHABLE_HOTELS + " ORDER BY h.name, h.hotelId")
+    Slice<UUID> findSearchableHotelIdSlice(@Param("city") String city,
+                                           @Param("checkIn") LocalDate checkIn,
+                                           @Param("checkOut") LocalDate checkOut,
+                                           @Param("nights") long nights,
+                                           @Param("guests") int guests,
+                                           Pageable pageable);
+
+    // The given hotels with a room type free on every night of the stay; a night without a row has every room free
+    @Query("""
+            SELECT DISTINCT r.hotel.hotelId FROM Room r
+            WHERE r.hotel.hotelId IN :hotelIds AND r.totalRooms > 0
+              AND NOT EXISTS (SELECT 1 FROM RoomAvailability ra
+                              WHERE ra.room = r AND ra.date >= :checkIn AND ra.date < :checkOut
+                                AND ra.availableRooms <= 0)
+            """)
+    List<UUID> findHotelIdsWithFreeRooms(@Param("hotelIds") Collection<UUID> hotelIds,
+                                         @Param("checkIn") LocalDate checkIn,
+                                         @Param("checkOut") LocalDate checkOut);
+
+    // Rooms (with their amenities and their lowest availability over the stay) of every searchable
+    // hotel, for counting facets in one pass. Nights without a row count as the room's totalRooms.
+    @Query("SELECT fh.hotelId AS hotelId, fh.city AS city, fr.roomId AS roomId, fr.roomType AS roomType, "
+            + "fr.basePrice AS basePrice, fr.capacity AS capacity, fa.amenityId AS amenityId, fa.name AS amenityName, "
+            + "(SELECT CASE WHEN COUNT(fav) < :nights "
+            + "     THEN LEAST(COALESCE(MIN(fav.availableRooms), fr.totalRooms), fr.totalRooms) "
+            + "     ELSE MIN(fav.availableRooms) END "
+            + " FROM RoomAvailability fav "
+            + " WHERE fav.room = fr AND fav.date >= :checkIn AND fav.date < :checkOut) AS availableRooms "
+            + "FROM Room fr JOIN fr.hotel fh "
+            + "LEFT JOIN RoomAmenity fra ON fra.room = fr "
+            + "LEFT JOIN fra.amenity fa "
+            + "WHERE fh.hotelId IN (SELECT h.hotelId " + SEARCHABLE_HOTELS + ") "
+            + "ORDER BY fh.hotelId, fr.roomId")
+    List<SearchFacetRow> findSearchFacetRows(@Param("city") String city,
+                                             @Param("checkIn") LocalDate checkIn,
+                                             @Param("checkOut") LocalDate checkOut,
+                                             @Param("nights") long nights,
+                                             @Param("guests") int guests);
+
+    // Highest average rating first among hotels that have rooms. Walks idx_hotel_average_rating and
+    // stops at the page size; the cheapest base price is resolved per returned hotel only.
+    @Query("""
+            SELECT h.hotelId AS hotelId, o.userId AS ownerId, h.name AS name, h.city AS city,
+                   h.state AS state, h.country AS country, h.latitude AS latitude, h.longitude AS longitude,
+                   h.isApproved AS approved, h.createdAt AS createdAt,
+                   (SELECT MIN(r.basePrice) FROM Room r WHERE r.hotel = h) AS minPrice
+            FROM Hotel h
+            LEFT JOIN h.owner o
+            WHERE EXISTS (SELECT 1 FROM Room r WHERE r.hotel = h)
+            ORDER BY h.averageRating DESC, h.ratingCount DESC, h.hotelId
+            """)
+    List<HotelSummaryView> findTopRated(Pageable pageable);
+
+    @Query("SELECT h.averageRating FROM Hotel h WHERE h.hotelId = :hotelId")
+    Optional<Double> findAverageRatingById(@Param("hotelId") UUID hotelId);
+
+    @Modifying
+    @Query("""
+            UPDATE Hotel h
+            SET h.ratingSum = h.ratingSum + :rating,
+                h.ratingCount = h.ratingCount + 1,
+                h.averageRating = (h.ratingSum + :rating) * 1.0 / (h.ratingCount + 1)
+            WHERE h.hotelId = :hotelId
+            """)
+    int addRating(@Param("hotelId") UUID hotelId, @Param("rating") int rating);
+
+    @Modifying
+    @Query("""
+            UPDATE Hotel h
+            SET h.ratingSum = h.ratingSum - :rating,
+                h.ratingCount = h.ratingCount - 1,
+                h.averageRating = CASE WHEN h.ratingCount > 1
+                        THEN (h.ratingSum - :rating) * 1.0 / (h.ratingCount - 1)
+                        ELSE 0.0 END
+            WHERE h.hotelId = :hotelId AND h.ratingCount > 0
+            """)
+    int removeRating(@Param("hotelId") UUID hotelId, @Param("rating") int rating);
+
+    @Query("""
+            SELECT h.hotelId AS hotelId, h.latitude AS latitude, h.longitude AS longitude,
+                   (SELECT MIN(r.basePrice) FROM Room r WHERE r.hotel = h) AS minPrice
+            FROM Hotel h
+            WHERE h.isApproved = true AND h.latitude IS NOT NULL AND h.longitude IS NOT NULL
+            """)
+    List<HotelLocationView> findApprovedLocations();
+
+    @Query("""
+            SELECT h.hotelId AS hotelId, h.name AS name, h.description AS description, h.address AS address,
+                   h.city AS city, h.state AS state, h.country AS country
+            FROM Hotel h
+            WHERE h.isApproved = true
+            """)
+    List<HotelTextView> findApprovedTextViews();
+}
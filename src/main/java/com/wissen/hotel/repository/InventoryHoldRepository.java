@@ -0,0 +1,41 @@
+package com.wissen.hotel.repository;
+
+import com.wissen.hotel.model.InventoryHold;
+import com.wissen.hotel.repository.projection.StayView;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface InventoryHoldRepository extends JpaRepository<InventoryHold, UUID> {
+
+    // Whoever deletes the row (a booking claiming the hold, or its expiry) owns the held rooms
+    @Modifying
+    @Query("DELETE FROM InventoryHold h WHERE h.holdId = :holdId")
+    int deleteHold(@Param("holdId") UUID holdId);
+
+    @Modifying
+    @Query("DELETE FROM InventoryHold h WHERE h.roomId = :roomId")
+    int deleteByRoomId(@Param("roomId") UUID roomId);
+
+    @Query("""
+            SELECT h.checkIn AS checkIn, h.checkOut AS checkOut, h.roomsHeld AS rooms
+            FROM InventoryHold h
+            WHERE h.roomId = :roomId AND h.checkIn < :to AND h.checkOut > :from
+            """)
+    List<StayView> findStays(@Param("roomId") UUID roomId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Row lock on the user until the transaction ends, so that two holds placed at once are counted one after the other
+    @Query(value = "SELECT user_id FROM users WHERE user_id = :userId FOR UPDATE", nativeQuery = true)
+    UUID lockUser(@Param("userId") UUID userId);
+
+    // Walks idx_inventory_hold_user
+    @Query("SELECT COUNT(h) FROM InventoryHold h WHERE h.userId = :userId AND h.expiresAt > :now")
+    long countActiveHolds(@Param("userId") UUID userId, @Param("now") Instant now);
+}
@@ -1,11 +1,36 @@
 package com.wissen.hotel.repository;
 
 import com.wissen.hotel.model.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 public interface ReviewRepository extends JpaRepository<Review, UUID> {
     List<Review> findByHotel_HotelId(UUID hotelId);
+
+    // Keyset pages of the reviews of one hotel, newest first, walking idx_review_hotel_created
+    @Query("""
+            SELECT rv FROM Review rv
+            LEFT JOIN FETCH rv.user
+            WHERE rv.hotel.hotelId = :hotelId
+            ORDER BY rv.createdAt DESC, rv.reviewId DESC
+            """)
+    List<Review> findNewestByHotelId(@Param("hotelId") UUID hotelId, Pageable pageable);
+
+    @Query("""
+            SELECT rv FROM Review rv
+            LEFT JOIN FETCH rv.user
+            WHERE rv.hotel.hotelId = :hotelId
+              AND (rv.createdAt, rv.reviewId) < (:createdAt, :reviewId)
+            ORDER BY rv.createdAt DESC, rv.reviewId DESC
+            """)
+    List<Review> findByHotelIdBefore(@Param("hotelId") UUID hotelId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("reviewId") UUID reviewId,
+                                     Pageable pageable);
 }
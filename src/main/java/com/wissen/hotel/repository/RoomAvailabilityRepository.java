@@ -1,9 +1,15 @@
 package com.wissen.hotel.repository;
 
 import com.wissen.hotel.model.RoomAvailability;
+import com.wissen.hotel.repository.projection.AvailabilityCell;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,5 +17,84 @@ public interface RoomAvailabilityRepository extends JpaRepository<RoomAvailabili
 
     RoomAvailability findByRoom_RoomIdAndDate(UUID roomId, LocalDate date);
 
- 
-}
\ No newline at end of file
+    @Query("SELECT ra.room.roomId AS roomId, ra.date AS date, ra.availableRooms AS availableRooms "
+            + "FROM RoomAvailability ra WHERE ra.date >= :from AND ra.date < :to")
+    List<AvailabilityCell> findCellsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT ra.room.roomId AS roomId, ra.date AS date, ra.availableRooms AS availableRooms "
+            + "FROM RoomAvailability ra WHERE ra.room.roomId = :roomId AND ra.date >= :from AND ra.date < :to")
+    List<AvailabilityCell> findCellsForRoom(@Param("roomId") UUID roomId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT ra.room.roomId AS roomId, ra.date AS date, ra.availableRooms AS availableRooms "
+            + "FROM RoomAvailability ra WHERE ra.room.roomId IN :roomIds AND ra.date >= :from AND ra.date < :to")
+    List<AvailabilityCell> findCellsForRooms(@Param("roomIds") Collection<UUID> roomIds,
+                                             @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Creates the missing nights of [from, from + nights) at full inventory, so that they can be updated in place
+    @Modifying
+    @Query(value = """
+            INSERT INTO room_availability (availability_id, room_id, date, available_rooms)
+            SELECT gen_random_uuid(), :roomId, CAST(:from AS date) + night, :totalRooms
+            FROM generate_series(0, :nights - 1) AS night
+            WHERE NOT EXISTS (SELECT 1 FROM room_availability ra
+                              WHERE ra.room_id = :roomId AND ra.date = CAST(:from AS date) + night)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertMissingNights(@Param("roomId") UUID roomId, @Param("from") LocalDate from,
+                            @Param("nights") int nights, @Param("totalRooms") int totalRooms);
+
+    @Modifying
+    @Query("DELETE FROM RoomAvailability ra WHERE ra.room.roomId = :roomId")
+    int deleteByRoomId(@Param("roomId") UUID roomId);
+
+    // Creates the missing nights of [from, from + nights) at full inventory for a batch of rooms, in one statement
+    @Modifying
+    @Query(value = """
+            INSERT INTO room_availability (availability_id, room_id, date, available_rooms)
+            SELECT gen_random_uuid(), r.room_id, CAST(:from AS date) + night, r.total_rooms
+            FROM room r CROSS JOIN generate_series(0, :nights - 1) AS night
+            WHERE r.room_id IN (:roomIds)
+            ON CONFLICT (room_id, date) DO NOTHING
+            """, nativeQuery = true)
+    int generateNights(@Param("roomIds") Collection<UUID> roomIds, @Param("from") LocalDate from,
+                       @Param("nights") int nights);
+
+    // Moves every night from :from on by the change in the room's total, keeping the rooms already taken
+    @Modifying
+    @Query("""
+            UPDATE RoomAvailability ra
+            SET ra.availableRooms = LEAST(GREATEST(ra.availableRooms + :delta, 0), :totalRooms)
+            WHERE ra.room.roomId = :roomId AND ra.date >= :from
+            """)
+    int shiftRooms(@Param("roomId") UUID roomId, @Param("from") LocalDate from, @Param("delta") int delta,
+                   @Param("totalRooms") int totalRooms);
+
+    // Takes the rooms on every night of [from, to) that still has them; fewer updated rows than nights means a sold-out night
+    @Modifying
+    @Query("""
+            UPDATE RoomAvailability ra
+            SET ra.availableRooms = ra.availableRooms - :rooms
+            WHERE ra.room.roomId = :roomId AND ra.date >= :from AND ra.date < :to AND ra.availableRooms >= :rooms
+            """)
+    int takeRooms(@Param("roomId") UUID roomId, @Param("from") LocalDate from, @Param("to") LocalDate to,
+                  @Param("rooms") int rooms);
+
+    @Modifying
+    @Query("""
+            UPDATE RoomAvailability ra
+            SET ra.availableRooms = LEAST(ra.availableRooms + :rooms, :totalRooms)
+            WHERE ra.room.roomId = :roomId AND ra.date >= :from AND ra.date < :to
+            """)
+    int returnRooms(@Param("roomId") UUID roomId, @Param("from") LocalDate from, @Param("to") LocalDate to,
+                    @Param("rooms") int rooms, @Param("totalRooms") int totalRooms);
+
+    // Writes available[i] for the night from + i, creating or overwriting every night in one statement
+    @Modifying
+    @Query(value = """
+            INSERT INTO room_availability (availability_id, room_id, date, available_rooms)
+            SELECT gen_random_uuid(), :roomId, CAST(:from AS date) + CAST(night - 1 AS int), available
+            FROM unnest(CAST(:available AS int[])) WITH ORDINALITY AS nights(available, night)
+            ON CONFLICT (room_id, date) DO UPDATE SET available_rooms = EXCLUDED.available_rooms
+            """, nativeQuery = true)
+    int upsertNights(@Param("roomId") UUID roomId, @Param("from") LocalDate from, @Param("available") int[] available);
+}
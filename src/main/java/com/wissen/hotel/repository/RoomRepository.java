@@ -1,9 +1,16 @@
 package com.wissen.hotel.repository;
 
 import com.wissen.hotel.model.Room;
+import com.wissen.hotel.repository.projection.HotelRoomStatsView;
+import com.wissen.hotel.repository.projection.RoomInventoryView;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,4 +20,29 @@ public interface RoomRepository extends JpaRepository<Room, UUID> {
     List<Room> findAllByHotel_HotelId(UUID hotelId);
     boolean existsByRoomIdAndHotelOwnerEmail(UUID roomId, String email);
     boolean existsByRoomIdAndHotel_Owner_Email(UUID roomId, String email);  // Ad
-}
\ No newline at end of file
+
+    @Query("SELECT r.roomId AS roomId, r.hotel.hotelId AS hotelId, r.capacity AS capacity, r.totalRooms AS totalRooms FROM Room r")
+    List<RoomInventoryView> findAllInventoryViews();
+
+    @Query("SELECT r.roomId AS roomId, r.hotel.hotelId AS hotelId, r.capacity AS capacity, r.totalRooms AS totalRooms "
+            + "FROM Room r WHERE r.hotel.hotelId IN :hotelIds")
+    List<RoomInventoryView> findInventoryViewsByHotelIds(@Param("hotelIds") Collection<UUID> hotelIds);
+
+    @Query("SELECT r.roomId AS roomId, r.hotel.hotelId AS hotelId, r.capacity AS capacity, r.totalRooms AS totalRooms "
+            + "FROM Room r WHERE r.roomId IN :roomIds")
+    List<RoomInventoryView> findInventoryViewsByRoomIds(@Param("roomIds") Collection<UUID> roomIds);
+
+    // Per hotel of one owner; a night without an availability row counts as totalRooms free
+    @Query("""
+            SELECT r.hotel.hotelId AS hotelId, COUNT(r) AS roomTypes, SUM(r.totalRooms) AS totalRooms,
+                   SUM(LEAST(COALESCE(ra.availableRooms, r.totalRooms), r.totalRooms)) AS availableRooms
+            FROM Room r
+            LEFT JOIN RoomAvailability ra ON ra.room = r AND ra.date = :date
+            WHERE r.hotel.owner.userId = :ownerId
+            GROUP BY r.hotel.hotelId
+            """)
+    List<HotelRoomStatsView> findRoomStatsByOwnerId(@Param("ownerId") UUID ownerId, @Param("date") LocalDate date);
+
+    @Query("SELECT MIN(r.basePrice) FROM Room r WHERE r.hotel.hotelId = :hotelId")
+    BigDecimal findMinBasePriceByHotelId(@Param("hotelId") UUID hotelId);
+}
@@ -2,9 +2,14 @@ package com.wissen.hotel.repository;
 
 import com.wissen.hotel.model.User;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 import java.util.Optional;
 
@@ -12,4 +17,17 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
 
     Optional<User> findByPhone(String phone);
-}
\ No newline at end of file
+
+    // Keyset pages of all users, newest first, walking idx_users_created
+    @Query("SELECT u FROM User u ORDER BY u.createdAt DESC, u.userId DESC")
+    List<User> findNewest(Pageable pageable);
+
+    @Query("""
+            SELECT u FROM User u
+            WHERE (u.createdAt, u.userId) < (:createdAt, :userId)
+            ORDER BY u.createdAt DESC, u.userId DESC
+            """)
+    List<User> findBefore(@Param("createdAt") LocalDateTime createdAt,
+                          @Param("userId") UUID userId,
+                          Pageable pageable);
+}
@@ -0,0 +1,13 @@
+package com.wissen.hotel.repository.projection;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One {@code room_availability} row without the room entity attached.
+ */
+public interface AvailabilityCell {
+    UUID getRoomId();
+    LocalDate getDate();
+    Integer getAvailableRooms();
+}
@@ -0,0 +1,11 @@
+package com.wissen.hotel.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * A per-hotel count from a grouped query.
+ */
+public interface HotelCountView {
+    UUID getHotelId();
+    long getCount();
+}
@@ -0,0 +1,15 @@
+package com.wissen.hotel.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Coordinates and cheapest room base price of an approved hotel, used to build the in-memory geo
+ * indexes.
+ */
+public interface HotelLocationView {
+    UUID getHotelId();
+    BigDecimal getLatitude();
+    BigDecimal getLongitude();
+    BigDecimal getMinPrice();
+}
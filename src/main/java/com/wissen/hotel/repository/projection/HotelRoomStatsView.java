@@ -0,0 +1,13 @@
+package com.wissen.hotel.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Room inventory of one hotel: room types, rooms across all types and rooms still free on one night.
+ */
+public interface HotelRoomStatsView {
+    UUID getHotelId();
+    long getRoomTypes();
+    long getTotalRooms();
+    long getAvailableRooms();
+}
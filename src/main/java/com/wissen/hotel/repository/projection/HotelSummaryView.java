@@ -0,0 +1,23 @@
+package com.wissen.hotel.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Listing columns of a hotel plus its cheapest room base price. Leaves out the {@code @Lob}
+ * description and address so list pages never read them.
+ */
+public interface HotelSummaryView {
+    UUID getHotelId();
+    UUID getOwnerId();
+    String getName();
+    String getCity();
+    String getState();
+    String getCountry();
+    BigDecimal getLatitude();
+    BigDecimal getLongitude();
+    boolean isApproved();
+    LocalDateTime getCreatedAt();
+    BigDecimal getMinPrice();
+}
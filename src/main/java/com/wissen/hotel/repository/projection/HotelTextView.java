@@ -0,0 +1,16 @@
+package com.wissen.hotel.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Searchable text of an approved hotel, used to build the in-memory text index.
+ */
+public interface HotelTextView {
+    UUID getHotelId();
+    String getName();
+    String getDescription();
+    String getAddress();
+    String getCity();
+    String getState();
+    String getCountry();
+}
@@ -0,0 +1,9 @@
+package com.wissen.hotel.repository.projection;
+
+/**
+ * Rooms of a hotel and how many are free on one night of a series.
+ */
+public interface OccupancyCell {
+    long getTotalRooms();
+    long getAvailableRooms();
+}
@@ -0,0 +1,13 @@
+package com.wissen.hotel.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * The inventory-related columns of a room, read without loading the hotel and owner graph.
+ */
+public interface RoomInventoryView {
+    UUID getRoomId();
+    UUID getHotelId();
+    Integer getCapacity();
+    Integer getTotalRooms();
+}
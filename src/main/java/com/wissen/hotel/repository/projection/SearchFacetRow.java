@@ -0,0 +1,23 @@
+package com.wissen.hotel.repository.projection;
+
+import com.wissen.hotel.enums.RoomType;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One room of a searchable hotel, repeated once per amenity of the room ({@code amenityId} is
+ * {@code null} for rooms without amenities). Rows come ordered by hotel, then room;
+ * {@code availableRooms} is the fewest rooms of the type free on any night of the stay.
+ */
+public interface SearchFacetRow {
+    UUID getHotelId();
+    String getCity();
+    UUID getRoomId();
+    RoomType getRoomType();
+    BigDecimal getBasePrice();
+    Integer getCapacity();
+    UUID getAmenityId();
+    String getAmenityName();
+    Integer getAvailableRooms();
+}
@@ -0,0 +1,12 @@
+package com.wissen.hotel.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Rooms taken for the nights [checkIn, checkOut), by a booking or a checkout hold.
+ */
+public interface StayView {
+    LocalDate getCheckIn();
+    LocalDate getCheckOut();
+    int getRooms();
+}
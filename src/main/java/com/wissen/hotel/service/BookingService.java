@@ -13,7 +13,7 @@ public interface BookingService {
     BookingResponse updateBooking(UUID bookingId, UpdateBookingRequest request);
     BookingResponse approveBooking(UUID bookingId);
     BookingResponse cancelBooking(UUID bookingId);
-    List<BookingResponse> getAllBookings(String filter); // Admin only
+    CursorPage<BookingResponse> getAllBookings(String filter, String cursor, int size); // Admin only
     List<BookingResponse> getBookingsForHotel(UUID hotelId);
     BookingResponse generateInvoice(UUID bookingId);
     boolean isRoomAvailable(UUID roomId, LocalDate checkIn, LocalDate checkOut);
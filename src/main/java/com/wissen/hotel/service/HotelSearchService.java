@@ -0,0 +1,13 @@
+package com.wissen.hotel.service;
+
+import com.wissen.hotel.dto.response.HotelSearchResponse;
+
+import java.time.LocalDate;
+
+public interface HotelSearchService {
+    HotelSearchResponse searchHotels(String city, LocalDate checkIn, LocalDate checkOut, int numberOfGuests,
+                                     int page, int size, boolean includeFacets);
+
+    /** Validates the search now; the returned stream runs it when consumed. */
+    HotelSearchStream streamHotels(String city, LocalDate checkIn, LocalDate checkOut, int numberOfGuests);
+}
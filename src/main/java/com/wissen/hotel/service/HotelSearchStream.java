@@ -0,0 +1,21 @@
+package com.wissen.hotel.service;
+
+import com.wissen.hotel.dto.response.HotelResponse;
+
+import java.util.function.Predicate;
+
+/**
+ * A validated search whose results are produced one hotel at a time, in the order they finish pricing.
+ */
+@FunctionalInterface
+public interface HotelSearchStream {
+
+    /**
+     * Runs the search on the calling thread and hands every matching hotel to {@code sink} as soon as it
+     * is priced. Returning {@code false} from the sink (e.g. the client went away) stops the search and
+     * cancels the pricing still in flight.
+     *
+     * @return whether some rooms were left out because they were not priced by the deadline
+     */
+    boolean forEach(Predicate<HotelResponse> sink);
+}
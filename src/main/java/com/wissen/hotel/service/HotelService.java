@@ -2,7 +2,13 @@ package com.wissen.hotel.service;
 
 import com.wissen.hotel.dto.request.CreateHotelRequest;
 import com.wissen.hotel.dto.request.UpdateHotelRequest;
+import com.wissen.hotel.dto.response.CursorPage;
 import com.wissen.hotel.dto.response.HotelResponse;
+import com.wissen.hotel.dto.response.HotelSearchResponse;
+import com.wissen.hotel.dto.response.HotelTextMatchResponse;
+import com.wissen.hotel.dto.response.MapClusterResponse;
+import com.wissen.hotel.dto.response.OwnerHotelSummaryResponse;
+import com.wissen.hotel.dto.response.PagedResponse;
 import com.wissen.hotel.dto.response.RoomResponse;
 
 import java.time.LocalDate;
@@ -10,19 +16,27 @@ import java.util.List;
 import java.util.UUID;
 
 public interface HotelService {
-    List<HotelResponse> getAllHotels(String city, int page, int size);
+    PagedResponse<HotelResponse> getAllHotels(String city, int page, int size);
+    CursorPage<HotelResponse> scrollHotels(String city, String cursor, int size);
     HotelResponse getHotelById(UUID id);
     HotelResponse createHotel(CreateHotelRequest request);
     HotelResponse updateHotel(UUID id, UpdateHotelRequest request);
     void deleteHotel(UUID id);
     HotelResponse approveHotel(UUID id);
 
-    List<HotelResponse> searchHotels(String city, LocalDate checkIn, LocalDate checkOut, int numberOfGuests, int page, int size);
+    HotelSearchResponse searchHotels(String city, LocalDate checkIn, LocalDate checkOut, int numberOfGuests,
+                                     int page, int size, boolean includeFacets);
+    HotelSearchStream streamSearchHotels(String city, LocalDate checkIn, LocalDate checkOut, int numberOfGuests);
+    PagedResponse<HotelTextMatchResponse> searchHotelsByText(String query, int page, int size);
     List<HotelResponse> getTopRatedHotels();
-    List<HotelResponse> findNearbyHotels(double latitude, double longitude, double radiusKm);
+    List<HotelResponse> findNearbyHotels(double latitude, double longitude, double radiusKm,
+                                         LocalDate checkIn, LocalDate checkOut, int limit);
+    List<MapClusterResponse> getMapClusters(double minLatitude, double minLongitude,
+                                            double maxLatitude, double maxLongitude, int zoom);
     List<RoomResponse> getHotelRooms(UUID hotelId);
     Object checkAvailability(UUID hotelId, String checkIn, String checkOut);
     List<HotelResponse> getHotelsOwnedByCurrentUser();
+    List<OwnerHotelSummaryResponse> getOwnerPortfolio();
     
     // List<HotelResponse> getFeaturedHotels();
     double getAverageRating(UUID hotelId);
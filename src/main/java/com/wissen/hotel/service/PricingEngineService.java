@@ -23,5 +23,6 @@ import java.util.UUID;
 public interface PricingEngineService {
     PriceCalculationResponse calculatePrice(UUID roomId, LocalDate checkIn, LocalDate checkOut);
     List<PriceSimulationResult> simulatePricing(PriceSimulationRequest request);
+    RateGridResponse getRateGrid(UUID hotelId, LocalDate startDate, int days);
     BigDecimal applyPricingRules(BigDecimal basePrice, List<PricingRule> rules, LocalDate checkIn, LocalDate checkOut, UUID hotelId);
 }
\ No newline at end of file
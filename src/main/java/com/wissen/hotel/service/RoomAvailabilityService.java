@@ -2,15 +2,36 @@ package com.wissen.hotel.service;
 
 import com.wissen.hotel.dto.request.UpdateInventoryRequest;
 import com.wissen.hotel.dto.request.BlockRoomRequest;
+import com.wissen.hotel.dto.request.PlaceHoldRequest;
+import com.wissen.hotel.dto.response.AvailabilityIndexConsistencyResponse;
+import com.wissen.hotel.dto.response.InventoryHoldResponse;
+import com.wissen.hotel.dto.response.RoomAvailabilityCalendarResponse;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.UUID;
 
 public interface RoomAvailabilityService {
     boolean isRoomAvailable(UUID roomId, LocalDate date);
     boolean isRoomAvailableForRange(UUID roomId, LocalDate start, LocalDate end);
+    int getMinAvailableRooms(UUID roomId, LocalDate checkIn, LocalDate checkOut);
+    RoomAvailabilityCalendarResponse getAvailabilityCalendar(Collection<UUID> roomIds, UUID hotelId,
+                                                             LocalDate start, LocalDate end);
     void updateInventory(UUID roomId, UpdateInventoryRequest request);
+    void reserveRange(UUID roomId, LocalDate checkIn, LocalDate checkOut, int rooms);
+    void releaseRange(UUID roomId, LocalDate checkIn, LocalDate checkOut, int rooms);
+    InventoryHoldResponse placeHold(UUID roomId, PlaceHoldRequest request);
+    void releaseHold(UUID holdId);
+    void claimHold(UUID holdId, UUID userId, UUID roomId, LocalDate checkIn, LocalDate checkOut, int rooms);
+    void expireHolds();
+    void loadHolds();
     void blockRoomDates(UUID roomId, BlockRoomRequest request);
     void unblockRoomDates(UUID roomId, BlockRoomRequest request);
+    void generateAvailabilityHorizon();
+    void backfillRoom(UUID roomId, int previousTotalRooms);
+    void deleteRoomInventory(UUID roomId);
     double getHotelAvailabilityRatio(UUID hotelId, LocalDate checkIn, LocalDate checkOut);
+    double[] getHotelOccupancySeries(UUID hotelId, LocalDate from, LocalDate to);
+    void reloadAvailabilityIndex();
+    AvailabilityIndexConsistencyResponse checkIndexConsistency();
 }
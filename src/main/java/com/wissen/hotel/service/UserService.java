@@ -11,7 +11,7 @@ public interface UserService {
     UserResponse updateCurrentUser(UpdateUserRequest request);
     List<BookingResponse> getCurrentUserBookings();
     UserResponse getUserById(String id);
-    List<UserResponse> getAllUsers(int page, int size);
+    CursorPage<UserResponse> getAllUsers(String cursor, int size);
     void updateUserRole(String id, UpdateUserRoleRequest request);
     void deleteUser(String id);
 }
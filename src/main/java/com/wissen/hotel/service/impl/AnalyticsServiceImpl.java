@@ -24,6 +24,7 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     private final BookingService bookingService;
     private final RoomRepository roomRepository;
     private final HotelService hotelService;
+    private final RoomAvailabilityService roomAvailabilityService;
 
     @Override
     @Transactional
@@ -33,7 +34,7 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         double averageRating = hotelService.getAverageRating(hotelId);
 
         return HotelAnalyticsResponse.builder()
-            .overview(createOverview(bookings, rooms, averageRating))
+            .overview(createOverview(hotelId, bookings, rooms, averageRating))
             .recentBookings(createRecentBookings(bookings))
             .roomPerformance(createRoomPerformance(bookings, rooms))
             .bookingStatus(createBookingStatus(bookings))
@@ -41,14 +42,14 @@ public class AnalyticsServiceImpl implements AnalyticsService {
             .build();
     }
 
-    private HotelAnalyticsResponse.Overview createOverview(List<BookingResponse> bookings,
+    private HotelAnalyticsResponse.Overview createOverview(UUID hotelId, List<BookingResponse> bookings,
                                                          List<Room> rooms, double averageRating) {
         LocalDate today = LocalDate.now();
         LocalDate thirtyDaysAgo = today.minusDays(29);
 
         long totalBookings = bookings.size();
         BigDecimal totalRevenue = getConfirmedBookingsRevenue(bookings);
-        double occupancyRate = calculateOccupancyRate(bookings, rooms, thirtyDaysAgo, today);
+        double occupancyRate = calculateOccupancyRate(hotelId, rooms, thirtyDaysAgo, today);
 
         return HotelAnalyticsResponse.Overview.builder()
             .totalBookings(totalBookings)
@@ -122,22 +123,12 @@ public class AnalyticsServiceImpl implements AnalyticsService {
             .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
-    private double calculateOccupancyRate(List<BookingResponse> bookings, List<Room> rooms,
-                                        LocalDate start, LocalDate end) {
+    // Average share of the hotel's rooms taken per night, from the daily occupancy aggregate
+    private double calculateOccupancyRate(UUID hotelId, List<Room> rooms, LocalDate start, LocalDate end) {
         int totalRooms = rooms.stream().mapToInt(Room::getTotalRooms).sum();
         if (totalRooms == 0) return 0.0;
-        long totalNights = ChronoUnit.DAYS.between(start, end.plusDays(1));
-        long bookedNights = bookings.stream()
-            .filter(b -> b.getStatus() == BookingStatus.CONFIRMED)
-            .flatMap(b -> getBookingNights(b, start, end))
-            .count();
-
-        return (double) bookedNights / (totalRooms * totalNights);
-    }
-
-    private Stream<LocalDate> getBookingNights(BookingResponse booking, LocalDate start, LocalDate end) {
-        return booking.getCheckIn().datesUntil(booking.getCheckOut())
-            .filter(date -> !date.isBefore(start) && !date.isAfter(end));
+        double[] occupancy = roomAvailabilityService.getHotelOccupancySeries(hotelId, start, end.plusDays(1));
+        return Arrays.stream(occupancy).average().orElse(0.0);
     }
 
     private long countDailyBookings(List<BookingResponse> bookings, LocalDate date) {
@@ -5,25 +5,31 @@ import com.wissen.hotel.dto.response.*;
 import com.wissen.hotel.enums.BookingStatus;
 import com.wissen.hotel.exception.BadRequestException;
 import com.wissen.hotel.exception.ResourceNotFoundException;
+import com.wissen.hotel.exception.RoomSoldOutException;
+import com.wissen.hotel.lock.RoomWriteOrder;
 import com.wissen.hotel.model.*;
 import com.wissen.hotel.repository.*;
 import com.wissen.hotel.service.BookingService;
 import com.wissen.hotel.service.EmailService;
 import com.wissen.hotel.service.RoomAvailabilityService;
 import com.wissen.hotel.util.AuthUtil;
+import com.wissen.hotel.util.PageCursor;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -35,6 +41,8 @@ public class BookingServiceImpl implements BookingService {
     private final RoomAvailabilityService roomAvailabilityService;
 
     private final EmailService emailService;
+    private final RoomWriteOrder roomWriteOrder;
+    private final TransactionTemplate transactionTemplate;
 
     private static final String BOOKING_NOT_FOUND = "Booking not found";
 
@@ -47,27 +55,9 @@ public class BookingServiceImpl implements BookingService {
 
         validateBookingDates(request.getCheckIn(), request.getCheckOut());
 
-        boolean isAvailable = isRoomAvailable(room.getRoomId(), request.getCheckIn(), request.getCheckOut());
-        if (!isAvailable) {
-            throw new BadRequestException("Room is not available for the selected dates.");
-        }
-
-        long days = ChronoUnit.DAYS.between(request.getCheckIn(), request.getCheckOut());
-        BigDecimal finalPrice = room.getBasePrice().multiply(BigDecimal.valueOf(days)).multiply(BigDecimal.valueOf(request.getRoomsBooked()));
-
-        Booking booking = Booking.builder()
-                .room(room)
-                .user(user)
-                .checkIn(request.getCheckIn())
-                .checkOut(request.getCheckOut())
-                .guests(request.getGuests())
-                .roomsBooked(request.getRoomsBooked())
-                .status(BookingStatus.PENDING)
-                .finalPrice(finalPrice)
-                .createdAt(LocalDateTime.now())
-                .build();
-
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking = request.getHoldId() != null
+                ? bookHeldRooms(room, user, request)
+                : bookFreeRooms(room, user, request);
 
         // Send booking confirmation email
         emailService.sendBookingConfirmation(
@@ -76,9 +66,6 @@ public class BookingServiceImpl implements BookingService {
             savedBooking.getUser().getName()
         );
 
-        approveBooking(booking.getBookingId()); // Automatically approve the booking for simplicity in this example
-        // Update room availability when a booking is approved
-
         //Send booking success or approval to hotel owner if needed
         emailService.sendBookingSuccessToUser(
             savedBooking.getUser().getEmail(),
@@ -110,37 +97,37 @@ public class BookingServiceImpl implements BookingService {
 
         validateBookingDates(request.getCheckIn(), request.getCheckOut());
 
-        boolean isAvailable = isRoomAvailable(booking.getRoom().getRoomId(), request.getCheckIn(), request.getCheckOut(), bookingId);
-        if (!isAvailable) {
-            throw new BadRequestException("Room is not available for the new dates.");
-        }
-
-        LocalDate oldCurrent = booking.getCheckIn();
-        while (oldCurrent.isBefore(booking.getCheckOut())) {
-            UpdateInventoryRequest restoreRequest = new UpdateInventoryRequest();
-            restoreRequest.setDate(oldCurrent);
-            restoreRequest.setRoomsToBook(-booking.getRoomsBooked());
-            roomAvailabilityService.updateInventory(booking.getRoom().getRoomId(), restoreRequest);
-            oldCurrent = oldCurrent.plusDays(1);
-        }
-
-        booking.setCheckIn(request.getCheckIn());
-        booking.setCheckOut(request.getCheckOut());
-        booking.setGuests(request.getGuests());
-        booking.setRoomsBooked(request.getRoomsBooked());
-
-        long days = ChronoUnit.DAYS.between(request.getCheckIn(), request.getCheckOut());
-        booking.setFinalPrice(booking.getRoom().getBasePrice().multiply(BigDecimal.valueOf(days)).multiply(BigDecimal.valueOf(request.getRoomsBooked())));
-
-        LocalDate newCurrent = booking.getCheckIn();
-        while (newCurrent.isBefore(booking.getCheckOut())) {
-            UpdateInventoryRequest deductRequest = new UpdateInventoryRequest();
-            deductRequest.setDate(newCurrent);
-            deductRequest.setRoomsToBook(booking.getRoomsBooked());
-            roomAvailabilityService.updateInventory(booking.getRoom().getRoomId(), deductRequest);
-            newCurrent = newCurrent.plusDays(1);
-        }
-        return mapToResponse(bookingRepository.save(booking));
+        // The transaction runs inside the room's turn, so the new inventory is committed before the next write
+        return inRoomOrder(booking.getRoom(), () -> {
+            boolean isAvailable = isRoomAvailable(booking.getRoom().getRoomId(), request.getCheckIn(), request.getCheckOut(), bookingId);
+            if (!isAvailable) {
+                throw new BadRequestException("Room is not available for the new dates.");
+            }
+
+            // Releasing the old stay and taking the new one commit together or not at all
+            Booking saved = transactionTemplate.execute(status -> {
+                if (holdsInventory(booking)) {
+                    UUID roomId = booking.getRoom().getRoomId();
+                    roomAvailabilityService.releaseRange(roomId, booking.getCheckIn(), booking.getCheckOut(), booking.getRoomsBooked());
+                    try {
+                        roomAvailabilityService.reserveRange(roomId, request.getCheckIn(), request.getCheckOut(), request.getRoomsBooked());
+                    } catch (IllegalArgumentException e) {
+                        throw new BadRequestException("Room is not available for the new dates.");
+                    }
+                }
+
+                booking.setCheckIn(request.getCheckIn());
+                booking.setCheckOut(request.getCheckOut());
+                booking.setGuests(request.getGuests());
+                booking.setRoomsBooked(request.getRoomsBooked());
+
+                long days = ChronoUnit.DAYS.between(request.getCheckIn(), request.getCheckOut());
+                booking.setFinalPrice(booking.getRoom().getBasePrice().multiply(BigDecimal.valueOf(days)).multiply(BigDecimal.valueOf(request.getRoomsBooked())));
+
+                return bookingRepository.save(booking);
+            });
+            return mapToResponse(saved);
+        });
     }
 
     @Override
@@ -152,9 +139,19 @@ public class BookingServiceImpl implements BookingService {
             throw new IllegalStateException("Only PENDING bookings can be approved.");
         }
 
-        booking.setStatus(BookingStatus.CONFIRMED);
-        bookingRepository.save(booking);
+        // Inventory first, so that a sold-out stay is neither confirmed nor announced
+        inRoomOrder(booking.getRoom(), () -> transactionTemplate.execute(status -> {
+            reserve(booking.getRoom(), booking.getCheckIn(), booking.getCheckOut(), booking.getRoomsBooked());
+            booking.setStatus(BookingStatus.CONFIRMED);
+            return bookingRepository.save(booking);
+        }));
 
+        sendApprovalEmails(booking);
+        return mapToResponse(booking);
+    }
+
+    // Sent once the room's turn is over: mail must not hold up the next booking of the room
+    private void sendApprovalEmails(Booking booking) {
         // Send booking approval to hotel owner
         emailService.sendBookingApprovalToHotelOwner(
             booking.getRoom().getHotel().getOwner().getEmail(),
@@ -168,17 +165,6 @@ public class BookingServiceImpl implements BookingService {
             booking.getBookingId().toString(),
             booking.getUser().getName()
         );
-
-        LocalDate current = booking.getCheckIn();
-        while (current.isBefore(booking.getCheckOut())) {
-            UpdateInventoryRequest inventoryRequest = new UpdateInventoryRequest();
-            inventoryRequest.setDate(current);
-            inventoryRequest.setRoomsToBook(booking.getRoomsBooked());
-            roomAvailabilityService.updateInventory(booking.getRoom().getRoomId(), inventoryRequest);
-            current = current.plusDays(1);
-        }
-
-        return mapToResponse(booking);
     }
 
     @Override
@@ -186,8 +172,17 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException(BOOKING_NOT_FOUND));
 
-        booking.setStatus(BookingStatus.CANCELLED);
-        bookingRepository.save(booking);
+        // Only a confirmed booking took rooms; the release commits with the cancellation
+        boolean release = holdsInventory(booking);
+        inRoomOrder(booking.getRoom(), () -> transactionTemplate.execute(status -> {
+            booking.setStatus(BookingStatus.CANCELLED);
+            Booking saved = bookingRepository.save(booking);
+            if (release) {
+                roomAvailabilityService.releaseRange(booking.getRoom().getRoomId(),
+                        booking.getCheckIn(), booking.getCheckOut(), booking.getRoomsBooked());
+            }
+            return saved;
+        }));
 
         // Send booking cancellation email
         emailService.sendBookingCancellation(
@@ -203,23 +198,21 @@ public class BookingServiceImpl implements BookingService {
             booking.getUser().getName()
         );
 
-        LocalDate current = booking.getCheckIn();
-        while (current.isBefore(booking.getCheckOut())) {
-            UpdateInventoryRequest inventoryRequest = new UpdateInventoryRequest();
-            inventoryRequest.setDate(current);
-            inventoryRequest.setRoomsToBook(-booking.getRoomsBooked());
-            roomAvailabilityService.updateInventory(booking.getRoom().getRoomId(), inventoryRequest);
-            current = current.plusDays(1);
-        }
-
         return mapToResponse(booking);
     }
 
     @Override
-    public List<BookingResponse> getAllBookings(String filter) {
-        return bookingRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .toList();
+    public CursorPage<BookingResponse> getAllBookings(String filter, String cursor, int size) {
+        if (size <= 0) {
+            throw new BadRequestException("Size must be positive.");
+        }
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest rows = PageRequest.of(0, size + 1);
+        List<Booking> bookings = after == null
+                ? bookingRepository.findNewest(rows)
+                : bookingRepository.findBefore(after.createdAt(), after.id(), rows);
+        return CursorPage.of(bookings, size, this::mapToResponse,
+                booking -> new PageCursor(booking.getCreatedAt(), booking.getBookingId()));
     }
 
     @Override
@@ -257,6 +250,70 @@ public class BookingServiceImpl implements BookingService {
         return roomAvailabilityService.isRoomAvailableForRange(roomId, checkIn, checkOut);
     }
 
+    // The availability check, the booking and its inventory are one step per room. The booking is
+    // approved straight away, and saved only together with its inventory so a sold-out stay leaves nothing behind.
+    private Booking bookFreeRooms(Room room, User user, CreateBookingRequest request) {
+        Booking confirmed = inRoomOrder(room, () -> {
+            boolean isAvailable = isRoomAvailable(room.getRoomId(), request.getCheckIn(), request.getCheckOut());
+            if (!isAvailable) {
+                throw new BadRequestException("Room is not available for the selected dates.");
+            }
+
+            return transactionTemplate.execute(status -> {
+                reserve(room, request.getCheckIn(), request.getCheckOut(), request.getRoomsBooked());
+                return bookingRepository.save(newBooking(room, user, request, BookingStatus.CONFIRMED));
+            });
+        });
+
+        sendApprovalEmails(confirmed);
+        return confirmed;
+    }
+
+    private void reserve(Room room, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        try {
+            roomAvailabilityService.reserveRange(room.getRoomId(), checkIn, checkOut, rooms);
+        } catch (IllegalArgumentException e) {
+            throw new RoomSoldOutException("Room is no longer available for the selected dates.");
+        }
+    }
+
+    private boolean holdsInventory(Booking booking) {
+        return booking.getStatus() == BookingStatus.CONFIRMED;
+    }
+
+    // The hold already took the rooms: no availability check and no second reservation. The hold goes
+    // in the same transaction as the booking is saved, so a failure leaves the hold in place to expire.
+    private Booking bookHeldRooms(Room room, User user, CreateBookingRequest request) {
+        return inRoomOrder(room, () -> transactionTemplate.execute(status -> {
+            roomAvailabilityService.claimHold(request.getHoldId(), user != null ? user.getUserId() : null,
+                    room.getRoomId(), request.getCheckIn(), request.getCheckOut(), request.getRoomsBooked());
+            return bookingRepository.save(newBooking(room, user, request, BookingStatus.CONFIRMED));
+        }));
+    }
+
+    private Booking newBooking(Room room, User user, CreateBookingRequest request, BookingStatus status) {
+        long days = ChronoUnit.DAYS.between(request.getCheckIn(), request.getCheckOut());
+        BigDecimal finalPrice = room.getBasePrice().multiply(BigDecimal.valueOf(days)).multiply(BigDecimal.valueOf(request.getRoomsBooked()));
+
+        return Booking.builder()
+                .room(room)
+                .user(user)
+                .checkIn(request.getCheckIn())
+                .checkOut(request.getCheckOut())
+                .guests(request.getGuests())
+                .roomsBooked(request.getRoomsBooked())
+                .status(status)
+                .finalPrice(finalPrice)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    // Runs a write after the earlier writes of the room: queued for hot hotels, under the room lock otherwise
+    private <T> T inRoomOrder(Room room, Supplier<T> write) {
+        UUID hotelId = room.getHotel() != null ? room.getHotel().getHotelId() : null;
+        return roomWriteOrder.call(room.getRoomId(), hotelId, write);
+    }
+
     private BookingResponse mapToResponse(Booking booking) {
         return BookingResponse.builder()
                 .bookingId(booking.getBookingId())
@@ -0,0 +1,410 @@
+package com.wissen.hotel.service.impl;
+
+import com.wissen.hotel.config.SearchPricingExecutor;
+import com.wissen.hotel.dto.response.HotelResponse;
+import com.wissen.hotel.dto.response.HotelSearchResponse;
+import com.wissen.hotel.dto.response.RoomSelectionResponse;
+import com.wissen.hotel.dto.response.SearchFacetsResponse;
+import com.wissen.hotel.exception.BadRequestException;
+import com.wissen.hotel.model.Hotel;
+import com.wissen.hotel.repository.HotelRepository;
+import com.wissen.hotel.repository.RoomRepository;
+import com.wissen.hotel.repository.projection.RoomInventoryView;
+import com.wissen.hotel.repository.projection.SearchFacetRow;
+import com.wissen.hotel.service.HotelSearchService;
+import com.wissen.hotel.service.HotelSearchStream;
+import com.wissen.hotel.service.PricingEngineService;
+import com.wissen.hotel.service.RoomAvailabilityService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based hotel search: the database resolves city, approval, capacity and availability over the
+ * stay and pages the matching hotels. Rooms of the page are then checked against the availability
+ * index, and every room type with rooms free is priced once, in parallel on
+ * {@link SearchPricingExecutor}. Each hotel is offered at its cheapest mix of room types hosting the
+ * party (see {@link RoomMixOptimizer}). Rooms not priced by the search deadline are left out and the
+ * response is flagged as partial.
+ *
+ * <p>{@link #streamHotels} walks all matching hotels in batches instead of one page and emits each
+ * hotel as soon as its rooms are priced.
+ */
+@Service
+@RequiredArgsConstructor
+public class HotelSearchServiceImpl implements HotelSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotelSearchServiceImpl.class);
+    // Each hotel on a page is priced, so larger pages are cut down to this
+    private static final int MAX_PAGE_SIZE = 100;
+    private final HotelRepository hotelRepository;
+    private final RoomRepository roomRepository;
+    private final PricingEngineService pricingEngineService;
+    private final RoomAvailabilityService roomAvailabilityService;
+    private final SearchPricingExecutor searchPricingExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.search.pricing.deadline-ms:2000}")
+    private long pricingDeadlineMs;
+
+    @Value("${app.search.stream.batch-size:50}")
+    private int streamBatchSize;
+
+    @Value("${app.search.facets.price-buckets:50,100,200,500}")
+    private int[] facetPriceBounds;
+
+    private record PricedRoom(UUID roomId, int capacity, int available, CompletableFuture<BigDecimal> price) {
+    }
+
+    private record PricingBatch(Map<UUID, Hotel> hotels, Map<UUID, List<PricedRoom>> roomsByHotel, int numberOfGuests) {
+        List<PricedRoom> rooms() {
+            return roomsByHotel.values().stream().flatMap(List::stream).toList();
+        }
+    }
+
+    private record StreamedBatch(boolean partial, boolean cancelled) {
+    }
+
+    @Override
+    public HotelSearchResponse searchHotels(String city, LocalDate checkIn, LocalDate checkOut, int numberOfGuests,
+                                            int page, int size, boolean includeFacets) {
+        validate(checkIn, checkOut, numberOfGuests);
+        if (page < 0 || size <= 0) {
+            throw new BadRequestException("Page must be non-negative and size must be positive.");
+        }
+        String cityFilter = cityFilter(city);
+        long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
+
+        Page<UUID> hotelIds = hotelRepository.findSearchableHotelIds(
+                cityFilter, checkIn, checkOut, nights, numberOfGuests, PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE)));
+        if (hotelIds.isEmpty()) {
+            return HotelSearchResponse.builder()
+                    .hotels(List.of())
+                    .facets(includeFacets && hotelIds.getTotalElements() > 0
+                            ? countFacets(cityFilter, checkIn, checkOut, nights, numberOfGuests) : null)
+                    .build();
+        }
+
+        PricingBatch batch = startPricing(hotelIds.getContent(), checkIn, checkOut, numberOfGuests);
+        logger.debug("Search in {} matched {} hotels, pricing {} candidate rooms",
+                cityFilter, hotelIds.getTotalElements(), batch.rooms().size());
+        // Counted while the page is being priced
+        SearchFacetsResponse facets = includeFacets ? countFacets(cityFilter, checkIn, checkOut, nights, numberOfGuests) : null;
+        boolean partial = awaitPricing(batch.rooms());
+
+        List<HotelResponse> results = new ArrayList<>();
+        batch.roomsByHotel().forEach((hotelId, rooms) -> {
+            HotelResponse response = cheapestOption(batch.hotels().get(hotelId), rooms, batch.numberOfGuests());
+            if (response != null) {
+                results.add(response);
+            }
+        });
+        return HotelSearchResponse.builder().hotels(results).partial(partial).facets(facets).build();
+    }
+
+    @Override
+    public HotelSearchStream streamHotels(String city, LocalDate checkIn, LocalDate checkOut, int numberOfGuests) {
+        validate(checkIn, checkOut, numberOfGuests);
+        String cityFilter = cityFilter(city);
+        long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
+
+        return sink -> {
+            boolean partial = false;
+            Pageable pageable = PageRequest.of(0, streamBatchSize);
+            while (true) {
+                Slice<UUID> hotelIds = hotelRepository.findSearchableHotelIdSlice(
+                        cityFilter, checkIn, checkOut, nights, numberOfGuests, pageable);
+                if (hotelIds.hasContent()) {
+                    StreamedBatch streamed = streamBatch(
+                            startPricing(hotelIds.getContent(), checkIn, checkOut, numberOfGuests), sink);
+                    partial |= streamed.partial();
+                    if (streamed.cancelled()) {
+                        logger.debug("Search stream in {} cancelled by the client", cityFilter);
+                        return partial;
+                    }
+                }
+                if (!hotelIds.hasNext()) {
+                    return partial;
+                }
+                pageable = hotelIds.nextPageable();
+            }
+        };
+    }
+
+    private void validate(LocalDate checkIn, LocalDate checkOut, int numberOfGuests) {
+        if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+            throw new BadRequestException("Invalid check-in or check-out dates.");
+        }
+        if (numberOfGuests <= 0) {
+            throw new BadRequestException("Number of guests must be positive.");
+        }
+    }
+
+    private static String cityFilter(String city) {
+        return (city == null || city.isBlank()) ? null : city.trim();
+    }
+
+    // Loads the rooms of the given hotels and starts pricing each room type with rooms free for the
+    // whole stay, once. Hotels whose free rooms together cannot host the party are left out.
+    private PricingBatch startPricing(List<UUID> hotelIds, LocalDate checkIn, LocalDate checkOut, int numberOfGuests) {
+        Map<UUID, List<RoomInventoryView>> roomsOfHotel = roomRepository
+                .findInventoryViewsByHotelIds(hotelIds).stream()
+                .collect(Collectors.groupingBy(RoomInventoryView::getHotelId));
+        Map<UUID, Hotel> hotels = hotelRepository.findAllById(hotelIds).stream()
+                .collect(Collectors.toMap(Hotel::getHotelId, Function.identity()));
+
+        Map<UUID, List<PricedRoom>> roomsByHotel = new LinkedHashMap<>();
+        for (UUID hotelId : hotelIds) {
+            List<RoomInventoryView> rooms = roomsOfHotel.getOrDefault(hotelId, List.of());
+            if (!hotels.containsKey(hotelId)) {
+                continue;
+            }
+            int[] available = new int[rooms.size()];
+            long guestsHosted = 0;
+            for (int i = 0; i < rooms.size(); i++) {
+                available[i] = freeRooms(rooms.get(i).getRoomId(), rooms.get(i).getCapacity(), checkIn, checkOut);
+                if (available[i] > 0) {
+                    guestsHosted += (long) available[i] * rooms.get(i).getCapacity();
+                }
+            }
+            if (guestsHosted < numberOfGuests) {
+                continue; // inventory changed between the queries
+            }
+            List<PricedRoom> priced = new ArrayList<>();
+            for (int i = 0; i < rooms.size(); i++) {
+                if (available[i] > 0) {
+                    priced.add(startPricing(rooms.get(i), available[i], checkIn, checkOut));
+                }
+            }
+            roomsByHotel.put(hotelId, priced);
+        }
+        return new PricingBatch(hotels, roomsByHotel, numberOfGuests);
+    }
+
+    /**
+     * Hands each hotel of the batch to the sink as soon as all its rooms are priced. Hotels still
+     * waiting at the deadline are sent with the rooms priced so far. The batch is only left once the
+     * sink has taken every hotel, so a slow client holds back the next batch instead of piling up
+     * results in memory.
+     */
+    private StreamedBatch streamBatch(PricingBatch batch, Predicate<HotelResponse> sink) {
+        List<PricedRoom> rooms = batch.rooms();
+        if (rooms.isEmpty()) {
+            return new StreamedBatch(false, false);
+        }
+        meterRegistry.summary("search.pricing.fanout").record(rooms.size());
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(pricingDeadlineMs);
+
+        BlockingQueue<UUID> ready = new LinkedBlockingQueue<>();
+        batch.roomsByHotel().forEach((hotelId, hotelRooms) ->
+                CompletableFuture.allOf(hotelRooms.stream().map(PricedRoom::price).toArray(CompletableFuture[]::new))
+                        .whenComplete((ignored, error) -> ready.add(hotelId)));
+
+        Map<UUID, List<PricedRoom>> pending = new LinkedHashMap<>(batch.roomsByHotel());
+        try {
+            while (!pending.isEmpty()) {
+                UUID hotelId = ready.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (hotelId == null) {
+                    break; // deadline
+                }
+                if (!emit(batch.hotels().get(hotelId), pending.remove(hotelId), batch.numberOfGuests(), sink)) {
+                    rooms.forEach(room -> room.price().cancel(false));
+                    return new StreamedBatch(false, true);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rooms.forEach(room -> room.price().cancel(false));
+            return new StreamedBatch(false, true);
+        }
+        meterRegistry.timer("search.pricing.duration").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        boolean partial = settlePricing(rooms);
+        for (Map.Entry<UUID, List<PricedRoom>> late : pending.entrySet()) {
+            if (!emit(batch.hotels().get(late.getKey()), late.getValue(), batch.numberOfGuests(), sink)) {
+                return new StreamedBatch(partial, true);
+            }
+        }
+        return new StreamedBatch(partial, false);
+    }
+
+    // false once the sink wants no more results
+    private boolean emit(Hotel hotel, List<PricedRoom> rooms, int numberOfGuests, Predicate<HotelResponse> sink) {
+        HotelResponse response = cheapestOption(hotel, rooms, numberOfGuests);
+        return response == null || sink.test(response);
+    }
+
+    /**
+     * Facet counts over every hotel of the search, from a single query walked once. The query also
+     * brings each room's availability over the stay, so no room is looked up on its own, and only
+     * rooms free for the whole stay contribute.
+     */
+    private SearchFacetsResponse countFacets(String cityFilter, LocalDate checkIn, LocalDate checkOut,
+                                             long nights, int numberOfGuests) {
+        SearchFacetCounter counter = new SearchFacetCounter(facetPriceBounds, numberOfGuests);
+        UUID hotelId = null;
+        UUID roomId = null;
+        boolean roomFree = false;
+        for (SearchFacetRow row : hotelRepository.findSearchFacetRows(cityFilter, checkIn, checkOut, nights, numberOfGuests)) {
+            if (!row.getHotelId().equals(hotelId)) {
+                hotelId = row.getHotelId();
+                counter.startHotel(row.getCity());
+            }
+            if (!row.getRoomId().equals(roomId)) {
+                roomId = row.getRoomId();
+                int available = canHost(row.getCapacity()) && row.getAvailableRooms() != null
+                        ? Math.max(0, row.getAvailableRooms()) : 0;
+                roomFree = available > 0;
+                if (roomFree) {
+                    counter.addRoom(roomId, row.getRoomType(), row.getCapacity(), available, row.getBasePrice());
+                }
+            }
+            if (roomFree && row.getAmenityId() != null) {
+                counter.addAmenity(row.getAmenityId(), row.getAmenityName());
+            }
+        }
+        return counter.toResponse();
+    }
+
+    // Rooms of the type free on every night of the stay; 0 for rooms that cannot host anyone
+    private int freeRooms(UUID roomId, Integer capacity, LocalDate checkIn, LocalDate checkOut) {
+        if (!canHost(capacity)) {
+            return 0;
+        }
+        return Math.max(0, roomAvailabilityService.getMinAvailableRooms(roomId, checkIn, checkOut));
+    }
+
+    private static boolean canHost(Integer capacity) {
+        return capacity != null && capacity > 0;
+    }
+
+    private PricedRoom startPricing(RoomInventoryView room, int available, LocalDate checkIn, LocalDate checkOut) {
+        CompletableFuture<BigDecimal> price = searchPricingExecutor.supply(() ->
+                pricingEngineService.calculatePrice(room.getRoomId(), checkIn, checkOut).getFinalPrice());
+        return new PricedRoom(room.getRoomId(), room.getCapacity(), available, price);
+    }
+
+    /**
+     * Waits for all pricing calls up to the search deadline and cancels the rest.
+     *
+     * @return whether any room is left without a price
+     */
+    private boolean awaitPricing(List<PricedRoom> rooms) {
+        if (rooms.isEmpty()) {
+            return false;
+        }
+        meterRegistry.summary("search.pricing.fanout").record(rooms.size());
+        long start = System.nanoTime();
+        try {
+            CompletableFuture.allOf(rooms.stream().map(PricedRoom::price).toArray(CompletableFuture[]::new))
+                    .get(pricingDeadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Stragglers and failures are counted below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        meterRegistry.timer("search.pricing.duration").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return settlePricing(rooms);
+    }
+
+    /**
+     * Cancels the pricing calls still running and counts them, together with the failed ones.
+     *
+     * @return whether any room is left without a price
+     */
+    private boolean settlePricing(List<PricedRoom> rooms) {
+        int stragglers = 0;
+        for (PricedRoom room : rooms) {
+            CompletableFuture<BigDecimal> price = room.price();
+            if (!price.isDone()) {
+                price.cancel(false);
+                stragglers++;
+            } else if (price.isCompletedExceptionally()) {
+                logger.warn("Pricing room {} failed", room.roomId(), price.handle((value, error) -> error).join());
+                stragglers++;
+            }
+        }
+        if (stragglers > 0) {
+            meterRegistry.counter("search.pricing.stragglers").increment(stragglers);
+            meterRegistry.counter("search.pricing.partial").increment();
+            logger.warn("Search returned partial results: {} of {} rooms not priced within {} ms",
+                    stragglers, rooms.size(), pricingDeadlineMs);
+        }
+        return stragglers > 0;
+    }
+
+    // Cheapest mix of priced rooms hosting the party in one hotel, or null if the rooms that got a
+    // price cannot host it
+    private HotelResponse cheapestOption(Hotel hotel, List<PricedRoom> rooms, int numberOfGuests) {
+        List<RoomMixOptimizer.Option> options = new ArrayList<>(rooms.size());
+        Map<UUID, BigDecimal> prices = new HashMap<>();
+        for (PricedRoom room : rooms) {
+            CompletableFuture<BigDecimal> price = room.price();
+            if (!price.isDone() || price.isCompletedExceptionally()) {
+                continue;
+            }
+            options.add(new RoomMixOptimizer.Option(room.roomId(), room.capacity(), room.available(), price.join()));
+            prices.put(room.roomId(), price.join());
+        }
+        RoomMixOptimizer.Mix mix = RoomMixOptimizer.cheapest(options, numberOfGuests);
+        if (mix == null) {
+            return null;
+        }
+        HotelResponse response = mapToResponse(hotel);
+        response.setRoomsRequired(mix.roomCount());
+        response.setFinalPrice(mix.totalPrice());
+        response.setRoomSelection(mix.rooms().entrySet().stream()
+                .map(selected -> RoomSelectionResponse.builder()
+                        .roomId(selected.getKey())
+                        .quantity(selected.getValue())
+                        .pricePerRoom(prices.get(selected.getKey()))
+                        .build())
+                .toList());
+        return response;
+    }
+
+    private HotelResponse mapToResponse(Hotel hotel) {
+        return HotelResponse.builder()
+                .hotelId(hotel.getHotelId())
+                .name(hotel.getName())
+                .description(hotel.getDescription())
+                .address(hotel.getAddress())
+                .city(hotel.getCity())
+                .state(hotel.getState())
+                .country(hotel.getCountry())
+                .latitude(hotel.getLatitude())
+                .longitude(hotel.getLongitude())
+                .isApproved(hotel.isApproved())
+                .createdAt(hotel.getCreatedAt())
+                .ownerId(hotel.getOwner() != null ? hotel.getOwner().getUserId() : null)
+                .build();
+    }
+}
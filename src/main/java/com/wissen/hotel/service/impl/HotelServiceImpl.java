@@ -1,30 +1,48 @@
 package com.wissen.hotel.service.impl;
 
+import com.wissen.hotel.cache.HotelSearchCache;
 import com.wissen.hotel.dto.request.*;
 import com.wissen.hotel.dto.response.*;
+import com.wissen.hotel.enums.BookingStatus;
+import com.wissen.hotel.event.HotelChangedEvent;
+import com.wissen.hotel.exception.BadRequestException;
+import com.wissen.hotel.index.HotelGeoIndex;
+import com.wissen.hotel.index.HotelMapGrid;
+import com.wissen.hotel.index.HotelTextIndex;
 import com.wissen.hotel.model.*;
 import com.wissen.hotel.repository.*;
+import com.wissen.hotel.repository.projection.HotelCountView;
+import com.wissen.hotel.repository.projection.HotelRoomStatsView;
+import com.wissen.hotel.repository.projection.HotelSummaryView;
 import com.wissen.hotel.service.EmailService;
+import com.wissen.hotel.service.HotelSearchService;
+import com.wissen.hotel.service.HotelSearchStream;
 import com.wissen.hotel.service.HotelService;
-import com.wissen.hotel.service.PricingEngineService;
-import com.wissen.hotel.service.ReviewService;
 import com.wissen.hotel.service.RoomAvailabilityService;
 import com.wissen.hotel.util.AuthUtil;
+import com.wissen.hotel.util.PageCursor;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -33,37 +51,43 @@ public class HotelServiceImpl implements HotelService {
     private static final Logger logger = LoggerFactory.getLogger(HotelServiceImpl.class);
     private final HotelRepository hotelRepository;
     private final RoomRepository roomRepository;
-    private final RoomAvailabilityRepository roomAvailabilityRepository;
+    private final BookingRepository bookingRepository;
     private final RoomAvailabilityService roomAvailabilityService;
-    private final ReviewService reviewService;
-    private final PricingEngineService pricingEngineService;
+    private final HotelSearchService hotelSearchService;
+    private final HotelSearchCache hotelSearchCache;
+    private final HotelGeoIndex hotelGeoIndex;
+    private final HotelMapGrid hotelMapGrid;
+    private final HotelTextIndex hotelTextIndex;
+    private final ApplicationEventPublisher eventPublisher;
     private static final String HOTEL_NOT_FOUND = "Hotel not found";
+    private static final int TOP_RATED_LIMIT = 10;
+    private static final int MAX_TEXT_SEARCH_PAGE_SIZE = 100;
 
     private final EmailService emailService;
 
     @Override
-    public List<HotelResponse> getAllHotels(String city, int page, int size) {
-        return hotelRepository.findAll().stream()
-            .filter(hotel -> hotel.isApproved()) // Only approved hotels
-            .filter(hotel -> city == null || hotel.getCity().equalsIgnoreCase(city))
-            .map(hotel -> {
-                List<Room> rooms = roomRepository.findAllByHotel_HotelId(hotel.getHotelId());
-                HotelResponse response = mapToResponse(hotel);
-                BigDecimal minPrice = null;
-                if (rooms != null && !rooms.isEmpty()) {
-                minPrice = rooms.stream()
-                    .map(Room::getBasePrice)
-                    .filter(Objects::nonNull)
-                    .min(BigDecimal::compareTo)
-                    .orElse(null);
-                }
-                response.setFinalPrice(minPrice);
-                response.setRoomsRequired(1); // Default to 1 room if no specific logic
-                return response;
-            })
-            .skip((long) page * size)
-            .limit(size)
-            .toList();
+    public PagedResponse<HotelResponse> getAllHotels(String city, int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new BadRequestException("Page must be non-negative and size must be positive.");
+        }
+        String cityFilter = (city == null || city.isBlank()) ? null : city.trim();
+        Page<HotelSummaryView> hotels = hotelRepository.findApprovedHotelSummaries(cityFilter, PageRequest.of(page, size));
+        return PagedResponse.of(hotels, this::mapSummaryToResponse);
+    }
+
+    @Override
+    public CursorPage<HotelResponse> scrollHotels(String city, String cursor, int size) {
+        if (size <= 0) {
+            throw new BadRequestException("Size must be positive.");
+        }
+        String cityFilter = (city == null || city.isBlank()) ? null : city.trim();
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest rows = PageRequest.of(0, size + 1);
+        List<HotelSummaryView> hotels = after == null
+                ? hotelRepository.findNewestApprovedHotelSummaries(cityFilter, rows)
+                : hotelRepository.findApprovedHotelSummariesBefore(cityFilter, after.createdAt(), after.id(), rows);
+        return CursorPage.of(hotels, size, this::mapSummaryToResponse,
+                hotel -> new PageCursor(hotel.getCreatedAt(), hotel.getHotelId()));
     }
 
     @Override
@@ -91,6 +115,7 @@ public class HotelServiceImpl implements HotelService {
                 .owner(currentUser) // If current user logic available
                 .build();
         Hotel saved = hotelRepository.save(hotel);
+        eventPublisher.publishEvent(HotelChangedEvent.saved(saved));
         logger.debug("Hotel created with ID: {}", saved.getHotelId());
 
         try {
@@ -126,12 +151,14 @@ public class HotelServiceImpl implements HotelService {
         hotel.setLatitude(request.getLatitude());
         hotel.setLongitude(request.getLongitude());
         Hotel updated = hotelRepository.save(hotel);
+        eventPublisher.publishEvent(HotelChangedEvent.saved(updated));
         return mapToResponse(updated);
     }
 
     @Override
     public void deleteHotel(UUID id) {
         hotelRepository.deleteById(id);
+        eventPublisher.publishEvent(HotelChangedEvent.deleted(id));
     }
 
     @Override
@@ -140,6 +167,7 @@ public class HotelServiceImpl implements HotelService {
                 .orElseThrow(() -> new RuntimeException(HOTEL_NOT_FOUND));
         hotel.setApproved(true);
         Hotel approved = hotelRepository.save(hotel);
+        eventPublisher.publishEvent(HotelChangedEvent.saved(approved));
         logger.debug("Hotel approved: {}", approved.getHotelId());
 
         try {
@@ -171,101 +199,148 @@ public class HotelServiceImpl implements HotelService {
                 .build();
     }
 
-    @Override
-    public List<HotelResponse> searchHotels(String city, LocalDate checkIn, LocalDate checkOut, int numberOfGuests, int page, int size) {
-        return hotelRepository.findAll().stream()
-            .filter(hotel -> hotel.isApproved()) // Only approved hotels
-            .filter(hotel -> (city == null || hotel.getCity().equalsIgnoreCase(city)))
-            .map(hotel -> {
-                List<Room> rooms = roomRepository.findAllByHotel_HotelId(hotel.getHotelId());
-                if (rooms == null || rooms.isEmpty()) {
-                    return null; // Exclude hotels with no rooms
-                }
-                rooms = rooms.stream().sorted((a, b) -> Integer.compare(b.getCapacity(), a.getCapacity())).toList();
-
-                BigDecimal minTotalPrice = null;
-                int minRoomsRequired = 0;
-                Room chosenRoom = null;
-
-                for (Room room : rooms) {
-                    int guestsLeft = numberOfGuests;
-                    int roomsRequired = 0;
-                    BigDecimal totalPrice = BigDecimal.ZERO;
-
-                    int needed = (int) Math.ceil((double) guestsLeft / room.getCapacity());
-                    int maxAvailable = Integer.MAX_VALUE;
+    private HotelResponse mapSummaryToResponse(HotelSummaryView hotel) {
+        return HotelResponse.builder()
+                .hotelId(hotel.getHotelId())
+                .name(hotel.getName())
+                .city(hotel.getCity())
+                .state(hotel.getState())
+                .country(hotel.getCountry())
+                .latitude(hotel.getLatitude())
+                .longitude(hotel.getLongitude())
+                .isApproved(hotel.isApproved())
+                .createdAt(hotel.getCreatedAt())
+                .ownerId(hotel.getOwnerId())
+                .finalPrice(hotel.getMinPrice())
+                .roomsRequired(1)
+                .build();
+    }
 
-                    for (LocalDate date = checkIn; date.isBefore(checkOut); date = date.plusDays(1)) {
-                        var availability = roomAvailabilityRepository.findByRoom_RoomIdAndDate(room.getRoomId(), date);
-                        int available = (availability != null) ? availability.getAvailableRooms() : room.getTotalRooms();
-                        if (available < maxAvailable) maxAvailable = available;
-                    }
-                    if (maxAvailable < needed) continue;
+    @Override
+    public HotelSearchResponse searchHotels(String city, LocalDate checkIn, LocalDate checkOut, int numberOfGuests,
+                                            int page, int size, boolean includeFacets) {
+        HotelSearchCache.Key key = HotelSearchCache.Key.of(city, checkIn, checkOut, numberOfGuests, page, size, includeFacets);
+        HotelSearchResponse cached = hotelSearchCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = hotelSearchCache.generation();
+        HotelSearchResponse response = hotelSearchService.searchHotels(city, checkIn, checkOut, numberOfGuests, page, size, includeFacets);
+        if (!response.isPartial()) {
+            // Partial pages are missing rooms that only timed out, so the next search should retry them
+            hotelSearchCache.put(key, response, generation);
+        }
+        return response;
+    }
 
-                    BigDecimal price = pricingEngineService.calculatePrice(room.getRoomId(), checkIn, checkOut).getFinalPrice();
-                    totalPrice = price.multiply(BigDecimal.valueOf(needed));
-                    roomsRequired = needed;
+    @Override
+    public HotelSearchStream streamSearchHotels(String city, LocalDate checkIn, LocalDate checkOut, int numberOfGuests) {
+        return hotelSearchService.streamHotels(city, checkIn, checkOut, numberOfGuests);
+    }
 
-                    if (minTotalPrice == null || totalPrice.compareTo(minTotalPrice) < 0) {
-                        minTotalPrice = totalPrice;
-                        minRoomsRequired = roomsRequired;
-                        chosenRoom = room;
-                    }
-                }
-                if (chosenRoom != null) {
-                    HotelResponse resp = mapToResponse(hotel);
-                    resp.setRoomsRequired(minRoomsRequired);
-                    resp.setFinalPrice(minTotalPrice);
-                    return resp;
-                } else {
-                    return null;
-                }
-            })
-            .filter(Objects::nonNull)
-            .skip((long) page * size)
-            .limit(size)
-            .toList();
+    @Override
+    public PagedResponse<HotelTextMatchResponse> searchHotelsByText(String query, int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new BadRequestException("Page must be non-negative and size must be positive.");
+        }
+        return PagedResponse.of(hotelTextIndex.search(query, page, Math.min(size, MAX_TEXT_SEARCH_PAGE_SIZE)), match -> HotelTextMatchResponse.builder()
+                .hotelId(match.hotelId())
+                .name(match.name())
+                .city(match.city())
+                .state(match.state())
+                .country(match.country())
+                .score(match.score())
+                .build());
     }
 
     @Override
     public List<HotelResponse> getTopRatedHotels() {
-        return hotelRepository.findAll().stream()
-                .sorted((h1, h2) -> Double.compare(
-                        getAverageRating(h2.getHotelId()),
-                        getAverageRating(h1.getHotelId())
-                ))
-                .map(hotel -> {
-                    List<Room> rooms = roomRepository.findAllByHotel_HotelId(hotel.getHotelId());
-                    if (rooms == null || rooms.isEmpty()) {
-                        return null; // Exclude hotels with no rooms
-                    }
-                    HotelResponse response = mapToResponse(hotel);
-                    BigDecimal minPrice = rooms.stream()
-                            .map(Room::getBasePrice)
-                            .filter(Objects::nonNull)
-                            .min(BigDecimal::compareTo)
-                            .orElse(null);
-                    response.setFinalPrice(minPrice);
-                    response.setRoomsRequired(1);
-                    return response;
-                })
-                .filter(Objects::nonNull)
-                .limit(10)
+        return hotelRepository.findTopRated(PageRequest.of(0, TOP_RATED_LIMIT)).stream()
+                .map(this::mapSummaryToResponse)
                 .toList();
     }
 
     @Override
-    public List<HotelResponse> findNearbyHotels(double latitude, double longitude, double radiusKm) {
-        return hotelRepository.findAll().stream()
-                .filter(hotel -> {
-                    if (hotel.getLatitude() == null || hotel.getLongitude() == null) return false;
-                    double dist = distance(latitude, longitude, hotel.getLatitude().doubleValue(), hotel.getLongitude().doubleValue());
-                    return dist <= radiusKm;
-                })
-                .map(this::mapToResponse)
+    public List<HotelResponse> findNearbyHotels(double latitude, double longitude, double radiusKm,
+                                                LocalDate checkIn, LocalDate checkOut, int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180 || radiusKm < 0 || limit <= 0) {
+            throw new BadRequestException("Invalid coordinates, radius or limit.");
+        }
+        if ((checkIn == null) != (checkOut == null) || (checkIn != null && !checkOut.isAfter(checkIn))) {
+            throw new BadRequestException("Invalid check-in or check-out dates.");
+        }
+        List<HotelGeoIndex.Hit> hits = checkIn == null
+                ? hotelGeoIndex.nearest(latitude, longitude, radiusKm, limit)
+                : nearestAvailable(latitude, longitude, radiusKm, checkIn, checkOut, limit);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, Hotel> hotels = hotelRepository.findAllById(hits.stream().map(HotelGeoIndex.Hit::hotelId).toList()).stream()
+                .collect(Collectors.toMap(Hotel::getHotelId, Function.identity()));
+        List<HotelResponse> responses = new ArrayList<>(hits.size());
+        for (HotelGeoIndex.Hit hit : hits) {
+            Hotel hotel = hotels.get(hit.hotelId());
+            if (hotel != null) {
+                HotelResponse response = mapToResponse(hotel);
+                response.setDistanceKm(hit.distanceKm());
+                responses.add(response);
+            }
+        }
+        return responses;
+    }
+
+    @Override
+    public List<MapClusterResponse> getMapClusters(double minLatitude, double minLongitude,
+                                                   double maxLatitude, double maxLongitude, int zoom) {
+        if (minLatitude < -90 || maxLatitude > 90 || minLatitude > maxLatitude
+                || minLongitude < -180 || maxLongitude > 180 || zoom < 0 || zoom > HotelMapGrid.MAX_ZOOM) {
+            throw new BadRequestException("Invalid bounding box or zoom level.");
+        }
+        return hotelMapGrid.clusters(minLatitude, minLongitude, maxLatitude, maxLongitude, zoom).stream()
+                .map(cluster -> MapClusterResponse.builder()
+                        .count(cluster.count())
+                        .latitude(cluster.latitude())
+                        .longitude(cluster.longitude())
+                        .minPrice(cluster.minPrice())
+                        .hotelId(cluster.hotelId())
+                        .build())
                 .toList();
     }
 
+    /**
+     * The {@code limit} closest hotels with a room free for the whole stay. Candidates come from the
+     * geo index closest first, {@code limit} of them and then twice as many each round; only the new
+     * ones of a round are checked, with one query. It stops as soon as enough are free or the radius
+     * has no more hotels, so the geo heap stays bounded by what is needed.
+     */
+    private List<HotelGeoIndex.Hit> nearestAvailable(double latitude, double longitude, double radiusKm,
+                                                     LocalDate checkIn, LocalDate checkOut, int limit) {
+        List<HotelGeoIndex.Hit> available = new ArrayList<>(limit);
+        Set<UUID> checked = new HashSet<>();
+        int geoLimit = limit;
+        while (true) {
+            List<HotelGeoIndex.Hit> candidates = hotelGeoIndex.nearest(latitude, longitude, radiusKm, geoLimit);
+            List<HotelGeoIndex.Hit> unchecked = candidates.stream().filter(hit -> checked.add(hit.hotelId())).toList();
+            if (!unchecked.isEmpty()) {
+                Set<UUID> free = new HashSet<>(hotelRepository.findHotelIdsWithFreeRooms(
+                        unchecked.stream().map(HotelGeoIndex.Hit::hotelId).toList(), checkIn, checkOut));
+                for (HotelGeoIndex.Hit hit : unchecked) {
+                    if (free.contains(hit.hotelId())) {
+                        available.add(hit);
+                        if (available.size() == limit) {
+                            return available;
+                        }
+                    }
+                }
+            }
+            if (candidates.size() < geoLimit || geoLimit == Integer.MAX_VALUE) {
+                return available;
+            }
+            geoLimit = (int) Math.min(Integer.MAX_VALUE, 2L * geoLimit);
+        }
+    }
+
     @Override
     public List<RoomResponse> getHotelRooms(UUID hotelId) {
         hotelRepository.findById(hotelId)
@@ -320,27 +395,45 @@ public class HotelServiceImpl implements HotelService {
     @Override
     public List<HotelResponse> getHotelsOwnedByCurrentUser() {
         UUID currentUserId = AuthUtil.getCurrentUser().getUserId();
-        return hotelRepository.findAll().stream()
-                .filter(hotel -> hotel.getOwner() != null && hotel.getOwner().getUserId().equals(currentUserId))
+        return hotelRepository.findByOwner_UserId(currentUserId).stream()
                 .map(this::mapToResponse)
                 .toList();
     }
 
     @Override
-    public double getAverageRating(UUID hotelId) {
-        List<ReviewResponse> reviews = reviewService.getReviewsByHotel(hotelId);
-        return reviews.isEmpty() ? 0.0 : reviews.stream().mapToInt(ReviewResponse::getRating).average().orElse(0.0);
+    public List<OwnerHotelSummaryResponse> getOwnerPortfolio() {
+        UUID ownerId = AuthUtil.getCurrentUser().getUserId();
+        List<Hotel> hotels = hotelRepository.findByOwner_UserId(ownerId);
+        if (hotels.isEmpty()) {
+            return List.of();
+        }
+        // One grouped query per figure for all hotels of the owner
+        Map<UUID, HotelRoomStatsView> roomStats = roomRepository.findRoomStatsByOwnerId(ownerId, LocalDate.now()).stream()
+                .collect(Collectors.toMap(HotelRoomStatsView::getHotelId, Function.identity()));
+        Map<UUID, Long> pendingBookings = bookingRepository.countByOwnerIdAndStatus(ownerId, BookingStatus.PENDING).stream()
+                .collect(Collectors.toMap(HotelCountView::getHotelId, HotelCountView::getCount));
+
+        return hotels.stream()
+                .map(hotel -> {
+                    HotelRoomStatsView rooms = roomStats.get(hotel.getHotelId());
+                    return OwnerHotelSummaryResponse.builder()
+                            .hotelId(hotel.getHotelId())
+                            .name(hotel.getName())
+                            .city(hotel.getCity())
+                            .isApproved(hotel.isApproved())
+                            .averageRating(hotel.getAverageRating())
+                            .roomTypes(rooms != null ? rooms.getRoomTypes() : 0)
+                            .totalRooms(rooms != null ? rooms.getTotalRooms() : 0)
+                            .availableRoomsToday(rooms != null ? rooms.getAvailableRooms() : 0)
+                            .pendingBookings(pendingBookings.getOrDefault(hotel.getHotelId(), 0L))
+                            .build();
+                })
+                .toList();
     }
 
-    private double distance(double lat1, double lon1, double lat2, double lon2) {
-        double earthRadius = 6371;
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLng = Math.toRadians(lon2 - lon1);
-        double sindLat = Math.sin(dLat / 2);
-        double sindLng = Math.sin(dLng / 2);
-        double a = Math.pow(sindLat, 2) + Math.pow(sindLng, 2)
-                * Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2));
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return earthRadius * c;
+    @Override
+    public double getAverageRating(UUID hotelId) {
+        return hotelRepository.findAverageRatingById(hotelId)
+                .orElseThrow(() -> new RuntimeException(HOTEL_NOT_FOUND));
     }
 }
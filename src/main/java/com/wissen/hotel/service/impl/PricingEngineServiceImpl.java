@@ -4,8 +4,11 @@ import com.wissen.hotel.dto.response.*;
 import com.wissen.hotel.dto.request.PriceSimulationRequest;
 
 import com.wissen.hotel.enums.PricingRuleType;
+import com.wissen.hotel.exception.BadRequestException;
+import com.wissen.hotel.exception.ResourceNotFoundException;
 import com.wissen.hotel.model.PricingRule;
 import com.wissen.hotel.model.Room;
+import com.wissen.hotel.repository.HotelRepository;
 import com.wissen.hotel.repository.PricingRuleRepository;
 import com.wissen.hotel.repository.RoomRepository;
 import com.wissen.hotel.service.PricingEngineService;
@@ -22,18 +25,29 @@ import java.math.RoundingMode;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.DoubleSupplier;
 
 @Service
 @RequiredArgsConstructor
 public class PricingEngineServiceImpl implements PricingEngineService {
     private static final Logger log = LoggerFactory.getLogger(PricingEngineServiceImpl.class);
     private final RoomRepository roomRepository;
+    private final HotelRepository hotelRepository;
     private final PricingRuleRepository pricingRuleRepository;
     private final RoomAvailabilityService roomAvailabilityService;
     private final Clock clock; // <-- Inject Clock
 
+    private static final int MAX_RATE_GRID_DAYS = 366;
+    // Rules that apply on any date, as opposed to rules bound to their start and end dates
+    private static final Set<PricingRuleType> DATE_AGNOSTIC_RULES =
+        EnumSet.of(PricingRuleType.WEEKEND, PricingRuleType.PEAK, PricingRuleType.LAST_MINUTE);
+
     @Override
     public PriceCalculationResponse calculatePrice(UUID roomId, LocalDate checkIn, LocalDate checkOut) {
         try {
@@ -107,39 +121,19 @@ public class PricingEngineServiceImpl implements PricingEngineService {
         UUID hotelId
     ) {
         BigDecimal totalPrice = BigDecimal.ZERO;
+        // Read once for the whole stay, and only if a PEAK rule needs it
+        double[] occupancy = rules.stream().anyMatch(rule -> rule.getRuleType() == PricingRuleType.PEAK)
+            ? roomAvailabilityService.getHotelOccupancySeries(hotelId, checkIn, checkOut)
+            : null;
 
-        for (LocalDate date = checkIn; date.isBefore(checkOut); date = date.plusDays(1)) {
+        int nights = 0;
+        for (LocalDate date = checkIn; date.isBefore(checkOut); date = date.plusDays(1), nights++) {
             BigDecimal dayPrice = basePrice;
+            int night = nights;
 
             for (PricingRule rule : rules) {
-                switch (rule.getRuleType()) {
-                    case PEAK -> {
-                        double availabilityRatio = roomAvailabilityService.getHotelAvailabilityRatio(hotelId, date, date.plusDays(1));
-                        if (availabilityRatio < 0.2 && rule.getRuleValue() != null && rule.getRuleValue() > 0) {
-                            dayPrice = dayPrice.add(basePrice.multiply(BigDecimal.valueOf(rule.getRuleValue())).divide(BigDecimal.valueOf(100)));
-                        }
-                    }
-                    case WEEKEND -> {
-                        DayOfWeek dow = date.getDayOfWeek();
-                        if ((dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY) && rule.getRuleValue() != null && rule.getRuleValue() > 0) {
-                            dayPrice = dayPrice.add(basePrice.multiply(BigDecimal.valueOf(rule.getRuleValue())).divide(BigDecimal.valueOf(100)));
-                        }
-                    }
-                    case LAST_MINUTE -> {
-                        long daysUntilCheckIn = ChronoUnit.DAYS.between(LocalDate.now(clock), checkIn); // <-- Use injected clock
-                        if (daysUntilCheckIn >= 0 && daysUntilCheckIn <= 3 && rule.getRuleValue() != null && rule.getRuleValue() > 0) {
-                            dayPrice = dayPrice.add(basePrice.multiply(BigDecimal.valueOf(rule.getRuleValue())).divide(BigDecimal.valueOf(100)));
-                        }
-                    }
-                    default -> {
-                        if (rule.getStartDate() != null && rule.getEndDate() != null
-                                && (date.isBefore(rule.getStartDate()) || date.isAfter(rule.getEndDate()))) {
-                            continue;
-                        }
-                        if (rule.getRuleValue() != null && rule.getRuleValue() != 0) {
-                            dayPrice = dayPrice.add(basePrice.multiply(BigDecimal.valueOf(rule.getRuleValue())).divide(BigDecimal.valueOf(100)));
-                        }
-                    }
+                if (raisesPrice(rule, date, checkIn, () -> 1.0 - occupancy[night])) {
+                    dayPrice = dayPrice.add(basePrice.multiply(BigDecimal.valueOf(rule.getRuleValue())).divide(BigDecimal.valueOf(100)));
                 }
             }
             totalPrice = totalPrice.add(dayPrice);
@@ -147,4 +141,109 @@ public class PricingEngineServiceImpl implements PricingEngineService {
 
         return totalPrice.setScale(2, RoundingMode.HALF_UP);
     }
+
+    /**
+     * Prices every room of a hotel for {@code days} nights from {@code startDate}, each night priced as
+     * a one-night stay like {@link #simulatePricing}. Rooms, rules and availability are read once; the
+     * weekend, last-minute and occupancy checks are made once per night and shared by all rooms.
+     */
+    @Override
+    public RateGridResponse getRateGrid(UUID hotelId, LocalDate startDate, int days) {
+        if (startDate == null || days < 1 || days > MAX_RATE_GRID_DAYS) {
+            throw new BadRequestException("Rate grid needs a start date and between 1 and " + MAX_RATE_GRID_DAYS + " days.");
+        }
+        try {
+            if (!hotelRepository.existsById(hotelId)) {
+                throw new ResourceNotFoundException("Hotel not found");
+            }
+            LocalDate endDate = startDate.plusDays(days);
+            List<Room> rooms = roomRepository.findAllByHotel_HotelId(hotelId);
+            List<PricingRule> rules = pricingRuleRepository.findByHotel_HotelId(hotelId);
+            Map<UUID, List<Integer>> available = new HashMap<>();
+            if (!rooms.isEmpty()) {
+                // By hotel rather than by room IDs, which are capped per request
+                roomAvailabilityService.getAvailabilityCalendar(null, hotelId, startDate, endDate).getRooms()
+                    .forEach(calendar -> available.put(calendar.getRoomId(), calendar.getAvailableRooms()));
+            }
+            double[] hotelOccupancy = roomAvailabilityService.getHotelOccupancySeries(hotelId, startDate, endDate);
+
+            // Per-night context shared by every room
+            List<LocalDate> dates = new ArrayList<>(days);
+            List<Double> occupancy = new ArrayList<>(days);
+            List<List<UUID>> appliedRuleIds = new ArrayList<>(days);
+            int[] percentages = new int[days];
+            for (int night = 0; night < days; night++) {
+                LocalDate date = startDate.plusDays(night);
+                double availabilityRatio = 1.0 - hotelOccupancy[night];
+
+                List<UUID> applied = new ArrayList<>();
+                for (PricingRule rule : rules) {
+                    boolean inRange = DATE_AGNOSTIC_RULES.contains(rule.getRuleType())
+                        || (rule.getStartDate() != null && rule.getEndDate() != null
+                            && !date.isBefore(rule.getStartDate()) && !date.isAfter(rule.getEndDate()));
+                    if (inRange && raisesPrice(rule, date, date, () -> availabilityRatio)) {
+                        percentages[night] += rule.getRuleValue();
+                        applied.add(rule.getRuleId());
+                    }
+                }
+                dates.add(date);
+                occupancy.add(1.0 - availabilityRatio);
+                appliedRuleIds.add(applied);
+            }
+
+            List<RateGridResponse.RoomRates> roomRates = new ArrayList<>(rooms.size());
+            for (Room room : rooms) {
+                BigDecimal basePrice = room.getBasePrice();
+                List<BigDecimal> prices = new ArrayList<>(days);
+                for (int night = 0; night < days; night++) {
+                    prices.add(basePrice == null ? null : basePrice
+                        .add(basePrice.multiply(BigDecimal.valueOf(percentages[night])).divide(BigDecimal.valueOf(100)))
+                        .setScale(2, RoundingMode.HALF_UP));
+                }
+                roomRates.add(RateGridResponse.RoomRates.builder()
+                    .roomId(room.getRoomId())
+                    .roomType(room.getRoomType())
+                    .basePrice(basePrice)
+                    .totalRooms(room.getTotalRooms() != null ? room.getTotalRooms() : 0)
+                    .prices(prices)
+                    .availableRooms(available.getOrDefault(room.getRoomId(), List.of()))
+                    .build());
+            }
+            return RateGridResponse.builder()
+                .hotelId(hotelId)
+                .dates(dates)
+                .occupancy(occupancy)
+                .appliedRuleIds(appliedRuleIds)
+                .rooms(roomRates)
+                .build();
+        } catch (BadRequestException | ResourceNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to build rate grid. Please try again later.", e);
+        }
+    }
+
+    // Whether a rule adds its percentage to the night starting on date; the ratio is only read for PEAK rules
+    private boolean raisesPrice(PricingRule rule, LocalDate date, LocalDate checkIn, DoubleSupplier availabilityRatio) {
+        switch (rule.getRuleType()) {
+            case PEAK -> {
+                return availabilityRatio.getAsDouble() < 0.2 && rule.getRuleValue() != null && rule.getRuleValue() > 0;
+            }
+            case WEEKEND -> {
+                DayOfWeek dow = date.getDayOfWeek();
+                return (dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY) && rule.getRuleValue() != null && rule.getRuleValue() > 0;
+            }
+            case LAST_MINUTE -> {
+                long daysUntilCheckIn = ChronoUnit.DAYS.between(LocalDate.now(clock), checkIn); // <-- Use injected clock
+                return daysUntilCheckIn >= 0 && daysUntilCheckIn <= 3 && rule.getRuleValue() != null && rule.getRuleValue() > 0;
+            }
+            default -> {
+                if (rule.getStartDate() != null && rule.getEndDate() != null
+                        && (date.isBefore(rule.getStartDate()) || date.isAfter(rule.getEndDate()))) {
+                    return false;
+                }
+                return rule.getRuleValue() != null && rule.getRuleValue() != 0;
+            }
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package com.wissen.hotel.service.impl;
 
 import com.wissen.hotel.dto.request.PricingRuleRequest;
+import com.wissen.hotel.event.PricingRuleChangedEvent;
 import com.wissen.hotel.exception.EntityNotFoundException;
 import com.wissen.hotel.model.Hotel;
 import com.wissen.hotel.model.PricingRule;
@@ -9,10 +10,12 @@ import com.wissen.hotel.repository.PricingRuleRepository;
 import com.wissen.hotel.service.PricingRuleService;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -20,6 +23,7 @@ import java.util.UUID;
 public class PricingRuleServiceImpl implements PricingRuleService {
     private final PricingRuleRepository pricingRuleRepository;
     private final HotelRepository hotelRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public PricingRule createRule(PricingRuleRequest request) {
@@ -52,7 +56,9 @@ public class PricingRuleServiceImpl implements PricingRuleService {
         rule.setRuleValue(ruleValue);
         rule.setStartDate(request.getStartDate());
         rule.setEndDate(request.getEndDate());
-        return pricingRuleRepository.save(rule);
+        PricingRule saved = pricingRuleRepository.save(rule);
+        publishRuleChanged(hotel);
+        return saved;
     }
 
     @Override
@@ -90,12 +96,16 @@ public class PricingRuleServiceImpl implements PricingRuleService {
         rule.setRuleValue(request.getRuleValue());
         rule.setStartDate(request.getStartDate());
         rule.setEndDate(request.getEndDate());
-        return pricingRuleRepository.save(rule);
+        PricingRule saved = pricingRuleRepository.save(rule);
+        publishRuleChanged(rule.getHotel());
+        return saved;
     }
 
     @Override
     public void deleteRule(UUID id) {
+        Optional<PricingRule> rule = pricingRuleRepository.findById(id);
         pricingRuleRepository.deleteById(id);
+        rule.ifPresent(deleted -> publishRuleChanged(deleted.getHotel()));
     }
 
     @Override
@@ -103,4 +113,10 @@ public class PricingRuleServiceImpl implements PricingRuleService {
     public List<PricingRule> getRulesForHotel(UUID hotelId) {
         return pricingRuleRepository.findByHotel_HotelId(hotelId);
     }
+
+    private void publishRuleChanged(Hotel hotel) {
+        if (hotel != null) {
+            eventPublisher.publishEvent(new PricingRuleChangedEvent(hotel.getHotelId(), hotel.getCity()));
+        }
+    }
 }
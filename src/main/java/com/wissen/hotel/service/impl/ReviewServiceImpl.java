@@ -1,7 +1,9 @@
 package com.wissen.hotel.service.impl;
 
 import com.wissen.hotel.dto.request.CreateReviewRequest;
+import com.wissen.hotel.dto.response.CursorPage;
 import com.wissen.hotel.dto.response.ReviewResponse;
+import com.wissen.hotel.exception.BadRequestException;
 import com.wissen.hotel.exception.ResourceNotFoundException;
 import com.wissen.hotel.model.Hotel;
 import com.wissen.hotel.model.Review;
@@ -10,18 +12,19 @@ import com.wissen.hotel.repository.HotelRepository;
 import com.wissen.hotel.repository.ReviewRepository;
 import com.wissen.hotel.service.ReviewService;
 import com.wissen.hotel.util.AuthUtil;
+import com.wissen.hotel.util.PageCursor;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -33,6 +36,7 @@ public class ReviewServiceImpl implements ReviewService {
     private final HotelRepository hotelRepository;
 
     @Override
+    @Transactional
     public ReviewResponse createReview(CreateReviewRequest request) {
         logger.info("Creating review for hotelId: {} by user: {}", request.getHotelId(), AuthUtil.getCurrentUser() != null ? AuthUtil.getCurrentUser().getUserId() : null);
         User user = AuthUtil.getCurrentUser();
@@ -49,6 +53,7 @@ public class ReviewServiceImpl implements ReviewService {
                 .build();
 
         Review saved = reviewRepository.save(review);
+        hotelRepository.addRating(hotel.getHotelId(), saved.getRating());
         logger.debug("Review created with ID: {}", saved.getReviewId());
         return mapToResponse(saved);
     }
@@ -64,14 +69,23 @@ public class ReviewServiceImpl implements ReviewService {
 
     @Override
     @Transactional
-    public List<ReviewResponse> getReviewsByHotel(UUID hotelId) {
+    public CursorPage<ReviewResponse> getReviewsByHotel(UUID hotelId, String cursor, int size) {
+        if (size <= 0) {
+            throw new BadRequestException("Size must be positive.");
+        }
         logger.info("Fetching reviews for hotelId: {}", hotelId);
-        List<Review> reviews = reviewRepository.findByHotel_HotelId(hotelId);
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest rows = PageRequest.of(0, size + 1);
+        List<Review> reviews = after == null
+                ? reviewRepository.findNewestByHotelId(hotelId, rows)
+                : reviewRepository.findByHotelIdBefore(hotelId, after.createdAt(), after.id(), rows);
         logger.debug("Found {} reviews for hotelId: {}", reviews.size(), hotelId);
-        return reviews.stream().map(this::mapToResponse).collect(Collectors.toList());
+        return CursorPage.of(reviews, size, this::mapToResponse,
+                review -> new PageCursor(review.getCreatedAt(), review.getReviewId()));
     }
 
     @Override
+    @Transactional
     public void deleteReview(UUID reviewId) {
         logger.info("Deleting review with ID: {}", reviewId);
 
@@ -86,6 +100,7 @@ public class ReviewServiceImpl implements ReviewService {
         }
 
         reviewRepository.deleteById(reviewId);
+        hotelRepository.removeRating(review.getHotel().getHotelId(), review.getRating());
         logger.debug("Review deleted: {}", reviewId);
     }
 
@@ -2,35 +2,110 @@ package com.wissen.hotel.service.impl;
 
 import com.wissen.hotel.dto.request.UpdateInventoryRequest;
 import com.wissen.hotel.dto.request.BlockRoomRequest;
-import com.wissen.hotel.model.Booking;
+import com.wissen.hotel.dto.request.PlaceHoldRequest;
+import com.wissen.hotel.dto.response.AvailabilityIndexConsistencyResponse;
+import com.wissen.hotel.dto.response.InventoryHoldResponse;
+import com.wissen.hotel.dto.response.RoomAvailabilityCalendarResponse;
+import com.wissen.hotel.event.InventoryChangedEvent;
+import com.wissen.hotel.event.RoomChangedEvent;
+import com.wissen.hotel.index.HoldTimingWheel;
+import com.wissen.hotel.index.RoomAvailabilityIndex;
+import com.wissen.hotel.lock.RoomWriteOrder;
+import com.wissen.hotel.model.Hotel;
+import com.wissen.hotel.model.InventoryHold;
 import com.wissen.hotel.model.Room;
 import com.wissen.hotel.model.RoomAvailability;
 import com.wissen.hotel.repository.BookingRepository;
+import com.wissen.hotel.repository.HotelDailyOccupancyRepository;
+import com.wissen.hotel.repository.InventoryHoldRepository;
 import com.wissen.hotel.repository.RoomAvailabilityRepository;
 import com.wissen.hotel.repository.RoomRepository;
+import com.wissen.hotel.repository.projection.AvailabilityCell;
+import com.wissen.hotel.repository.projection.OccupancyCell;
+import com.wissen.hotel.repository.projection.RoomInventoryView;
+import com.wissen.hotel.repository.projection.StayView;
 import com.wissen.hotel.service.RoomAvailabilityService;
+import com.wissen.hotel.exception.BadRequestException;
 import com.wissen.hotel.exception.ResourceNotFoundException;
+import com.wissen.hotel.exception.RoomBusyException;
+import com.wissen.hotel.model.User;
+import com.wissen.hotel.util.AuthUtil;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class RoomAvailabilityServiceImpl implements RoomAvailabilityService {
 
+    private static final int MAX_REPORTED_MISMATCHES = 100;
+    private static final int MAX_CALENDAR_NIGHTS = 366;
+    private static final int MAX_CALENDAR_ROOMS = 200;
+
     private final RoomAvailabilityRepository availabilityRepository;
     private final RoomRepository roomRepository;
     private final BookingRepository bookingRepository;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryHoldRepository holdRepository;
+    private final HotelDailyOccupancyRepository occupancyRepository;
+    private final HoldTimingWheel holdWheel;
+    private final RoomWriteOrder roomWriteOrder;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    @Value("${app.holds.ttl-minutes:10}")
+    private long holdTtlMinutes = 10;
+
+    @Value("${app.holds.max-active-per-user:5}")
+    private int maxActiveHoldsPerUser = 5;
+
+    @Value("${app.holds.max-nights:30}")
+    private int maxHoldNights = 30;
+
+    @Value("${app.availability-index.horizon-days:400}")
+    private int horizonDays = 400;
+
+    @Value("${app.availability.generation.batch-rooms:200}")
+    private int generationBatchRooms = 200;
 
     @Override
     public boolean isRoomAvailable(UUID roomId, LocalDate date) {
         try {
+            int indexed = availabilityIndex.available(roomId, date);
+            if (indexed != RoomAvailabilityIndex.UNKNOWN) {
+                return indexed > 0;
+            }
             RoomAvailability availability = availabilityRepository.findByRoom_RoomIdAndDate(roomId, date);
             if (availability == null) {
                 return true; // If no availability record exists, assume room is available
@@ -44,6 +119,10 @@ public class RoomAvailabilityServiceImpl implements RoomAvailabilityService {
     @Override
     public boolean isRoomAvailableForRange(UUID roomId, LocalDate checkin, LocalDate checkout) {
         try {
+            int indexed = availabilityIndex.minAvailable(roomId, checkin, checkout);
+            if (indexed != RoomAvailabilityIndex.UNKNOWN) {
+                return indexed > 0;
+            }
             // Check every date in the range [checkin, checkout) for availability
             for (LocalDate date = checkin; date.isBefore(checkout); date = date.plusDays(1)) {
                 if (!isRoomAvailable(roomId, date)) {
@@ -56,44 +135,288 @@ public class RoomAvailabilityServiceImpl implements RoomAvailabilityService {
         }
     }
 
+    @Override
+    public int getMinAvailableRooms(UUID roomId, LocalDate checkIn, LocalDate checkOut) {
+        int indexed = availabilityIndex.minAvailable(roomId, checkIn, checkOut);
+        if (indexed != RoomAvailabilityIndex.UNKNOWN) {
+            return indexed;
+        }
+        Room room = roomRepository.findById(roomId).orElseThrow(() ->
+            new ResourceNotFoundException("Room not found with ID: " + roomId));
+        Map<LocalDate, Integer> rows = availabilityRepository.findCellsForRoom(roomId, checkIn, checkOut).stream()
+            .collect(Collectors.toMap(AvailabilityCell::getDate, AvailabilityCell::getAvailableRooms, (a, b) -> a));
+        int min = Integer.MAX_VALUE;
+        for (LocalDate date = checkIn; date.isBefore(checkOut); date = date.plusDays(1)) {
+            min = Math.min(min, rows.getOrDefault(date, room.getTotalRooms()));
+        }
+        return min == Integer.MAX_VALUE ? room.getTotalRooms() : min;
+    }
+
+    /**
+     * Per-night availability of several rooms (the given ones, or every room of a hotel) for the
+     * nights [start, end), read with one query over all of them. Nights without a row are reported
+     * as the room's totalRooms, as everywhere else.
+     */
+    @Override
+    public RoomAvailabilityCalendarResponse getAvailabilityCalendar(Collection<UUID> roomIds, UUID hotelId,
+                                                                    LocalDate start, LocalDate end) {
+        if (start == null || end == null || !end.isAfter(start)) {
+            throw new BadRequestException("Invalid start or end date.");
+        }
+        int nights = (int) Math.min(ChronoUnit.DAYS.between(start, end), Integer.MAX_VALUE);
+        if (nights > MAX_CALENDAR_NIGHTS) {
+            throw new BadRequestException("Date range cannot exceed " + MAX_CALENDAR_NIGHTS + " nights.");
+        }
+        boolean byRoom = roomIds != null && !roomIds.isEmpty();
+        if (byRoom == (hotelId != null)) {
+            throw new BadRequestException("Provide either room IDs or a hotel ID.");
+        }
+        if (byRoom && roomIds.size() > MAX_CALENDAR_ROOMS) {
+            throw new BadRequestException("At most " + MAX_CALENDAR_ROOMS + " rooms can be requested at once.");
+        }
+
+        List<RoomInventoryView> rooms;
+        if (byRoom) {
+            Set<UUID> requested = new LinkedHashSet<>(roomIds);
+            Map<UUID, RoomInventoryView> found = roomRepository.findInventoryViewsByRoomIds(requested).stream()
+                .collect(Collectors.toMap(RoomInventoryView::getRoomId, Function.identity()));
+            rooms = new ArrayList<>(requested.size());
+            for (UUID roomId : requested) {
+                RoomInventoryView room = found.get(roomId);
+                if (room == null) {
+                    throw new ResourceNotFoundException("Room not found with ID: " + roomId);
+                }
+                rooms.add(room);
+            }
+        } else {
+            rooms = roomRepository.findInventoryViewsByHotelIds(List.of(hotelId));
+        }
+
+        Map<UUID, int[]> calendars = new LinkedHashMap<>();
+        for (RoomInventoryView room : rooms) {
+            int[] calendar = new int[nights];
+            Arrays.fill(calendar, room.getTotalRooms() != null ? room.getTotalRooms() : 0);
+            calendars.put(room.getRoomId(), calendar);
+        }
+        if (!calendars.isEmpty()) {
+            for (AvailabilityCell row : availabilityRepository.findCellsForRooms(calendars.keySet(), start, end)) {
+                int[] calendar = calendars.get(row.getRoomId());
+                if (calendar != null && row.getAvailableRooms() != null) {
+                    calendar[(int) (row.getDate().toEpochDay() - start.toEpochDay())] = row.getAvailableRooms();
+                }
+            }
+        }
+
+        List<RoomAvailabilityCalendarResponse.RoomNights> roomNights = new ArrayList<>(rooms.size());
+        for (RoomInventoryView room : rooms) {
+            roomNights.add(RoomAvailabilityCalendarResponse.RoomNights.builder()
+                .roomId(room.getRoomId())
+                .hotelId(room.getHotelId())
+                .totalRooms(room.getTotalRooms() != null ? room.getTotalRooms() : 0)
+                .availableRooms(Arrays.stream(calendars.get(room.getRoomId())).boxed().toList())
+                .build());
+        }
+        return RoomAvailabilityCalendarResponse.builder()
+            .startDate(start)
+            .endDate(end)
+            .rooms(roomNights)
+            .build();
+    }
+
+    /**
+     * Books (or, with a negative count, gives back) rooms for one night. The night is created at full
+     * inventory if it has no row yet, then changed by a single conditional UPDATE, so concurrent
+     * bookings are serialised by the row lock instead of a read-check-save in the application.
+     */
     @Override
     public void updateInventory(UUID roomId, UpdateInventoryRequest request) {
         try {
             Room room = roomRepository.findById(roomId).orElseThrow( () -> 
                 new ResourceNotFoundException("Room not found with ID: " + roomId));
-            RoomAvailability availability = availabilityRepository.findByRoom_RoomIdAndDate(roomId, request.getDate());
-
-            int roomsToBook = request.getRoomsToBook();
-            if (availability == null) {
-                int availableRooms = room.getTotalRooms() - roomsToBook;
-                if (roomsToBook > room.getTotalRooms()) {
-                    throw new IllegalArgumentException("Rooms to book cannot exceed total rooms.");
-                }
-                availability = RoomAvailability.builder()
-                    .room(room)
-                    .date(request.getDate())
-                    .availableRooms(availableRooms)
-                    .build();
-            } else {
-                if (roomsToBook > availability.getAvailableRooms()) {
-                    throw new IllegalArgumentException("Rooms to book cannot exceed available rooms.");
-                }
-                availability.setAvailableRooms(availability.getAvailableRooms() - roomsToBook);
+            if (request.getRoomsToBook() > room.getTotalRooms()) {
+                throw new IllegalArgumentException("Rooms to book cannot exceed total rooms.");
             }
+            writeInRoomOrder(room, () -> {
+                changeInventory(room, request.getDate(), request.getDate().plusDays(1), request.getRoomsToBook());
+                afterInventoryChange(room, request.getDate(), request.getDate().plusDays(1));
+            });
+        } catch (ResourceNotFoundException | IllegalArgumentException | RoomBusyException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to update inventory. Please try again later.", e);
+        }
+    }
 
-            availabilityRepository.save(availability);
-        } catch (ResourceNotFoundException | IllegalArgumentException e) {
+    /**
+     * Takes {@code rooms} on every night of [checkIn, checkOut), or none of them if one night has too
+     * few left. The room is read once and the whole stay costs the same few statements as one night.
+     */
+    @Override
+    public void reserveRange(UUID roomId, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        changeRange(roomId, checkIn, checkOut, rooms);
+    }
+
+    /** Gives {@code rooms} back on every night of [checkIn, checkOut), never above the room's total. */
+    @Override
+    public void releaseRange(UUID roomId, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        changeRange(roomId, checkIn, checkOut, -rooms);
+    }
+
+    private void changeRange(UUID roomId, LocalDate checkIn, LocalDate checkOut, int roomsToBook) {
+        if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Check-out must be after check-in.");
+        }
+        try {
+            Room room = roomRepository.findById(roomId).orElseThrow(() ->
+                new ResourceNotFoundException("Room not found with ID: " + roomId));
+            if (roomsToBook > room.getTotalRooms()) {
+                throw new IllegalArgumentException("Rooms to book cannot exceed total rooms.");
+            }
+            writeInRoomOrder(room, () -> {
+                changeInventory(room, checkIn, checkOut, roomsToBook);
+                afterInventoryChange(room, checkIn, checkOut);
+            });
+        } catch (ResourceNotFoundException | IllegalArgumentException | RoomBusyException e) {
             throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to update inventory. Please try again later.", e);
         }
     }
 
+    /**
+     * Takes the rooms for a guest who is checking out. The hold is real inventory, so every
+     * availability read already leaves it out; it is given back by {@link #expireHolds} unless a
+     * booking claims it first.
+     */
+    @Override
+    public InventoryHoldResponse placeHold(UUID roomId, PlaceHoldRequest request) {
+        User user = AuthUtil.getCurrentUser();
+        if (user == null) {
+            throw new BadRequestException("Only signed-in users can hold rooms.");
+        }
+        LocalDate checkIn = request.getCheckIn();
+        LocalDate checkOut = request.getCheckOut();
+        if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn) || checkIn.isBefore(LocalDate.now(clock))) {
+            throw new BadRequestException("Invalid check-in or check-out dates.");
+        }
+        if (request.getRooms() < 1) {
+            throw new BadRequestException("At least one room must be held.");
+        }
+        if (ChronoUnit.DAYS.between(checkIn, checkOut) > maxHoldNights) {
+            throw new BadRequestException("A hold cannot exceed " + maxHoldNights + " nights.");
+        }
+
+        Room room = roomRepository.findById(roomId).orElseThrow(() ->
+            new ResourceNotFoundException("Room not found with ID: " + roomId));
+        if (request.getRooms() > room.getTotalRooms()) {
+            throw new BadRequestException("Cannot hold more rooms than the room type has.");
+        }
+        InventoryHold hold;
+        try {
+            hold = inRoomOrder(room, () -> {
+                holdRepository.lockUser(user.getUserId());
+                if (holdRepository.countActiveHolds(user.getUserId(), clock.instant()) >= maxActiveHoldsPerUser) {
+                    throw new BadRequestException("At most " + maxActiveHoldsPerUser
+                        + " holds can be active at once. Book or release a held room first.");
+                }
+                changeRange(roomId, checkIn, checkOut, request.getRooms());
+                return holdRepository.save(InventoryHold.builder()
+                    .roomId(roomId)
+                    .userId(user.getUserId())
+                    .checkIn(checkIn)
+                    .checkOut(checkOut)
+                    .roomsHeld(request.getRooms())
+                    .expiresAt(clock.instant().plus(Duration.ofMinutes(holdTtlMinutes)))
+                    .build());
+            });
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Room is not available for the selected dates.");
+        }
+        holdWheel.add(hold.getHoldId(), hold.getExpiresAt());
+        return InventoryHoldResponse.builder()
+            .holdId(hold.getHoldId())
+            .roomId(hold.getRoomId())
+            .checkIn(hold.getCheckIn())
+            .checkOut(hold.getCheckOut())
+            .rooms(hold.getRoomsHeld())
+            .expiresAt(hold.getExpiresAt())
+            .build();
+    }
+
+    @Override
+    public void releaseHold(UUID holdId) {
+        User user = AuthUtil.getCurrentUser();
+        InventoryHold hold = holdRepository.findById(holdId)
+            .filter(found -> user != null && user.getUserId().equals(found.getUserId()))
+            .orElseThrow(() -> new ResourceNotFoundException("Hold not found with ID: " + holdId));
+        giveBack(hold);
+        holdWheel.cancel(holdId);
+    }
+
+    /**
+     * Turns a hold into a booking: the rooms stay taken and now belong to the booking, so the stay is
+     * not checked again night by night. The stay must be exactly the one that was held. Run inside the
+     * booking's transaction, the hold only leaves the expiry wheel once that commits.
+     */
+    @Override
+    public void claimHold(UUID holdId, UUID userId, UUID roomId, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        transactionTemplate.executeWithoutResult(status -> {
+            InventoryHold hold = holdRepository.findById(holdId)
+                .orElseThrow(() -> new BadRequestException("The hold has expired. Please select the room again."));
+            if (!hold.getUserId().equals(userId) || !hold.getRoomId().equals(roomId)
+                    || !hold.getCheckIn().equals(checkIn) || !hold.getCheckOut().equals(checkOut)
+                    || hold.getRoomsHeld() != rooms) {
+                throw new BadRequestException("The booking does not match the held rooms.");
+            }
+            if (holdRepository.deleteHold(holdId) == 0) {
+                throw new BadRequestException("The hold has expired. Please select the room again.");
+            }
+            afterCommit(() -> holdWheel.cancel(holdId));
+        });
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.holds.tick-ms:1000}")
+    public void expireHolds() {
+        for (UUID holdId : holdWheel.advance(clock.millis())) {
+            try {
+                holdRepository.findById(holdId).ifPresent(this::giveBack);
+            } catch (Exception e) {
+                // Try again on the next tick rather than leave the rooms taken
+                log.warn("Failed to expire hold {}: {}", holdId, e.getMessage());
+                holdWheel.add(holdId, clock.instant());
+            }
+        }
+    }
+
+    // Holds outlive restarts in the table; the ones that expired meanwhile go on the next tick
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHolds() {
+        List<InventoryHold> holds = holdRepository.findAll();
+        for (InventoryHold hold : holds) {
+            holdWheel.add(hold.getHoldId(), hold.getExpiresAt());
+        }
+        log.info("Loaded {} inventory holds", holds.size());
+    }
+
+    // Deleting the row first means a hold claimed by a booking meanwhile is never given back
+    private void giveBack(InventoryHold hold) {
+        Room room = roomRepository.findById(hold.getRoomId()).orElseThrow(() ->
+            new ResourceNotFoundException("Room not found with ID: " + hold.getRoomId()));
+        writeInRoomOrder(room, () -> {
+            if (holdRepository.deleteHold(hold.getHoldId()) > 0) {
+                changeRange(hold.getRoomId(), hold.getCheckIn(), hold.getCheckOut(), -hold.getRoomsHeld());
+            }
+        });
+    }
+
     @Override
     public void blockRoomDates(UUID roomId, BlockRoomRequest request) {
         try {
             Room room = roomRepository.findById(roomId).orElseThrow();
 
+            writeInRoomOrder(room, () -> {
             for (LocalDate date = request.getStartDate(); !date.isAfter(request.getEndDate()); date = date.plusDays(1)) {
             RoomAvailability availability = availabilityRepository.findByRoom_RoomIdAndDate(roomId, date);
             if (availability == null) {
@@ -106,7 +429,12 @@ public class RoomAvailabilityServiceImpl implements RoomAvailabilityService {
                 availability.setAvailableRooms(0);
             }
             availabilityRepository.save(availability);
+            mirrorToIndex(room, availability);
             }
+            afterInventoryChange(room, request.getStartDate(), request.getEndDate().plusDays(1));
+            });
+        } catch (RoomBusyException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to block room dates. Please try again later.", e);
         }
@@ -115,71 +443,337 @@ public class RoomAvailabilityServiceImpl implements RoomAvailabilityService {
     @Override
     public void unblockRoomDates(UUID roomId, BlockRoomRequest request) {
         try {
-            Room room = roomRepository.findById(roomId).orElseThrow();
-            int totalRooms = room.getTotalRooms();
+            recompute(roomId, request.getStartDate(), request.getEndDate().plusDays(1));
+        } catch (RoomBusyException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to unblock room dates. Please try again later.", e);
+        }
+    }
 
-            for (LocalDate date = request.getStartDate(); !date.isAfter(request.getEndDate()); date = date.plusDays(1)) {
-                // Fetch all bookings for this room
-                List<Booking> bookings = bookingRepository.findByRoom_RoomId(roomId);
-
-                // Calculate booked rooms for this date
-                int bookedRooms = 0;
-                for (Booking booking : bookings) {
-                    // Check if the date falls within the booking's check-in (inclusive) and check-out (exclusive)
-                    if ((date.isEqual(booking.getCheckIn()) || date.isAfter(booking.getCheckIn()))
-                            && date.isBefore(booking.getCheckOut())) {
-                        bookedRooms += booking.getRoomsBooked();
-                    }
-                }
+    /**
+     * Rebuilds the nights [from, to) of a room from what actually holds its rooms: the confirmed
+     * bookings and the checkout holds. One query per source, a difference-array sweep for the rooms
+     * taken each night and one upsert for the whole range. Blocks are not stored anywhere else, so
+     * this only runs over nights that are being unblocked.
+     */
+    private void recompute(UUID roomId, LocalDate from, LocalDate to) {
+        Room room = roomRepository.findById(roomId).orElseThrow(() ->
+            new ResourceNotFoundException("Room not found with ID: " + roomId));
+        writeInRoomOrder(room, () -> recomputeNights(room, from, to));
+    }
 
-                int availableRooms = totalRooms - bookedRooms;
-                if (availableRooms < 0) availableRooms = 0;
-
-                RoomAvailability availability = availabilityRepository.findByRoom_RoomIdAndDate(roomId, date);
-                if (availability != null) {
-                    availability.setAvailableRooms(availableRooms);
-                    availabilityRepository.save(availability);
-                } else {
-                    // If no availability record exists, create one
-                    RoomAvailability newAvailability = RoomAvailability.builder()
-                        .room(room)
-                        .date(date)
-                        .availableRooms(availableRooms)
-                        .build();
-                    availabilityRepository.save(newAvailability);
-                }
+    private void recomputeNights(Room room, LocalDate from, LocalDate to) {
+        UUID roomId = room.getRoomId();
+        int nights = (int) ChronoUnit.DAYS.between(from, to);
+
+        // taken[i] - taken[i - 1]: a stay adds its rooms on its first night and removes them after its last
+        int[] delta = new int[nights + 1];
+        List<StayView> stays = new ArrayList<>(bookingRepository.findActiveStays(roomId, from, to));
+        stays.addAll(holdRepository.findStays(roomId, from, to));
+        for (StayView stay : stays) {
+            int first = (int) Math.max(0, stay.getCheckIn().toEpochDay() - from.toEpochDay());
+            int end = (int) Math.min(nights, stay.getCheckOut().toEpochDay() - from.toEpochDay());
+            if (first < end) {
+                delta[first] += stay.getRooms();
+                delta[end] -= stay.getRooms();
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to unblock room dates. Please try again later.", e);
         }
+        int[] available = new int[nights];
+        int taken = 0;
+        for (int night = 0; night < nights; night++) {
+            taken += delta[night];
+            available[night] = Math.max(0, room.getTotalRooms() - taken);
+        }
+
+        availabilityRepository.upsertNights(roomId, from, available);
+        afterCommit(() -> {
+            availabilityIndex.registerRoom(roomId, room.getTotalRooms());
+            for (int night = 0; night < nights; night++) {
+                availabilityIndex.set(roomId, from.plusDays(night), available[night]);
+            }
+        });
+        afterInventoryChange(room, from, to);
     }
 
+    /**
+     * Keeps the nights of every room materialised from today to the end of the horizon, so that
+     * bookings and searches find a row for each night they read. Rooms are filled a batch per
+     * statement and transaction; nights that exist are left alone, so the nightly run only adds the
+     * night entering the horizon and whatever an earlier run missed.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.availability.generation.cron:0 1 0 * * *}")
+    public void generateAvailabilityHorizon() {
+        LocalDate today = LocalDate.now(clock);
+        List<UUID> roomIds = roomRepository.findAllInventoryViews().stream()
+            .map(RoomInventoryView::getRoomId)
+            .toList();
+        long created = 0;
+        for (int start = 0; start < roomIds.size(); start += generationBatchRooms) {
+            List<UUID> batch = roomIds.subList(start, Math.min(roomIds.size(), start + generationBatchRooms));
+            try {
+                Integer inserted = transactionTemplate.execute(status ->
+                    availabilityRepository.generateNights(batch, today, horizonDays));
+                created += inserted != null ? inserted : 0;
+            } catch (Exception e) {
+                // The other batches still go ahead; the next run fills this one in
+                log.warn("Failed to generate availability for {} rooms: {}", batch.size(), e.getMessage());
+            }
+        }
+        log.info("Availability generated to {}: {} nights created for {} rooms",
+            today.plusDays(horizonDays), created, roomIds.size());
+    }
+
+    /**
+     * Brings the nights of a new or resized room in line with its totalRooms. Nights from today on
+     * keep the rooms already taken and move by the change in the total, then the nights of the
+     * horizon that are still missing are created at full inventory.
+     */
+    @Override
+    public void backfillRoom(UUID roomId, int previousTotalRooms) {
+        Room room = roomRepository.findById(roomId).orElseThrow(() ->
+            new ResourceNotFoundException("Room not found with ID: " + roomId));
+        LocalDate today = LocalDate.now(clock);
+        int delta = room.getTotalRooms() - previousTotalRooms;
+        writeInRoomOrder(room, () -> {
+            if (delta != 0) {
+                availabilityRepository.shiftRooms(roomId, today, delta, room.getTotalRooms());
+            }
+            availabilityRepository.generateNights(List.of(roomId), today, horizonDays);
+            List<AvailabilityCell> cells = availabilityRepository.findCellsForRoom(
+                roomId, availabilityIndex.horizonStart(), availabilityIndex.horizonEnd());
+            afterCommit(() -> availabilityIndex.replaceRoom(roomId, room.getTotalRooms(), cells));
+        });
+    }
+
+    /**
+     * Removes the nights and holds of a room about to be deleted; every room has a full horizon of
+     * rows, and they reference the room. Must run in the transaction that deletes the room.
+     */
+    @Override
+    @Transactional
+    public void deleteRoomInventory(UUID roomId) {
+        holdRepository.deleteByRoomId(roomId);
+        availabilityRepository.deleteByRoomId(roomId);
+    }
+
+    @Override
     public double getHotelAvailabilityRatio(UUID hotelId, LocalDate checkIn, LocalDate checkOut) {
         try {
-            List<Room> rooms = roomRepository.findAllByHotel_HotelId(hotelId);
-            int totalRooms = rooms.stream().mapToInt(Room::getTotalRooms).sum();
-            if (totalRooms == 0) return 0.0;
-
-            int days = 0;
-            double totalRatio = 0.0;
-
-            for (LocalDate date = checkIn; date.isBefore(checkOut); date = date.plusDays(1)) {
-                int availableRooms = 0;
-                for (Room room : rooms) {
-                    RoomAvailability availability = availabilityRepository.findByRoom_RoomIdAndDate(room.getRoomId(), date);
-                    if (availability != null) {
-                        availableRooms += availability.getAvailableRooms();
-                    } else {
-                        availableRooms += room.getTotalRooms(); // If no record, assume all available
-                    }
-                }
-                totalRatio += ((double) availableRooms / totalRooms);
-                days++;
+            double[] occupancy = getHotelOccupancySeries(hotelId, checkIn, checkOut);
+            if (occupancy.length == 0) {
+                return 1.0;
+            }
+            double free = 0.0;
+            for (double night : occupancy) {
+                free += 1.0 - night;
             }
-            return days == 0 ? 1.0 : totalRatio / days;
+            return free / occupancy.length;
         } catch (Exception e) {
             throw new RuntimeException("Failed to calculate hotel availability ratio. Please try again later.", e);
         }
     }
 
+    /**
+     * Share of the hotel's rooms taken on each night of [from, to), read from the daily aggregate in one
+     * query. A hotel without rooms counts as full.
+     */
+    @Override
+    public double[] getHotelOccupancySeries(UUID hotelId, LocalDate from, LocalDate to) {
+        if (from == null || to == null || !to.isAfter(from)) {
+            return new double[0];
+        }
+        List<OccupancyCell> cells = occupancyRepository.findSeries(hotelId, from, (int) ChronoUnit.DAYS.between(from, to));
+        double[] occupancy = new double[cells.size()];
+        for (int night = 0; night < occupancy.length; night++) {
+            OccupancyCell cell = cells.get(night);
+            occupancy[night] = cell.getTotalRooms() <= 0 ? 1.0
+                : 1.0 - (double) Math.min(cell.getAvailableRooms(), cell.getTotalRooms()) / cell.getTotalRooms();
+        }
+        return occupancy;
+    }
+
+    // A room added, resized or removed changes the hotel's totals on every night from today that has
+    // an aggregate row or an availability row
+    @EventListener
+    public void onRoomChanged(RoomChangedEvent event) {
+        UUID hotelId = event.getHotelId();
+        if (hotelId == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now(clock);
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDate last = occupancyRepository.findLastNight(hotelId);
+            LocalDate lastAvailable = occupancyRepository.findLastAvailabilityNight(hotelId);
+            if (last == null || (lastAvailable != null && lastAvailable.isAfter(last))) {
+                last = lastAvailable;
+            }
+            if (last != null && !last.isBefore(today)) {
+                refreshOccupancy(hotelId, today, (int) ChronoUnit.DAYS.between(today, last) + 1);
+            }
+        });
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.availability-index.reload-cron:0 5 0 * * *}")
+    public void reloadAvailabilityIndex() {
+        try {
+            availabilityIndex.beginReload();
+            List<RoomInventoryView> rooms = roomRepository.findAllInventoryViews();
+            List<AvailabilityCell> rows = availabilityRepository.findCellsBetween(
+                availabilityIndex.reloadStart(), availabilityIndex.reloadEnd());
+            Set<UUID> written = availabilityIndex.load(rooms, rows);
+            for (UUID roomId : written) {
+                roomRepository.findById(roomId).ifPresent(this::refreshIndexedRoom);
+            }
+            log.info("Availability index loaded: {} rooms, {} rows, horizon {} to {}",
+                rooms.size(), rows.size(), availabilityIndex.horizonStart(), availabilityIndex.horizonEnd());
+        } catch (Exception e) {
+            // Reads fall back to the table while the index is unavailable
+            log.error("Failed to load availability index: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public AvailabilityIndexConsistencyResponse checkIndexConsistency() {
+        LocalDate start = availabilityIndex.horizonStart();
+        LocalDate end = availabilityIndex.horizonEnd();
+        int days = (int) (end.toEpochDay() - start.toEpochDay());
+
+        Map<UUID, int[]> table = new HashMap<>();
+        List<RoomInventoryView> rooms = roomRepository.findAllInventoryViews();
+        for (RoomInventoryView room : rooms) {
+            int[] calendar = new int[days];
+            Arrays.fill(calendar, room.getTotalRooms());
+            table.put(room.getRoomId(), calendar);
+        }
+        for (AvailabilityCell row : availabilityRepository.findCellsBetween(start, end)) {
+            int[] calendar = table.get(row.getRoomId());
+            if (calendar != null) {
+                calendar[(int) (row.getDate().toEpochDay() - start.toEpochDay())] = row.getAvailableRooms();
+            }
+        }
+
+        int missing = 0;
+        long mismatchCount = 0;
+        List<AvailabilityIndexConsistencyResponse.Mismatch> mismatches = new ArrayList<>();
+        for (Map.Entry<UUID, int[]> entry : table.entrySet()) {
+            if (!availabilityIndex.isIndexed(entry.getKey())) {
+                missing++;
+                continue;
+            }
+            int[] expected = entry.getValue();
+            for (int i = 0; i < days; i++) {
+                LocalDate date = start.plusDays(i);
+                int indexed = availabilityIndex.available(entry.getKey(), date);
+                if (indexed == expected[i]) {
+                    continue;
+                }
+                mismatchCount++;
+                if (mismatches.size() < MAX_REPORTED_MISMATCHES) {
+                    mismatches.add(AvailabilityIndexConsistencyResponse.Mismatch.builder()
+                        .roomId(entry.getKey())
+                        .date(date)
+                        .indexValue(indexed)
+                        .tableValue(expected[i])
+                        .build());
+                }
+            }
+        }
+        return AvailabilityIndexConsistencyResponse.builder()
+            .consistent(availabilityIndex.isLoaded() && missing == 0 && mismatchCount == 0)
+            .horizonStart(start)
+            .horizonEnd(end)
+            .roomsChecked(table.size())
+            .roomsMissingFromIndex(missing)
+            .mismatchCount(mismatchCount)
+            .mismatches(mismatches)
+            .build();
+    }
+
+    // Applies roomsToBook to every night of [from, to); must run in a transaction so that a sold-out night undoes the others
+    private void changeInventory(Room room, LocalDate from, LocalDate to, int roomsToBook) {
+        int nights = (int) ChronoUnit.DAYS.between(from, to);
+        availabilityRepository.insertMissingNights(room.getRoomId(), from, nights, room.getTotalRooms());
+        if (roomsToBook >= 0) {
+            int updated = availabilityRepository.takeRooms(room.getRoomId(), from, to, roomsToBook);
+            if (updated < nights) {
+                throw new IllegalArgumentException("Rooms to book cannot exceed available rooms.");
+            }
+        } else {
+            availabilityRepository.returnRooms(room.getRoomId(), from, to, -roomsToBook, room.getTotalRooms());
+        }
+        List<AvailabilityCell> cells = availabilityRepository.findCellsForRoom(room.getRoomId(), from, to);
+        afterCommit(() -> {
+            availabilityIndex.registerRoom(room.getRoomId(), room.getTotalRooms());
+            for (AvailabilityCell cell : cells) {
+                availabilityIndex.set(room.getRoomId(), cell.getDate(), cell.getAvailableRooms());
+            }
+        });
+    }
+
+    private void mirrorToIndex(Room room, RoomAvailability availability) {
+        LocalDate date = availability.getDate();
+        int available = availability.getAvailableRooms();
+        afterCommit(() -> {
+            availabilityIndex.registerRoom(room.getRoomId(), room.getTotalRooms());
+            availabilityIndex.set(room.getRoomId(), date, available);
+        });
+    }
+
+    // The index only ever shows committed rows: inside a transaction the write waits for the commit and is
+    // dropped on rollback. Inventory transactions commit inside the room's turn, so the hooks of one room
+    // still run in the order of its writes.
+    private void afterCommit(Runnable mirror) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            mirror.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                mirror.run();
+            }
+        });
+    }
+
+    // Inventory writes take the room's turn before their transaction starts, so each one commits
+    // before the next write of the room reads anything
+    private <T> T inRoomOrder(Room room, Supplier<T> write) {
+        UUID hotelId = room.getHotel() != null ? room.getHotel().getHotelId() : null;
+        return roomWriteOrder.call(room.getRoomId(), hotelId, () -> transactionTemplate.execute(status -> write.get()));
+    }
+
+    private void writeInRoomOrder(Room room, Runnable write) {
+        inRoomOrder(room, () -> {
+            write.run();
+            return null;
+        });
+    }
+
+    // Single place for everything that follows a change to the nights [from, to) of a room. The event
+    // waits for the commit like the index writes: a search cached in between would keep the old rows
+    private void afterInventoryChange(Room room, LocalDate from, LocalDate to) {
+        Hotel hotel = room.getHotel();
+        if (hotel != null) {
+            refreshOccupancy(hotel.getHotelId(), from, (int) ChronoUnit.DAYS.between(from, to));
+        }
+        InventoryChangedEvent event = new InventoryChangedEvent(room.getRoomId(),
+            hotel != null ? hotel.getHotelId() : null, hotel != null ? hotel.getCity() : null, from, to);
+        afterCommit(() -> eventPublisher.publishEvent(event));
+    }
+
+    // Recomputes the hotel's aggregate for nights it has just changed, behind the row locks of those nights
+    private void refreshOccupancy(UUID hotelId, LocalDate from, int nights) {
+        occupancyRepository.lockNights(hotelId, from, nights);
+        occupancyRepository.refreshNights(hotelId, from, nights);
+    }
+
+    private void refreshIndexedRoom(Room room) {
+        availabilityIndex.replaceRoom(room.getRoomId(), room.getTotalRooms(), availabilityRepository.findCellsForRoom(
+            room.getRoomId(), availabilityIndex.horizonStart(), availabilityIndex.horizonEnd()));
+    }
 }
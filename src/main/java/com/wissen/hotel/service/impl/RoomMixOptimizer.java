@@ -0,0 +1,100 @@
+package com.wissen.hotel.service.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cheapest mix of room types hosting a party, as a bounded knapsack over the guest count:
+ * {@code cost[g]} is the cheapest way found so far to host at least {@code g} guests. Each room type
+ * can be used up to its remaining inventory; the copies are split into power-of-two bundles so that
+ * a type with {@code n} rooms free adds {@code log n} items instead of {@code n}. Equal prices are
+ * broken by the smaller number of rooms.
+ */
+final class RoomMixOptimizer {
+
+    /** A room type with {@code available} rooms free for the whole stay, each costing {@code price}. */
+    record Option(UUID roomId, int capacity, int available, BigDecimal price) {
+    }
+
+    /** Rooms to book per room type, in the order of the options. */
+    record Mix(Map<UUID, Integer> rooms, int roomCount, BigDecimal totalPrice) {
+    }
+
+    private record Bundle(Option option, int copies, int guests, BigDecimal price) {
+    }
+
+    private RoomMixOptimizer() {
+    }
+
+    /** @return the cheapest mix hosting {@code guests}, or null if the options cannot host them all */
+    static Mix cheapest(List<Option> options, int guests) {
+        List<Bundle> bundles = new ArrayList<>();
+        long totalGuests = 0;
+        for (Option option : options) {
+            if (option.capacity() <= 0 || option.available() <= 0 || option.price() == null) {
+                continue;
+            }
+            // More copies than the party needs on its own never help
+            int copies = Math.min(option.available(), (guests + option.capacity() - 1) / option.capacity());
+            totalGuests += (long) copies * option.capacity();
+            for (int bundle = 1; copies > 0; bundle <<= 1) {
+                int size = Math.min(bundle, copies);
+                bundles.add(new Bundle(option, size, size * option.capacity(),
+                        option.price().multiply(BigDecimal.valueOf(size))));
+                copies -= size;
+            }
+        }
+        if (totalGuests < guests) {
+            return null;
+        }
+
+        BigDecimal[] cost = new BigDecimal[guests + 1];
+        int[] roomCount = new int[guests + 1];
+        cost[0] = BigDecimal.ZERO;
+        boolean[][] taken = new boolean[bundles.size()][];
+        for (int item = 0; item < bundles.size(); item++) {
+            Bundle bundle = bundles.get(item);
+            taken[item] = new boolean[guests + 1];
+            // Downwards, so every bundle is used at most once
+            for (int hosted = guests; hosted > 0; hosted--) {
+                int rest = Math.max(0, hosted - bundle.guests());
+                if (cost[rest] == null) {
+                    continue;
+                }
+                BigDecimal candidate = cost[rest].add(bundle.price());
+                int rooms = roomCount[rest] + bundle.copies();
+                int comparison = cost[hosted] == null ? -1 : candidate.compareTo(cost[hosted]);
+                if (comparison < 0 || (comparison == 0 && rooms < roomCount[hosted])) {
+                    cost[hosted] = candidate;
+                    roomCount[hosted] = rooms;
+                    taken[item][hosted] = true;
+                }
+            }
+        }
+        if (cost[guests] == null) {
+            return null;
+        }
+
+        Map<UUID, Integer> rooms = new LinkedHashMap<>();
+        int hosted = guests;
+        for (int item = bundles.size() - 1; item >= 0 && hosted > 0; item--) {
+            if (taken[item][hosted]) {
+                Bundle bundle = bundles.get(item);
+                rooms.merge(bundle.option().roomId(), bundle.copies(), Integer::sum);
+                hosted = Math.max(0, hosted - bundle.guests());
+            }
+        }
+        Map<UUID, Integer> ordered = new LinkedHashMap<>();
+        for (Option option : options) {
+            Integer count = rooms.get(option.roomId());
+            if (count != null) {
+                ordered.put(option.roomId(), count);
+            }
+        }
+        return new Mix(ordered, roomCount[guests], cost[guests]);
+    }
+}
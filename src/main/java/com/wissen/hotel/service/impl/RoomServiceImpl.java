@@ -4,7 +4,9 @@ import com.wissen.hotel.dto.request.*;
 import com.wissen.hotel.dto.response.*;
 import com.wissen.hotel.service.UserService;
 import com.wissen.hotel.enums.RoomType;
+import com.wissen.hotel.event.RoomChangedEvent;
 import com.wissen.hotel.exception.ResourceNotFoundException;
+import com.wissen.hotel.index.RoomAvailabilityIndex;
 import com.wissen.hotel.model.*;
 import com.wissen.hotel.repository.AmenityRepository;
 import com.wissen.hotel.repository.HotelRepository;
@@ -12,10 +14,12 @@ import com.wissen.hotel.repository.RoomAmenityRepository;
 import com.wissen.hotel.repository.RoomRepository;
 import com.wissen.hotel.service.BookingService;
 import com.wissen.hotel.service.RoomAmenityService;
+import com.wissen.hotel.service.RoomAvailabilityService;
 import com.wissen.hotel.service.RoomService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,6 +37,9 @@ public class RoomServiceImpl implements RoomService {
     private final AmenityRepository amenityRepository;
     private final BookingService bookingService;
     private final RoomAmenityService roomAmenityService;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoomAvailabilityService roomAvailabilityService;
 
     private static final String ROOM_NOT_FOUND = "Room not found";
 
@@ -59,6 +66,9 @@ public class RoomServiceImpl implements RoomService {
             if (savedRoom == null) {
                 throw new IllegalStateException("Failed to save room. The repository returned null.");
             }
+            availabilityIndex.registerRoom(savedRoom.getRoomId(), savedRoom.getTotalRooms());
+            backfillAvailability(savedRoom.getRoomId(), 0);
+            eventPublisher.publishEvent(new RoomChangedEvent(savedRoom.getRoomId(), hotelId, hotel.getCity()));
 
             return mapToResponse(savedRoom);
         } catch (ResourceNotFoundException | IllegalStateException | IllegalArgumentException e) {
@@ -93,12 +103,19 @@ public class RoomServiceImpl implements RoomService {
                 throw new IllegalStateException("Cannot update room of an unapproved hotel.");
             }
 
+            int previousTotalRooms = room.getTotalRooms();
             room.setRoomType(request.getRoomType());
             room.setCapacity(request.getCapacity());
             room.setBasePrice(request.getBasePrice());
             room.setTotalRooms(request.getTotalRooms());
 
-            return mapToResponse(roomRepository.save(room));
+            Room savedRoom = roomRepository.save(room);
+            availabilityIndex.updateTotalRooms(roomId, request.getTotalRooms());
+            if (request.getTotalRooms() != previousTotalRooms) {
+                backfillAvailability(roomId, previousTotalRooms);
+            }
+            eventPublisher.publishEvent(new RoomChangedEvent(roomId, room.getHotel().getHotelId(), room.getHotel().getCity()));
+            return mapToResponse(savedRoom);
         } catch (ResourceNotFoundException | IllegalStateException | IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
@@ -107,6 +124,7 @@ public class RoomServiceImpl implements RoomService {
     }
 
     @Override
+    @Transactional
     public void deleteRoom(UUID roomId) {
         try {
             log.info("Deleting room {}", roomId);
@@ -117,7 +135,10 @@ public class RoomServiceImpl implements RoomService {
                 throw new IllegalStateException("Cannot delete room of an unapproved hotel.");
             }
 
+            roomAvailabilityService.deleteRoomInventory(roomId);
             roomRepository.delete(room);
+            availabilityIndex.removeRoom(roomId);
+            eventPublisher.publishEvent(new RoomChangedEvent(roomId, room.getHotel().getHotelId(), room.getHotel().getCity()));
         } catch (ResourceNotFoundException | IllegalStateException | IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
@@ -186,6 +207,15 @@ public class RoomServiceImpl implements RoomService {
     }
 
     // ------------------ Helper ------------------
+    // The room is saved either way; the nightly generation job creates whatever nights are still missing
+    private void backfillAvailability(UUID roomId, int previousTotalRooms) {
+        try {
+            roomAvailabilityService.backfillRoom(roomId, previousTotalRooms);
+        } catch (Exception e) {
+            log.warn("Failed to back-fill availability of room {}: {}", roomId, e.getMessage());
+        }
+    }
+
     private RoomResponse mapToResponse(Room room) {
         if (room == null) {
             throw new IllegalArgumentException("Room cannot be null");
@@ -0,0 +1,173 @@
+package com.wissen.hotel.service.impl;
+
+import com.wissen.hotel.dto.response.SearchFacetsResponse;
+import com.wissen.hotel.enums.RoomType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Counts search facets in one pass over the candidate rooms, hotel by hotel. Within a hotel, room
+ * types are collected in a bit mask and amenities in a bit set, so a hotel counts once per value
+ * however many of its rooms share it. Cities and amenities get dense indexes into primitive
+ * counters as they are first seen. A hotel counts only if its free rooms together host the party,
+ * and is bucketed by the base price of its cheapest mix of rooms.
+ */
+final class SearchFacetCounter {
+
+    private static final RoomType[] ROOM_TYPES = RoomType.values();
+
+    private final int numberOfGuests;
+    private final BigDecimal[] priceBounds;
+    private final long[] priceCounts;
+    private final long[] roomTypeCounts = new long[ROOM_TYPES.length];
+
+    private final Map<String, Integer> cityIndexes = new HashMap<>();
+    private final List<String> cityNames = new ArrayList<>();
+    private long[] cityCounts = new long[16];
+
+    private final Map<UUID, Integer> amenityIndexes = new HashMap<>();
+    private final List<UUID> amenityIds = new ArrayList<>();
+    private final List<String> amenityNames = new ArrayList<>();
+    private long[] amenityCounts = new long[16];
+
+    private long totalHotels;
+
+    // State of the hotel being counted
+    private int hotelCity = -1;
+    private int hotelRoomTypes;
+    private final BitSet hotelAmenities = new BitSet();
+    private final List<RoomMixOptimizer.Option> hotelRooms = new ArrayList<>();
+    private long hotelGuests;
+
+    /** @param priceBounds ascending bucket boundaries; n bounds make n + 1 buckets */
+    SearchFacetCounter(int[] priceBounds, int numberOfGuests) {
+        this.numberOfGuests = numberOfGuests;
+        this.priceBounds = Arrays.stream(priceBounds).mapToObj(BigDecimal::valueOf).toArray(BigDecimal[]::new);
+        this.priceCounts = new long[priceBounds.length + 1];
+    }
+
+    void startHotel(String city) {
+        finishHotel();
+        String key = city == null ? "" : city.trim().toLowerCase(Locale.ROOT);
+        hotelCity = cityIndexes.computeIfAbsent(key, ignored -> {
+            cityNames.add(city);
+            return cityNames.size() - 1;
+        });
+    }
+
+    /** A room type of the current hotel with {@code available} rooms free for the whole stay. */
+    void addRoom(UUID roomId, RoomType roomType, int capacity, int available, BigDecimal basePrice) {
+        if (roomType != null) {
+            hotelRoomTypes |= 1 << roomType.ordinal();
+        }
+        hotelRooms.add(new RoomMixOptimizer.Option(roomId, capacity, available, basePrice));
+        hotelGuests += (long) capacity * available;
+    }
+
+    /** An amenity of a room passed to {@link #addRoom}. */
+    void addAmenity(UUID amenityId, String name) {
+        int index = amenityIndexes.computeIfAbsent(amenityId, id -> {
+            amenityIds.add(id);
+            amenityNames.add(name);
+            return amenityIds.size() - 1;
+        });
+        hotelAmenities.set(index);
+    }
+
+    SearchFacetsResponse toResponse() {
+        finishHotel();
+
+        Map<String, Long> cities = new LinkedHashMap<>();
+        for (int index : byCountDescending(cityCounts, cityNames.size())) {
+            cities.put(cityNames.get(index), cityCounts[index]);
+        }
+        Map<RoomType, Long> roomTypes = new EnumMap<>(RoomType.class);
+        for (RoomType roomType : ROOM_TYPES) {
+            if (roomTypeCounts[roomType.ordinal()] > 0) {
+                roomTypes.put(roomType, roomTypeCounts[roomType.ordinal()]);
+            }
+        }
+        List<SearchFacetsResponse.PriceBucket> priceBuckets = new ArrayList<>(priceCounts.length);
+        for (int bucket = 0; bucket < priceCounts.length; bucket++) {
+            priceBuckets.add(SearchFacetsResponse.PriceBucket.builder()
+                    .min(bucket == 0 ? BigDecimal.ZERO : priceBounds[bucket - 1])
+                    .max(bucket == priceBounds.length ? null : priceBounds[bucket])
+                    .count(priceCounts[bucket])
+                    .build());
+        }
+        List<SearchFacetsResponse.AmenityCount> amenities = new ArrayList<>();
+        for (int index : byCountDescending(amenityCounts, amenityIds.size())) {
+            amenities.add(SearchFacetsResponse.AmenityCount.builder()
+                    .amenityId(amenityIds.get(index))
+                    .name(amenityNames.get(index))
+                    .count(amenityCounts[index])
+                    .build());
+        }
+        return SearchFacetsResponse.builder()
+                .totalHotels(totalHotels)
+                .cities(cities)
+                .roomTypes(roomTypes)
+                .priceBuckets(priceBuckets)
+                .amenities(amenities)
+                .build();
+    }
+
+    // Adds the current hotel to the counters if its rooms could host the party
+    private void finishHotel() {
+        if (hotelGuests >= numberOfGuests && !hotelRooms.isEmpty()) {
+            totalHotels++;
+            cityCounts = grow(cityCounts, hotelCity);
+            cityCounts[hotelCity]++;
+            for (int mask = hotelRoomTypes; mask != 0; mask &= mask - 1) {
+                roomTypeCounts[Integer.numberOfTrailingZeros(mask)]++;
+            }
+            for (int index = hotelAmenities.nextSetBit(0); index >= 0; index = hotelAmenities.nextSetBit(index + 1)) {
+                amenityCounts = grow(amenityCounts, index);
+                amenityCounts[index]++;
+            }
+            RoomMixOptimizer.Mix cheapest = RoomMixOptimizer.cheapest(hotelRooms, numberOfGuests);
+            if (cheapest != null) {
+                priceCounts[bucketOf(cheapest.totalPrice())]++;
+            }
+        }
+        hotelRoomTypes = 0;
+        hotelAmenities.clear();
+        hotelRooms.clear();
+        hotelGuests = 0;
+    }
+
+    private int bucketOf(BigDecimal price) {
+        int bucket = 0;
+        while (bucket < priceBounds.length && price.compareTo(priceBounds[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static long[] grow(long[] counts, int index) {
+        return index < counts.length ? counts : Arrays.copyOf(counts, Math.max(counts.length * 2, index + 1));
+    }
+
+    // Indexes with a non-zero count, highest count first
+    private static List<Integer> byCountDescending(long[] counts, int size) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int index = 0; index < size && index < counts.length; index++) {
+            if (counts[index] > 0) {
+                indexes.add(index);
+            }
+        }
+        indexes.sort(Comparator.comparingLong((Integer index) -> counts[index]).reversed());
+        return indexes;
+    }
+}
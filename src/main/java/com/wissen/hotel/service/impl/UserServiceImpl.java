@@ -8,11 +8,14 @@ import com.wissen.hotel.repository.BookingRepository;
 import com.wissen.hotel.repository.UserRepository;
 import com.wissen.hotel.service.UserService;
 import com.wissen.hotel.util.AuthUtil;
+import com.wissen.hotel.util.PageCursor;
+import com.wissen.hotel.exception.BadRequestException;
 import com.wissen.hotel.exception.UserServiceException;
 
 import jakarta.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -112,15 +115,21 @@ public class UserServiceImpl implements UserService {
 
 
     @Override
-    public List<UserResponse> getAllUsers(int page, int size) {
+    public CursorPage<UserResponse> getAllUsers(String cursor, int size) {
+        if (size <= 0) {
+            throw new BadRequestException("Size must be positive.");
+        }
+        PageCursor after = PageCursor.decode(cursor);
         try {
-            logger.info("Fetching all users with pagination - page: {}, size: {}", page, size);
-            List<UserResponse> users = userRepository.findAll()
-                    .stream()
-                    .map(UserResponse::from) // includes emailVerified
-                    .toList();
-            logger.info("Total users fetched: {}", users.size());
-            return users;
+            logger.info("Fetching users - size: {}, after cursor: {}", size, after != null);
+            PageRequest rows = PageRequest.of(0, size + 1);
+            List<User> users = after == null
+                    ? userRepository.findNewest(rows)
+                    : userRepository.findBefore(after.createdAt(), after.id(), rows);
+            CursorPage<UserResponse> page = CursorPage.of(users, size, UserResponse::from, // includes emailVerified
+                    user -> new PageCursor(user.getCreatedAt(), user.getUserId()));
+            logger.info("Users fetched: {}", page.getContent().size());
+            return page;
         } catch (Exception e) {
             logger.error("Error fetching all users: {}", e.getMessage());
             throw new UserServiceException("Unable to fetch users. Please try again later.", e);
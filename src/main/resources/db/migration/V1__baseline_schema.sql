@@ -1,4 +1,8 @@
-CREATE TABLE users (
+-- Tables as they stood when migrations were introduced. Databases created earlier by Hibernate are
+-- baselined at version 0 and run this too, so every statement only adds what is missing. Their
+-- indexes are created by V2.
+
+CREATE TABLE IF NOT EXISTS users (
     user_id UUID PRIMARY KEY,
     name VARCHAR(100),
     email VARCHAR(100) UNIQUE,
@@ -8,22 +12,21 @@ CREATE TABLE users (
     role VARCHAR(30),
     created_at TIMESTAMP,
     email_verified BOOLEAN
-
 );
 
-CREATE TABLE amenity (
+CREATE TABLE IF NOT EXISTS amenity (
     amenity_id UUID PRIMARY KEY,
     name VARCHAR(100),
     description VARCHAR(255),
     image_url VARCHAR(255)
 );
 
-CREATE TABLE hotel (
+CREATE TABLE IF NOT EXISTS hotel (
     hotel_id UUID PRIMARY KEY,
     owner_id UUID,
     name VARCHAR(100),
-    description CLOB,
-    address CLOB,
+    description TEXT,
+    address TEXT,
     city VARCHAR(50),
     state VARCHAR(50),
     country VARCHAR(50),
@@ -34,7 +37,7 @@ CREATE TABLE hotel (
     FOREIGN KEY (owner_id) REFERENCES users(user_id)
 );
 
-CREATE TABLE room (
+CREATE TABLE IF NOT EXISTS room (
     room_id UUID PRIMARY KEY,
     hotel_id UUID,
     room_type VARCHAR(30),
@@ -44,7 +47,7 @@ CREATE TABLE room (
     FOREIGN KEY (hotel_id) REFERENCES hotel(hotel_id)
 );
 
-CREATE TABLE room_amenity (
+CREATE TABLE IF NOT EXISTS room_amenity (
     id UUID PRIMARY KEY,
     room_id UUID,
     amenity_id UUID,
@@ -52,7 +55,7 @@ CREATE TABLE room_amenity (
     FOREIGN KEY (amenity_id) REFERENCES amenity(amenity_id)
 );
 
-CREATE TABLE room_availability (
+CREATE TABLE IF NOT EXISTS room_availability (
     availability_id UUID PRIMARY KEY,
     room_id UUID,
     date DATE,
@@ -60,7 +63,28 @@ CREATE TABLE room_availability (
     FOREIGN KEY (room_id) REFERENCES room(room_id)
 );
 
-CREATE TABLE booking (
+CREATE TABLE IF NOT EXISTS hotel_daily_occupancy (
+    occupancy_id UUID PRIMARY KEY,
+    hotel_id UUID,
+    date DATE,
+    total_rooms INT,
+    available_rooms INT,
+    FOREIGN KEY (hotel_id) REFERENCES hotel(hotel_id),
+    CONSTRAINT uk_hotel_daily_occupancy_hotel_date UNIQUE (hotel_id, date)
+);
+
+CREATE TABLE IF NOT EXISTS inventory_hold (
+    hold_id UUID PRIMARY KEY,
+    room_id UUID,
+    user_id UUID,
+    check_in DATE,
+    check_out DATE,
+    rooms_held INT,
+    expires_at TIMESTAMP WITH TIME ZONE,
+    FOREIGN KEY (room_id) REFERENCES room(room_id)
+);
+
+CREATE TABLE IF NOT EXISTS booking (
     booking_id UUID PRIMARY KEY,
     user_id UUID,
     room_id UUID,
@@ -74,7 +98,7 @@ CREATE TABLE booking (
     FOREIGN KEY (room_id) REFERENCES room(room_id)
 );
 
-CREATE TABLE payment (
+CREATE TABLE IF NOT EXISTS payment (
     payment_id UUID PRIMARY KEY,
     booking_id UUID,
     user_id UUID,
@@ -86,31 +110,42 @@ CREATE TABLE payment (
     FOREIGN KEY (user_id) REFERENCES users(user_id)
 );
 
-CREATE TABLE pricing_rule (
+CREATE TABLE IF NOT EXISTS pricing_rule (
     rule_id UUID PRIMARY KEY,
     hotel_id UUID,
     rule_type VARCHAR(30),
-    rule_value CLOB,
+    rule_value INT,
     start_date DATE,
     end_date DATE,
     FOREIGN KEY (hotel_id) REFERENCES hotel(hotel_id)
 );
 
-CREATE TABLE review (
+CREATE TABLE IF NOT EXISTS review (
     review_id UUID PRIMARY KEY,
     user_id UUID,
     hotel_id UUID,
     rating INT,
-    comment CLOB,
+    comment TEXT,
     created_at TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(user_id),
     FOREIGN KEY (hotel_id) REFERENCES hotel(hotel_id)
 );
 
-CREATE TABLE image (
+CREATE TABLE IF NOT EXISTS image (
     image_id UUID PRIMARY KEY,
     type VARCHAR(30),
     reference_id UUID,
-    image_url CLOB,
+    image_url TEXT,
     uploaded_at TIMESTAMP
-); 
\ No newline at end of file
+);
+
+-- Columns added after their tables first existed: CREATE TABLE IF NOT EXISTS leaves an existing
+-- table as it is, so they are added on their own
+
+-- Rooms per booking, which the entity had before this script did
+ALTER TABLE booking ADD COLUMN IF NOT EXISTS rooms_booked INT;
+
+-- Review aggregates of a hotel, filled from the existing reviews by V4
+ALTER TABLE hotel ADD COLUMN IF NOT EXISTS rating_sum BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE hotel ADD COLUMN IF NOT EXISTS rating_count INT DEFAULT 0 NOT NULL;
+ALTER TABLE hotel ADD COLUMN IF NOT EXISTS average_rating DOUBLE PRECISION DEFAULT 0 NOT NULL;
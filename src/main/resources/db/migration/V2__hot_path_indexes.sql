@@ -0,0 +1,44 @@
+-- Indexes behind the availability, booking, search and listing queries, and on every foreign key
+-- that does not already lead one. SchemaIndexVerifier checks at startup that they are all present.
+
+-- Nights written twice before the unique key existed: keep the lowest count, which never oversells
+DELETE FROM room_availability a
+USING room_availability b
+WHERE a.room_id = b.room_id
+  AND a.date = b.date
+  AND (a.available_rooms > b.available_rooms
+       OR (a.available_rooms = b.available_rooms AND a.availability_id > b.availability_id));
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_room_availability_room_date ON room_availability (room_id, date);
+
+-- Overlapping stays of a room, and a user's bookings newest first
+CREATE INDEX IF NOT EXISTS idx_booking_room_stay ON booking (room_id, check_in, check_out);
+CREATE INDEX IF NOT EXISTS idx_booking_user_created ON booking (user_id, created_at);
+
+-- Search by city only ever lists approved hotels
+CREATE INDEX IF NOT EXISTS idx_hotel_city_approved ON hotel (LOWER(city), is_approved);
+
+-- Top rated hotels
+CREATE INDEX IF NOT EXISTS idx_hotel_average_rating ON hotel (average_rating);
+
+-- Keyset pages, newest first
+CREATE INDEX IF NOT EXISTS idx_users_created ON users (created_at, user_id);
+CREATE INDEX IF NOT EXISTS idx_hotel_created ON hotel (created_at, hotel_id);
+CREATE INDEX IF NOT EXISTS idx_booking_created ON booking (created_at, booking_id);
+CREATE INDEX IF NOT EXISTS idx_review_hotel_created ON review (hotel_id, created_at, review_id);
+
+-- Holds due for expiry
+CREATE INDEX IF NOT EXISTS idx_inventory_hold_expires ON inventory_hold (expires_at);
+
+CREATE INDEX IF NOT EXISTS idx_image_reference ON image (reference_id, type);
+CREATE INDEX IF NOT EXISTS idx_inventory_hold_room ON inventory_hold (room_id, check_in, check_out);
+
+-- Remaining foreign keys
+CREATE INDEX IF NOT EXISTS idx_hotel_owner ON hotel (owner_id);
+CREATE INDEX IF NOT EXISTS idx_room_hotel ON room (hotel_id);
+CREATE INDEX IF NOT EXISTS idx_room_amenity_room ON room_amenity (room_id);
+CREATE INDEX IF NOT EXISTS idx_room_amenity_amenity ON room_amenity (amenity_id);
+CREATE INDEX IF NOT EXISTS idx_payment_booking ON payment (booking_id);
+CREATE INDEX IF NOT EXISTS idx_payment_user ON payment (user_id);
+CREATE INDEX IF NOT EXISTS idx_pricing_rule_hotel ON pricing_rule (hotel_id);
+CREATE INDEX IF NOT EXISTS idx_review_user ON review (user_id);
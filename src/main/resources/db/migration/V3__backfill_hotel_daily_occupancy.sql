@@ -0,0 +1,16 @@
+-- One-off fill of the daily occupancy aggregate for nights from today that already have availability
+-- rows; from here on it is kept up to date in the transactions that change inventory or rooms.
+INSERT INTO hotel_daily_occupancy (occupancy_id, hotel_id, date, total_rooms, available_rooms)
+SELECT gen_random_uuid(), nights.hotel_id, nights.date, SUM(r.total_rooms),
+       SUM(LEAST(COALESCE(ra.available_rooms, r.total_rooms), r.total_rooms))
+FROM (
+    SELECT DISTINCT r.hotel_id, ra.date
+    FROM room_availability ra
+    JOIN room r ON r.room_id = ra.room_id
+    WHERE ra.date >= CURRENT_DATE AND r.hotel_id IS NOT NULL
+) AS nights
+JOIN room r ON r.hotel_id = nights.hotel_id
+LEFT JOIN room_availability ra ON ra.room_id = r.room_id AND ra.date = nights.date
+GROUP BY nights.hotel_id, nights.date
+ON CONFLICT (hotel_id, date) DO UPDATE
+SET total_rooms = EXCLUDED.total_rooms, available_rooms = EXCLUDED.available_rooms;
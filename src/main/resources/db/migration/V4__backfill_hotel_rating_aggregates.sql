@@ -0,0 +1,13 @@
+-- One-off fill of the hotel rating aggregates from the reviews written before they were maintained;
+-- from here on they change with every review added or removed. Hotels without reviews keep 0.
+UPDATE hotel h
+SET rating_sum = r.rating_sum,
+    rating_count = r.rating_count,
+    average_rating = r.average_rating
+FROM (
+    SELECT hotel_id, SUM(rating) AS rating_sum, COUNT(rating) AS rating_count, AVG(rating) AS average_rating
+    FROM review
+    WHERE hotel_id IS NOT NULL AND rating IS NOT NULL
+    GROUP BY hotel_id
+) AS r
+WHERE r.hotel_id = h.hotel_id;
@@ -0,0 +1,2 @@
+-- Active holds of a user, counted each time the user places another one
+CREATE INDEX IF NOT EXISTS idx_inventory_hold_user ON inventory_hold (user_id, expires_at);
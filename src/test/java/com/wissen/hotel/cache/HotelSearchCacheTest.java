@@ -0,0 +1,156 @@
+package com.wissen.hotel.cache;
+
+import com.wissen.hotel.dto.response.HotelResponse;
+import com.wissen.hotel.dto.response.HotelSearchResponse;
+import com.wissen.hotel.event.HotelChangedEvent;
+import com.wissen.hotel.event.InventoryChangedEvent;
+import com.wissen.hotel.event.PricingRuleChangedEvent;
+import com.wissen.hotel.event.RoomChangedEvent;
+import com.wissen.hotel.model.Hotel;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotelSearchCacheTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2030, 3, 10);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2030, 3, 13);
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private HotelSearchCache cache;
+    private UUID hotelId;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2030-01-01T00:00:00Z"));
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new HotelSearchCache(clock, meterRegistry, 2, 60);
+        hotelId = UUID.randomUUID();
+    }
+
+    @Test
+    void get_shouldNormaliseCityAndCountHitsAndMisses() {
+        HotelSearchResponse page = page(hotelId);
+        assertNull(cache.get(key("Goa")));
+        cache.put(key("Goa"), page, cache.generation());
+
+        assertSame(page, cache.get(key("  GOA ")));
+        assertEquals(1.0, meterRegistry.counter("search.cache.hits").count());
+        assertEquals(1.0, meterRegistry.counter("search.cache.misses").count());
+        assertEquals(1.0, meterRegistry.get("search.cache.size").gauge().value());
+    }
+
+    @Test
+    void get_shouldExpireEntriesAfterTheTtl() {
+        cache.put(key("Goa"), page(hotelId), cache.generation());
+
+        clock.advance(Duration.ofSeconds(61));
+
+        assertNull(cache.get(key("Goa")));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_shouldEvictTheLeastRecentlyUsedEntry() {
+        cache.put(key("Goa"), page(hotelId), cache.generation());
+        cache.put(key("Pune"), page(UUID.randomUUID()), cache.generation());
+        cache.get(key("Goa"));
+
+        cache.put(key("Delhi"), page(UUID.randomUUID()), cache.generation());
+
+        assertNotNull(cache.get(key("Goa")));
+        assertNull(cache.get(key("Pune")));
+    }
+
+    @Test
+    void put_shouldDropPagesComputedBeforeAnInvalidation() {
+        long generation = cache.generation();
+        cache.onPricingRuleChanged(new PricingRuleChangedEvent(hotelId, "Goa"));
+
+        cache.put(key("Goa"), page(hotelId), generation);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void onInventoryChanged_shouldOnlyDropSearchesInTheCityOverlappingTheNights() {
+        cache.put(key("Goa"), page(hotelId), cache.generation());
+        cache.put(key("Pune"), page(UUID.randomUUID()), cache.generation());
+
+        cache.onInventoryChanged(new InventoryChangedEvent(UUID.randomUUID(), hotelId, "goa", CHECK_OUT, CHECK_OUT.plusDays(1)));
+        assertEquals(2, cache.size());
+
+        cache.onInventoryChanged(new InventoryChangedEvent(UUID.randomUUID(), hotelId, "goa", CHECK_IN.plusDays(2), CHECK_OUT));
+        assertNull(cache.get(key("Goa")));
+        assertNotNull(cache.get(key("Pune")));
+        assertEquals(1.0, meterRegistry.counter("search.cache.invalidations").count());
+    }
+
+    @Test
+    void onHotelAndRoomChanged_shouldDropPagesShowingTheHotelOrInItsCity() {
+        cache.put(key("Goa"), page(hotelId), cache.generation());
+        cache.put(key("Pune"), page(UUID.randomUUID()), cache.generation());
+
+        Hotel moved = Hotel.builder().hotelId(hotelId).city("Pune").build();
+        cache.onHotelChanged(HotelChangedEvent.saved(moved));
+        assertEquals(0, cache.size());
+
+        cache.put(key("Goa"), page(hotelId), cache.generation());
+        cache.put(key("Pune"), page(UUID.randomUUID()), cache.generation());
+        cache.onRoomChanged(new RoomChangedEvent(UUID.randomUUID(), UUID.randomUUID(), "Pune"));
+        assertNotNull(cache.get(key("Goa")));
+        assertNull(cache.get(key("Pune")));
+
+        cache.onHotelChanged(HotelChangedEvent.deleted(hotelId));
+        assertEquals(0, cache.size());
+    }
+
+    private static HotelSearchCache.Key key(String city) {
+        return HotelSearchCache.Key.of(city, CHECK_IN, CHECK_OUT, 2, 0, 10, true);
+    }
+
+    private static HotelSearchResponse page(UUID hotelId) {
+        return HotelSearchResponse.builder()
+                .hotels(List.of(HotelResponse.builder().hotelId(hotelId).build()))
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.wissen.hotel.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SchemaIndexVerifierTest {
+
+    @Test
+    void verify_shouldPassWhenEveryRequiredIndexExists() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        List<String> present = new ArrayList<>(SchemaIndexVerifier.REQUIRED_INDEXES);
+        present.add("hotel_pkey");
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(present);
+
+        assertDoesNotThrow(() -> new SchemaIndexVerifier(jdbcTemplate).verify());
+    }
+
+    @Test
+    void verify_shouldFailNamingTheMissingIndexes() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        List<String> present = new ArrayList<>(SchemaIndexVerifier.REQUIRED_INDEXES);
+        present.remove("uk_room_availability_room_date");
+        present.remove("idx_booking_room_stay");
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(present);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> new SchemaIndexVerifier(jdbcTemplate).verify());
+
+        assertTrue(ex.getMessage().contains("[idx_booking_room_stay, uk_room_availability_room_date]"));
+    }
+
+    @Test
+    void requiredIndexes_shouldAllBeCreatedByTheMigrations() throws Exception {
+        Pattern created = Pattern.compile("(?:INDEX IF NOT EXISTS|CONSTRAINT) (\\w+)", Pattern.CASE_INSENSITIVE);
+        List<String> names = new ArrayList<>();
+        for (Resource migration : new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/*.sql")) {
+            Matcher matcher = created.matcher(migration.getContentAsString(StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                names.add(matcher.group(1));
+            }
+        }
+
+        assertEquals(Set.of(), SchemaIndexVerifier.missingIndexes(names));
+    }
+}
@@ -3,6 +3,7 @@ package com.wissen.hotel.controller;
 import com.wissen.hotel.dto.request.CreateBookingRequest;
 import com.wissen.hotel.dto.request.UpdateBookingRequest;
 import com.wissen.hotel.dto.response.BookingResponse;
+import com.wissen.hotel.dto.response.CursorPage;
 import com.wissen.hotel.service.BookingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -91,27 +92,35 @@ class BookingControllerTest {
 
     @Test
     void getAllBookings_shouldReturnOkWithList() {
-        List<BookingResponse> responses = List.of(new BookingResponse(), new BookingResponse());
-        when(bookingService.getAllBookings(null)).thenReturn(responses);
+        CursorPage<BookingResponse> responses = CursorPage.<BookingResponse>builder()
+                .content(List.of(new BookingResponse(), new BookingResponse()))
+                .size(10)
+                .build();
+        when(bookingService.getAllBookings(null, null, 10)).thenReturn(responses);
 
-        ResponseEntity<List<BookingResponse>> result = bookingController.getAllBookings(null);
+        ResponseEntity<CursorPage<BookingResponse>> result = bookingController.getAllBookings(null, null, 10);
 
         assertEquals(200, result.getStatusCode().value());
         assertEquals(responses, result.getBody());
-        verify(bookingService, times(1)).getAllBookings(null);
+        verify(bookingService, times(1)).getAllBookings(null, null, 10);
     }
 
     @Test
     void getAllBookings_withFilter_shouldReturnOkWithList() {
         String filter = "active";
-        List<BookingResponse> responses = List.of(new BookingResponse());
-        when(bookingService.getAllBookings(filter)).thenReturn(responses);
+        CursorPage<BookingResponse> responses = CursorPage.<BookingResponse>builder()
+                .content(List.of(new BookingResponse()))
+                .size(5)
+                .hasNext(true)
+                .nextCursor("next")
+                .build();
+        when(bookingService.getAllBookings(filter, "cursor", 5)).thenReturn(responses);
 
-        ResponseEntity<List<BookingResponse>> result = bookingController.getAllBookings(filter);
+        ResponseEntity<CursorPage<BookingResponse>> result = bookingController.getAllBookings(filter, "cursor", 5);
 
         assertEquals(200, result.getStatusCode().value());
         assertEquals(responses, result.getBody());
-        verify(bookingService, times(1)).getAllBookings(filter);
+        verify(bookingService, times(1)).getAllBookings(filter, "cursor", 5);
     }
 
     @Test
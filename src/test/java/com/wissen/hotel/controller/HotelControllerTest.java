@@ -1,16 +1,31 @@
 package com.wissen.hotel.controller;
 
+import com.wissen.hotel.config.JacksonConfig;
 import com.wissen.hotel.dto.request.CreateHotelRequest;
 import com.wissen.hotel.dto.request.UpdateHotelRequest;
+import com.wissen.hotel.dto.response.CursorPage;
 import com.wissen.hotel.dto.response.HotelResponse;
+import com.wissen.hotel.dto.response.HotelSearchResponse;
+import com.wissen.hotel.dto.response.HotelTextMatchResponse;
+import com.wissen.hotel.dto.response.MapClusterResponse;
+import com.wissen.hotel.dto.response.OwnerHotelSummaryResponse;
+import com.wissen.hotel.dto.response.PagedResponse;
+import com.wissen.hotel.dto.response.RateGridResponse;
 import com.wissen.hotel.dto.response.ReviewResponse;
 import com.wissen.hotel.dto.response.RoomResponse;
 import com.wissen.hotel.service.HotelService;
+import com.wissen.hotel.service.PricingEngineService;
 import com.wissen.hotel.service.ReviewService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -22,27 +37,107 @@ class HotelControllerTest {
 
     private HotelService hotelService;
     private ReviewService reviewService;
+    private PricingEngineService pricingEngineService;
     private HotelController controller;
 
     @BeforeEach
     void setUp() {
         hotelService = mock(HotelService.class);
         reviewService = mock(ReviewService.class);
-        controller = new HotelController(hotelService, reviewService);
+        pricingEngineService = mock(PricingEngineService.class);
+        controller = new HotelController(hotelService, reviewService, pricingEngineService, new JacksonConfig().objectMapper());
     }
 
     @Test
-    void getAllHotels_shouldReturnList() {
-        List<HotelResponse> hotels = List.of(mock(HotelResponse.class), mock(HotelResponse.class));
+    void getAllHotels_shouldReturnPage() {
+        PagedResponse<HotelResponse> hotels = PagedResponse.<HotelResponse>builder()
+                .content(List.of(mock(HotelResponse.class), mock(HotelResponse.class)))
+                .page(0).size(10).totalElements(2).totalPages(1)
+                .build();
         when(hotelService.getAllHotels(null, 0, 10)).thenReturn(hotels);
 
-        ResponseEntity<List<HotelResponse>> result = controller.getAllHotels(null, 0, 10);
+        ResponseEntity<PagedResponse<HotelResponse>> result = controller.getAllHotels(null, 0, 10);
 
         assertEquals(200, result.getStatusCode().value());
         assertEquals(hotels, result.getBody());
         verify(hotelService).getAllHotels(null, 0, 10);
     }
 
+    @Test
+    void scrollHotels_shouldReturnCursorPage() {
+        CursorPage<HotelResponse> hotels = CursorPage.<HotelResponse>builder()
+                .content(List.of(mock(HotelResponse.class)))
+                .size(1).hasNext(true).nextCursor("next")
+                .build();
+        when(hotelService.scrollHotels("City", "cursor", 1)).thenReturn(hotels);
+
+        ResponseEntity<CursorPage<HotelResponse>> result = controller.scrollHotels("City", "cursor", 1);
+
+        assertEquals(200, result.getStatusCode().value());
+        assertEquals(hotels, result.getBody());
+    }
+
+    @Test
+    void streamSearchHotels_shouldWriteOneJsonLinePerHotel() throws IOException {
+        LocalDate checkIn = LocalDate.now();
+        LocalDate checkOut = checkIn.plusDays(1);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(hotelService.streamSearchHotels("Goa", checkIn, checkOut, 2)).thenReturn(sink -> {
+            sink.test(HotelResponse.builder().hotelId(first).build());
+            sink.test(HotelResponse.builder().hotelId(second).build());
+            return false;
+        });
+
+        ResponseEntity<StreamingResponseBody> result = controller.streamSearchHotels("Goa", checkIn, checkOut, 2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        result.getBody().writeTo(out);
+
+        assertEquals(MediaType.APPLICATION_NDJSON, result.getHeaders().getContentType());
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains(first.toString()));
+        assertTrue(lines[1].contains(second.toString()));
+    }
+
+    @Test
+    void streamSearchHotelEvents_shouldEndWithPartialFlag() throws IOException {
+        LocalDate checkIn = LocalDate.now();
+        LocalDate checkOut = checkIn.plusDays(1);
+        when(hotelService.streamSearchHotels(null, checkIn, checkOut, 2)).thenReturn(sink -> {
+            sink.test(HotelResponse.builder().hotelId(UUID.randomUUID()).build());
+            return true;
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        controller.streamSearchHotelEvents(null, checkIn, checkOut, 2).getBody().writeTo(out);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertTrue(body.startsWith("event: hotel\ndata: {"));
+        assertTrue(body.endsWith("event: end\ndata: {\"partial\":true}\n\n"));
+    }
+
+    @Test
+    void streamSearchHotels_shouldTellTheSearchToStopOnceTheClientDisconnects() throws IOException {
+        LocalDate checkIn = LocalDate.now();
+        LocalDate checkOut = checkIn.plusDays(1);
+        boolean[] accepted = new boolean[1];
+        when(hotelService.streamSearchHotels(null, checkIn, checkOut, 2)).thenReturn(sink -> {
+            accepted[0] = sink.test(HotelResponse.builder().hotelId(UUID.randomUUID()).build());
+            return false;
+        });
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        controller.streamSearchHotels(null, checkIn, checkOut, 2).getBody().writeTo(disconnected);
+
+        assertFalse(accepted[0]);
+    }
+
     @Test
     void getHotelById_shouldReturnHotel() {
         UUID id = UUID.randomUUID();
@@ -108,14 +203,16 @@ class HotelControllerTest {
 
     @Test
     void searchHotels_shouldReturnList() {
-        List<HotelResponse> hotels = List.of(mock(HotelResponse.class), mock(HotelResponse.class));
+        HotelSearchResponse hotels = HotelSearchResponse.builder()
+                .hotels(List.of(mock(HotelResponse.class), mock(HotelResponse.class)))
+                .build();
         String city = "City";
         LocalDate checkIn = LocalDate.now();
         LocalDate checkOut = checkIn.plusDays(1);
         int guests = 2, page = 0, size = 10;
-        when(hotelService.searchHotels(city, checkIn, checkOut, guests, page, size)).thenReturn(hotels);
+        when(hotelService.searchHotels(city, checkIn, checkOut, guests, page, size, true)).thenReturn(hotels);
 
-        ResponseEntity<List<HotelResponse>> result = controller.searchHotels(city, checkIn, checkOut, guests, page, size);
+        ResponseEntity<HotelSearchResponse> result = controller.searchHotels(city, checkIn, checkOut, guests, page, size, true);
 
         assertEquals(200, result.getStatusCode().value());
         assertEquals(hotels, result.getBody());
@@ -138,13 +235,24 @@ class HotelControllerTest {
     void getNearbyHotels_shouldReturnList() {
         List<HotelResponse> hotels = List.of(mock(HotelResponse.class), mock(HotelResponse.class));
         double lat = 1.0, lon = 2.0, radius = 10.0;
-        when(hotelService.findNearbyHotels(lat, lon, radius)).thenReturn(hotels);
+        when(hotelService.findNearbyHotels(lat, lon, radius, null, null, 50)).thenReturn(hotels);
 
-        ResponseEntity<List<HotelResponse>> result = controller.getNearbyHotels(lat, lon, radius);
+        ResponseEntity<List<HotelResponse>> result = controller.getNearbyHotels(lat, lon, radius, null, null, 50);
 
         assertEquals(200, result.getStatusCode().value());
         assertEquals(hotels, result.getBody());
-        verify(hotelService).findNearbyHotels(lat, lon, radius);
+        verify(hotelService).findNearbyHotels(lat, lon, radius, null, null, 50);
+    }
+
+    @Test
+    void getMapClusters_shouldReturnClusters() {
+        List<MapClusterResponse> clusters = List.of(mock(MapClusterResponse.class));
+        when(hotelService.getMapClusters(40, -10, 60, 30, 5)).thenReturn(clusters);
+
+        ResponseEntity<List<MapClusterResponse>> result = controller.getMapClusters(40, -10, 60, 30, 5);
+
+        assertEquals(200, result.getStatusCode().value());
+        assertEquals(clusters, result.getBody());
     }
 
     @Test
@@ -163,14 +271,31 @@ class HotelControllerTest {
     @Test
     void getReviewsByHotel_shouldReturnList() {
         UUID hotelId = UUID.randomUUID();
-        List<ReviewResponse> reviews = List.of(mock(ReviewResponse.class), mock(ReviewResponse.class));
-        when(reviewService.getReviewsByHotel(hotelId)).thenReturn(reviews);
+        CursorPage<ReviewResponse> reviews = CursorPage.<ReviewResponse>builder()
+                .content(List.of(mock(ReviewResponse.class), mock(ReviewResponse.class)))
+                .size(10)
+                .build();
+        when(reviewService.getReviewsByHotel(hotelId, null, 10)).thenReturn(reviews);
 
-        ResponseEntity<List<ReviewResponse>> result = controller.getReviewsByHotel(hotelId);
+        ResponseEntity<CursorPage<ReviewResponse>> result = controller.getReviewsByHotel(hotelId, null, 10);
 
         assertEquals(200, result.getStatusCode().value());
         assertEquals(reviews, result.getBody());
-        verify(reviewService).getReviewsByHotel(hotelId);
+        verify(reviewService).getReviewsByHotel(hotelId, null, 10);
+    }
+
+    @Test
+    void getRateGrid_shouldReturnGrid() {
+        UUID id = UUID.randomUUID();
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        RateGridResponse grid = RateGridResponse.builder().hotelId(id).build();
+        when(pricingEngineService.getRateGrid(id, start, 14)).thenReturn(grid);
+
+        ResponseEntity<RateGridResponse> result = controller.getRateGrid(id, start, 14);
+
+        assertEquals(200, result.getStatusCode().value());
+        assertSame(grid, result.getBody());
+        verify(pricingEngineService).getRateGrid(id, start, 14);
     }
 
     @Test
@@ -199,6 +324,31 @@ class HotelControllerTest {
         verify(hotelService).getHotelsOwnedByCurrentUser();
     }
 
+    @Test
+    void searchHotelsByText_shouldReturnPage() {
+        PagedResponse<HotelTextMatchResponse> page = PagedResponse.<HotelTextMatchResponse>builder()
+                .content(List.of(HotelTextMatchResponse.builder().hotelId(UUID.randomUUID()).build()))
+                .page(0).size(10).totalElements(1).totalPages(1)
+                .build();
+        when(hotelService.searchHotelsByText("beach", 0, 10)).thenReturn(page);
+
+        ResponseEntity<PagedResponse<HotelTextMatchResponse>> result = controller.searchHotelsByText("beach", 0, 10);
+
+        assertEquals(200, result.getStatusCode().value());
+        assertEquals(page, result.getBody());
+    }
+
+    @Test
+    void getOwnerPortfolio_shouldReturnList() {
+        List<OwnerHotelSummaryResponse> portfolio = List.of(OwnerHotelSummaryResponse.builder().hotelId(UUID.randomUUID()).build());
+        when(hotelService.getOwnerPortfolio()).thenReturn(portfolio);
+
+        ResponseEntity<List<OwnerHotelSummaryResponse>> result = controller.getOwnerPortfolio();
+
+        assertEquals(200, result.getStatusCode().value());
+        assertEquals(portfolio, result.getBody());
+    }
+
     @Test
     void getAverageRating_shouldReturnRating() {
         UUID hotelId = UUID.randomUUID();
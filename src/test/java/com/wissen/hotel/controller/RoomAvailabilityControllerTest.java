@@ -1,13 +1,17 @@
 package com.wissen.hotel.controller;
 
 import com.wissen.hotel.dto.request.BlockRoomRequest;
+import com.wissen.hotel.dto.request.PlaceHoldRequest;
 import com.wissen.hotel.dto.request.UpdateInventoryRequest;
+import com.wissen.hotel.dto.response.InventoryHoldResponse;
+import com.wissen.hotel.dto.response.RoomAvailabilityCalendarResponse;
 import com.wissen.hotel.service.RoomAvailabilityService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.ResponseEntity;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -83,4 +87,45 @@ class RoomAvailabilityControllerTest {
         assertEquals(200, result.getStatusCodeValue());
         verify(roomAvailabilityService, times(1)).unblockRoomDates(roomId, request);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAvailabilityCalendar_shouldReturnCalendar() {
+        UUID roomId = UUID.randomUUID();
+        LocalDate start = LocalDate.now();
+        RoomAvailabilityCalendarResponse calendar = RoomAvailabilityCalendarResponse.builder()
+                .startDate(start)
+                .endDate(start.plusDays(2))
+                .build();
+        when(roomAvailabilityService.getAvailabilityCalendar(List.of(roomId), null, start, start.plusDays(2)))
+                .thenReturn(calendar);
+
+        ResponseEntity<RoomAvailabilityCalendarResponse> result =
+                controller.getAvailabilityCalendar(List.of(roomId), null, start, start.plusDays(2));
+
+        assertEquals(200, result.getStatusCodeValue());
+        assertSame(calendar, result.getBody());
+    }
+
+    @Test
+    void placeHold_shouldReturnCreatedHold() {
+        UUID roomId = UUID.randomUUID();
+        PlaceHoldRequest request = new PlaceHoldRequest();
+        InventoryHoldResponse hold = InventoryHoldResponse.builder().holdId(UUID.randomUUID()).roomId(roomId).build();
+        when(roomAvailabilityService.placeHold(roomId, request)).thenReturn(hold);
+
+        ResponseEntity<InventoryHoldResponse> result = controller.placeHold(roomId, request);
+
+        assertEquals(201, result.getStatusCodeValue());
+        assertSame(hold, result.getBody());
+    }
+
+    @Test
+    void releaseHold_shouldReturnNoContent() {
+        UUID holdId = UUID.randomUUID();
+
+        ResponseEntity<Void> result = controller.releaseHold(holdId);
+
+        assertEquals(204, result.getStatusCodeValue());
+        verify(roomAvailabilityService, times(1)).releaseHold(holdId);
+    }
+}
@@ -3,6 +3,7 @@ package com.wissen.hotel.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wissen.hotel.dto.request.*;
 import com.wissen.hotel.dto.response.BookingResponse;
+import com.wissen.hotel.dto.response.CursorPage;
 import com.wissen.hotel.dto.response.UserResponse;
 import com.wissen.hotel.enums.UserRole;
 import com.wissen.hotel.service.UserService;
@@ -144,16 +145,16 @@ class UserControllerTest {
         userResponse.setName("User 1");
         userResponse.setEmail("user1@example.com");
 
-        Mockito.when(userService.getAllUsers(0, 10))
-                .thenReturn(List.of(userResponse));
+        Mockito.when(userService.getAllUsers(null, 10))
+                .thenReturn(CursorPage.<UserResponse>builder().content(List.of(userResponse)).size(10).build());
 
         // Perform GET request and validate response
         mockMvc.perform(get("/api/users/admin/usersall")
-                        .param("page", "0")
                         .param("size", "10"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].name").value("User 1"))
-                .andExpect(jsonPath("$[0].email").value("user1@example.com"));
+                .andExpect(jsonPath("$.content[0].name").value("User 1"))
+                .andExpect(jsonPath("$.content[0].email").value("user1@example.com"))
+                .andExpect(jsonPath("$.hasNext").value(false));
     }
 
        
@@ -0,0 +1,60 @@
+package com.wissen.hotel.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoldTimingWheelTest {
+
+    private Instant start;
+    private HoldTimingWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        start = Instant.parse("2025-06-01T10:00:00Z");
+        wheel = new HoldTimingWheel(Clock.fixed(start, ZoneOffset.UTC), 1000, 8);
+    }
+
+    @Test
+    void advance_shouldExpireHoldsOnlyOnceTheirDeadlineHasPassed() {
+        UUID soon = UUID.randomUUID();
+        UUID later = UUID.randomUUID();
+        wheel.add(soon, start.plusMillis(2500));
+        wheel.add(later, start.plusSeconds(600)); // many turns of an 8-slot wheel
+
+        assertTrue(wheel.advance(start.plusMillis(2999).toEpochMilli()).isEmpty());
+        assertEquals(List.of(soon), wheel.advance(start.plusMillis(3000).toEpochMilli()));
+        assertTrue(wheel.advance(start.plusSeconds(599).toEpochMilli()).isEmpty());
+        assertEquals(List.of(later), wheel.advance(start.plusSeconds(600).toEpochMilli()));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void add_shouldFirePastDeadlinesOnTheNextTick() {
+        UUID expired = UUID.randomUUID();
+        wheel.add(expired, start.minusSeconds(60));
+
+        assertEquals(List.of(expired), wheel.advance(start.toEpochMilli()));
+    }
+
+    @Test
+    void cancelAndReschedule_shouldReplaceTheEarlierDeadline() {
+        UUID cancelled = UUID.randomUUID();
+        UUID extended = UUID.randomUUID();
+        wheel.add(cancelled, start.plusSeconds(1));
+        wheel.add(extended, start.plusSeconds(1));
+
+        wheel.cancel(cancelled);
+        wheel.add(extended, start.plusSeconds(20));
+
+        assertTrue(wheel.advance(start.plusSeconds(19).toEpochMilli()).isEmpty());
+        assertEquals(List.of(extended), wheel.advance(start.plusSeconds(20).toEpochMilli()));
+    }
+}
@@ -0,0 +1,113 @@
+package com.wissen.hotel.index;
+
+import com.wissen.hotel.event.HotelChangedEvent;
+import com.wissen.hotel.model.Hotel;
+import com.wissen.hotel.repository.HotelRepository;
+import com.wissen.hotel.repository.projection.HotelLocationView;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HotelGeoIndexTest {
+
+    private HotelRepository hotelRepository;
+    private HotelGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        hotelRepository = mock(HotelRepository.class);
+        index = new HotelGeoIndex(hotelRepository);
+    }
+
+    @Test
+    void nearest_shouldReturnHotelsInRadiusClosestFirst() {
+        UUID center = UUID.randomUUID();
+        UUID threeKm = UUID.randomUUID();
+        UUID twentyKm = UUID.randomUUID();
+        index.put(threeKm, BigDecimal.valueOf(12.9986), BigDecimal.valueOf(77.5946));
+        index.put(center, BigDecimal.valueOf(12.9716), BigDecimal.valueOf(77.5946));
+        index.put(twentyKm, BigDecimal.valueOf(13.1515), BigDecimal.valueOf(77.5946));
+
+        List<HotelGeoIndex.Hit> hits = index.nearest(12.9716, 77.5946, 10, 10);
+
+        assertEquals(List.of(center, threeKm), hits.stream().map(HotelGeoIndex.Hit::hotelId).toList());
+        assertEquals(0.0, hits.get(0).distanceKm(), 1e-9);
+        assertEquals(3.0, hits.get(1).distanceKm(), 0.1);
+    }
+
+    @Test
+    void nearest_shouldKeepOnlyTheClosestK() {
+        for (int i = 1; i <= 20; i++) {
+            index.put(UUID.randomUUID(), BigDecimal.valueOf(48.0 + i * 0.01), BigDecimal.valueOf(2.0));
+        }
+        UUID closest = UUID.randomUUID();
+        index.put(closest, BigDecimal.valueOf(48.0), BigDecimal.valueOf(2.0));
+
+        List<HotelGeoIndex.Hit> hits = index.nearest(48.0, 2.0, 50, 3);
+
+        assertEquals(3, hits.size());
+        assertEquals(closest, hits.get(0).hotelId());
+        assertTrue(hits.get(1).distanceKm() <= hits.get(2).distanceKm());
+    }
+
+    @Test
+    void nearest_shouldSpanCellAndAntimeridianBoundaries() {
+        UUID east = UUID.randomUUID();
+        UUID west = UUID.randomUUID();
+        index.put(east, BigDecimal.valueOf(-17.0), BigDecimal.valueOf(179.95));
+        index.put(west, BigDecimal.valueOf(-17.0), BigDecimal.valueOf(-179.95));
+
+        List<HotelGeoIndex.Hit> hits = index.nearest(-17.0, 179.99, 20, 10);
+
+        assertEquals(2, hits.size());
+        assertEquals(east, hits.get(0).hotelId());
+        assertEquals(west, hits.get(1).hotelId());
+    }
+
+    @Test
+    void onHotelChanged_shouldFollowApprovalMovesAndDeletes() {
+        UUID hotelId = UUID.randomUUID();
+        Hotel hotel = Hotel.builder()
+                .hotelId(hotelId)
+                .latitude(BigDecimal.valueOf(40.0))
+                .longitude(BigDecimal.valueOf(-74.0))
+                .isApproved(false)
+                .build();
+
+        index.onHotelChanged(HotelChangedEvent.saved(hotel));
+        assertTrue(index.nearest(40.0, -74.0, 1, 10).isEmpty());
+
+        hotel.setApproved(true);
+        index.onHotelChanged(HotelChangedEvent.saved(hotel));
+        assertEquals(1, index.nearest(40.0, -74.0, 1, 10).size());
+
+        hotel.setLatitude(BigDecimal.valueOf(41.0));
+        index.onHotelChanged(HotelChangedEvent.saved(hotel));
+        assertTrue(index.nearest(40.0, -74.0, 1, 10).isEmpty());
+        assertEquals(1, index.nearest(41.0, -74.0, 1, 10).size());
+
+        index.onHotelChanged(HotelChangedEvent.deleted(hotelId));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void load_shouldIndexApprovedLocations() {
+        HotelLocationView location = mock(HotelLocationView.class);
+        when(location.getHotelId()).thenReturn(UUID.randomUUID());
+        when(location.getLatitude()).thenReturn(BigDecimal.valueOf(51.5));
+        when(location.getLongitude()).thenReturn(BigDecimal.valueOf(-0.12));
+        when(hotelRepository.findApprovedLocations()).thenReturn(List.of(location));
+
+        index.load();
+
+        assertEquals(1, index.size());
+        assertEquals(1, index.nearest(51.5, -0.12, 1, 10).size());
+    }
+}
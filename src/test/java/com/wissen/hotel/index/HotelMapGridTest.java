@@ -0,0 +1,87 @@
+package com.wissen.hotel.index;
+
+import com.wissen.hotel.event.HotelChangedEvent;
+import com.wissen.hotel.event.RoomChangedEvent;
+import com.wissen.hotel.model.Hotel;
+import com.wissen.hotel.repository.HotelRepository;
+import com.wissen.hotel.repository.RoomRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HotelMapGridTest {
+
+    private RoomRepository roomRepository;
+    private HotelMapGrid grid;
+
+    @BeforeEach
+    void setUp() {
+        roomRepository = mock(RoomRepository.class);
+        grid = new HotelMapGrid(mock(HotelRepository.class), roomRepository);
+    }
+
+    @Test
+    void clusters_shouldMergeNearbyHotelsAtLowZoomAndSplitThemWhenZoomedIn() {
+        UUID paris = UUID.randomUUID();
+        UUID versailles = UUID.randomUUID();
+        grid.put(paris, BigDecimal.valueOf(48.8566), BigDecimal.valueOf(2.3522), BigDecimal.valueOf(120));
+        grid.put(versailles, BigDecimal.valueOf(48.8049), BigDecimal.valueOf(2.1204), BigDecimal.valueOf(90));
+        grid.put(UUID.randomUUID(), BigDecimal.valueOf(40.7128), BigDecimal.valueOf(-74.0060), BigDecimal.valueOf(200));
+
+        List<HotelMapGrid.Cluster> europe = grid.clusters(35, -10, 60, 30, 3);
+        assertEquals(1, europe.size());
+        assertEquals(2, europe.get(0).count());
+        assertEquals(BigDecimal.valueOf(90), europe.get(0).minPrice());
+        assertEquals((48.8566 + 48.8049) / 2, europe.get(0).latitude(), 1e-9);
+        assertNull(europe.get(0).hotelId());
+
+        List<HotelMapGrid.Cluster> streets = grid.clusters(48.7, 2.0, 48.9, 2.5, 14);
+        assertEquals(2, streets.size());
+        assertTrue(streets.stream().allMatch(cluster -> cluster.count() == 1 && cluster.hotelId() != null));
+
+        assertEquals(2, grid.clusters(-90, -180, 90, 180, 0).stream().mapToInt(HotelMapGrid.Cluster::count).max().orElse(0));
+    }
+
+    @Test
+    void clusters_shouldHandleViewportsAcrossTheAntimeridian() {
+        grid.put(UUID.randomUUID(), BigDecimal.valueOf(-17.7), BigDecimal.valueOf(179.5), null);
+        grid.put(UUID.randomUUID(), BigDecimal.valueOf(-17.7), BigDecimal.valueOf(-179.5), null);
+        grid.put(UUID.randomUUID(), BigDecimal.valueOf(-17.7), BigDecimal.valueOf(170.0), null);
+
+        int count = grid.clusters(-20, 178, -15, -178, 8).stream().mapToInt(HotelMapGrid.Cluster::count).sum();
+
+        assertEquals(2, count);
+    }
+
+    @Test
+    void events_shouldMoveRepriceAndRemoveHotels() {
+        UUID hotelId = UUID.randomUUID();
+        Hotel hotel = Hotel.builder()
+                .hotelId(hotelId)
+                .latitude(BigDecimal.valueOf(51.5))
+                .longitude(BigDecimal.valueOf(-0.12))
+                .isApproved(true)
+                .build();
+        when(roomRepository.findMinBasePriceByHotelId(hotelId)).thenReturn(BigDecimal.valueOf(150), BigDecimal.valueOf(99));
+
+        grid.onHotelChanged(HotelChangedEvent.saved(hotel));
+        assertEquals(BigDecimal.valueOf(150), grid.clusters(50, -1, 52, 1, 10).get(0).minPrice());
+
+        grid.onRoomChanged(new RoomChangedEvent(UUID.randomUUID(), hotelId, null));
+        assertEquals(BigDecimal.valueOf(99), grid.clusters(50, -1, 52, 1, 10).get(0).minPrice());
+
+        hotel.setLatitude(BigDecimal.valueOf(55.9));
+        grid.onHotelChanged(HotelChangedEvent.saved(hotel));
+        assertTrue(grid.clusters(50, -1, 52, 1, 10).isEmpty());
+
+        grid.onHotelChanged(HotelChangedEvent.deleted(hotelId));
+        assertTrue(grid.clusters(-90, -180, 90, 180, 0).isEmpty());
+    }
+}
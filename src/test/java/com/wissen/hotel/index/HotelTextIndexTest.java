@@ -0,0 +1,102 @@
+package com.wissen.hotel.index;
+
+import com.wissen.hotel.event.HotelChangedEvent;
+import com.wissen.hotel.model.Hotel;
+import com.wissen.hotel.repository.HotelRepository;
+import com.wissen.hotel.repository.projection.HotelTextView;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HotelTextIndexTest {
+
+    private HotelRepository hotelRepository;
+    private HotelTextIndex index;
+    private UUID seaside;
+    private UUID cityInn;
+
+    @BeforeEach
+    void setUp() {
+        hotelRepository = mock(HotelRepository.class);
+        index = new HotelTextIndex(hotelRepository);
+        seaside = UUID.randomUUID();
+        cityInn = UUID.randomUUID();
+        index.put(seaside, "Seaside Resort", "A calm resort by the sea", "1 Beach Road", "Goa", "Goa", "India");
+        index.put(cityInn, "City Inn", "Business hotel near the station, sea view from the roof", "5 Main St", "Mumbai", "MH", "India");
+    }
+
+    private List<UUID> ids(Page<HotelTextIndex.Match> page) {
+        return page.getContent().stream().map(HotelTextIndex.Match::hotelId).toList();
+    }
+
+    @Test
+    void search_shouldRankNameMatchesAboveDescriptionMatches() {
+        Page<HotelTextIndex.Match> result = index.search("resort", 0, 10);
+
+        assertEquals(List.of(seaside), ids(result));
+        assertEquals(List.of(seaside, cityInn), ids(index.search("sea", 0, 10)));
+        assertTrue(index.search("sea", 0, 10).getContent().get(0).score()
+                > index.search("sea", 0, 10).getContent().get(1).score());
+    }
+
+    @Test
+    void search_shouldRequireEveryWordAndExpandTheLastOneAsPrefix() {
+        assertEquals(List.of(cityInn), ids(index.search("sea mumb", 0, 10)));
+        assertEquals(List.of(seaside, cityInn), ids(index.search("se", 0, 10)));
+        assertTrue(index.search("mumb sea resort", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_shouldFoldCaseAndAccents() {
+        UUID zurich = UUID.randomUUID();
+        index.put(zurich, "Café Zürich", null, null, "Zürich", null, "Switzerland");
+
+        assertEquals(List.of(zurich), ids(index.search("CAFE zur", 0, 10)));
+    }
+
+    @Test
+    void search_shouldPageThroughMatches() {
+        Page<HotelTextIndex.Match> second = index.search("sea", 1, 1);
+
+        assertEquals(2, second.getTotalElements());
+        assertEquals(2, second.getTotalPages());
+        assertEquals(1, second.getContent().size());
+        assertNotEquals(ids(index.search("sea", 0, 1)), ids(second));
+    }
+
+    @Test
+    void onHotelChanged_shouldReindexAndDropUnapprovedOrDeletedHotels() {
+        Hotel hotel = Hotel.builder().hotelId(seaside).name("Harbour Lodge").city("Goa").isApproved(true).build();
+
+        index.onHotelChanged(HotelChangedEvent.saved(hotel));
+        assertTrue(index.search("resort", 0, 10).isEmpty());
+        assertEquals(List.of(seaside), ids(index.search("harbour", 0, 10)));
+
+        hotel.setApproved(false);
+        index.onHotelChanged(HotelChangedEvent.saved(hotel));
+        assertTrue(index.search("harbour", 0, 10).isEmpty());
+
+        index.onHotelChanged(HotelChangedEvent.deleted(cityInn));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void load_shouldIndexApprovedHotels() {
+        HotelTextView view = mock(HotelTextView.class);
+        UUID hotelId = UUID.randomUUID();
+        when(view.getHotelId()).thenReturn(hotelId);
+        when(view.getName()).thenReturn("Mountain Lodge");
+        when(hotelRepository.findApprovedTextViews()).thenReturn(List.of(view));
+
+        index.load();
+
+        assertEquals(List.of(hotelId), ids(index.search("lodge", 0, 10)));
+    }
+}
@@ -0,0 +1,99 @@
+package com.wissen.hotel.lock;
+
+import com.wissen.hotel.exception.RoomBusyException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomLockManagerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RoomLockManager locks;
+    private ExecutorService executor;
+    private CountDownLatch held;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        locks = new RoomLockManager(meterRegistry, 100, 50);
+        executor = Executors.newSingleThreadExecutor();
+        held = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void constructor_shouldRoundStripesUpToAPowerOfTwo() {
+        assertEquals(128, locks.stripeCount());
+        assertEquals(1, new RoomLockManager(meterRegistry, 0, 50).stripeCount());
+    }
+
+    @Test
+    void withLock_shouldTimeOutWhileAnotherBookingHoldsTheSameRoom() throws Exception {
+        UUID roomId = UUID.randomUUID();
+        Future<?> holder = holdInBackground(roomId);
+
+        assertThrows(RoomBusyException.class, () -> locks.withLock(roomId, () -> "booked"));
+        assertEquals(1.0, meterRegistry.counter("booking.room-lock.timeouts").count());
+
+        release.countDown();
+        holder.get(1, TimeUnit.SECONDS);
+        assertEquals("booked", locks.withLock(roomId, () -> "booked"));
+        assertEquals(3, meterRegistry.timer("booking.room-lock.wait").count());
+    }
+
+    @Test
+    void withLock_shouldNotWaitForRoomsOnOtherStripes() throws Exception {
+        UUID roomId = UUID.randomUUID();
+        UUID otherRoomId = UUID.randomUUID();
+        while (locks.stripeOf(otherRoomId) == locks.stripeOf(roomId)) {
+            otherRoomId = UUID.randomUUID();
+        }
+        holdInBackground(roomId);
+
+        assertEquals("booked", locks.withLock(otherRoomId, () -> "booked"));
+        assertEquals(0.0, meterRegistry.counter("booking.room-lock.timeouts").count());
+    }
+
+    @Test
+    void withLock_shouldReleaseTheLockWhenTheActionFails() {
+        UUID roomId = UUID.randomUUID();
+
+        assertThrows(IllegalStateException.class, () -> locks.withLock(roomId, () -> {
+            throw new IllegalStateException("sold out");
+        }));
+
+        assertEquals("booked", locks.withLock(roomId, () -> "booked"));
+    }
+
+    private Future<?> holdInBackground(UUID roomId) throws InterruptedException {
+        Future<?> holder = executor.submit(() -> locks.withLock(roomId, () -> {
+            held.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(held.await(1, TimeUnit.SECONDS));
+        return holder;
+    }
+}
@@ -0,0 +1,71 @@
+package com.wissen.hotel.lock;
+
+import com.wissen.hotel.exception.RoomBusyException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomWriteOrderTest {
+
+    private UUID hotHotelId;
+    private RoomWriteSequencer sequencer;
+    private RoomWriteOrder order;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        hotHotelId = UUID.randomUUID();
+        sequencer = new RoomWriteSequencer(new SimpleMeterRegistry(), List.of(hotHotelId.toString()), 2, 8, 100);
+        order = new RoomWriteOrder(new RoomLockManager(new SimpleMeterRegistry(), 16, 100), sequencer);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        sequencer.shutdown();
+    }
+
+    @Test
+    void call_shouldRunAWriteNestedInTheSameRoomDirectly() {
+        UUID roomId = UUID.randomUUID();
+
+        // Would time out waiting for itself if the inner write queued behind the outer one
+        assertEquals("inner", order.call(roomId, hotHotelId, () -> order.call(roomId, hotHotelId, () -> "inner")));
+        assertEquals("inner", order.call(roomId, UUID.randomUUID(), () -> order.call(roomId, null, () -> "inner")));
+    }
+
+    @Test
+    void call_shouldKeepOtherThreadsOutUntilTheTurnIsOver() throws Exception {
+        UUID roomId = UUID.randomUUID();
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> first = executor.submit(() -> order.run(roomId, null, () -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(held.await(1, TimeUnit.SECONDS));
+
+        assertThrows(RoomBusyException.class, () -> order.run(roomId, null, () -> { }));
+        release.countDown();
+        first.get(1, TimeUnit.SECONDS);
+        assertDoesNotThrow(() -> order.run(roomId, null, () -> { }));
+    }
+}
@@ -0,0 +1,102 @@
+package com.wissen.hotel.lock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the two booking paths on one hot room: many request threads contending for the room
+ * lock, against the same threads handing their writes to the single writer. Each write stands in
+ * for the inventory round trip with a short sleep. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class RoomWriteSequencerBenchmarkTest {
+
+    private static final int THREADS = 64;
+    private static final int BOOKINGS_PER_THREAD = 50;
+    private static final long WRITE_MICROS = 200;
+
+    @Test
+    void compareDirectLockingWithSingleWriter() throws Exception {
+        UUID roomId = UUID.randomUUID();
+        RoomLockManager locks = new RoomLockManager(new SimpleMeterRegistry(), 1024, 60_000);
+        RoomWriteSequencer sequencer = new RoomWriteSequencer(new SimpleMeterRegistry(), List.of(), 4, 32, 60_000);
+        try {
+            // Warm-up, then the measured runs
+            run("warm-up", write -> locks.withLock(roomId, write));
+            run("warm-up", write -> sequencer.call(roomId, write));
+            Result direct = run("room lock", write -> locks.withLock(roomId, write));
+            Result queued = run("single writer", write -> sequencer.call(roomId, write));
+
+            assertEquals(THREADS * BOOKINGS_PER_THREAD, direct.bookings());
+            assertEquals(THREADS * BOOKINGS_PER_THREAD, queued.bookings());
+        } finally {
+            sequencer.shutdown();
+        }
+    }
+
+    private interface Path {
+        Integer apply(Supplier<Integer> write);
+    }
+
+    private record Result(int bookings, double throughput, double p50Millis, double p99Millis) {
+    }
+
+    private Result run(String name, Path path) throws Exception {
+        int[] inventory = {0};
+        ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+        List<Callable<long[]>> work = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            work.add(() -> {
+                long[] latencies = new long[BOOKINGS_PER_THREAD];
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    long start = System.nanoTime();
+                    path.apply(() -> {
+                        sleepMicros(WRITE_MICROS);
+                        return ++inventory[0];
+                    });
+                    latencies[i] = System.nanoTime() - start;
+                }
+                return latencies;
+            });
+        }
+        long start = System.nanoTime();
+        List<Future<long[]>> futures = callers.invokeAll(work);
+        long elapsed = System.nanoTime() - start;
+        callers.shutdown();
+
+        long[] all = new long[THREADS * BOOKINGS_PER_THREAD];
+        int next = 0;
+        for (Future<long[]> future : futures) {
+            for (long latency : future.get()) {
+                all[next++] = latency;
+            }
+        }
+        Arrays.sort(all);
+        Result result = new Result(inventory[0], all.length / (elapsed / 1e9),
+                all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6);
+        System.out.printf("%-14s %6d bookings  %8.0f/s  p50 %6.2f ms  p99 %6.2f ms%n",
+                name, result.bookings(), result.throughput(), result.p50Millis(), result.p99Millis());
+        return result;
+    }
+
+    private static void sleepMicros(long micros) {
+        long until = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(micros);
+        while (System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+}
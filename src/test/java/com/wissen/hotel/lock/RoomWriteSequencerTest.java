@@ -0,0 +1,152 @@
+package com.wissen.hotel.lock;
+
+import com.wissen.hotel.exception.RoomBusyException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomWriteSequencerTest {
+
+    private UUID hotHotelId;
+    private SimpleMeterRegistry meterRegistry;
+    private RoomWriteSequencer sequencer;
+
+    @BeforeEach
+    void setUp() {
+        hotHotelId = UUID.randomUUID();
+        meterRegistry = new SimpleMeterRegistry();
+        sequencer = new RoomWriteSequencer(meterRegistry, List.of(hotHotelId.toString(), " "), 4, 8, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sequencer.shutdown();
+    }
+
+    @Test
+    void handles_shouldOnlyRouteConfiguredHotels() {
+        assertTrue(sequencer.handles(hotHotelId));
+        assertFalse(sequencer.handles(UUID.randomUUID()));
+        assertFalse(sequencer.handles(null));
+    }
+
+    @Test
+    void submit_shouldApplyWritesOfOneRoomInOrderAndOneAtATime() throws Exception {
+        UUID roomId = UUID.randomUUID();
+        List<Integer> applied = new ArrayList<>(); // deliberately not thread-safe
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            int booking = i;
+            results.add(sequencer.submit(roomId, () -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                applied.add(booking);
+                active.decrementAndGet();
+                return booking;
+            }));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, maxActive.get());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, applied.get(i));
+        }
+        assertTrue(meterRegistry.summary("booking.sequencer.batch-size").max() <= 8);
+    }
+
+    @Test
+    void submit_shouldForgetRoomsOnceTheirWritesAreDone() throws Exception {
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int booking = i;
+            results.add(sequencer.submit(UUID.randomUUID(), () -> booking));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // The queue of a room goes right after its last write; give the workers a moment to get there
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("booking.sequencer.rooms").gauge().value() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0.0, meterRegistry.get("booking.sequencer.rooms").gauge().value());
+    }
+
+    @Test
+    void call_shouldRethrowTheFailureOfTheWrite() {
+        UUID roomId = UUID.randomUUID();
+
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class,
+                () -> sequencer.call(roomId, () -> {
+                    throw new IllegalArgumentException("Rooms to book cannot exceed available rooms.");
+                }));
+
+        assertEquals("Rooms to book cannot exceed available rooms.", failure.getMessage());
+        assertEquals("next", sequencer.call(roomId, () -> "next"));
+    }
+
+    @Test
+    void call_shouldWithdrawWritesThatDidNotStartInTime() throws Exception {
+        UUID roomId = UUID.randomUUID();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        sequencer.submit(roomId, () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertThrows(RoomBusyException.class, () -> sequencer.call(roomId, () -> ran.getAndSet(true)));
+
+        release.countDown();
+        assertEquals("after", sequencer.call(roomId, () -> "after"));
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void call_shouldNotMakeOtherRoomsWait() throws Exception {
+        UUID busyRoomId = UUID.randomUUID();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> busy = callers.submit(() -> sequencer.call(busyRoomId, () -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+
+            assertEquals("booked", sequencer.call(UUID.randomUUID(), () -> "booked"));
+
+            release.countDown();
+            busy.get(1, TimeUnit.SECONDS);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
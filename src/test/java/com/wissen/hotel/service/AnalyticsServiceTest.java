@@ -32,6 +32,8 @@ class AnalyticsServiceTest {
     private RoomRepository roomRepository;
     @Mock
     private HotelService hotelService;
+    @Mock
+    private RoomAvailabilityService roomAvailabilityService;
 
     @InjectMocks
     private AnalyticsServiceImpl analyticsService;
@@ -95,6 +97,10 @@ class AnalyticsServiceTest {
         when(bookingService.getBookingsForHotel(hotelId)).thenReturn(bookings);
         when(roomRepository.findAllByHotel_HotelId(hotelId)).thenReturn(rooms);
         when(hotelService.getAverageRating(hotelId)).thenReturn(4.5);
+        double[] occupancy = new double[30];
+        occupancy[29] = 0.6;
+        when(roomAvailabilityService.getHotelOccupancySeries(hotelId, LocalDate.now().minusDays(29), LocalDate.now().plusDays(1)))
+                .thenReturn(occupancy);
 
         HotelAnalyticsResponse response = analyticsService.getHotelAnalytics(hotelId);
 
@@ -109,7 +115,7 @@ class AnalyticsServiceTest {
         assertEquals(3, response.getOverview().getTotalBookings());
         assertEquals(BigDecimal.valueOf(100), response.getOverview().getTotalRevenue());
         assertEquals(4.5, response.getOverview().getAverageRating());
-        assertTrue(response.getOverview().getOccupancyRate() >= 0);
+        assertEquals(0.02, response.getOverview().getOccupancyRate(), 1e-9);
 
         // Recent bookings: 7 days
         assertEquals(7, response.getRecentBookings().size());
@@ -131,6 +137,7 @@ class AnalyticsServiceTest {
         when(bookingService.getBookingsForHotel(hotelId)).thenReturn(Collections.emptyList());
         when(roomRepository.findAllByHotel_HotelId(hotelId)).thenReturn(rooms);
         when(hotelService.getAverageRating(hotelId)).thenReturn(0.0);
+        when(roomAvailabilityService.getHotelOccupancySeries(any(), any(), any())).thenReturn(new double[30]);
 
         HotelAnalyticsResponse response = analyticsService.getHotelAnalytics(hotelId);
 
@@ -152,6 +159,7 @@ class AnalyticsServiceTest {
         assertEquals(BigDecimal.valueOf(100), response.getOverview().getTotalRevenue());
         assertEquals(3.0, response.getOverview().getAverageRating());
         assertEquals(0.0, response.getOverview().getOccupancyRate());
+        verifyNoInteractions(roomAvailabilityService);
     }
 
     @Test
@@ -1,21 +1,30 @@
 package com.wissen.hotel.service;
 
 import com.wissen.hotel.dto.response.BookingResponse;
+import com.wissen.hotel.dto.response.CursorPage;
 import com.wissen.hotel.dto.request.CreateBookingRequest;
 import com.wissen.hotel.dto.request.UpdateBookingRequest;
 import com.wissen.hotel.enums.BookingStatus;
 import com.wissen.hotel.exception.*;
+import com.wissen.hotel.lock.RoomLockManager;
+import com.wissen.hotel.lock.RoomWriteOrder;
+import com.wissen.hotel.lock.RoomWriteSequencer;
 import com.wissen.hotel.model.*;
 import com.wissen.hotel.repository.BookingRepository;
 import com.wissen.hotel.repository.RoomRepository;
 import com.wissen.hotel.service.impl.BookingServiceImpl;
 import com.wissen.hotel.util.AuthUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -23,6 +32,8 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.*;
@@ -42,6 +53,13 @@ class BookingServiceImplTest {
     @Mock
     private EmailService emailService;
 
+    @Spy
+    private RoomWriteOrder roomWriteOrder = new RoomWriteOrder(new RoomLockManager(new SimpleMeterRegistry(), 16, 1000),
+            new RoomWriteSequencer(new SimpleMeterRegistry(), List.of(), 1, 8, 1000));
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -53,6 +71,9 @@ class BookingServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
         UUID roomId = UUID.randomUUID();
         UUID hotelId = UUID.randomUUID();
         UUID userId = UUID.randomUUID();
@@ -113,15 +134,128 @@ class BookingServiceImplTest {
                 return b;
             });
 
-            // Stub with explicit ID
-            when(bookingRepository.findById(mockBooking.getBookingId()))
-                    .thenReturn(Optional.of(mockBooking));
-
             BookingResponse response = bookingService.createBooking(request);
 
             assertNotNull(response);
             assertEquals(mockBooking.getBookingId(), response.getBookingId());
-            verify(bookingRepository).findById(mockBooking.getBookingId());
+            assertEquals(BookingStatus.CONFIRMED, response.getStatus());
+            verify(roomAvailabilityService).reserveRange(mockRoom.getRoomId(), request.getCheckIn(), request.getCheckOut(), 1);
+            verify(bookingRepository, times(1)).save(any(Booking.class));
+            // The mail goes out once the room's turn is over
+            InOrder inOrder = inOrder(roomWriteOrder, emailService);
+            inOrder.verify(roomWriteOrder).call(eq(mockRoom.getRoomId()), eq(mockHotel.getHotelId()), any());
+            inOrder.verify(emailService).sendBookingApprovalToHotelOwner(any(), any(), any());
+        }
+    }
+
+    @Test
+    void testCreateBooking_SoldOutMeanwhile_SavesNothingAndConflicts() {
+        try (MockedStatic<AuthUtil> mockedAuthUtil = mockStatic(AuthUtil.class)) {
+            mockedAuthUtil.when(AuthUtil::getCurrentUser).thenReturn(mockUser);
+
+            CreateBookingRequest request = new CreateBookingRequest();
+            request.setRoomId(mockRoom.getRoomId());
+            request.setCheckIn(LocalDate.now().plusDays(2));
+            request.setCheckOut(LocalDate.now().plusDays(4));
+            request.setRoomsBooked(1);
+
+            when(roomRepository.findById(mockRoom.getRoomId())).thenReturn(Optional.of(mockRoom));
+            when(roomAvailabilityService.isRoomAvailableForRange(any(), any(), any())).thenReturn(true);
+            doThrow(new IllegalArgumentException("Rooms to book cannot exceed available rooms."))
+                    .when(roomAvailabilityService).reserveRange(mockRoom.getRoomId(), request.getCheckIn(), request.getCheckOut(), 1);
+
+            assertThrows(RoomSoldOutException.class, () -> bookingService.createBooking(request));
+
+            verify(bookingRepository, never()).save(any());
+            verifyNoInteractions(emailService);
+        }
+    }
+
+    @Test
+    void testCreateBooking_HotHotel_GoesThroughSequencer() {
+        try (MockedStatic<AuthUtil> mockedAuthUtil = mockStatic(AuthUtil.class)) {
+            mockedAuthUtil.when(AuthUtil::getCurrentUser).thenReturn(mockUser);
+            RoomWriteSequencer hotHotels = spy(new RoomWriteSequencer(new SimpleMeterRegistry(),
+                    List.of(mockHotel.getHotelId().toString()), 1, 8, 1000));
+            RoomLockManager roomLockManager = spy(new RoomLockManager(new SimpleMeterRegistry(), 16, 1000));
+            BookingServiceImpl service = new BookingServiceImpl(bookingRepository, roomRepository,
+                    roomAvailabilityService, emailService, new RoomWriteOrder(roomLockManager, hotHotels), transactionTemplate);
+
+            CreateBookingRequest request = new CreateBookingRequest();
+            request.setRoomId(mockRoom.getRoomId());
+            request.setCheckIn(LocalDate.now().plusDays(2));
+            request.setCheckOut(LocalDate.now().plusDays(4));
+            request.setGuests(2);
+            request.setRoomsBooked(1);
+
+            when(roomRepository.findById(mockRoom.getRoomId())).thenReturn(Optional.of(mockRoom));
+            when(roomAvailabilityService.isRoomAvailableForRange(any(), any(), any())).thenReturn(true);
+            when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+                Booking b = invocation.getArgument(0);
+                b.setBookingId(mockBooking.getBookingId());
+                return b;
+            });
+
+            BookingResponse response = service.createBooking(request);
+
+            assertEquals(mockBooking.getBookingId(), response.getBookingId());
+            verify(hotHotels).call(eq(mockRoom.getRoomId()), any());
+            verify(roomLockManager, never()).withLock(any(), any());
+            hotHotels.shutdown();
+        }
+    }
+
+    @Test
+    void testCreateBooking_WithHold_ClaimsTheHoldInsteadOfReservingAgain() {
+        try (MockedStatic<AuthUtil> mockedAuthUtil = mockStatic(AuthUtil.class)) {
+            mockedAuthUtil.when(AuthUtil::getCurrentUser).thenReturn(mockUser);
+            CreateBookingRequest request = new CreateBookingRequest();
+            request.setRoomId(mockRoom.getRoomId());
+            request.setCheckIn(LocalDate.now().plusDays(2));
+            request.setCheckOut(LocalDate.now().plusDays(4));
+            request.setGuests(2);
+            request.setRoomsBooked(1);
+            request.setHoldId(UUID.randomUUID());
+
+            when(roomRepository.findById(mockRoom.getRoomId())).thenReturn(Optional.of(mockRoom));
+            when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+                Booking b = invocation.getArgument(0);
+                b.setBookingId(mockBooking.getBookingId());
+                return b;
+            });
+
+            BookingResponse response = bookingService.createBooking(request);
+
+            assertEquals(BookingStatus.CONFIRMED, response.getStatus());
+            verify(roomAvailabilityService).claimHold(request.getHoldId(), mockUser.getUserId(), mockRoom.getRoomId(),
+                    request.getCheckIn(), request.getCheckOut(), 1);
+            verify(roomAvailabilityService, never()).isRoomAvailableForRange(any(), any(), any());
+            verify(roomAvailabilityService, never()).reserveRange(any(), any(), any(), anyInt());
+            verify(transactionTemplate, times(1)).execute(any());
+        }
+    }
+
+    @Test
+    void testCreateBooking_WithHold_LeavesTheRollbackToTheTransactionIfTheBookingCannotBeSaved() {
+        try (MockedStatic<AuthUtil> mockedAuthUtil = mockStatic(AuthUtil.class)) {
+            mockedAuthUtil.when(AuthUtil::getCurrentUser).thenReturn(mockUser);
+            CreateBookingRequest request = new CreateBookingRequest();
+            request.setRoomId(mockRoom.getRoomId());
+            request.setCheckIn(LocalDate.now().plusDays(2));
+            request.setCheckOut(LocalDate.now().plusDays(4));
+            request.setRoomsBooked(2);
+            request.setHoldId(UUID.randomUUID());
+
+            when(roomRepository.findById(mockRoom.getRoomId())).thenReturn(Optional.of(mockRoom));
+            when(bookingRepository.save(any(Booking.class))).thenThrow(new RuntimeException("db down"));
+
+            assertThrows(RuntimeException.class, () -> bookingService.createBooking(request));
+
+            // Claim and save share one transaction: its rollback keeps the hold, with no compensating write
+            verify(transactionTemplate, times(1)).execute(any());
+            verify(roomAvailabilityService).claimHold(request.getHoldId(), mockUser.getUserId(), mockRoom.getRoomId(),
+                    request.getCheckIn(), request.getCheckOut(), 2);
+            verify(roomAvailabilityService, never()).releaseRange(any(), any(), any(), anyInt());
         }
     }
 
@@ -172,16 +306,48 @@ class BookingServiceImplTest {
         request.setCheckOut(LocalDate.now().plusDays(4));
         request.setGuests(3);
         request.setRoomsBooked(2);
+        mockBooking.setStatus(BookingStatus.CONFIRMED);
 
         when(bookingRepository.findById(mockBooking.getBookingId())).thenReturn(Optional.of(mockBooking));
         when(roomAvailabilityService.isRoomAvailableForRange(any(), any(), any())).thenReturn(true);
         when(bookingRepository.save(any(Booking.class))).thenReturn(mockBooking);
 
+        LocalDate oldCheckIn = mockBooking.getCheckIn();
+        LocalDate oldCheckOut = mockBooking.getCheckOut();
+
         BookingResponse response = bookingService.updateBooking(mockBooking.getBookingId(), request);
 
         assertNotNull(response);
         assertEquals(mockBooking.getBookingId(), response.getBookingId());
         verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(roomAvailabilityService).releaseRange(mockRoom.getRoomId(), oldCheckIn, oldCheckOut, 1);
+        verify(roomAvailabilityService).reserveRange(mockRoom.getRoomId(), request.getCheckIn(), request.getCheckOut(), 2);
+    }
+
+    @Test
+    void testUpdateBooking_NewDatesSoldOut_RollsBackTheRelease() {
+        UpdateBookingRequest request = new UpdateBookingRequest();
+        request.setCheckIn(LocalDate.now().plusDays(2));
+        request.setCheckOut(LocalDate.now().plusDays(4));
+        request.setRoomsBooked(2);
+        mockBooking.setStatus(BookingStatus.CONFIRMED);
+        LocalDate oldCheckIn = mockBooking.getCheckIn();
+        LocalDate oldCheckOut = mockBooking.getCheckOut();
+
+        when(bookingRepository.findById(mockBooking.getBookingId())).thenReturn(Optional.of(mockBooking));
+        when(roomAvailabilityService.isRoomAvailableForRange(any(), any(), any())).thenReturn(true);
+        doThrow(new IllegalArgumentException("Rooms to book cannot exceed available rooms."))
+                .when(roomAvailabilityService).reserveRange(mockRoom.getRoomId(), request.getCheckIn(), request.getCheckOut(), 2);
+
+        assertThrows(BadRequestException.class,
+                () -> bookingService.updateBooking(mockBooking.getBookingId(), request));
+
+        // Release and reserve share one transaction, so the failure undoes the release instead of a compensating write
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(roomAvailabilityService).releaseRange(mockRoom.getRoomId(), oldCheckIn, oldCheckOut, 1);
+        verify(roomAvailabilityService, never()).reserveRange(mockRoom.getRoomId(), oldCheckIn, oldCheckOut, 1);
+        verify(bookingRepository, never()).save(any());
+        assertEquals(oldCheckIn, mockBooking.getCheckIn());
     }
 
     @Test
@@ -197,6 +363,7 @@ class BookingServiceImplTest {
     void testCancelBooking_Success() {
         try (MockedStatic<AuthUtil> mockedAuthUtil = mockStatic(AuthUtil.class)) {
             mockedAuthUtil.when(AuthUtil::getCurrentUser).thenReturn(mockUser);
+            mockBooking.setStatus(BookingStatus.CONFIRMED);
 
             when(bookingRepository.findById(mockBooking.getBookingId())).thenReturn(Optional.of(mockBooking));
 
@@ -205,9 +372,21 @@ class BookingServiceImplTest {
             assertNotNull(response);
             assertEquals(BookingStatus.CANCELLED, response.getStatus());
             verify(bookingRepository, times(1)).save(any(Booking.class));
+            verify(roomAvailabilityService).releaseRange(mockRoom.getRoomId(),
+                    mockBooking.getCheckIn(), mockBooking.getCheckOut(), 1);
         }
     }
 
+    @Test
+    void testCancelBooking_Pending_GivesBackNoRooms() {
+        when(bookingRepository.findById(mockBooking.getBookingId())).thenReturn(Optional.of(mockBooking));
+
+        BookingResponse response = bookingService.cancelBooking(mockBooking.getBookingId());
+
+        assertEquals(BookingStatus.CANCELLED, response.getStatus());
+        verify(roomAvailabilityService, never()).releaseRange(any(), any(), any(), anyInt());
+    }
+
     @Test
     void testCancelBooking_NotFound() {
         when(bookingRepository.findById(mockBooking.getBookingId())).thenReturn(Optional.empty());
@@ -245,6 +424,9 @@ class BookingServiceImplTest {
         assertNotNull(response);
         assertEquals(BookingStatus.CONFIRMED, response.getStatus());
         verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(roomAvailabilityService).reserveRange(mockRoom.getRoomId(),
+                mockBooking.getCheckIn(), mockBooking.getCheckOut(), 1);
+        verify(roomAvailabilityService, never()).updateInventory(any(), any());
     }
 
     @Test
@@ -252,13 +434,14 @@ class BookingServiceImplTest {
         try (MockedStatic<AuthUtil> mockedAuthUtil = mockStatic(AuthUtil.class)) {
             mockedAuthUtil.when(AuthUtil::getCurrentUser).thenReturn(mockUser);
 
-            when(bookingRepository.findAll()).thenReturn(List.of(mockBooking));
+            when(bookingRepository.findNewest(PageRequest.of(0, 11))).thenReturn(List.of(mockBooking));
 
-            List<BookingResponse> responses = bookingService.getAllBookings(null);
+            CursorPage<BookingResponse> responses = bookingService.getAllBookings(null, null, 10);
 
             assertNotNull(responses);
-            assertEquals(1, responses.size());
-            verify(bookingRepository, times(1)).findAll();
+            assertEquals(1, responses.getContent().size());
+            assertFalse(responses.isHasNext());
+            verify(bookingRepository, times(1)).findNewest(PageRequest.of(0, 11));
         }
     }
 
@@ -0,0 +1,414 @@
+package com.wissen.hotel.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.wissen.hotel.config.SearchPricingExecutor;
+import com.wissen.hotel.dto.response.HotelResponse;
+import com.wissen.hotel.dto.response.HotelSearchResponse;
+import com.wissen.hotel.dto.response.PriceCalculationResponse;
+import com.wissen.hotel.dto.response.RoomSelectionResponse;
+import com.wissen.hotel.dto.response.SearchFacetsResponse;
+import com.wissen.hotel.enums.RoomType;
+import com.wissen.hotel.exception.BadRequestException;
+import com.wissen.hotel.model.Hotel;
+import com.wissen.hotel.model.User;
+import com.wissen.hotel.repository.HotelRepository;
+import com.wissen.hotel.repository.RoomRepository;
+import com.wissen.hotel.repository.projection.RoomInventoryView;
+import com.wissen.hotel.repository.projection.SearchFacetRow;
+import com.wissen.hotel.service.impl.HotelSearchServiceImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@ExtendWith(MockitoExtension.class)
+class HotelSearchServiceImplTest {
+
+    @Mock
+    private HotelRepository hotelRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private PricingEngineService pricingEngineService;
+
+    @Mock
+    private RoomAvailabilityService roomAvailabilityService;
+
+    @Spy
+    private SearchPricingExecutor searchPricingExecutor = new SearchPricingExecutor(4, 100);
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private HotelSearchServiceImpl searchService;
+
+    private Hotel hotel;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+
+    @BeforeEach
+    void setUp() {
+        hotel = Hotel.builder()
+                .hotelId(UUID.randomUUID())
+                .name("Test Hotel")
+                .city("Test City")
+                .isApproved(true)
+                .owner(User.builder().userId(UUID.randomUUID()).build())
+                .build();
+        checkIn = LocalDate.now();
+        checkOut = checkIn.plusDays(2);
+        ReflectionTestUtils.setField(searchService, "pricingDeadlineMs", 2000L);
+        ReflectionTestUtils.setField(searchService, "streamBatchSize", 50);
+        ReflectionTestUtils.setField(searchService, "facetPriceBounds", new int[]{50, 100, 200, 500});
+    }
+
+    private RoomInventoryView room(UUID roomId, int capacity, int totalRooms) {
+        RoomInventoryView room = mock(RoomInventoryView.class);
+        lenient().when(room.getRoomId()).thenReturn(roomId);
+        lenient().when(room.getHotelId()).thenReturn(hotel.getHotelId());
+        lenient().when(room.getCapacity()).thenReturn(capacity);
+        lenient().when(room.getTotalRooms()).thenReturn(totalRooms);
+        return room;
+    }
+
+    private SearchFacetRow facetRow(UUID hotelId, String city, UUID roomId, RoomType roomType, String basePrice,
+                                    int capacity, int availableRooms, UUID amenityId, String amenityName) {
+        SearchFacetRow row = mock(SearchFacetRow.class);
+        lenient().when(row.getHotelId()).thenReturn(hotelId);
+        lenient().when(row.getCity()).thenReturn(city);
+        lenient().when(row.getRoomId()).thenReturn(roomId);
+        lenient().when(row.getRoomType()).thenReturn(roomType);
+        lenient().when(row.getBasePrice()).thenReturn(new BigDecimal(basePrice));
+        lenient().when(row.getCapacity()).thenReturn(capacity);
+        lenient().when(row.getAmenityId()).thenReturn(amenityId);
+        lenient().when(row.getAmenityName()).thenReturn(amenityName);
+        lenient().when(row.getAvailableRooms()).thenReturn(availableRooms);
+        return row;
+    }
+
+    private PriceCalculationResponse price(String amount) {
+        PriceCalculationResponse response = new PriceCalculationResponse();
+        response.setFinalPrice(new BigDecimal(amount));
+        return response;
+    }
+
+    @Test
+    void searchHotels_PicksCheapestCandidatePerHotel() {
+        UUID largeRoom = UUID.randomUUID();
+        UUID smallRoom = UUID.randomUUID();
+        UUID soldOutRoom = UUID.randomUUID();
+        List<RoomInventoryView> rooms = List.of(room(largeRoom, 3, 5), room(smallRoom, 5, 1), room(soldOutRoom, 2, 4));
+        when(hotelRepository.findSearchableHotelIds(eq("Test City"), eq(checkIn), eq(checkOut), eq(2L), eq(5), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(hotel.getHotelId()), PageRequest.of(0, 10), 1));
+        when(roomRepository.findInventoryViewsByHotelIds(List.of(hotel.getHotelId()))).thenReturn(rooms);
+        when(roomAvailabilityService.getMinAvailableRooms(largeRoom, checkIn, checkOut)).thenReturn(5);
+        when(roomAvailabilityService.getMinAvailableRooms(smallRoom, checkIn, checkOut)).thenReturn(1);
+        when(roomAvailabilityService.getMinAvailableRooms(soldOutRoom, checkIn, checkOut)).thenReturn(0);
+        when(hotelRepository.findAllById(List.of(hotel.getHotelId()))).thenReturn(List.of(hotel));
+        when(pricingEngineService.calculatePrice(largeRoom, checkIn, checkOut)).thenReturn(price("100.00"));
+        when(pricingEngineService.calculatePrice(smallRoom, checkIn, checkOut)).thenReturn(price("250.00"));
+
+        HotelSearchResponse result = searchService.searchHotels("Test City", checkIn, checkOut, 5, 0, 10, false);
+
+        assertFalse(result.isPartial());
+        assertEquals(1, result.getHotels().size());
+        HotelResponse response = result.getHotels().get(0);
+        assertEquals(hotel.getHotelId(), response.getHotelId());
+        assertEquals(2, response.getRoomsRequired());
+        assertEquals(new BigDecimal("200.00"), response.getFinalPrice());
+        verify(pricingEngineService, times(2)).calculatePrice(any(UUID.class), eq(checkIn), eq(checkOut));
+        verify(pricingEngineService, never()).calculatePrice(soldOutRoom, checkIn, checkOut);
+        assertEquals(2.0, meterRegistry.summary("search.pricing.fanout").totalAmount());
+    }
+
+    @Test
+    void searchHotels_MixesRoomTypesWhenNoSingleTypeHostsTheParty() {
+        UUID twin = UUID.randomUUID();
+        UUID family = UUID.randomUUID();
+        UUID single = UUID.randomUUID();
+        List<RoomInventoryView> rooms = List.of(room(twin, 2, 3), room(family, 4, 1), room(single, 1, 6));
+        when(hotelRepository.findSearchableHotelIds(any(), any(), any(), anyLong(), anyInt(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(hotel.getHotelId()), PageRequest.of(0, 10), 1));
+        when(roomRepository.findInventoryViewsByHotelIds(List.of(hotel.getHotelId()))).thenReturn(rooms);
+        when(roomAvailabilityService.getMinAvailableRooms(twin, checkIn, checkOut)).thenReturn(1);
+        when(roomAvailabilityService.getMinAvailableRooms(family, checkIn, checkOut)).thenReturn(1);
+        when(roomAvailabilityService.getMinAvailableRooms(single, checkIn, checkOut)).thenReturn(6);
+        when(hotelRepository.findAllById(List.of(hotel.getHotelId()))).thenReturn(List.of(hotel));
+        when(pricingEngineService.calculatePrice(twin, checkIn, checkOut)).thenReturn(price("100.00"));
+        when(pricingEngineService.calculatePrice(family, checkIn, checkOut)).thenReturn(price("150.00"));
+        when(pricingEngineService.calculatePrice(single, checkIn, checkOut)).thenReturn(price("90.00"));
+
+        HotelSearchResponse result = searchService.searchHotels(null, checkIn, checkOut, 7, 0, 10, false);
+
+        HotelResponse response = result.getHotels().get(0);
+        assertEquals(new BigDecimal("340.00"), response.getFinalPrice());
+        assertEquals(3, response.getRoomsRequired());
+        assertEquals(Map.of(twin, 1, family, 1, single, 1), response.getRoomSelection().stream()
+                .collect(Collectors.toMap(RoomSelectionResponse::getRoomId, RoomSelectionResponse::getQuantity)));
+        assertEquals(new BigDecimal("150.00"), response.getRoomSelection().stream()
+                .filter(selection -> family.equals(selection.getRoomId()))
+                .findFirst().orElseThrow().getPricePerRoom());
+        verify(pricingEngineService, times(1)).calculatePrice(single, checkIn, checkOut);
+    }
+
+    @Test
+    void searchHotels_HotelThatCannotHostThePartyAnyMore_IsLeftOut() {
+        UUID twin = UUID.randomUUID();
+        when(hotelRepository.findSearchableHotelIds(any(), any(), any(), anyLong(), anyInt(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(hotel.getHotelId()), PageRequest.of(0, 10), 1));
+        when(roomRepository.findInventoryViewsByHotelIds(List.of(hotel.getHotelId()))).thenReturn(List.of(room(twin, 2, 3)));
+        when(roomAvailabilityService.getMinAvailableRooms(twin, checkIn, checkOut)).thenReturn(1);
+        when(hotelRepository.findAllById(List.of(hotel.getHotelId()))).thenReturn(List.of(hotel));
+
+        HotelSearchResponse result = searchService.searchHotels(null, checkIn, checkOut, 3, 0, 10, false);
+
+        assertTrue(result.getHotels().isEmpty());
+        verifyNoInteractions(pricingEngineService);
+    }
+
+    @Test
+    void searchHotels_PricingPastDeadline_ReturnsPartialResults() {
+        ReflectionTestUtils.setField(searchService, "pricingDeadlineMs", 100L);
+        Hotel slowHotel = Hotel.builder().hotelId(UUID.randomUUID()).name("Slow").isApproved(true).build();
+        UUID fastRoom = UUID.randomUUID();
+        UUID slowRoom = UUID.randomUUID();
+        RoomInventoryView slow = room(slowRoom, 2, 1);
+        when(slow.getHotelId()).thenReturn(slowHotel.getHotelId());
+        List<UUID> ids = List.of(hotel.getHotelId(), slowHotel.getHotelId());
+        when(hotelRepository.findSearchableHotelIds(any(), any(), any(), anyLong(), anyInt(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(ids, PageRequest.of(0, 10), 2));
+        when(roomRepository.findInventoryViewsByHotelIds(ids)).thenReturn(List.of(room(fastRoom, 2, 1), slow));
+        when(roomAvailabilityService.getMinAvailableRooms(any(UUID.class), eq(checkIn), eq(checkOut))).thenReturn(1);
+        when(hotelRepository.findAllById(ids)).thenReturn(List.of(hotel, slowHotel));
+        when(pricingEngineService.calculatePrice(fastRoom, checkIn, checkOut)).thenReturn(price("80.00"));
+        // Held until the search has given up on it, rather than slept through on a pool thread
+        CountDownLatch searchDone = new CountDownLatch(1);
+        when(pricingEngineService.calculatePrice(slowRoom, checkIn, checkOut)).thenAnswer(invocation -> {
+            searchDone.await(5, TimeUnit.SECONDS);
+            return price("60.00");
+        });
+
+        HotelSearchResponse result;
+        try {
+            result = searchService.searchHotels(null, checkIn, checkOut, 2, 0, 10, false);
+        } finally {
+            searchDone.countDown();
+        }
+
+        assertTrue(result.isPartial());
+        assertEquals(1, result.getHotels().size());
+        assertEquals(hotel.getHotelId(), result.getHotels().get(0).getHotelId());
+        assertEquals(1.0, meterRegistry.counter("search.pricing.stragglers").count());
+    }
+
+    @Test
+    void searchHotels_PricingFailure_SkipsRoomAndFlagsPartial() {
+        UUID goodRoom = UUID.randomUUID();
+        UUID brokenRoom = UUID.randomUUID();
+        when(hotelRepository.findSearchableHotelIds(any(), any(), any(), anyLong(), anyInt(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(hotel.getHotelId()), PageRequest.of(0, 10), 1));
+        when(roomRepository.findInventoryViewsByHotelIds(List.of(hotel.getHotelId())))
+                .thenReturn(List.of(room(goodRoom, 2, 1), room(brokenRoom, 2, 1)));
+        when(roomAvailabilityService.getMinAvailableRooms(any(UUID.class), eq(checkIn), eq(checkOut))).thenReturn(1);
+        when(hotelRepository.findAllById(List.of(hotel.getHotelId()))).thenReturn(List.of(hotel));
+        when(pricingEngineService.calculatePrice(goodRoom, checkIn, checkOut)).thenReturn(price("150.00"));
+        when(pricingEngineService.calculatePrice(brokenRoom, checkIn, checkOut)).thenThrow(new RuntimeException("boom"));
+
+        HotelSearchResponse result = searchService.searchHotels(null, checkIn, checkOut, 2, 0, 10, false);
+
+        assertTrue(result.isPartial());
+        assertEquals(new BigDecimal("150.00"), result.getHotels().get(0).getFinalPrice());
+    }
+
+    @Test
+    void searchHotels_NoMatchingHotels_SkipsCandidateAndPricingQueries() {
+        when(hotelRepository.findSearchableHotelIds(any(), any(), any(), anyLong(), anyInt(), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        HotelSearchResponse result = searchService.searchHotels(null, checkIn, checkOut, 2, 0, 10, false);
+
+        assertTrue(result.getHotels().isEmpty());
+        assertFalse(result.isPartial());
+        verify(roomRepository, never()).findInventoryViewsByHotelIds(anyCollection());
+        verifyNoInteractions(pricingEngineService, roomAvailabilityService);
+    }
+
+    @Test
+    void searchHotels_WithFacets_CountsEachHotelOncePerValue() {
+        UUID beachHotel = UUID.randomUUID();
+        UUID cityHotel = UUID.randomUUID();
+        UUID doubleRoom = UUID.randomUUID();
+        UUID suite = UUID.randomUUID();
+        UUID tinyRoom = UUID.randomUUID();
+        UUID cityDouble = UUID.randomUUID();
+        UUID wifi = UUID.randomUUID();
+        UUID pool = UUID.randomUUID();
+        UUID spa = UUID.randomUUID();
+        when(hotelRepository.findSearchableHotelIds(any(), any(), any(), anyLong(), anyInt(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(5, 10), 2));
+        when(hotelRepository.findSearchFacetRows("Goa", checkIn, checkOut, 2L, 2)).thenReturn(List.of(
+                facetRow(beachHotel, "Goa", doubleRoom, RoomType.DOUBLE, "80.00", 2, 5, wifi, "WiFi"),
+                facetRow(beachHotel, "Goa", doubleRoom, RoomType.DOUBLE, "80.00", 2, 5, pool, "Pool"),
+                facetRow(beachHotel, "Goa", suite, RoomType.SUITE, "300.00", 4, 5, wifi, "WiFi"),
+                facetRow(cityHotel, "goa", tinyRoom, RoomType.SINGLE, "40.00", 1, 0, spa, "Spa"),
+                facetRow(cityHotel, "goa", cityDouble, RoomType.DOUBLE, "120.00", 2, 5, null, null)));
+
+        HotelSearchResponse result = searchService.searchHotels("Goa", checkIn, checkOut, 2, 5, 10, true);
+
+        SearchFacetsResponse facets = result.getFacets();
+        assertTrue(result.getHotels().isEmpty());
+        assertEquals(2, facets.getTotalHotels());
+        assertEquals(Map.of("Goa", 2L), facets.getCities());
+        assertEquals(Map.of(RoomType.DOUBLE, 2L, RoomType.SUITE, 1L), facets.getRoomTypes());
+        assertEquals(List.of(0L, 1L, 1L, 0L, 0L),
+                facets.getPriceBuckets().stream().map(SearchFacetsResponse.PriceBucket::getCount).toList());
+        assertNull(facets.getPriceBuckets().get(4).getMax());
+        assertEquals(List.of(1L, 1L),
+                facets.getAmenities().stream().map(SearchFacetsResponse.AmenityCount::getCount).toList());
+        assertTrue(facets.getAmenities().stream().noneMatch(amenity -> spa.equals(amenity.getAmenityId())));
+        // Availability comes with the facet rows instead of one lookup per room
+        verifyNoInteractions(pricingEngineService, roomAvailabilityService);
+    }
+
+    @Test
+    void searchHotels_WithoutFacets_SkipsFacetQuery() {
+        when(hotelRepository.findSearchableHotelIds(any(), any(), any(), anyLong(), anyInt(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(5, 10), 2));
+
+        HotelSearchResponse result = searchService.searchHotels(null, checkIn, checkOut, 2, 5, 10, false);
+
+        assertNull(result.getFacets());
+        verify(hotelRepository, never()).findSearchFacetRows(any(), any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void searchHotels_BlankCitySearchesAllCities() {
+        when(hotelRepository.findSearchableHotelIds(isNull(), eq(checkIn), eq(checkOut), eq(2L), eq(2), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        searchService.searchHotels("  ", checkIn, checkOut, 2, 0, 10, false);
+
+        verify(hotelRepository).findSearchableHotelIds(isNull(), eq(checkIn), eq(checkOut), eq(2L), eq(2), any(Pageable.class));
+    }
+
+    @Test
+    void streamHotels_EmitsFastHotelsFirstAndWalksAllBatches() {
+        ReflectionTestUtils.setField(searchService, "streamBatchSize", 2);
+        Hotel slowHotel = Hotel.builder().hotelId(UUID.randomUUID()).name("Slow").isApproved(true).build();
+        Hotel lastHotel = Hotel.builder().hotelId(UUID.randomUUID()).name("Zulu").isApproved(true).build();
+        UUID slowRoom = UUID.randomUUID();
+        UUID fastRoom = UUID.randomUUID();
+        UUID lastRoom = UUID.randomUUID();
+        RoomInventoryView slow = room(slowRoom, 2, 1);
+        when(slow.getHotelId()).thenReturn(slowHotel.getHotelId());
+        RoomInventoryView last = room(lastRoom, 2, 1);
+        when(last.getHotelId()).thenReturn(lastHotel.getHotelId());
+        List<UUID> firstBatch = List.of(slowHotel.getHotelId(), hotel.getHotelId());
+        List<UUID> secondBatch = List.of(lastHotel.getHotelId());
+        when(hotelRepository.findSearchableHotelIdSlice(any(), any(), any(), anyLong(), anyInt(), eq(PageRequest.of(0, 2))))
+                .thenReturn(new SliceImpl<>(firstBatch, PageRequest.of(0, 2), true));
+        when(hotelRepository.findSearchableHotelIdSlice(any(), any(), any(), anyLong(), anyInt(), eq(PageRequest.of(1, 2))))
+                .thenReturn(new SliceImpl<>(secondBatch, PageRequest.of(1, 2), false));
+        when(roomRepository.findInventoryViewsByHotelIds(firstBatch)).thenReturn(List.of(slow, room(fastRoom, 2, 1)));
+        when(roomRepository.findInventoryViewsByHotelIds(secondBatch)).thenReturn(List.of(last));
+        when(roomAvailabilityService.getMinAvailableRooms(any(UUID.class), eq(checkIn), eq(checkOut))).thenReturn(1);
+        when(hotelRepository.findAllById(firstBatch)).thenReturn(List.of(slowHotel, hotel));
+        when(hotelRepository.findAllById(secondBatch)).thenReturn(List.of(lastHotel));
+        // The slow room is only priced once the fast hotel is out, whatever the timing of the pool
+        CountDownLatch fastEmitted = new CountDownLatch(1);
+        when(pricingEngineService.calculatePrice(slowRoom, checkIn, checkOut)).thenAnswer(invocation -> {
+            assertTrue(fastEmitted.await(5, TimeUnit.SECONDS));
+            return price("60.00");
+        });
+        when(pricingEngineService.calculatePrice(fastRoom, checkIn, checkOut)).thenReturn(price("80.00"));
+        when(pricingEngineService.calculatePrice(lastRoom, checkIn, checkOut)).thenReturn(price("90.00"));
+
+        List<UUID> emitted = new ArrayList<>();
+        boolean partial = searchService.streamHotels(null, checkIn, checkOut, 2)
+                .forEach(response -> {
+                    emitted.add(response.getHotelId());
+                    if (response.getHotelId().equals(hotel.getHotelId())) {
+                        fastEmitted.countDown();
+                    }
+                    return true;
+                });
+
+        assertFalse(partial);
+        assertEquals(List.of(hotel.getHotelId(), slowHotel.getHotelId(), lastHotel.getHotelId()), emitted);
+    }
+
+    @Test
+    void streamHotels_StopsWhenSinkRefusesMoreResults() {
+        ReflectionTestUtils.setField(searchService, "streamBatchSize", 1);
+        UUID roomId = UUID.randomUUID();
+        when(hotelRepository.findSearchableHotelIdSlice(any(), any(), any(), anyLong(), anyInt(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(hotel.getHotelId()), PageRequest.of(0, 1), true));
+        when(roomRepository.findInventoryViewsByHotelIds(List.of(hotel.getHotelId()))).thenReturn(List.of(room(roomId, 2, 1)));
+        when(roomAvailabilityService.getMinAvailableRooms(roomId, checkIn, checkOut)).thenReturn(1);
+        when(hotelRepository.findAllById(List.of(hotel.getHotelId()))).thenReturn(List.of(hotel));
+        when(pricingEngineService.calculatePrice(roomId, checkIn, checkOut)).thenReturn(price("80.00"));
+
+        searchService.streamHotels(null, checkIn, checkOut, 2).forEach(response -> false);
+
+        verify(hotelRepository, times(1)).findSearchableHotelIdSlice(any(), any(), any(), anyLong(), anyInt(), any(Pageable.class));
+    }
+
+    @Test
+    void streamHotels_InvalidGuests_ThrowsBeforeStreaming() {
+        assertThrows(BadRequestException.class, () -> searchService.streamHotels(null, checkIn, checkOut, 0));
+        verifyNoInteractions(hotelRepository);
+    }
+
+    @Test
+    void searchHotels_InvalidDates_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class,
+                () -> searchService.searchHotels("Test City", checkOut, checkIn, 2, 0, 10, false));
+        verifyNoInteractions(hotelRepository, roomRepository, pricingEngineService);
+    }
+
+    @Test
+    void searchHotels_InvalidPage_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class,
+                () -> searchService.searchHotels("Test City", checkIn, checkOut, 2, -1, 10, false));
+        assertThrows(BadRequestException.class,
+                () -> searchService.searchHotels("Test City", checkIn, checkOut, 2, 0, 0, false));
+        verifyNoInteractions(hotelRepository, roomRepository, pricingEngineService);
+    }
+
+    @Test
+    void searchHotels_OversizedPage_IsCappedAtTheMaximum() {
+        when(hotelRepository.findSearchableHotelIds(any(), any(), any(), anyLong(), anyInt(), any()))
+                .thenReturn(Page.empty());
+
+        searchService.searchHotels(null, checkIn, checkOut, 2, 3, 10_000, false);
+
+        verify(hotelRepository).findSearchableHotelIds(null, checkIn, checkOut, 2L, 2, PageRequest.of(3, 100));
+    }
+}
@@ -5,10 +5,20 @@ import static org.mockito.ArgumentMatchers.any;
 
 import static org.mockito.Mockito.*;
 
+import com.wissen.hotel.cache.HotelSearchCache;
 import com.wissen.hotel.dto.request.*;
 import com.wissen.hotel.dto.response.*;
+import com.wissen.hotel.enums.BookingStatus;
+import com.wissen.hotel.event.HotelChangedEvent;
+import com.wissen.hotel.exception.BadRequestException;
+import com.wissen.hotel.index.HotelGeoIndex;
+import com.wissen.hotel.index.HotelMapGrid;
+import com.wissen.hotel.index.HotelTextIndex;
 import com.wissen.hotel.model.*;
 import com.wissen.hotel.repository.*;
+import com.wissen.hotel.repository.projection.HotelCountView;
+import com.wissen.hotel.repository.projection.HotelRoomStatsView;
+import com.wissen.hotel.repository.projection.HotelSummaryView;
 import com.wissen.hotel.service.impl.HotelServiceImpl;
 import com.wissen.hotel.util.AuthUtil;
 
@@ -19,9 +29,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,20 +48,32 @@ class HotelServiceImplTest {
     @Mock
     private RoomRepository roomRepository;
 
+    @Mock
+    private BookingRepository bookingRepository;
+
     @Mock
     private RoomAvailabilityService roomAvailabilityService;
 
     @Mock
-    private PricingEngineService pricingEngineService;
+    private HotelSearchService hotelSearchService;
 
-    @InjectMocks
-    private HotelServiceImpl hotelService;
+    @Mock
+    private HotelSearchCache hotelSearchCache;
+
+    @Mock
+    private HotelGeoIndex hotelGeoIndex;
 
     @Mock
-    private ReviewService reviewService;
+    private HotelMapGrid hotelMapGrid;
 
     @Mock
-    private RoomAvailabilityRepository roomAvailabilityRepository;
+    private HotelTextIndex hotelTextIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private HotelServiceImpl hotelService;
 
     private Hotel mockHotel;
     private UUID hotelId;
@@ -66,14 +93,6 @@ class HotelServiceImplTest {
                 .isApproved(true)
                 .owner(mockOwner) // Set mock owner
                 .build();
-        // Inject the mock RoomAvailabilityRepository into hotelService
-        try {
-            java.lang.reflect.Field field = hotelService.getClass().getDeclaredField("roomAvailabilityRepository");
-            field.setAccessible(true);
-            field.set(hotelService, roomAvailabilityRepository);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
     }
 
     @Test
@@ -160,6 +179,7 @@ class HotelServiceImplTest {
         hotelService.deleteHotel(hotelId);
 
         verify(hotelRepository, times(1)).deleteById(hotelId);
+        verify(eventPublisher).publishEvent(HotelChangedEvent.deleted(hotelId));
     }
 
     @Test
@@ -173,142 +193,222 @@ class HotelServiceImplTest {
         assertTrue(response.isApproved());
         verify(hotelRepository, times(1)).findById(hotelId);
         verify(hotelRepository, times(1)).save(any(Hotel.class));
+        verify(eventPublisher).publishEvent(HotelChangedEvent.saved(mockHotel));
     }
 
     @Test
-    void testSearchHotels_Success() {
-        List<Hotel> hotels = List.of(mockHotel);
-        Room mockRoom = Room.builder()
-                .roomId(UUID.randomUUID())
-                .hotel(mockHotel)
-                .capacity(3)
-                .totalRooms(5)
-                .basePrice(new BigDecimal("100.00"))
+    void testSearchHotels_DelegatesToSearchService() {
+        LocalDate checkIn = LocalDate.now();
+        LocalDate checkOut = checkIn.plusDays(2);
+        HotelSearchResponse expected = HotelSearchResponse.builder()
+                .hotels(List.of(HotelResponse.builder().hotelId(hotelId).build()))
                 .build();
+        when(hotelSearchService.searchHotels("Test City", checkIn, checkOut, 5, 0, 10, true)).thenReturn(expected);
+
+        HotelSearchResponse responses = hotelService.searchHotels("Test City", checkIn, checkOut, 5, 0, 10, true);
 
+        assertSame(expected, responses);
+        verify(hotelSearchService, times(1)).searchHotels("Test City", checkIn, checkOut, 5, 0, 10, true);
+        verify(hotelSearchCache).put(HotelSearchCache.Key.of("Test City", checkIn, checkOut, 5, 0, 10, true), expected, 0L);
+        verifyNoInteractions(hotelRepository, roomRepository);
+    }
+
+    @Test
+    void testStreamSearchHotels_DelegatesToSearchServiceWithoutCaching() {
         LocalDate checkIn = LocalDate.now();
         LocalDate checkOut = checkIn.plusDays(2);
-        int numberOfGuests = 5;
-        int neededRooms = (int) Math.ceil((double) numberOfGuests / mockRoom.getCapacity());
-
-        when(hotelRepository.findAll()).thenReturn(hotels);
-        when(roomRepository.findAllByHotel_HotelId(mockHotel.getHotelId())).thenReturn(List.of(mockRoom));
-        // Simulate RoomAvailabilityRepository always returns enough rooms for all dates
-        when(roomAvailabilityRepository.findByRoom_RoomIdAndDate(any(UUID.class), any(LocalDate.class)))
-                .thenReturn(RoomAvailability.builder().availableRooms(5).build());
-        // Simulate pricing engine
-        PriceCalculationResponse priceResponse = new PriceCalculationResponse();
-        priceResponse.setFinalPrice(new BigDecimal("100.00"));
-        when(pricingEngineService.calculatePrice(mockRoom.getRoomId(), checkIn, checkOut)).thenReturn(priceResponse);
-
-        List<HotelResponse> responses = hotelService.searchHotels("Test City", checkIn, checkOut, numberOfGuests, 0,
-                10);
+        HotelSearchStream stream = sink -> false;
+        when(hotelSearchService.streamHotels("Test City", checkIn, checkOut, 2)).thenReturn(stream);
 
-        assertNotNull(responses);
-        assertEquals(1, responses.size());
-        HotelResponse resp = responses.get(0);
-        assertEquals(mockHotel.getHotelId(), resp.getHotelId());
-        assertEquals(neededRooms, resp.getRoomsRequired());
-        assertEquals(new BigDecimal("100.00").multiply(BigDecimal.valueOf(neededRooms)), resp.getFinalPrice());
-        verify(hotelRepository, times(1)).findAll();
-        verify(roomRepository, times(1)).findAllByHotel_HotelId(mockHotel.getHotelId());
-        verify(pricingEngineService, atLeastOnce()).calculatePrice(mockRoom.getRoomId(), checkIn, checkOut);
+        assertSame(stream, hotelService.streamSearchHotels("Test City", checkIn, checkOut, 2));
+        verifyNoInteractions(hotelSearchCache);
+    }
+
+    @Test
+    void testSearchHotels_ReturnsCachedPageWithoutSearching() {
+        LocalDate checkIn = LocalDate.now();
+        LocalDate checkOut = checkIn.plusDays(2);
+        HotelSearchResponse cached = HotelSearchResponse.builder().hotels(List.of()).build();
+        when(hotelSearchCache.get(HotelSearchCache.Key.of(" test city ", checkIn, checkOut, 5, 0, 10, true))).thenReturn(cached);
+
+        assertSame(cached, hotelService.searchHotels("Test City", checkIn, checkOut, 5, 0, 10, true));
+        verifyNoInteractions(hotelSearchService);
+    }
+
+    @Test
+    void testSearchHotels_DoesNotCachePartialPages() {
+        LocalDate checkIn = LocalDate.now();
+        LocalDate checkOut = checkIn.plusDays(2);
+        HotelSearchResponse partial = HotelSearchResponse.builder().hotels(List.of()).partial(true).build();
+        when(hotelSearchService.searchHotels("Test City", checkIn, checkOut, 5, 0, 10, true)).thenReturn(partial);
+
+        assertSame(partial, hotelService.searchHotels("Test City", checkIn, checkOut, 5, 0, 10, true));
+        verify(hotelSearchCache, never()).put(any(), any(), anyLong());
     }
 
     @Test
     void testGetAllHotels_Success() {
-        // Mock rooms for the hotel
-        Room mockRoom = Room.builder()
-                .basePrice(new BigDecimal("100.00"))
-                .hotel(mockHotel)
-                .build();
-        when(roomRepository.findAllByHotel_HotelId(mockHotel.getHotelId()))
-                .thenReturn(List.of(mockRoom)); // <-- Return non-empty list
+        HotelSummaryView summary = mock(HotelSummaryView.class);
+        when(summary.getHotelId()).thenReturn(hotelId);
+        when(summary.getName()).thenReturn("Test Hotel");
+        when(summary.getCity()).thenReturn("Test City");
+        when(summary.isApproved()).thenReturn(true);
+        when(summary.getOwnerId()).thenReturn(mockOwner.getUserId());
+        when(summary.getMinPrice()).thenReturn(new BigDecimal("100.00"));
+        Page<HotelSummaryView> page = new PageImpl<>(List.of(summary), PageRequest.of(0, 10), 11);
+        when(hotelRepository.findApprovedHotelSummaries("Test City", PageRequest.of(0, 10))).thenReturn(page);
+
+        PagedResponse<HotelResponse> responses = hotelService.getAllHotels(" Test City ", 0, 10);
+
+        assertEquals(1, responses.getContent().size());
+        HotelResponse response = responses.getContent().get(0);
+        assertEquals(hotelId, response.getHotelId());
+        assertEquals("Test City", response.getCity());
+        assertEquals(new BigDecimal("100.00"), response.getFinalPrice());
+        assertEquals(1, response.getRoomsRequired());
+        assertNull(response.getDescription());
+        assertEquals(11, responses.getTotalElements());
+        assertEquals(2, responses.getTotalPages());
+        verify(hotelRepository, never()).findAll();
+        verifyNoInteractions(roomRepository);
+    }
 
-        // Mock hotel repository to return the approved hotel
-        List<Hotel> hotels = List.of(mockHotel);
-        when(hotelRepository.findAll()).thenReturn(hotels);
+    @Test
+    void testGetAllHotels_BlankCityListsAllAndInvalidPageRejected() {
+        when(hotelRepository.findApprovedHotelSummaries(null, PageRequest.of(1, 5)))
+                .thenReturn(Page.empty(PageRequest.of(1, 5)));
 
-        // Test with matching city
-        List<HotelResponse> responses = hotelService.getAllHotels("Test City", 0, 10);
+        PagedResponse<HotelResponse> responses = hotelService.getAllHotels("  ", 1, 5);
 
-        // Assertions
-        assertNotNull(responses);
-        assertEquals(1, responses.size()); // Now passes
-        assertEquals("Test City", responses.get(0).getCity());
-        assertEquals(mockHotel.getName(), responses.get(0).getName());
-        verify(hotelRepository, times(1)).findAll();
-
-        // Test with non-matching city
-        List<HotelResponse> emptyResponses = hotelService.getAllHotels("Nonexistent City", 0, 10);
-        assertTrue(emptyResponses.isEmpty());
+        assertTrue(responses.getContent().isEmpty());
+        assertThrows(BadRequestException.class, () -> hotelService.getAllHotels(null, -1, 10));
+        assertThrows(BadRequestException.class, () -> hotelService.getAllHotels(null, 0, 0));
     }
 
     @Test
-    void testGetTopRatedHotels_Success() {
-        Hotel hotel1 = Hotel.builder()
-                .hotelId(UUID.randomUUID())
-                .name("Hotel 1")
-                .owner(mockOwner)
-                .build();
-        Hotel hotel2 = Hotel.builder()
-                .hotelId(UUID.randomUUID())
-                .name("Hotel 2")
-                .owner(mockOwner)
-                .build();
-        Hotel hotel3 = Hotel.builder()
-                .hotelId(UUID.randomUUID())
-                .name("Hotel 3")
-                .owner(mockOwner)
-                .build();
+    void testScrollHotels_WalksPagesWithTheCursor() {
+        LocalDateTime newestCreated = LocalDateTime.of(2024, 6, 1, 9, 30, 15, 250_000_000);
+        HotelSummaryView newest = mock(HotelSummaryView.class);
+        when(newest.getHotelId()).thenReturn(hotelId);
+        when(newest.getCreatedAt()).thenReturn(newestCreated);
+        HotelSummaryView older = mock(HotelSummaryView.class);
+        when(hotelRepository.findNewestApprovedHotelSummaries("Test City", PageRequest.of(0, 2)))
+                .thenReturn(List.of(newest, older));
+
+        CursorPage<HotelResponse> first = hotelService.scrollHotels("Test City", null, 1);
+
+        assertEquals(1, first.getContent().size());
+        assertEquals(hotelId, first.getContent().get(0).getHotelId());
+        assertTrue(first.isHasNext());
+        when(hotelRepository.findApprovedHotelSummariesBefore("Test City", newestCreated, hotelId, PageRequest.of(0, 2)))
+                .thenReturn(List.of(older));
+
+        CursorPage<HotelResponse> second = hotelService.scrollHotels("Test City", first.getNextCursor(), 1);
+
+        assertEquals(1, second.getContent().size());
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+    }
 
-        List<Hotel> hotels = Arrays.asList(hotel1, hotel2, hotel3);
-        when(hotelRepository.findAll()).thenReturn(hotels);
-
-        // Mock rooms - hotel3 has none
-        Room room1 = Room.builder().basePrice(new BigDecimal("100.00")).hotel(hotel1).build();
-        Room room2 = Room.builder().basePrice(new BigDecimal("80.00")).hotel(hotel2).build();
-        when(roomRepository.findAllByHotel_HotelId(hotel1.getHotelId())).thenReturn(List.of(room1));
-        when(roomRepository.findAllByHotel_HotelId(hotel2.getHotelId())).thenReturn(List.of(room2));
-        when(roomRepository.findAllByHotel_HotelId(hotel3.getHotelId())).thenReturn(Collections.emptyList());
-
-        // Mock reviews for getAverageRating
-        when(reviewService.getReviewsByHotel(hotel1.getHotelId()))
-                .thenReturn(List.of(
-                        ReviewResponse.builder().rating(5).build(),
-                        ReviewResponse.builder().rating(5).build()));
-        when(reviewService.getReviewsByHotel(hotel2.getHotelId()))
-                .thenReturn(List.of(
-                        ReviewResponse.builder().rating(4).build(),
-                        ReviewResponse.builder().rating(4).build()));
+    @Test
+    void testScrollHotels_InvalidCursorOrSizeRejected() {
+        assertThrows(BadRequestException.class, () -> hotelService.scrollHotels(null, "%%%", 10));
+        assertThrows(BadRequestException.class, () -> hotelService.scrollHotels(null, null, 0));
+        verifyNoInteractions(hotelRepository);
+    }
+
+    @Test
+    void testGetTopRatedHotels_Success() {
+        HotelSummaryView best = mock(HotelSummaryView.class);
+        when(best.getHotelId()).thenReturn(UUID.randomUUID());
+        when(best.getMinPrice()).thenReturn(new BigDecimal("100.00"));
+        HotelSummaryView second = mock(HotelSummaryView.class);
+        when(second.getHotelId()).thenReturn(UUID.randomUUID());
+        when(second.getMinPrice()).thenReturn(new BigDecimal("80.00"));
+        when(hotelRepository.findTopRated(PageRequest.of(0, 10))).thenReturn(List.of(best, second));
 
         List<HotelResponse> responses = hotelService.getTopRatedHotels();
 
-        assertNotNull(responses);
         assertEquals(2, responses.size());
-        assertEquals(hotel1.getHotelId(), responses.get(0).getHotelId());
-        assertEquals(hotel2.getHotelId(), responses.get(1).getHotelId());
-
-        verify(hotelRepository).findAll();
-        verify(roomRepository).findAllByHotel_HotelId(hotel1.getHotelId());
-        verify(roomRepository).findAllByHotel_HotelId(hotel2.getHotelId());
-        verify(roomRepository).findAllByHotel_HotelId(hotel3.getHotelId());
-        verify(reviewService, atLeastOnce()).getReviewsByHotel(hotel1.getHotelId());
-        verify(reviewService, atLeastOnce()).getReviewsByHotel(hotel2.getHotelId());
+        assertEquals(best.getHotelId(), responses.get(0).getHotelId());
+        assertEquals(new BigDecimal("100.00"), responses.get(0).getFinalPrice());
+        assertEquals(second.getHotelId(), responses.get(1).getHotelId());
+        verify(hotelRepository, never()).findAll();
+        verifyNoInteractions(roomRepository);
     }
 
     @Test
     void testFindNearbyHotels_Success() {
-        mockHotel.setLatitude(BigDecimal.valueOf(12.9716));
-        mockHotel.setLongitude(BigDecimal.valueOf(77.5946));
-        List<Hotel> hotels = List.of(mockHotel);
-        when(hotelRepository.findAll()).thenReturn(hotels);
+        when(hotelGeoIndex.nearest(12.9716, 77.5946, 5, 50)).thenReturn(List.of(new HotelGeoIndex.Hit(hotelId, 1.5)));
+        when(hotelRepository.findAllById(List.of(hotelId))).thenReturn(List.of(mockHotel));
 
-        List<HotelResponse> responses = hotelService.findNearbyHotels(12.9716, 77.5946, 5);
+        List<HotelResponse> responses = hotelService.findNearbyHotels(12.9716, 77.5946, 5, null, null, 50);
+
+        assertEquals(1, responses.size());
+        assertEquals(hotelId, responses.get(0).getHotelId());
+        assertEquals(1.5, responses.get(0).getDistanceKm());
+        verify(hotelRepository, never()).findAll();
+    }
+
+    @Test
+    void testFindNearbyHotels_FiltersByAvailabilityAndKeepsDistanceOrder() {
+        LocalDate checkIn = LocalDate.now().plusDays(1);
+        LocalDate checkOut = checkIn.plusDays(2);
+        UUID soldOut = UUID.randomUUID();
+        when(hotelGeoIndex.nearest(10.0, 20.0, 5, 1)).thenReturn(List.of(new HotelGeoIndex.Hit(soldOut, 0.5)));
+        when(hotelGeoIndex.nearest(10.0, 20.0, 5, 2)).thenReturn(List.of(
+                new HotelGeoIndex.Hit(soldOut, 0.5),
+                new HotelGeoIndex.Hit(hotelId, 1.0)));
+        when(hotelRepository.findHotelIdsWithFreeRooms(List.of(soldOut), checkIn, checkOut)).thenReturn(List.of());
+        when(hotelRepository.findHotelIdsWithFreeRooms(List.of(hotelId), checkIn, checkOut)).thenReturn(List.of(hotelId));
+        when(hotelRepository.findAllById(List.of(hotelId))).thenReturn(List.of(mockHotel));
+
+        List<HotelResponse> responses = hotelService.findNearbyHotels(10.0, 20.0, 5, checkIn, checkOut, 1);
 
-        assertNotNull(responses);
         assertEquals(1, responses.size());
-        verify(hotelRepository, times(1)).findAll();
+        assertEquals(hotelId, responses.get(0).getHotelId());
+        // Stops at the first free hotel instead of pulling every hotel in the radius
+        verify(hotelGeoIndex, never()).nearest(anyDouble(), anyDouble(), anyDouble(), eq(4));
+        verifyNoInteractions(roomAvailabilityService);
+    }
+
+    @Test
+    void testFindNearbyHotels_StopsWhenTheRadiusHasNoMoreHotels() {
+        LocalDate checkIn = LocalDate.now().plusDays(1);
+        LocalDate checkOut = checkIn.plusDays(2);
+        when(hotelGeoIndex.nearest(10.0, 20.0, 5, 3)).thenReturn(List.of(new HotelGeoIndex.Hit(hotelId, 1.0)));
+        when(hotelRepository.findHotelIdsWithFreeRooms(List.of(hotelId), checkIn, checkOut)).thenReturn(List.of(hotelId));
+        when(hotelRepository.findAllById(List.of(hotelId))).thenReturn(List.of(mockHotel));
+
+        List<HotelResponse> responses = hotelService.findNearbyHotels(10.0, 20.0, 5, checkIn, checkOut, 3);
+
+        assertEquals(1, responses.size());
+        verify(hotelGeoIndex, times(1)).nearest(anyDouble(), anyDouble(), anyDouble(), anyInt());
+    }
+
+    @Test
+    void testFindNearbyHotels_InvalidInput() {
+        LocalDate today = LocalDate.now();
+        assertThrows(BadRequestException.class, () -> hotelService.findNearbyHotels(95, 0, 5, null, null, 10));
+        assertThrows(BadRequestException.class, () -> hotelService.findNearbyHotels(0, 0, 5, today, null, 10));
+        assertThrows(BadRequestException.class, () -> hotelService.findNearbyHotels(0, 0, 5, today, today, 10));
+        verifyNoInteractions(hotelGeoIndex);
+    }
+
+    @Test
+    void testGetMapClusters_MapsGridCells() {
+        when(hotelMapGrid.clusters(40, -10, 60, 30, 4)).thenReturn(List.of(
+                new HotelMapGrid.Cluster(12, 48.8, 2.3, new BigDecimal("75.00"), null),
+                new HotelMapGrid.Cluster(1, 41.9, 12.5, null, hotelId)));
+
+        List<MapClusterResponse> clusters = hotelService.getMapClusters(40, -10, 60, 30, 4);
+
+        assertEquals(2, clusters.size());
+        assertEquals(12, clusters.get(0).getCount());
+        assertEquals(new BigDecimal("75.00"), clusters.get(0).getMinPrice());
+        assertEquals(hotelId, clusters.get(1).getHotelId());
+        assertThrows(BadRequestException.class, () -> hotelService.getMapClusters(60, -10, 40, 30, 4));
+        assertThrows(BadRequestException.class, () -> hotelService.getMapClusters(40, -10, 60, 30, HotelMapGrid.MAX_ZOOM + 1));
     }
 
     @Test
@@ -361,26 +461,91 @@ class HotelServiceImplTest {
         try (MockedStatic<AuthUtil> mockedAuthUtil = mockStatic(AuthUtil.class)) {
             mockedAuthUtil.when(AuthUtil::getCurrentUser).thenReturn(mockOwner);
 
-            when(hotelRepository.findAll()).thenReturn(List.of(mockHotel));
+            when(hotelRepository.findByOwner_UserId(currentUserId)).thenReturn(List.of(mockHotel));
 
             List<HotelResponse> responses = hotelService.getHotelsOwnedByCurrentUser();
 
             assertNotNull(responses);
             assertEquals(1, responses.size());
             assertEquals(mockHotel.getOwner().getUserId(), currentUserId);
-            verify(hotelRepository, times(1)).findAll();
+            verify(hotelRepository, times(1)).findByOwner_UserId(currentUserId);
+            verify(hotelRepository, never()).findAll();
+        }
+    }
+
+    @Test
+    void testGetOwnerPortfolio_CombinesGroupedCounts() {
+        Hotel emptyHotel = Hotel.builder().hotelId(UUID.randomUUID()).name("New Hotel").owner(mockOwner).build();
+        HotelRoomStatsView stats = mock(HotelRoomStatsView.class);
+        when(stats.getHotelId()).thenReturn(hotelId);
+        when(stats.getRoomTypes()).thenReturn(3L);
+        when(stats.getTotalRooms()).thenReturn(25L);
+        when(stats.getAvailableRooms()).thenReturn(7L);
+        HotelCountView pending = mock(HotelCountView.class);
+        when(pending.getHotelId()).thenReturn(hotelId);
+        when(pending.getCount()).thenReturn(4L);
+
+        try (MockedStatic<AuthUtil> mockedAuthUtil = mockStatic(AuthUtil.class)) {
+            mockedAuthUtil.when(AuthUtil::getCurrentUser).thenReturn(mockOwner);
+            when(hotelRepository.findByOwner_UserId(mockOwner.getUserId())).thenReturn(List.of(mockHotel, emptyHotel));
+            when(roomRepository.findRoomStatsByOwnerId(mockOwner.getUserId(), LocalDate.now())).thenReturn(List.of(stats));
+            when(bookingRepository.countByOwnerIdAndStatus(mockOwner.getUserId(), BookingStatus.PENDING)).thenReturn(List.of(pending));
+
+            List<OwnerHotelSummaryResponse> portfolio = hotelService.getOwnerPortfolio();
+
+            assertEquals(2, portfolio.size());
+            OwnerHotelSummaryResponse first = portfolio.get(0);
+            assertEquals(hotelId, first.getHotelId());
+            assertEquals(3, first.getRoomTypes());
+            assertEquals(25, first.getTotalRooms());
+            assertEquals(7, first.getAvailableRoomsToday());
+            assertEquals(4, first.getPendingBookings());
+            OwnerHotelSummaryResponse second = portfolio.get(1);
+            assertEquals(0, second.getTotalRooms());
+            assertEquals(0, second.getPendingBookings());
         }
     }
 
+    @Test
+    void testSearchHotelsByText_MapsIndexPage() {
+        HotelTextIndex.Match match = new HotelTextIndex.Match(hotelId, "Test Hotel", "Test City", null, "India", 2.5);
+        when(hotelTextIndex.search("test", 0, 10)).thenReturn(new PageImpl<>(List.of(match), PageRequest.of(0, 10), 1));
+
+        PagedResponse<HotelTextMatchResponse> result = hotelService.searchHotelsByText("test", 0, 10);
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals(hotelId, result.getContent().get(0).getHotelId());
+        assertEquals(2.5, result.getContent().get(0).getScore());
+        verifyNoInteractions(hotelRepository);
+    }
+
+    @Test
+    void testSearchHotelsByText_InvalidPage_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> hotelService.searchHotelsByText("test", -1, 10));
+        assertThrows(BadRequestException.class, () -> hotelService.searchHotelsByText("test", 0, 0));
+        verifyNoInteractions(hotelTextIndex);
+    }
+
+    @Test
+    void testSearchHotelsByText_OversizedPage_IsCappedAtTheMaximum() {
+        when(hotelTextIndex.search("test", 2, 100)).thenReturn(Page.empty(PageRequest.of(2, 100)));
+
+        assertTrue(hotelService.searchHotelsByText("test", 2, 10_000).getContent().isEmpty());
+    }
+
     @Test
     void testGetAverageRating_Success() {
-        ReviewResponse review1 = ReviewResponse.builder().rating(4).build();
-        ReviewResponse review2 = ReviewResponse.builder().rating(5).build();
-        when(reviewService.getReviewsByHotel(hotelId)).thenReturn(List.of(review1, review2));
+        when(hotelRepository.findAverageRatingById(hotelId)).thenReturn(Optional.of(4.5));
 
         double averageRating = hotelService.getAverageRating(hotelId);
 
         assertEquals(4.5, averageRating);
-        verify(reviewService, times(1)).getReviewsByHotel(hotelId);
+    }
+
+    @Test
+    void testGetAverageRating_HotelNotFound() {
+        when(hotelRepository.findAverageRatingById(hotelId)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> hotelService.getAverageRating(hotelId));
     }
 }
@@ -3,10 +3,15 @@ package com.wissen.hotel.service;
 import com.wissen.hotel.dto.response.PriceCalculationResponse;
 import com.wissen.hotel.dto.request.PriceSimulationRequest;
 import com.wissen.hotel.dto.response.PriceSimulationResult;
+import com.wissen.hotel.dto.response.RateGridResponse;
+import com.wissen.hotel.dto.response.RoomAvailabilityCalendarResponse;
 import com.wissen.hotel.enums.PricingRuleType;
+import com.wissen.hotel.exception.BadRequestException;
+import com.wissen.hotel.exception.ResourceNotFoundException;
 import com.wissen.hotel.model.Hotel;
 import com.wissen.hotel.model.PricingRule;
 import com.wissen.hotel.model.Room;
+import com.wissen.hotel.repository.HotelRepository;
 import com.wissen.hotel.repository.PricingRuleRepository;
 import com.wissen.hotel.repository.RoomRepository;
 import com.wissen.hotel.service.impl.PricingEngineServiceImpl;
@@ -32,6 +37,8 @@ class PricingEngineServiceImplTest {
     @Mock
     private RoomRepository roomRepository;
     @Mock
+    private HotelRepository hotelRepository;
+    @Mock
     private PricingRuleRepository pricingRuleRepository;
     @Mock
     private RoomAvailabilityService roomAvailabilityService;
@@ -58,12 +65,105 @@ class PricingEngineServiceImplTest {
         // Re-initialize pricingEngine with the mock clock
         pricingEngine = new PricingEngineServiceImpl(
                 roomRepository,
+                hotelRepository,
                 pricingRuleRepository,
                 roomAvailabilityService,
                 clock
         );
     }
 
+    @Test
+    void getRateGrid_pricesEveryRoomAndNightFromOneLoad() {
+        Room suite = new Room();
+        suite.setRoomId(UUID.randomUUID());
+        suite.setBasePrice(new BigDecimal("250.00"));
+        suite.setTotalRooms(2);
+        testRoom.setTotalRooms(8);
+        PricingRule weekendRule = createRule(PricingRuleType.WEEKEND, 10.0);
+        weekendRule.setRuleId(UUID.randomUUID());
+        PricingRule peakRule = createRule(PricingRuleType.PEAK, 20.0);
+        peakRule.setRuleId(UUID.randomUUID());
+        PricingRule festivalRule = createDateRule(PricingRuleType.SEASONAL, 50.0,
+                LocalDate.of(2025, 6, 9), LocalDate.of(2025, 6, 9));
+        festivalRule.setRuleId(UUID.randomUUID());
+        when(hotelRepository.existsById(hotelId)).thenReturn(true);
+        when(roomRepository.findAllByHotel_HotelId(hotelId)).thenReturn(List.of(testRoom, suite));
+        when(pricingRuleRepository.findByHotel_HotelId(hotelId)).thenReturn(List.of(weekendRule, peakRule, festivalRule));
+
+        // Fri 6, Sat 7, Sun 8, Mon 9 June 2025; Friday is nearly sold out
+        LocalDate start = LocalDate.of(2025, 6, 6);
+        RoomAvailabilityCalendarResponse calendar = RoomAvailabilityCalendarResponse.builder()
+                .startDate(start)
+                .endDate(start.plusDays(4))
+                .rooms(List.of(
+                        RoomAvailabilityCalendarResponse.RoomNights.builder()
+                                .roomId(roomId).totalRooms(8).availableRooms(List.of(1, 8, 8, 8)).build(),
+                        RoomAvailabilityCalendarResponse.RoomNights.builder()
+                                .roomId(suite.getRoomId()).totalRooms(2).availableRooms(List.of(0, 2, 1, 2)).build()))
+                .build();
+        when(roomAvailabilityService.getAvailabilityCalendar(null, hotelId, start, start.plusDays(4)))
+                .thenReturn(calendar);
+        when(roomAvailabilityService.getHotelOccupancySeries(hotelId, start, start.plusDays(4)))
+                .thenReturn(new double[] {0.9, 0.0, 0.1, 0.0});
+
+        RateGridResponse grid = pricingEngine.getRateGrid(hotelId, start, 4);
+
+        assertEquals(List.of(start, start.plusDays(1), start.plusDays(2), start.plusDays(3)), grid.getDates());
+        assertEquals(0.9, grid.getOccupancy().get(0), 1e-9);
+        assertEquals(List.of(peakRule.getRuleId()), grid.getAppliedRuleIds().get(0));
+        assertEquals(List.of(festivalRule.getRuleId()), grid.getAppliedRuleIds().get(3));
+        assertEquals(List.of(new BigDecimal("120.00"), new BigDecimal("110.00"), new BigDecimal("110.00"), new BigDecimal("150.00")),
+                grid.getRooms().get(0).getPrices());
+        assertEquals(List.of(new BigDecimal("300.00"), new BigDecimal("275.00"), new BigDecimal("275.00"), new BigDecimal("375.00")),
+                grid.getRooms().get(1).getPrices());
+        assertEquals(List.of(0, 2, 1, 2), grid.getRooms().get(1).getAvailableRooms());
+        verify(pricingRuleRepository, never()).findByHotelAndDateRange(any(), any(), any());
+        verify(roomAvailabilityService, never()).getHotelAvailabilityRatio(any(), any(), any());
+    }
+
+    @Test
+    void getRateGrid_rejectsBadRange() {
+        assertThrows(BadRequestException.class, () -> pricingEngine.getRateGrid(hotelId, LocalDate.now(), 0));
+        assertThrows(BadRequestException.class, () -> pricingEngine.getRateGrid(hotelId, null, 7));
+        verifyNoInteractions(roomRepository, pricingRuleRepository, roomAvailabilityService);
+    }
+
+    @Test
+    void getRateGrid_unknownHotel_ThrowsNotFound() {
+        when(hotelRepository.existsById(hotelId)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> pricingEngine.getRateGrid(hotelId, LocalDate.now(), 7));
+        verifyNoInteractions(roomRepository, pricingRuleRepository, roomAvailabilityService);
+    }
+
+    @Test
+    void getRateGrid_hotelWithMoreRoomsThanACalendarRequestTakes_ReadsTheCalendarByHotel() {
+        List<Room> rooms = new ArrayList<>();
+        List<RoomAvailabilityCalendarResponse.RoomNights> nights = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            Room room = new Room();
+            room.setRoomId(UUID.randomUUID());
+            room.setBasePrice(new BigDecimal("100.00"));
+            room.setTotalRooms(1);
+            rooms.add(room);
+            nights.add(RoomAvailabilityCalendarResponse.RoomNights.builder()
+                    .roomId(room.getRoomId()).totalRooms(1).availableRooms(List.of(1, 0)).build());
+        }
+        LocalDate start = LocalDate.of(2025, 6, 2);
+        when(hotelRepository.existsById(hotelId)).thenReturn(true);
+        when(roomRepository.findAllByHotel_HotelId(hotelId)).thenReturn(rooms);
+        when(roomAvailabilityService.getAvailabilityCalendar(null, hotelId, start, start.plusDays(2)))
+                .thenReturn(RoomAvailabilityCalendarResponse.builder().rooms(nights).build());
+        when(roomAvailabilityService.getHotelOccupancySeries(hotelId, start, start.plusDays(2)))
+                .thenReturn(new double[] {0.0, 0.5});
+
+        RateGridResponse grid = pricingEngine.getRateGrid(hotelId, start, 2);
+
+        assertEquals(250, grid.getRooms().size());
+        assertEquals(List.of(1, 0), grid.getRooms().get(249).getAvailableRooms());
+        verify(roomAvailabilityService, never()).getAvailabilityCalendar(anyCollection(), any(), any(), any());
+    }
+
     private PricingRule createRule(PricingRuleType type, double value) {
         PricingRule rule = new PricingRule();
         rule.setRuleType(type);
@@ -124,7 +224,7 @@ class PricingEngineServiceImplTest {
 
         when(roomRepository.findById(roomId)).thenReturn(Optional.of(testRoom));
         when(pricingRuleRepository.findByHotel_HotelId(hotelId)).thenReturn(List.of(peakRule, lastMinuteRule, weekendRule));
-        when(roomAvailabilityService.getHotelAvailabilityRatio(any(), any(), any())).thenReturn(0.15); // Triggers PEAK
+        when(roomAvailabilityService.getHotelOccupancySeries(any(), any(), any())).thenReturn(new double[] {0.85}); // Triggers PEAK
 
         // Stay: May 31 (Sat) to June 1 (Sun) → 1 night with 1 weekend night
         LocalDate checkIn = LocalDate.of(2025, 5, 31);
@@ -172,8 +272,8 @@ class PricingEngineServiceImplTest {
 
     @Test
     void applyPricingRules_peakRule_notTriggeredAtThreshold() {
-        when(roomAvailabilityService.getHotelAvailabilityRatio(any(), any(), any()))
-                .thenReturn(0.25); // Above 0.2 threshold
+        when(roomAvailabilityService.getHotelOccupancySeries(any(), any(), any()))
+                .thenReturn(new double[] {0.75}); // Availability above the 0.2 threshold
         
         BigDecimal price = pricingEngine.applyPricingRules(
                 new BigDecimal("100.00"),
@@ -264,8 +364,8 @@ class PricingEngineServiceImplTest {
                 LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 1));
         
         when(roomRepository.findById(roomId)).thenReturn(Optional.of(testRoom));
-        when(roomAvailabilityService.getHotelAvailabilityRatio(any(), any(), any()))
-                .thenReturn(0.15);
+        when(roomAvailabilityService.getHotelOccupancySeries(any(), any(), any()))
+                .thenReturn(new double[] {0.85});
         when(pricingRuleRepository.findByHotelAndDateRange(eq(hotelId), any(), any()))
                 .thenReturn(List.of(dateRule));
         when(pricingRuleRepository.findByHotel_HotelId(hotelId))
@@ -2,6 +2,7 @@ package com.wissen.hotel.service;
 
 import com.wissen.hotel.dto.request.PricingRuleRequest;
 import com.wissen.hotel.enums.PricingRuleType;
+import com.wissen.hotel.event.PricingRuleChangedEvent;
 import com.wissen.hotel.exception.EntityNotFoundException;
 import com.wissen.hotel.model.Hotel;
 import com.wissen.hotel.model.PricingRule;
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -32,6 +34,9 @@ class PricingRuleServiceImplTest {
     @Mock
     private HotelRepository hotelRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PricingRuleServiceImpl pricingRuleService;
 
@@ -77,6 +82,7 @@ class PricingRuleServiceImplTest {
         assertEquals(PricingRuleType.WEEKEND, result.getRuleType());
         assertEquals(15, result.getRuleValue());
         verify(pricingRuleRepository).save(any());
+        verify(eventPublisher).publishEvent(new PricingRuleChangedEvent(hotelId, null));
     }
 
     @Test
@@ -220,6 +226,18 @@ class PricingRuleServiceImplTest {
         pricingRuleService.deleteRule(ruleId);
         
         verify(pricingRuleRepository).deleteById(ruleId);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteRule_ShouldPublishChangeForTheRulesHotel() {
+        hotel.setCity("Goa");
+        when(pricingRuleRepository.findById(ruleId)).thenReturn(Optional.of(existingRule));
+
+        pricingRuleService.deleteRule(ruleId);
+
+        verify(pricingRuleRepository).deleteById(ruleId);
+        verify(eventPublisher).publishEvent(new PricingRuleChangedEvent(hotelId, "Goa"));
     }
 
     @Test
@@ -1,8 +1,10 @@
 package com.wissen.hotel.service;
 
 import com.wissen.hotel.dto.request.CreateReviewRequest;
+import com.wissen.hotel.dto.response.CursorPage;
 import com.wissen.hotel.dto.response.ReviewResponse;
 import com.wissen.hotel.enums.UserRole;
+import com.wissen.hotel.exception.BadRequestException;
 import com.wissen.hotel.exception.ResourceNotFoundException;
 import com.wissen.hotel.model.*;
 import com.wissen.hotel.repository.HotelRepository;
@@ -17,6 +19,7 @@ import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.time.LocalDateTime;
@@ -24,6 +27,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -98,6 +102,7 @@ void setUp() {
             
             verify(hotelRepository).findById(hotelId);
             verify(reviewRepository).save(any(Review.class));
+            verify(hotelRepository).addRating(hotelId, 5);
         }
     }
 
@@ -137,21 +142,53 @@ void setUp() {
     @Test
     void getReviewsByHotel_ShouldReturnReviewList() {
         List<Review> reviews = Collections.singletonList(review);
-        when(reviewRepository.findByHotel_HotelId(hotelId)).thenReturn(reviews);
+        when(reviewRepository.findNewestByHotelId(hotelId, PageRequest.of(0, 11))).thenReturn(reviews);
 
-        List<ReviewResponse> responses = reviewService.getReviewsByHotel(hotelId);
+        CursorPage<ReviewResponse> responses = reviewService.getReviewsByHotel(hotelId, null, 10);
 
-        assertEquals(1, responses.size());
-        assertEquals(reviewId, responses.get(0).getReviewId());
+        assertEquals(1, responses.getContent().size());
+        assertEquals(reviewId, responses.getContent().get(0).getReviewId());
+        assertFalse(responses.isHasNext());
+        assertNull(responses.getNextCursor());
     }
 
     @Test
     void getReviewsByHotel_ShouldReturnEmptyList() {
-        when(reviewRepository.findByHotel_HotelId(hotelId)).thenReturn(Collections.emptyList());
+        when(reviewRepository.findNewestByHotelId(hotelId, PageRequest.of(0, 11))).thenReturn(Collections.emptyList());
 
-        List<ReviewResponse> responses = reviewService.getReviewsByHotel(hotelId);
+        CursorPage<ReviewResponse> responses = reviewService.getReviewsByHotel(hotelId, null, 10);
 
-        assertTrue(responses.isEmpty());
+        assertTrue(responses.getContent().isEmpty());
+    }
+
+    @Test
+    void getReviewsByHotel_ShouldContinueAfterTheCursor() {
+        Review older = Review.builder()
+                .reviewId(UUID.randomUUID())
+                .user(user)
+                .hotel(hotel)
+                .rating(3)
+                .createdAt(review.getCreatedAt().minusDays(1))
+                .build();
+        when(reviewRepository.findNewestByHotelId(hotelId, PageRequest.of(0, 2))).thenReturn(List.of(review, older));
+
+        CursorPage<ReviewResponse> first = reviewService.getReviewsByHotel(hotelId, null, 1);
+
+        assertTrue(first.isHasNext());
+        assertEquals(List.of(reviewId), first.getContent().stream().map(ReviewResponse::getReviewId).toList());
+        when(reviewRepository.findByHotelIdBefore(hotelId, review.getCreatedAt(), reviewId, PageRequest.of(0, 2)))
+                .thenReturn(List.of(older));
+
+        CursorPage<ReviewResponse> second = reviewService.getReviewsByHotel(hotelId, first.getNextCursor(), 1);
+
+        assertFalse(second.isHasNext());
+        assertEquals(older.getReviewId(), second.getContent().get(0).getReviewId());
+    }
+
+    @Test
+    void getReviewsByHotel_ShouldRejectMalformedCursor() {
+        assertThrows(BadRequestException.class, () -> reviewService.getReviewsByHotel(hotelId, "not-a-cursor", 10));
+        verifyNoInteractions(reviewRepository);
     }
 
     @Test
@@ -163,6 +200,7 @@ void setUp() {
             reviewService.deleteReview(reviewId);
 
             verify(reviewRepository).deleteById(reviewId);
+            verify(hotelRepository).removeRating(hotelId, 4);
         }
     }
 
@@ -196,6 +234,7 @@ void setUp() {
 
             assertThrows(AccessDeniedException.class, () -> reviewService.deleteReview(reviewId));
             verify(reviewRepository, never()).deleteById(any());
+            verify(hotelRepository, never()).removeRating(any(), anyInt());
         }
     }
 
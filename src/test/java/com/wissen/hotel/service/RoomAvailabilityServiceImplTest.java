@@ -1,28 +1,69 @@
 package com.wissen.hotel.service;
 
+import com.wissen.hotel.cache.HotelSearchCache;
 import com.wissen.hotel.dto.request.BlockRoomRequest;
+import com.wissen.hotel.dto.request.PlaceHoldRequest;
 import com.wissen.hotel.dto.request.UpdateInventoryRequest;
+import com.wissen.hotel.dto.response.AvailabilityIndexConsistencyResponse;
+import com.wissen.hotel.dto.response.HotelSearchResponse;
+import com.wissen.hotel.dto.response.InventoryHoldResponse;
+import com.wissen.hotel.dto.response.RoomAvailabilityCalendarResponse;
+import com.wissen.hotel.event.InventoryChangedEvent;
+import com.wissen.hotel.event.RoomChangedEvent;
+import com.wissen.hotel.exception.BadRequestException;
 import com.wissen.hotel.exception.ResourceNotFoundException;
-import com.wissen.hotel.model.Booking;
+import com.wissen.hotel.index.HoldTimingWheel;
+import com.wissen.hotel.index.RoomAvailabilityIndex;
+import com.wissen.hotel.lock.RoomLockManager;
+import com.wissen.hotel.lock.RoomWriteOrder;
+import com.wissen.hotel.lock.RoomWriteSequencer;
+import com.wissen.hotel.model.Hotel;
+import com.wissen.hotel.model.InventoryHold;
 import com.wissen.hotel.model.Room;
 import com.wissen.hotel.model.RoomAvailability;
+import com.wissen.hotel.model.User;
 import com.wissen.hotel.repository.BookingRepository;
+import com.wissen.hotel.repository.HotelDailyOccupancyRepository;
+import com.wissen.hotel.repository.InventoryHoldRepository;
 import com.wissen.hotel.repository.RoomAvailabilityRepository;
 import com.wissen.hotel.repository.RoomRepository;
+import com.wissen.hotel.repository.projection.AvailabilityCell;
+import com.wissen.hotel.repository.projection.OccupancyCell;
+import com.wissen.hotel.repository.projection.RoomInventoryView;
+import com.wissen.hotel.repository.projection.StayView;
 import com.wissen.hotel.service.impl.RoomAvailabilityServiceImpl;
+import com.wissen.hotel.util.AuthUtil;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -41,6 +82,33 @@ class RoomAvailabilityServiceImplTest {
 
     @Mock
     private BookingRepository bookingRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private RoomAvailabilityIndex availabilityIndex = new RoomAvailabilityIndex(Clock.systemDefaultZone(), 30);
+
+    private static final Instant HOLD_NOW = Instant.parse("2030-01-01T12:00:00Z");
+
+    @Mock
+    private InventoryHoldRepository holdRepository;
+
+    @Mock
+    private HotelDailyOccupancyRepository occupancyRepository;
+
+    @Spy
+    private HoldTimingWheel holdWheel = new HoldTimingWheel(Clock.fixed(HOLD_NOW, ZoneOffset.UTC), 1000, 64);
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private RoomWriteOrder roomWriteOrder = new RoomWriteOrder(new RoomLockManager(new SimpleMeterRegistry(), 16, 1000),
+        new RoomWriteSequencer(new SimpleMeterRegistry(), List.of(), 1, 8, 1000));
+
+    @Mock
+    private Clock clock;
     
     private UUID roomId;
     private UUID hotelId;
@@ -55,6 +123,13 @@ class RoomAvailabilityServiceImplTest {
         room = new Room();
         room.setRoomId(roomId);
         room.setTotalRooms(10);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
     }
 
     @Test
@@ -112,34 +187,111 @@ class RoomAvailabilityServiceImplTest {
     }
 
     @Test
-    void updateInventory_ShouldCreateNewAvailabilityRecord() {
+    void updateInventory_ShouldCreateMissingNightAndTakeRoomsWithOneConditionalUpdate() {
         UpdateInventoryRequest request = new UpdateInventoryRequest(today, 3);
         when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
-        when(availabilityRepository.findByRoom_RoomIdAndDate(roomId, today))
-            .thenReturn(null);
-        
+        when(availabilityRepository.takeRooms(roomId, today, today.plusDays(1), 3)).thenReturn(1);
+
         service.updateInventory(roomId, request);
-        
-        verify(availabilityRepository).save(argThat(a -> 
-            a.getAvailableRooms() == 7 && 
-            a.getDate().equals(today)
-        ));
+
+        verify(availabilityRepository).insertMissingNights(roomId, today, 1, 10);
+        verify(availabilityRepository).takeRooms(roomId, today, today.plusDays(1), 3);
+        verify(availabilityRepository, never()).findByRoom_RoomIdAndDate(any(), any());
+        verify(availabilityRepository, never()).save(any());
+    }
+
+    @Test
+    void updateInventory_ShouldMirrorTheIndexOnlyAfterTheCommit() {
+        UpdateInventoryRequest request = new UpdateInventoryRequest(today, 3);
+        mockNightAfterBooking(request, 7);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.updateInventory(roomId, request);
+            verify(availabilityIndex, never()).set(any(), any(), anyInt());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(availabilityIndex).set(roomId, today, 7);
     }
 
     @Test
-    void updateInventory_ShouldUpdateExistingAvailabilityRecord() {
+    void updateInventory_ShouldLeaveTheIndexAloneWhenTheTransactionRollsBack() {
+        UpdateInventoryRequest request = new UpdateInventoryRequest(today, 3);
+        mockNightAfterBooking(request, 7);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.updateInventory(roomId, request);
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync ->
+                sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(availabilityIndex, never()).set(any(), any(), anyInt());
+    }
+
+    @Test
+    void updateInventory_ShouldNotLetASearchStartedBeforeTheCommitBeCached() {
+        HotelSearchCache cache = new HotelSearchCache(Clock.systemDefaultZone(), new SimpleMeterRegistry(), 100, 60);
+        doAnswer(invocation -> {
+            cache.onInventoryChanged(invocation.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(InventoryChangedEvent.class));
+        UpdateInventoryRequest request = new UpdateInventoryRequest(today, 3);
+        mockNightAfterBooking(request, 7);
+        HotelSearchCache.Key key = HotelSearchCache.Key.of("Goa", today, today.plusDays(1), 2, 0, 10, false);
+
+        TransactionSynchronizationManager.initSynchronization();
+        long generation;
+        try {
+            service.updateInventory(roomId, request);
+            // A search starting now still reads the rows from before the booking
+            generation = cache.generation();
+            verify(eventPublisher, never()).publishEvent(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cache.put(key, HotelSearchResponse.builder().hotels(List.of()).build(), generation);
+
+        assertNull(cache.get(key));
+    }
+
+    private void mockNightAfterBooking(UpdateInventoryRequest request, int availableRooms) {
+        AvailabilityCell night = mock(AvailabilityCell.class);
+        when(night.getDate()).thenReturn(request.getDate());
+        when(night.getAvailableRooms()).thenReturn(availableRooms);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+        when(availabilityRepository.takeRooms(roomId, today, today.plusDays(1), request.getRoomsToBook())).thenReturn(1);
+        when(availabilityRepository.findCellsForRoom(roomId, today, today.plusDays(1))).thenReturn(List.of(night));
+    }
+
+    @Test
+    void updateInventory_ShouldThrowWhenNightHasTooFewRoomsLeft() {
         UpdateInventoryRequest request = new UpdateInventoryRequest(today, 2);
-        RoomAvailability existing = new RoomAvailability();
-        existing.setAvailableRooms(5);
-        
         when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
-        when(availabilityRepository.findByRoom_RoomIdAndDate(roomId, today))
-            .thenReturn(existing);
-        
+        when(availabilityRepository.takeRooms(roomId, today, today.plusDays(1), 2)).thenReturn(0);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> service.updateInventory(roomId, request));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updateInventory_ShouldGiveRoomsBackCappedAtTotalRooms() {
+        UpdateInventoryRequest request = new UpdateInventoryRequest(today, -2);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+
         service.updateInventory(roomId, request);
-        
-        assertEquals(3, existing.getAvailableRooms());
-        verify(availabilityRepository).save(existing);
+
+        verify(availabilityRepository).returnRooms(roomId, today, today.plusDays(1), 2, 10);
+        verify(availabilityRepository, never()).takeRooms(any(), any(), any(), anyInt());
     }
 
     @Test
@@ -151,6 +303,39 @@ class RoomAvailabilityServiceImplTest {
             () -> service.updateInventory(roomId, request));
     }
 
+    @Test
+    void reserveRange_ShouldTakeAWholeStayWithOneInsertAndOneUpdate() {
+        LocalDate checkOut = today.plusDays(14);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+        when(availabilityRepository.takeRooms(roomId, today, checkOut, 2)).thenReturn(14);
+
+        service.reserveRange(roomId, today, checkOut, 2);
+
+        verify(roomRepository, times(1)).findById(roomId);
+        verify(availabilityRepository, times(1)).insertMissingNights(roomId, today, 14, 10);
+        verify(availabilityRepository, times(1)).takeRooms(roomId, today, checkOut, 2);
+        verify(availabilityRepository, times(1)).findCellsForRoom(roomId, today, checkOut);
+        verify(eventPublisher, times(1)).publishEvent(new InventoryChangedEvent(roomId, null, null, today, checkOut));
+    }
+
+    @Test
+    void reserveRange_ShouldFailWhenOneNightIsSoldOut() {
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+        when(availabilityRepository.takeRooms(roomId, today, today.plusDays(3), 1)).thenReturn(2);
+
+        assertThrows(IllegalArgumentException.class, () -> service.reserveRange(roomId, today, today.plusDays(3), 1));
+        assertThrows(IllegalArgumentException.class, () -> service.reserveRange(roomId, today, today, 1));
+    }
+
+    @Test
+    void releaseRange_ShouldGiveRoomsBackForTheWholeStay() {
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+
+        service.releaseRange(roomId, today, today.plusDays(5), 3);
+
+        verify(availabilityRepository).returnRooms(roomId, today, today.plusDays(5), 3, 10);
+    }
+
     @Test
     void blockRoomDates_ShouldCreateNewBlockedRecords() {
         BlockRoomRequest request = new BlockRoomRequest(today, today.plusDays(2));
@@ -160,82 +345,160 @@ class RoomAvailabilityServiceImplTest {
         
         verify(availabilityRepository, times(3))
             .save(argThat(a -> a.getAvailableRooms() == 0));
+        verify(eventPublisher).publishEvent(new InventoryChangedEvent(roomId, null, null, today, today.plusDays(3)));
     }
 
     @Test
     void unblockRoomDates_ShouldRestoreAvailabilityBasedOnBookings() {
         LocalDate endDate = today.plusDays(2);
         BlockRoomRequest request = new BlockRoomRequest(today, endDate);
+        loadIndex(List.of());
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+        List<StayView> bookings = List.of(stay(today.minusDays(1), today.plusDays(1), 2), stay(today.plusDays(1), today.plusDays(5), 3));
+        when(bookingRepository.findActiveStays(roomId, today, today.plusDays(3))).thenReturn(bookings);
+        List<StayView> holds = List.of(stay(today.plusDays(2), today.plusDays(4), 1));
+        when(holdRepository.findStays(roomId, today, today.plusDays(3))).thenReturn(holds);
 
-        Room testRoom = new Room();
-        testRoom.setRoomId(roomId);
-        testRoom.setTotalRooms(10);
-        when(roomRepository.findById(roomId)).thenReturn(Optional.of(testRoom));
+        service.unblockRoomDates(roomId, request);
 
-        Booking booking1 = new Booking();
-        booking1.setCheckIn(today);
-        booking1.setCheckOut(today.plusDays(1));
-        booking1.setRoomsBooked(2);
+        verify(availabilityRepository).upsertNights(eq(roomId), eq(today), argThat(available ->
+            Arrays.equals(available, new int[] {8, 7, 6})));
+        verify(availabilityRepository, never()).save(any());
+        verify(bookingRepository, never()).findByRoom_RoomId(any());
+        assertEquals(6, availabilityIndex.available(roomId, today.plusDays(2)));
+    }
 
-        Booking booking2 = new Booking();
-        booking2.setCheckIn(today.plusDays(1));
-        booking2.setCheckOut(today.plusDays(2));
-        List<Booking> bookings = Arrays.asList(booking1, booking2);
-        when(bookingRepository.findByRoom_RoomId(roomId)).thenReturn(bookings);
+    @Test
+    void generateAvailabilityHorizon_ShouldFillTheHorizonOneBatchOfRoomsAtATime() {
+        when(clock.instant()).thenReturn(HOLD_NOW);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        ReflectionTestUtils.setField(service, "generationBatchRooms", 2);
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        List<RoomInventoryView> rooms = new ArrayList<>();
+        for (UUID id : List.of(roomId, second, third)) {
+            RoomInventoryView view = mock(RoomInventoryView.class);
+            when(view.getRoomId()).thenReturn(id);
+            rooms.add(view);
+        }
+        when(roomRepository.findAllInventoryViews()).thenReturn(rooms);
+        LocalDate from = LocalDate.of(2030, 1, 1);
+        when(availabilityRepository.generateNights(anyList(), eq(from), eq(400))).thenReturn(2, 1);
 
-        when(availabilityRepository.findByRoom_RoomIdAndDate(eq(roomId), any(LocalDate.class)))
-            .thenReturn(null);
+        service.generateAvailabilityHorizon();
 
-        service.unblockRoomDates(roomId, request);
+        verify(availabilityRepository).generateNights(List.of(roomId, second), from, 400);
+        verify(availabilityRepository).generateNights(List.of(third), from, 400);
+        verify(transactionTemplate, times(2)).execute(any());
+    }
 
-        verify(availabilityRepository, times(3)).save(argThat(availability -> 
-            availability.getRoom().getRoomId().equals(roomId) &&
-            (availability.getDate().equals(today) || 
-             availability.getDate().equals(today.plusDays(1)) || 
-             availability.getDate().equals(today.plusDays(2)))
-        ));
+    @Test
+    void backfillRoom_ShouldMoveExistingNightsByTheChangeAndCreateTheMissingOnes() {
+        when(clock.instant()).thenReturn(HOLD_NOW);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+        LocalDate from = LocalDate.of(2030, 1, 1);
+
+        service.backfillRoom(roomId, 6);
+
+        verify(availabilityRepository).shiftRooms(roomId, from, 4, 10);
+        verify(availabilityRepository).generateNights(List.of(roomId), from, 400);
+        assertTrue(availabilityIndex.isIndexed(roomId));
+    }
+
+    @Test
+    void backfillRoom_ShouldOnlyCreateNightsWhenTheTotalIsUnchanged() {
+        when(clock.instant()).thenReturn(HOLD_NOW);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+
+        service.backfillRoom(roomId, 10);
+
+        verify(availabilityRepository, never()).shiftRooms(any(), any(), anyInt(), anyInt());
+        verify(availabilityRepository).generateNights(List.of(roomId), LocalDate.of(2030, 1, 1), 400);
+    }
+
+    @Test
+    void deleteRoomInventory_ShouldDeleteTheHoldsAndNightsOfTheRoom() {
+        service.deleteRoomInventory(roomId);
+
+        verify(holdRepository).deleteByRoomId(roomId);
+        verify(availabilityRepository).deleteByRoomId(roomId);
     }
 
     @Test
     void getHotelAvailabilityRatio_ShouldCalculateCorrectRatio() {
-        List<Room> rooms = List.of(
-            createRoomWithTotal(5),
-            createRoomWithTotal(5)
-        );
         LocalDate checkIn = today;
         LocalDate checkOut = today.plusDays(2);
-        
-        when(roomRepository.findAllByHotel_HotelId(hotelId)).thenReturn(rooms);
-        when(availabilityRepository.findByRoom_RoomIdAndDate(any(), any()))
-            .thenReturn(null);
-        
+        List<OccupancyCell> series = List.of(occupancyCell(10, 10), occupancyCell(10, 10));
+        when(occupancyRepository.findSeries(hotelId, checkIn, 2)).thenReturn(series);
+
         double ratio = service.getHotelAvailabilityRatio(hotelId, checkIn, checkOut);
-        
+
         assertEquals(1.0, ratio);
+        verifyNoInteractions(availabilityRepository);
     }
 
     @Test
     void getHotelAvailabilityRatio_ShouldHandlePartialAvailability() {
-        List<Room> rooms = List.of(createRoomWithTotal(5));
         LocalDate checkIn = today;
         LocalDate checkOut = today.plusDays(1);
-        
-        RoomAvailability availability = new RoomAvailability();
-        availability.setAvailableRooms(3);
-        
-        when(roomRepository.findAllByHotel_HotelId(hotelId)).thenReturn(rooms);
-        when(availabilityRepository.findByRoom_RoomIdAndDate(any(), any()))
-            .thenReturn(availability);
-        
+        List<OccupancyCell> series = List.of(occupancyCell(5, 3));
+        when(occupancyRepository.findSeries(hotelId, checkIn, 1)).thenReturn(series);
+
         double ratio = service.getHotelAvailabilityRatio(hotelId, checkIn, checkOut);
         assertEquals(0.6, ratio, 0.01);
     }
 
-    private Room createRoomWithTotal(int totalRooms) {
-        Room r = new Room();
-        r.setRoomId(UUID.randomUUID());
-        r.setTotalRooms(totalRooms);
-        return r;
+    @Test
+    void getHotelOccupancySeries_ShouldReturnTheTakenShareOfEveryNight() {
+        List<OccupancyCell> series = List.of(occupancyCell(8, 8), occupancyCell(8, 2), occupancyCell(8, 0));
+        when(occupancyRepository.findSeries(hotelId, today, 3)).thenReturn(series);
+
+        double[] occupancy = service.getHotelOccupancySeries(hotelId, today, today.plusDays(3));
+
+        assertArrayEquals(new double[] {0.0, 0.75, 1.0}, occupancy, 1e-9);
+    }
+
+    @Test
+    void reserveRange_ShouldRefreshTheHotelsDailyOccupancyForTheStay() {
+        Hotel hotel = new Hotel();
+        hotel.setHotelId(hotelId);
+        room.setHotel(hotel);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+        when(availabilityRepository.takeRooms(roomId, today, today.plusDays(3), 1)).thenReturn(3);
+
+        service.reserveRange(roomId, today, today.plusDays(3), 1);
+
+        InOrder inOrder = inOrder(occupancyRepository);
+        inOrder.verify(occupancyRepository).lockNights(hotelId, today, 3);
+        inOrder.verify(occupancyRepository).refreshNights(hotelId, today, 3);
+    }
+
+    @Test
+    void onRoomChanged_ShouldRefreshTheHotelsAggregatedNights() {
+        when(clock.instant()).thenReturn(HOLD_NOW);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+
+        when(occupancyRepository.findLastNight(hotelId)).thenReturn(LocalDate.of(2030, 1, 10));
+        when(occupancyRepository.findLastAvailabilityNight(hotelId)).thenReturn(LocalDate.of(2031, 2, 4));
+
+        service.onRoomChanged(new RoomChangedEvent(roomId, hotelId, null));
+
+        InOrder inOrder = inOrder(occupancyRepository);
+        inOrder.verify(occupancyRepository).lockNights(hotelId, LocalDate.of(2030, 1, 1), 400);
+        inOrder.verify(occupancyRepository).refreshNights(hotelId, LocalDate.of(2030, 1, 1), 400);
+    }
+
+    @Test
+    void onRoomChanged_ShouldSkipHotelsWithoutUpcomingNights() {
+        when(clock.instant()).thenReturn(HOLD_NOW);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(occupancyRepository.findLastNight(hotelId)).thenReturn(LocalDate.of(2029, 12, 31));
+
+        service.onRoomChanged(new RoomChangedEvent(roomId, hotelId, null));
+
+        verify(occupancyRepository, never()).lockNights(any(), any(), anyInt());
     }
 
     @Test
@@ -249,8 +512,331 @@ class RoomAvailabilityServiceImplTest {
 
     @Test
     void getHotelAvailabilityRatio_ShouldReturnZeroForNoRooms() {
-        when(roomRepository.findAllByHotel_HotelId(hotelId)).thenReturn(Collections.emptyList());
+        List<OccupancyCell> series = List.of(occupancyCell(0, 0));
+        when(occupancyRepository.findSeries(hotelId, today, 1)).thenReturn(series);
         double ratio = service.getHotelAvailabilityRatio(hotelId, today, today.plusDays(1));
         assertEquals(0.0, ratio);
     }
+
+    @Test
+    void getAvailabilityCalendar_ShouldFillMissingNightsFromTotalRoomsWithOneQuery() {
+        UUID otherRoomId = UUID.randomUUID();
+        List<RoomInventoryView> rooms = List.of(inventoryView(roomId, 10), inventoryView(otherRoomId, 3));
+        when(roomRepository.findInventoryViewsByHotelIds(List.of(hotelId))).thenReturn(rooms);
+        List<AvailabilityCell> rows = List.of(cell(roomId, today.plusDays(1), 4), cell(otherRoomId, today, 0));
+        when(availabilityRepository.findCellsForRooms(any(), eq(today), eq(today.plusDays(3)))).thenReturn(rows);
+
+        RoomAvailabilityCalendarResponse calendar = service.getAvailabilityCalendar(null, hotelId, today, today.plusDays(3));
+
+        assertEquals(2, calendar.getRooms().size());
+        assertEquals(List.of(10, 4, 10), calendar.getRooms().get(0).getAvailableRooms());
+        assertEquals(List.of(0, 3, 3), calendar.getRooms().get(1).getAvailableRooms());
+        verify(availabilityRepository, times(1)).findCellsForRooms(any(), any(), any());
+    }
+
+    @Test
+    void getAvailabilityCalendar_ShouldRejectUnknownRoomsAndBadInput() {
+        UUID unknownRoomId = UUID.randomUUID();
+        List<RoomInventoryView> found = List.of(inventoryView(roomId, 10));
+        when(roomRepository.findInventoryViewsByRoomIds(any())).thenReturn(found);
+
+        assertThrows(ResourceNotFoundException.class,
+            () -> service.getAvailabilityCalendar(List.of(roomId, unknownRoomId), null, today, today.plusDays(1)));
+        assertThrows(BadRequestException.class,
+            () -> service.getAvailabilityCalendar(List.of(roomId), null, today, today));
+        assertThrows(BadRequestException.class,
+            () -> service.getAvailabilityCalendar(List.of(roomId), hotelId, today, today.plusDays(1)));
+        assertThrows(BadRequestException.class,
+            () -> service.getAvailabilityCalendar(List.of(roomId), null, today, today.plusDays(400)));
+        verify(availabilityRepository, never()).findCellsForRooms(any(), any(), any());
+    }
+
+    private RoomInventoryView inventoryView(UUID id, int totalRooms) {
+        RoomInventoryView view = mock(RoomInventoryView.class);
+        when(view.getRoomId()).thenReturn(id);
+        when(view.getTotalRooms()).thenReturn(totalRooms);
+        return view;
+    }
+
+    private AvailabilityCell cell(UUID id, LocalDate date, int availableRooms) {
+        AvailabilityCell cell = mock(AvailabilityCell.class);
+        when(cell.getRoomId()).thenReturn(id);
+        when(cell.getDate()).thenReturn(date);
+        when(cell.getAvailableRooms()).thenReturn(availableRooms);
+        return cell;
+    }
+
+    private void loadIndex(List<AvailabilityCell> rows) {
+        List<RoomInventoryView> rooms = List.of(inventoryView(roomId, 10));
+        when(roomRepository.findAllInventoryViews()).thenReturn(rooms);
+        when(availabilityRepository.findCellsBetween(any(), any())).thenReturn(rows);
+        service.reloadAvailabilityIndex();
+    }
+
+    @Test
+    void isRoomAvailableForRange_ShouldUseIndexOnceLoaded() {
+        List<AvailabilityCell> rows = List.of(cell(roomId, today.plusDays(1), 0));
+        loadIndex(rows);
+
+        assertFalse(service.isRoomAvailableForRange(roomId, today, today.plusDays(3)));
+        assertTrue(service.isRoomAvailableForRange(roomId, today.plusDays(2), today.plusDays(4)));
+        verify(availabilityRepository, never()).findByRoom_RoomIdAndDate(any(), any());
+    }
+
+    @Test
+    void getMinAvailableRooms_ShouldTreatMissingRowsAsTotalRooms() {
+        List<AvailabilityCell> rows = List.of(cell(roomId, today.plusDays(2), 4));
+        loadIndex(rows);
+
+        assertEquals(10, service.getMinAvailableRooms(roomId, today, today.plusDays(2)));
+        assertEquals(4, service.getMinAvailableRooms(roomId, today, today.plusDays(3)));
+    }
+
+    @Test
+    void updateInventory_ShouldKeepIndexInSync() {
+        loadIndex(List.of());
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+        when(availabilityRepository.takeRooms(roomId, today, today.plusDays(1), 10)).thenReturn(1);
+        List<AvailabilityCell> updated = List.of(cell(roomId, today, 0));
+        when(availabilityRepository.findCellsForRoom(roomId, today, today.plusDays(1))).thenReturn(updated);
+
+        service.updateInventory(roomId, new UpdateInventoryRequest(today, 10));
+
+        assertFalse(service.isRoomAvailable(roomId, today));
+        assertEquals(0, availabilityIndex.available(roomId, today));
+    }
+
+    @Test
+    void checkIndexConsistency_ShouldReportRowsChangedBehindTheIndex() {
+        loadIndex(List.of());
+        List<AvailabilityCell> changed = List.of(cell(roomId, today, 3));
+        when(availabilityRepository.findCellsBetween(any(), any())).thenReturn(changed);
+
+        AvailabilityIndexConsistencyResponse report = service.checkIndexConsistency();
+
+        assertFalse(report.isConsistent());
+        assertEquals(1, report.getMismatchCount());
+        assertEquals(10, report.getMismatches().get(0).getIndexValue());
+        assertEquals(3, report.getMismatches().get(0).getTableValue());
+    }
+
+    @Test
+    void placeHold_ShouldTakeTheRoomsAndScheduleTheirReturn() {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        LocalDate checkIn = LocalDate.of(2030, 1, 10);
+        PlaceHoldRequest request = new PlaceHoldRequest();
+        request.setCheckIn(checkIn);
+        request.setCheckOut(checkIn.plusDays(2));
+        request.setRooms(2);
+        when(clock.instant()).thenReturn(HOLD_NOW);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+        when(availabilityRepository.takeRooms(roomId, checkIn, checkIn.plusDays(2), 2)).thenReturn(2);
+        when(holdRepository.save(any(InventoryHold.class))).thenAnswer(invocation -> {
+            InventoryHold hold = invocation.getArgument(0);
+            hold.setHoldId(UUID.randomUUID());
+            return hold;
+        });
+
+        InventoryHoldResponse response;
+        try (MockedStatic<AuthUtil> authUtil = mockStatic(AuthUtil.class)) {
+            authUtil.when(AuthUtil::getCurrentUser).thenReturn(user);
+            response = service.placeHold(roomId, request);
+        }
+
+        assertEquals(HOLD_NOW.plus(Duration.ofMinutes(10)), response.getExpiresAt());
+        assertEquals(2, response.getRooms());
+        verify(holdRepository).save(argThat(hold -> user.getUserId().equals(hold.getUserId()) && hold.getRoomsHeld() == 2));
+        assertEquals(1, holdWheel.size());
+    }
+
+    @Test
+    void placeHold_ShouldRejectSoldOutStays() {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        LocalDate checkIn = LocalDate.of(2030, 1, 10);
+        PlaceHoldRequest request = new PlaceHoldRequest();
+        request.setCheckIn(checkIn);
+        request.setCheckOut(checkIn.plusDays(2));
+        request.setRooms(1);
+        when(clock.instant()).thenReturn(HOLD_NOW);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+        when(availabilityRepository.takeRooms(roomId, checkIn, checkIn.plusDays(2), 1)).thenReturn(1);
+
+        try (MockedStatic<AuthUtil> authUtil = mockStatic(AuthUtil.class)) {
+            authUtil.when(AuthUtil::getCurrentUser).thenReturn(user);
+            assertThrows(BadRequestException.class, () -> service.placeHold(roomId, request));
+        }
+
+        verify(holdRepository, never()).save(any());
+        assertEquals(0, holdWheel.size());
+    }
+
+    @Test
+    void placeHold_ShouldRejectAUserWithTooManyActiveHolds() {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        PlaceHoldRequest request = holdRequest(LocalDate.of(2030, 1, 10), 2, 1);
+        when(clock.instant()).thenReturn(HOLD_NOW);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+        when(holdRepository.countActiveHolds(user.getUserId(), HOLD_NOW)).thenReturn(5L);
+
+        try (MockedStatic<AuthUtil> authUtil = mockStatic(AuthUtil.class)) {
+            authUtil.when(AuthUtil::getCurrentUser).thenReturn(user);
+            assertThrows(BadRequestException.class, () -> service.placeHold(roomId, request));
+        }
+
+        // Counted behind the user's row lock, so that holds placed at once cannot all slip under the limit
+        InOrder inOrder = inOrder(holdRepository);
+        inOrder.verify(holdRepository).lockUser(user.getUserId());
+        inOrder.verify(holdRepository).countActiveHolds(user.getUserId(), HOLD_NOW);
+        verify(holdRepository, never()).save(any());
+        verifyNoInteractions(availabilityRepository);
+    }
+
+    @Test
+    void placeHold_ShouldRejectStaysLongerThanTheLimit() {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        PlaceHoldRequest request = holdRequest(LocalDate.of(2030, 1, 10), 31, 1);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(clock.instant()).thenReturn(HOLD_NOW);
+
+        try (MockedStatic<AuthUtil> authUtil = mockStatic(AuthUtil.class)) {
+            authUtil.when(AuthUtil::getCurrentUser).thenReturn(user);
+            assertThrows(BadRequestException.class, () -> service.placeHold(roomId, request));
+        }
+
+        verifyNoInteractions(roomRepository, holdRepository, availabilityRepository);
+    }
+
+    @Test
+    void placeHold_ShouldRejectMoreRoomsThanTheRoomTypeHas() {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        PlaceHoldRequest request = holdRequest(LocalDate.of(2030, 1, 10), 2, 11);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(clock.instant()).thenReturn(HOLD_NOW);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+
+        try (MockedStatic<AuthUtil> authUtil = mockStatic(AuthUtil.class)) {
+            authUtil.when(AuthUtil::getCurrentUser).thenReturn(user);
+            assertThrows(BadRequestException.class, () -> service.placeHold(roomId, request));
+        }
+
+        verifyNoInteractions(holdRepository, availabilityRepository);
+    }
+
+    private static PlaceHoldRequest holdRequest(LocalDate checkIn, int nights, int rooms) {
+        PlaceHoldRequest request = new PlaceHoldRequest();
+        request.setCheckIn(checkIn);
+        request.setCheckOut(checkIn.plusDays(nights));
+        request.setRooms(rooms);
+        return request;
+    }
+
+    @Test
+    void expireHolds_ShouldGiveBackTheRoomsOfExpiredHolds() {
+        InventoryHold hold = hold(UUID.randomUUID());
+        holdWheel.add(hold.getHoldId(), HOLD_NOW.minusSeconds(1));
+        when(clock.millis()).thenReturn(HOLD_NOW.toEpochMilli());
+        when(holdRepository.findById(hold.getHoldId())).thenReturn(Optional.of(hold));
+        when(holdRepository.deleteHold(hold.getHoldId())).thenReturn(1);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+
+        service.expireHolds();
+
+        verify(availabilityRepository).returnRooms(roomId, hold.getCheckIn(), hold.getCheckOut(), 2, 10);
+        assertEquals(0, holdWheel.size());
+    }
+
+    @Test
+    void expireHolds_ShouldNotGiveBackHoldsClaimedMeanwhile() {
+        InventoryHold hold = hold(UUID.randomUUID());
+        holdWheel.add(hold.getHoldId(), HOLD_NOW);
+        when(clock.millis()).thenReturn(HOLD_NOW.toEpochMilli());
+        when(holdRepository.findById(hold.getHoldId())).thenReturn(Optional.of(hold));
+        when(holdRepository.deleteHold(hold.getHoldId())).thenReturn(0);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+
+        service.expireHolds();
+
+        verify(availabilityRepository, never()).returnRooms(any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void claimHold_ShouldRemoveAMatchingHoldWithoutTouchingInventory() {
+        UUID userId = UUID.randomUUID();
+        InventoryHold hold = hold(userId);
+        holdWheel.add(hold.getHoldId(), HOLD_NOW.plusSeconds(600));
+        when(holdRepository.findById(hold.getHoldId())).thenReturn(Optional.of(hold));
+        when(holdRepository.deleteHold(hold.getHoldId())).thenReturn(1);
+
+        service.claimHold(hold.getHoldId(), userId, roomId, hold.getCheckIn(), hold.getCheckOut(), 2);
+
+        assertEquals(0, holdWheel.size());
+        verifyNoInteractions(availabilityRepository);
+    }
+
+    @Test
+    void claimHold_ShouldKeepTheHoldOnTheWheelWhenTheBookingRollsBack() {
+        UUID userId = UUID.randomUUID();
+        InventoryHold hold = hold(userId);
+        holdWheel.add(hold.getHoldId(), HOLD_NOW.plusSeconds(600));
+        when(holdRepository.findById(hold.getHoldId())).thenReturn(Optional.of(hold));
+        when(holdRepository.deleteHold(hold.getHoldId())).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.claimHold(hold.getHoldId(), userId, roomId, hold.getCheckIn(), hold.getCheckOut(), 2);
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync ->
+                sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // The rolled back delete left the hold in the table, so it still has to expire
+        assertEquals(1, holdWheel.size());
+    }
+
+    @Test
+    void claimHold_ShouldRejectABookingForAnotherStay() {
+        UUID userId = UUID.randomUUID();
+        InventoryHold hold = hold(userId);
+        when(holdRepository.findById(hold.getHoldId())).thenReturn(Optional.of(hold));
+
+        assertThrows(BadRequestException.class, () ->
+            service.claimHold(hold.getHoldId(), userId, roomId, hold.getCheckIn(), hold.getCheckOut().plusDays(1), 2));
+        verify(holdRepository, never()).deleteHold(any());
+    }
+
+    private OccupancyCell occupancyCell(long totalRooms, long availableRooms) {
+        OccupancyCell cell = mock(OccupancyCell.class);
+        lenient().when(cell.getTotalRooms()).thenReturn(totalRooms);
+        lenient().when(cell.getAvailableRooms()).thenReturn(availableRooms);
+        return cell;
+    }
+
+    private StayView stay(LocalDate checkIn, LocalDate checkOut, int rooms) {
+        StayView stay = mock(StayView.class);
+        when(stay.getCheckIn()).thenReturn(checkIn);
+        when(stay.getCheckOut()).thenReturn(checkOut);
+        when(stay.getRooms()).thenReturn(rooms);
+        return stay;
+    }
+
+    private InventoryHold hold(UUID userId) {
+        return InventoryHold.builder()
+            .holdId(UUID.randomUUID())
+            .roomId(roomId)
+            .userId(userId)
+            .checkIn(LocalDate.of(2030, 1, 10))
+            .checkOut(LocalDate.of(2030, 1, 12))
+            .roomsHeld(2)
+            .expiresAt(HOLD_NOW)
+            .build();
+    }
 }
@@ -3,7 +3,9 @@ package com.wissen.hotel.service;
 import com.wissen.hotel.dto.request.*;
 import com.wissen.hotel.dto.response.*;
 import com.wissen.hotel.enums.RoomType;
+import com.wissen.hotel.event.RoomChangedEvent;
 import com.wissen.hotel.exception.*;
+import com.wissen.hotel.index.RoomAvailabilityIndex;
 import com.wissen.hotel.model.*;
 import com.wissen.hotel.repository.*;
 import com.wissen.hotel.service.BookingService;
@@ -13,9 +15,11 @@ import com.wissen.hotel.service.RoomAmenityService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
@@ -41,6 +45,12 @@ class RoomServiceImplTest {
     private BookingService bookingService;
     @Mock
     private RoomAmenityService roomAmenityService;
+    @Mock
+    private RoomAvailabilityIndex availabilityIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private RoomAvailabilityService roomAvailabilityService;
 
     @InjectMocks
     private RoomServiceImpl roomService;
@@ -87,6 +97,8 @@ class RoomServiceImplTest {
         assertNotNull(response);
         assertEquals(RoomType.SINGLE, response.getRoomType()); // Updated expectation
         verify(roomRepository).save(any(Room.class));
+        verify(roomAvailabilityService).backfillRoom(null, 0);
+        verify(eventPublisher).publishEvent(any(RoomChangedEvent.class));
     }
 
     @Test
@@ -121,6 +133,31 @@ class RoomServiceImplTest {
         
         assertEquals(RoomType.SUITE, response.getRoomType());
         assertEquals(BigDecimal.valueOf(300.0), response.getBasePrice()); // Updated to use BigDecimal
+        verify(roomAvailabilityService).backfillRoom(roomId, 5);
+    }
+
+    @Test
+    void updateRoom_ShouldNotBackfillWhenTotalRoomsUnchanged() {
+        UpdateRoomRequest request = new UpdateRoomRequest(RoomType.SUITE, 3, BigDecimal.valueOf(300.0), 5);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(existingRoom));
+        when(roomRepository.save(any(Room.class))).thenReturn(existingRoom);
+
+        roomService.updateRoom(roomId, request);
+
+        verifyNoInteractions(roomAvailabilityService);
+    }
+
+    @Test
+    void updateRoom_ShouldStillSucceedWhenBackfillFails() {
+        UpdateRoomRequest request = new UpdateRoomRequest(RoomType.SUITE, 3, BigDecimal.valueOf(300.0), 8);
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(existingRoom));
+        when(roomRepository.save(any(Room.class))).thenReturn(existingRoom);
+        doThrow(new RuntimeException("db down")).when(roomAvailabilityService).backfillRoom(roomId, 5);
+
+        RoomResponse response = roomService.updateRoom(roomId, request);
+
+        assertEquals(8, response.getTotalRooms());
+        verify(eventPublisher).publishEvent(any(RoomChangedEvent.class));
     }
 
     @Test
@@ -271,6 +308,20 @@ void deleteRoom_ShouldDeleteWhenHotelApproved() {
     verify(roomRepository).delete(existingRoom);
 }
 
+@Test
+void deleteRoom_ShouldRemoveTheBackfilledNightsBeforeTheRoom() {
+    when(roomRepository.findById(roomId)).thenReturn(Optional.of(existingRoom));
+    when(roomRepository.save(any(Room.class))).thenReturn(existingRoom);
+    roomService.updateRoom(roomId, new UpdateRoomRequest(RoomType.SINGLE, 2, BigDecimal.valueOf(100.0), 7));
+
+    roomService.deleteRoom(roomId);
+
+    InOrder inOrder = inOrder(roomAvailabilityService, roomRepository);
+    inOrder.verify(roomAvailabilityService).backfillRoom(roomId, 5);
+    inOrder.verify(roomAvailabilityService).deleteRoomInventory(roomId);
+    inOrder.verify(roomRepository).delete(existingRoom);
+}
+
 @Test
 void deleteRoom_ShouldThrowWhenRoomNotFound() {
     when(roomRepository.findById(roomId)).thenReturn(Optional.empty());
@@ -2,6 +2,7 @@ package com.wissen.hotel.service;
 
 import com.wissen.hotel.dto.request.UpdateUserRequest;
 import com.wissen.hotel.dto.request.UpdateUserRoleRequest;
+import com.wissen.hotel.dto.response.CursorPage;
 import com.wissen.hotel.dto.response.UserResponse;
 import com.wissen.hotel.enums.UserRole;
 import com.wissen.hotel.dto.response.BookingResponse;
@@ -22,9 +23,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.mockito.MockedStatic;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -199,25 +202,45 @@ class UserServiceImplTest {
         User user1 = new User();
         user1.setUserId(UUID.randomUUID());
         user1.setEmail("user1@example.com");
+        user1.setCreatedAt(LocalDateTime.of(2024, 5, 2, 10, 0));
 
         User user2 = new User();
         user2.setUserId(UUID.randomUUID());
         user2.setEmail("user2@example.com");
+        user2.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 0));
 
-        when(userRepository.findAll()).thenReturn(List.of(user1, user2));
+        when(userRepository.findNewest(PageRequest.of(0, 11))).thenReturn(List.of(user1, user2));
 
-        List<UserResponse> result = userService.getAllUsers(0, 10);
+        CursorPage<UserResponse> result = userService.getAllUsers(null, 10);
 
-        assertEquals(2, result.size());
-        verify(userRepository).findAll();
+        assertEquals(2, result.getContent().size());
+        assertFalse(result.isHasNext());
+        verify(userRepository).findNewest(PageRequest.of(0, 11));
+    }
+
+    @Test
+    void getAllUsers_ShouldReadTheNextPageAfterTheCursor() {
+        User newest = new User();
+        newest.setUserId(UUID.randomUUID());
+        newest.setCreatedAt(LocalDateTime.of(2024, 5, 2, 10, 0, 0, 123_456_000));
+        User older = new User();
+        older.setUserId(UUID.randomUUID());
+        older.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 0));
+        when(userRepository.findNewest(PageRequest.of(0, 2))).thenReturn(List.of(newest, older));
+
+        CursorPage<UserResponse> first = userService.getAllUsers(null, 1);
+        userService.getAllUsers(first.getNextCursor(), 1);
+
+        assertTrue(first.isHasNext());
+        verify(userRepository).findBefore(newest.getCreatedAt(), newest.getUserId(), PageRequest.of(0, 2));
     }
 
     @Test
     void getAllUsers_ShouldThrowWhenRepositoryFails() {
-        when(userRepository.findAll()).thenThrow(new DataAccessException("DB error") {});
+        when(userRepository.findNewest(any())).thenThrow(new DataAccessException("DB error") {});
 
         UserServiceException ex = assertThrows(UserServiceException.class,
-            () -> userService.getAllUsers(0, 10));
+            () -> userService.getAllUsers(null, 10));
 
         assertTrue(ex.getMessage().contains("Unable to fetch users"));
     }